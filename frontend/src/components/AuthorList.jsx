@@ -2,6 +2,7 @@ import React, { useState, useEffect } from 'react';
 import {Table, Button, Space, Modal, Form, Input, Select, message, Spin, Tag} from 'antd';
 import { PlusOutlined, EditOutlined, DeleteOutlined } from '@ant-design/icons';
 import axios from 'axios';
+import fetchAll from '../fetchAll';
 
 const { Column } = Table;
 const { Option } = Select;
@@ -23,8 +24,8 @@ const AuthorList = () => {
     const fetchAuthors = async () => {
         setLoading(true);
         try {
-            const response = await axios.get(`${process.env.REACT_APP_API_URL}/authors`);
-            setAuthors(response.data);
+            const authors = await fetchAll('/authors');
+            setAuthors(authors);
         } catch (error) {
             message.error('Не удалось загрузить авторов');
         } finally {
@@ -35,8 +36,8 @@ const AuthorList = () => {
     const fetchBooks = async () => {
         setLoading(true);
         try {
-            const response = await axios.get(`${process.env.REACT_APP_API_URL}/books`);
-            setBooks(response.data);
+            const books = await fetchAll('/books');
+            setBooks(books);
         } catch (error) {
             message.error('Не удалось загрузить книги');
         } finally {
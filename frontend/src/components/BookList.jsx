@@ -2,6 +2,7 @@ import React, { useState, useEffect } from 'react';
 import {Table, Button, Space, Modal, Form, Input, Select, Tag, message, Spin, InputNumber} from 'antd';
 import { PlusOutlined, EditOutlined, DeleteOutlined } from '@ant-design/icons';
 import axios from 'axios';
+import fetchAll from '../fetchAll';
 import {Link} from "react-router-dom";
 import 'antd/dist/reset.css';
 
@@ -27,8 +28,8 @@ const BookList = () => {
     const fetchBooks = async () => {
         setLoading(true);
         try {
-            const response = await axios.get(`${process.env.REACT_APP_API_URL}/books`);
-            setBooks(response.data.map(book => ({
+            const books = await fetchAll('/books');
+            setBooks(books.map(book => ({
                 ...book,
                 authors: Array.isArray(book.authors) ? book.authors : [],
                 categories: Array.isArray(book.categories) ? book.categories : [],
@@ -43,8 +44,8 @@ const BookList = () => {
     const fetchAuthors = async () => {
         setLoading(true);
         try {
-            const response = await axios.get(`${process.env.REACT_APP_API_URL}/authors`);
-            setAuthors(response.data);
+            const authors = await fetchAll('/authors');
+            setAuthors(authors);
         } catch (error) {
             message.error('Не удалось загрузить авторов');
         } finally {
@@ -55,8 +56,8 @@ const BookList = () => {
     const fetchCategories = async () => {
         setLoading(true);
         try {
-            const response = await axios.get(`${process.env.REACT_APP_API_URL}/categories`);
-            setCategories(response.data);
+            const categories = await fetchAll('/categories');
+            setCategories(categories);
         } catch (error) {
             message.error('Не удалось загрузить жанры');
         } finally {
@@ -217,7 +218,7 @@ const BookList = () => {
                         title="Отзывы"
                         key="reviews"
                         render={(_, book) => {
-                            const count = Array.isArray(book.reviews) ? book.reviews.length : 0;
+                            const count = book.reviewSummary?.count ?? 0;
                             return (
                                 <Link to={`/books/${book.id}/reviews`}>
                                     {count}
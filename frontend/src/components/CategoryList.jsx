@@ -2,6 +2,7 @@ import React, { useState, useEffect } from 'react';
 import {Table, Button, Space, Modal, Form, Input, message, Spin} from 'antd';
 import { PlusOutlined, EditOutlined, DeleteOutlined } from '@ant-design/icons';
 import axios from 'axios';
+import fetchAll from '../fetchAll';
 
 const { Column } = Table;
 
@@ -22,8 +23,8 @@ const CategoryList = () => {
     const fetchCategories = async () => {
         setLoading(true);
         try {
-            const response = await axios.get(`${process.env.REACT_APP_API_URL}/categories`);
-            setCategories(response.data);
+            const categories = await fetchAll('/categories');
+            setCategories(categories);
         } catch (error) {
             message.error('Не удалось загрузить жанры');
         } finally {
@@ -34,8 +35,8 @@ const CategoryList = () => {
     const fetchBooks = async () => {
         setLoading(true);
         try {
-            const response = await axios.get(`${process.env.REACT_APP_API_URL}/books`);
-            setBooks(response.data);
+            const books = await fetchAll('/books');
+            setBooks(books);
         } catch (error) {
             message.error('Не удалось загрузить книги');
         } finally {
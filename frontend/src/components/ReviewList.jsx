@@ -2,6 +2,7 @@ import React, { useState, useEffect } from 'react';
 import {Table, Button, Space, Modal, Form, Input, message, Spin, InputNumber} from 'antd';
 import { PlusOutlined, EditOutlined, DeleteOutlined } from '@ant-design/icons';
 import axios from 'axios';
+import fetchAll from '../fetchAll';
 import {useParams} from "react-router-dom";
 
 const { Column } = Table;
@@ -34,9 +35,8 @@ const ReviewList = () => {
     const fetchReviews = async () => {
         setLoading(true);
         try {
-            const response = await axios
-                .get(`${process.env.REACT_APP_API_URL}/books/${bookId}/reviews`);
-            setReviews(response.data);
+            const reviews = await fetchAll(`/books/${bookId}/reviews`);
+            setReviews(reviews);
         } catch (error) {
             message.error('Не удалось загрузить отзывы');
         } finally {
@@ -47,8 +47,8 @@ const ReviewList = () => {
     const fetchBooks = async () => {
         setLoading(true);
         try {
-            const response = await axios.get(`${process.env.REACT_APP_API_URL}/books`);
-            setBooks(response.data);
+            const books = await fetchAll('/books');
+            setBooks(books);
         } catch (error) {
             message.error('Не удалось загрузить книги');
         } finally {
@@ -59,8 +59,8 @@ const ReviewList = () => {
     const fetchUsers = async () => {
         setLoading(true);
         try {
-            const response = await axios.get(`${process.env.REACT_APP_API_URL}/users`);
-            setUsers(response.data);
+            const users = await fetchAll('/users');
+            setUsers(users);
         } catch (error) {
             message.error('Не удалось загрузить пользователей');
         } finally {
@@ -2,6 +2,7 @@ import React, { useState, useEffect } from 'react';
 import {Table, Button, Space, Modal, Form, Input, message, Spin} from 'antd';
 import {EditOutlined, DeleteOutlined, UserOutlined, MailOutlined, LockOutlined} from '@ant-design/icons';
 import axios from 'axios';
+import fetchAll from '../fetchAll';
 import Column from "antd/es/table/Column";
 
 const UserList = ({ currentUser, onUserUpdate }) => {
@@ -18,8 +19,8 @@ const UserList = ({ currentUser, onUserUpdate }) => {
     const fetchUsers = async () => {
         setLoading(true);
         try {
-            const response = await axios.get(`${process.env.REACT_APP_API_URL}/users`);
-            setUsers(response.data);
+            const users = await fetchAll('/users');
+            setUsers(users);
         } catch (error) {
             message.error('Не удалось загрузить пользователей');
         } finally {
@@ -0,0 +1,18 @@
+import axios from 'axios';
+
+// List endpoints return one page at a time as { items, nextCursor }; this
+// follows nextCursor until the last page and returns the items of all pages.
+const fetchAll = async (path) => {
+    const items = [];
+    let after = null;
+    do {
+        const response = await axios.get(`${process.env.REACT_APP_API_URL}${path}`, {
+            params: after == null ? { limit: 100 } : { limit: 100, after },
+        });
+        items.push(...response.data.items);
+        after = response.data.nextCursor;
+    } while (after != null);
+    return items;
+};
+
+export default fetchAll;
@@ -0,0 +1,99 @@
+package library.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import library.dto.get.AuthorGetDto;
+import library.dto.get.BookGetDto;
+import library.dto.get.CategoryGetDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.unit.DataSize;
+
+// Book reads over a working set of cached DTO graphs, with every entry on
+// the heap against a heap tier a tenth of the set over the off-heap tier.
+// Run with -prof gc to compare GC time and allocation alongside latency.
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = {"-Xms512m", "-Xmx512m"})
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(4)
+public class CacheTierBenchmark {
+    @Param({"heap", "tiered"})
+    public String tiers;
+    @Param("50000")
+    public int books;
+
+    private InMemoryCache cache;
+
+    @Setup
+    public void setUp() {
+        CacheProperties properties = new CacheProperties();
+        properties.setMaximumWeight(DataSize.ofGigabytes(1));
+        if ("heap".equals(tiers)) {
+            properties.setMaximumSize(books);
+        } else {
+            properties.setMaximumSize(books / 10);
+            properties.setOffHeapCapacity(DataSize.ofMegabytes(256));
+        }
+        cache = new InMemoryCache(properties);
+        for (long id = 0; id < books; id++) {
+            cache.put(CacheKey.bookById(id), book(id), Set.of(CacheTag.book(id)));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        cache.shutdown();
+    }
+
+    // A miss stands for the database load the tiers are there to avoid.
+    @Benchmark
+    public BookGetDto getBook() {
+        long id = ThreadLocalRandom.current().nextLong(books);
+        return cache.getOrLoad(CacheKey.bookById(id), () -> book(id),
+                book -> Set.of(CacheTag.book(id)));
+    }
+
+    private static BookGetDto book(long id) {
+        AuthorGetDto author = new AuthorGetDto();
+        author.setId(id % 1000);
+        author.setName("Автор " + id % 1000);
+        author.setInfo("Биография автора " + id % 1000);
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            names.add("Книга " + (id + i));
+        }
+        author.setBooks(names);
+
+        CategoryGetDto category = new CategoryGetDto();
+        category.setId(id % 20);
+        category.setName("Категория " + id % 20);
+        category.setCount(1000);
+
+        BookGetDto book = new BookGetDto();
+        book.setId(id);
+        book.setName("Книга " + id);
+        book.setPageAmount(300);
+        book.setYear(1900 + (int) (id % 120));
+        book.setRating(4.0);
+        book.setAuthors(Set.of(author));
+        book.setCategories(Set.of(category));
+        return book;
+    }
+}
@@ -0,0 +1,166 @@
+package library.mapper;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import library.dto.BookFields;
+import library.dto.get.BookGetDto;
+import library.dto.projection.AuthorBookRow;
+import library.dto.projection.AuthorRow;
+import library.dto.projection.BookRow;
+import library.dto.projection.CategoryRow;
+import library.dto.projection.ReviewStatsRow;
+import library.model.Author;
+import library.model.Book;
+import library.model.Category;
+import library.model.Review;
+import library.model.User;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// A page of books from what the database returns to the BookGetDto graph,
+// without the database. The entity path resolves every row of the
+// fetch-joined product into entities, loads the book collection of each
+// author and category as the lazy proxies did, and copies the graph with
+// BookMapper. The projection path assembles the flat rows of
+// BookQueryService with BookRowMapper.
+//
+// The rows counter divided by the score gives the rows each path receives
+// per page; -prof gc gives the bytes allocated per page.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class BookReadBenchmark {
+    @Param("20")
+    public int books;
+    @Param("2")
+    public int authors;
+    @Param("3")
+    public int categories;
+    @Param("10")
+    public int reviews;
+    // Books of each author and category, all read to build their DTOs.
+    @Param("20")
+    public int linkedBooks;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Rows {
+        public long rows;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            rows = 0;
+        }
+    }
+
+    @Benchmark
+    public List<BookGetDto> entities(Rows rows) {
+        Map<Long, Book> bookById = new HashMap<>();
+        Map<Long, Author> authorById = new HashMap<>();
+        Map<Long, Category> categoryById = new HashMap<>();
+        Map<Long, Review> reviewById = new HashMap<>();
+        List<Book> page = new ArrayList<>();
+        for (long b = 0; b < books; b++) {
+            Book book = new Book(b, "Книга " + b, new HashSet<>(), new HashSet<>(), 300,
+                    new ArrayList<>(), 2000, 4.0, 0L, 0);
+            for (int a = 0; a < authors; a++) {
+                for (int c = 0; c < categories; c++) {
+                    for (int r = 0; r < reviews; r++) {
+                        rows.rows++;
+                        bookById.putIfAbsent(b, book);
+                        book.getAuthors().add(authorById.computeIfAbsent(authorId(b, a),
+                                id -> new Author(id, "Автор " + id, "Биография", null)));
+                        book.getCategories().add(categoryById.computeIfAbsent((long) c,
+                                id -> new Category(id, "Категория " + id, null)));
+                        long reviewId = b * reviews + r;
+                        if (!reviewById.containsKey(reviewId)) {
+                            User user = new User(reviewId, "Читатель " + reviewId, "password",
+                                    "reader" + reviewId + "@gmail.com", null);
+                            Review review = new Review(reviewId, book, user, 1 + r % 5,
+                                    "Отзыв " + reviewId);
+                            reviewById.put(reviewId, review);
+                            book.getReviews().add(review);
+                        }
+                    }
+                }
+            }
+            page.add(book);
+        }
+        for (Author author : authorById.values()) {
+            author.setBooks(linkedBooks(author.getId(), rows));
+        }
+        for (Category category : categoryById.values()) {
+            category.setBooks(linkedBooks(category.getId(), rows));
+        }
+
+        List<BookGetDto> result = new ArrayList<>(page.size());
+        for (Book book : page) {
+            result.add(BookMapper.toDto(book));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<BookGetDto> projections(Rows rows) {
+        List<BookRow> bookRows = new ArrayList<>();
+        List<AuthorRow> authorRows = new ArrayList<>();
+        List<AuthorBookRow> authorBooks = new ArrayList<>();
+        List<CategoryRow> categoryRows = new ArrayList<>();
+        List<ReviewStatsRow> reviewStats = new ArrayList<>();
+        for (long b = 0; b < books; b++) {
+            bookRows.add(new BookRow(b, "Книга " + b, 300, 2000, 4.0));
+            for (int a = 0; a < authors; a++) {
+                long id = authorId(b, a);
+                authorRows.add(new AuthorRow(b, id, "Автор " + id, "Биография"));
+                for (int k = 0; k < linkedBooks; k++) {
+                    authorBooks.add(new AuthorBookRow(id, "Книга " + (id * linkedBooks + k)));
+                }
+            }
+            for (long c = 0; c < categories; c++) {
+                categoryRows.add(new CategoryRow(b, c, "Категория " + c, linkedBooks));
+            }
+            for (int rating = 1; rating <= Math.min(reviews, 5); rating++) {
+                reviewStats.add(new ReviewStatsRow(b, rating, (long) reviews / 5));
+            }
+        }
+        rows.rows += bookRows.size() + authorRows.size() + authorBooks.size()
+                + categoryRows.size() + reviewStats.size();
+        return BookRowMapper.toDtos(BookFields.DEFAULT, bookRows, authorRows, authorBooks,
+                categoryRows, reviewStats);
+    }
+
+    private Set<Book> linkedBooks(long ownerId, Rows rows) {
+        Set<Book> linked = new HashSet<>();
+        for (int k = 0; k < linkedBooks; k++) {
+            rows.rows++;
+            Book book = new Book();
+            book.setId(ownerId * linkedBooks + k);
+            book.setName("Книга " + book.getId());
+            linked.add(book);
+        }
+        return linked;
+    }
+
+    private long authorId(long bookId, int index) {
+        return bookId * authors + index;
+    }
+}
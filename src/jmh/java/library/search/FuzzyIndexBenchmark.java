@@ -0,0 +1,81 @@
+package library.search;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Typo-tolerant lookups over generated Cyrillic titles of two to four
+// words, each query a known title with one or two random letters changed.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class FuzzyIndexBenchmark {
+    private static final String LETTERS = "абвгдеёжзийклмнопрстуфхцчшщъыьэюя";
+    private static final int QUERIES = 1024;
+
+    @Param("1000000")
+    public int titles;
+
+    private FuzzyIndex index;
+    private String[] queries;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        index = new FuzzyIndex();
+        String[] names = new String[titles];
+        for (int i = 0; i < titles; i++) {
+            names[i] = title(random);
+            index.put(i, List.of(names[i]));
+        }
+        queries = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            queries[i] = misspell(names[random.nextInt(titles)], 1 + random.nextInt(2), random);
+        }
+    }
+
+    @Benchmark
+    public List<Long> search() {
+        String query = queries[next++ & (QUERIES - 1)];
+        return index.search(query, 2, 10);
+    }
+
+    private static String title(Random random) {
+        StringBuilder title = new StringBuilder();
+        for (int words = 2 + random.nextInt(3); words > 0; words--) {
+            if (!title.isEmpty()) {
+                title.append(' ');
+            }
+            for (int length = 3 + random.nextInt(7); length > 0; length--) {
+                title.append(LETTERS.charAt(random.nextInt(LETTERS.length())));
+            }
+        }
+        return title.toString();
+    }
+
+    private static String misspell(String title, int typos, Random random) {
+        char[] letters = title.toCharArray();
+        for (int i = 0; i < typos; i++) {
+            int at = random.nextInt(letters.length);
+            if (letters[at] != ' ') {
+                letters[at] = LETTERS.charAt(random.nextInt(LETTERS.length()));
+            }
+        }
+        return new String(letters);
+    }
+}
@@ -0,0 +1,73 @@
+package library.cache;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+
+// Serializes cached DTOs, single or in a list, for the off-heap tier. The
+// element type is written ahead of the JSON so it can be read back without
+// knowing the key.
+final class CacheCodec {
+    private static final String DTO_PACKAGE = "library.dto";
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private CacheCodec() {
+    }
+
+    static boolean supports(Object value) {
+        if (value instanceof List<?> list) {
+            if (list.isEmpty() || list.get(0) == null) {
+                return false;
+            }
+            Class<?> type = list.get(0).getClass();
+            return isDto(type) && list.stream().allMatch(e -> e != null && e.getClass() == type);
+        }
+        return value != null && isDto(value.getClass());
+    }
+
+    static byte[] encode(Object value) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            boolean list = value instanceof List<?>;
+            Class<?> type = list ? ((List<?>) value).get(0).getClass() : value.getClass();
+            out.writeBoolean(list);
+            out.writeUTF(type.getName());
+            MAPPER.writeValue((OutputStream) out, value);
+        }
+        return bytes.toByteArray();
+    }
+
+    static Object decode(byte[] data) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            boolean list = in.readBoolean();
+            String name = in.readUTF();
+            // Checked by name first, so a corrupted or foreign snapshot cannot
+            // get a class outside the DTOs loaded, let alone initialized.
+            if (!isDto(name)) {
+                throw new IOException("Unexpected cached type: " + name);
+            }
+            Class<?> type = Class.forName(name, false, CacheCodec.class.getClassLoader());
+            JavaType javaType = list
+                    ? MAPPER.getTypeFactory().constructCollectionType(List.class, type)
+                    : MAPPER.getTypeFactory().constructType(type);
+            return MAPPER.readValue((InputStream) in, javaType);
+        } catch (ClassNotFoundException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private static boolean isDto(Class<?> type) {
+        return isDto(type.getName());
+    }
+
+    private static boolean isDto(String className) {
+        return className.startsWith(DTO_PACKAGE + ".");
+    }
+}
@@ -0,0 +1,107 @@
+package library.cache;
+
+import java.text.Normalizer;
+import java.util.Locale;
+
+// A cache key is a lookup type plus its argument. Name arguments are
+// normalized, so every spelling of the same query shares one entry, and
+// the hash is computed once because keys are probed on every lookup.
+public final class CacheKey {
+    public enum Type {
+        BOOK_BY_ID("book_by_id_"),
+        BOOKS_BY_NAME("books_by_name_"),
+        BOOKS_BY_AUTHOR("books_by_author_"),
+        BOOKS_BY_CATEGORY("books_by_category_"),
+        BOOKS_SEARCH("books_search_");
+
+        private final String family;
+
+        Type(String family) {
+            this.family = family;
+        }
+
+        public String family() {
+            return family;
+        }
+    }
+
+    private final Type type;
+    private final Object argument;
+    private final int hash;
+
+    private CacheKey(Type type, Object argument) {
+        this.type = type;
+        this.argument = argument;
+        this.hash = 31 * type.hashCode() + argument.hashCode();
+    }
+
+    // Goes through the factory of the type, so search criteria, whose case
+    // is significant, are not folded like names.
+    public static CacheKey of(Type type, Object argument) {
+        return switch (type) {
+            case BOOK_BY_ID -> bookById((Long) argument);
+            case BOOKS_BY_NAME -> booksByName((String) argument);
+            case BOOKS_BY_AUTHOR -> booksByAuthor((String) argument);
+            case BOOKS_BY_CATEGORY -> booksByCategory((String) argument);
+            case BOOKS_SEARCH -> booksSearch((String) argument);
+        };
+    }
+
+    public static CacheKey bookById(Long id) {
+        return new CacheKey(Type.BOOK_BY_ID, id);
+    }
+
+    public static CacheKey booksByName(String name) {
+        return new CacheKey(Type.BOOKS_BY_NAME, normalize(name));
+    }
+
+    public static CacheKey booksByAuthor(String name) {
+        return new CacheKey(Type.BOOKS_BY_AUTHOR, normalize(name));
+    }
+
+    public static CacheKey booksByCategory(String name) {
+        return new CacheKey(Type.BOOKS_BY_CATEGORY, normalize(name));
+    }
+
+    // The argument is the canonical text of the criteria and already
+    // normalized.
+    public static CacheKey booksSearch(String criteria) {
+        return new CacheKey(Type.BOOKS_SEARCH, criteria);
+    }
+
+    // Unicode NFC, surrounding whitespace stripped and case folded. Each step
+    // returns its input unchanged when there is nothing to do, so an already
+    // normalized name is not copied.
+    public static String normalize(String name) {
+        String normalized = Normalizer.isNormalized(name, Normalizer.Form.NFC)
+                ? name : Normalizer.normalize(name, Normalizer.Form.NFC);
+        return normalized.strip().toLowerCase(Locale.ROOT);
+    }
+
+    public Type type() {
+        return type;
+    }
+
+    public Object argument() {
+        return argument;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof CacheKey other && hash == other.hash
+                && type == other.type && argument.equals(other.argument);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return type.family + argument;
+    }
+}
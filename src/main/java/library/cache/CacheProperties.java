@@ -0,0 +1,42 @@
+package library.cache;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "library.cache")
+public class CacheProperties {
+    private int maximumSize = 1000;
+    // Budget for the estimated retained size of all entries.
+    private DataSize maximumWeight = DataSize.ofMegabytes(64);
+    private Duration negativeTtl = Duration.ofSeconds(30);
+    // Time to live per key family, matched by the longest key prefix.
+    private Map<String, Duration> expiry = new HashMap<>();
+    // Share of the time to live after which a read triggers a background reload.
+    private double refreshAhead = 0.8;
+    // How long past expiry a value may still be served while it is reloaded.
+    private Duration staleTtl = Duration.ofMinutes(5);
+    // How long a reader of an expired entry waits for the reload before
+    // falling back to the stale value.
+    private Duration loadTimeout = Duration.ofMillis(200);
+    private int refreshThreads = 2;
+    // Serialized second tier for entries evicted from the heap; zero turns it off.
+    // Opt-in: its slabs are direct memory, which defaults to the heap size
+    // (-Xmx), so raise -XX:MaxDirectMemorySize along with it.
+    private DataSize offHeapCapacity = DataSize.ofBytes(0);
+    private DataSize offHeapSlabSize = DataSize.ofMegabytes(4);
+    // Hot entries are written here on shutdown and restored on startup; blank
+    // turns warm restarts off. Deployments set an absolute path, as a relative
+    // one lands wherever the process was started.
+    private String snapshotPath = "";
+    private Duration snapshotMaxAge = Duration.ofHours(1);
+    private Duration warmUpTimeout = Duration.ofSeconds(10);
+}
@@ -0,0 +1,132 @@
+package library.cache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// On-disk format of the warm-restart snapshot: a header with the time it
+// was written, then one record per entry, hottest first, holding the key
+// type and argument, its tags, its sketch frequency, the time to live it
+// had left and the serialized value.
+final class CacheSnapshot {
+    private static final int MAGIC = 0x4C43_5332;
+    private static final byte LONG_VALUE = 0;
+    private static final byte STRING_VALUE = 1;
+
+    private CacheSnapshot() {
+    }
+
+    record Entry(CacheKey key, Set<CacheTag> tags, int frequency, long remainingNanos,
+                 byte[] data) {
+    }
+
+    record Contents(long savedAtMillis, List<Entry> entries) {
+    }
+
+    // Written next to the target and moved over it, so a crash mid-write
+    // never leaves a truncated snapshot behind.
+    static void write(Path path, long savedAtMillis, List<Entry> entries) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeLong(savedAtMillis);
+            out.writeInt(entries.size());
+            for (Entry entry : entries) {
+                out.writeUTF(entry.key().type().name());
+                writeArgument(out, entry.key().argument());
+                out.writeInt(entry.tags().size());
+                for (CacheTag tag : entry.tags()) {
+                    writeTag(out, tag);
+                }
+                out.writeInt(entry.frequency());
+                out.writeLong(entry.remainingNanos());
+                out.writeInt(entry.data().length);
+                out.write(entry.data());
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    static Contents read(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a cache snapshot: " + path);
+            }
+            long savedAtMillis = in.readLong();
+            int count = in.readInt();
+            List<Entry> entries = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                CacheKey key = readKey(in);
+                int tagCount = in.readInt();
+                Set<CacheTag> tags = new HashSet<>();
+                for (int j = 0; j < tagCount; j++) {
+                    tags.add(readTag(in));
+                }
+                int frequency = in.readInt();
+                long remainingNanos = in.readLong();
+                byte[] data = new byte[in.readInt()];
+                in.readFully(data);
+                entries.add(new Entry(key, Set.copyOf(tags), frequency, remainingNanos, data));
+            }
+            return new Contents(savedAtMillis, entries);
+        }
+    }
+
+    private static CacheKey readKey(DataInputStream in) throws IOException {
+        CacheKey.Type type = readType(CacheKey.Type.class, in);
+        try {
+            return CacheKey.of(type, readArgument(in));
+        } catch (ClassCastException e) {
+            throw new IOException("Wrong argument for " + type, e);
+        }
+    }
+
+    private static void writeTag(DataOutputStream out, CacheTag tag) throws IOException {
+        out.writeUTF(tag.type().name());
+        writeArgument(out, tag.value());
+    }
+
+    private static CacheTag readTag(DataInputStream in) throws IOException {
+        return new CacheTag(readType(CacheTag.Type.class, in), readArgument(in));
+    }
+
+    private static void writeArgument(DataOutputStream out, Object argument) throws IOException {
+        if (argument instanceof Long id) {
+            out.writeByte(LONG_VALUE);
+            out.writeLong(id);
+        } else {
+            out.writeByte(STRING_VALUE);
+            out.writeUTF(String.valueOf(argument));
+        }
+    }
+
+    private static Object readArgument(DataInputStream in) throws IOException {
+        return in.readByte() == LONG_VALUE ? (Object) in.readLong() : in.readUTF();
+    }
+
+    private static <E extends Enum<E>> E readType(Class<E> type, DataInputStream in)
+            throws IOException {
+        try {
+            return Enum.valueOf(type, in.readUTF());
+        } catch (IllegalArgumentException e) {
+            throw new IOException(e);
+        }
+    }
+}
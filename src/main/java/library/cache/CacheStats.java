@@ -0,0 +1,21 @@
+package library.cache;
+
+import java.util.Map;
+
+public record CacheStats(long hits,
+                         long misses,
+                         double hitRate,
+                         long loadSuccesses,
+                         long loadFailures,
+                         double averageLoadMillis,
+                         long admissionRejections,
+                         Map<RemovalCause, Long> evictions,
+                         int size,
+                         Map<String, Integer> sizeByFamily,
+                         long estimatedBytes,
+                         Map<String, Long> estimatedBytesByFamily,
+                         long demotions,
+                         long promotions,
+                         int offHeapSize,
+                         long offHeapBytes) {
+}
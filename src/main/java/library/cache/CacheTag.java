@@ -0,0 +1,49 @@
+package library.cache;
+
+public record CacheTag(Type type, Object value) {
+    public enum Type {
+        BOOK,
+        AUTHOR,
+        CATEGORY,
+        BOOK_NAME,
+        AUTHOR_NAME,
+        CATEGORY_NAME,
+        BOOK_SEARCH
+    }
+
+    public static CacheTag book(Long id) {
+        return new CacheTag(Type.BOOK, id);
+    }
+
+    public static CacheTag author(Long id) {
+        return new CacheTag(Type.AUTHOR, id);
+    }
+
+    public static CacheTag category(Long id) {
+        return new CacheTag(Type.CATEGORY, id);
+    }
+
+    public static CacheTag bookName(String name) {
+        return new CacheTag(Type.BOOK_NAME, normalize(name));
+    }
+
+    public static CacheTag authorName(String name) {
+        return new CacheTag(Type.AUTHOR_NAME, normalize(name));
+    }
+
+    public static CacheTag categoryName(String name) {
+        return new CacheTag(Type.CATEGORY_NAME, normalize(name));
+    }
+
+    // Shared by every cached search: any book write can change which books
+    // match, so it invalidates them all.
+    public static CacheTag bookSearch() {
+        return new CacheTag(Type.BOOK_SEARCH, "");
+    }
+
+    // Name tags are normalized like cache keys, so a write under one spelling
+    // reaches lookups made under another.
+    private static String normalize(String name) {
+        return name == null ? null : CacheKey.normalize(name);
+    }
+}
@@ -0,0 +1,185 @@
+package library.cache;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import library.dto.get.AuthorGetDto;
+import library.dto.get.BookGetDto;
+import library.dto.get.BookPageGetDto;
+import library.dto.get.CategoryGetDto;
+import library.dto.get.PageGetDto;
+import library.dto.get.ReviewGetDto;
+import library.dto.get.ReviewSummaryGetDto;
+import library.dto.get.UserGetDto;
+
+// Estimates the retained size of a cached value on a 64-bit JVM with
+// compressed references: 12-byte headers, 4-byte references, 8-byte
+// alignment. Shared sub-objects are counted once per reference, which
+// overestimates slightly and keeps the walk allocation-free.
+final class CacheWeigher {
+    private static final int HEADER = 12;
+    private static final int REFERENCE = 4;
+    private static final long BOXED = 16;
+    // ConcurrentHashMap node, LinkedHashMap entry and the cache Node itself.
+    private static final long ENTRY_OVERHEAD = 32 + 40 + 48;
+    // CacheTag record, its boxed id and the reverse index slot.
+    private static final long TAG_OVERHEAD = 24 + BOXED + 32;
+    private static final long KEY_OVERHEAD = 24;
+
+    private CacheWeigher() {
+    }
+
+    static long weigh(CacheKey key, Object value, int tagCount) {
+        return ENTRY_OVERHEAD + KEY_OVERHEAD + weighValue(key.argument())
+                + tagCount * TAG_OVERHEAD + weighValue(value);
+    }
+
+    static long weighValue(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof BookGetDto book) {
+            return weighBook(book);
+        }
+        if (value instanceof AuthorGetDto author) {
+            return weighAuthor(author);
+        }
+        if (value instanceof CategoryGetDto category) {
+            return weighCategory(category);
+        }
+        if (value instanceof ReviewGetDto review) {
+            return weighReview(review);
+        }
+        if (value instanceof UserGetDto user) {
+            return weighUser(user);
+        }
+        if (value instanceof BookPageGetDto page) {
+            return align(HEADER + 2 * REFERENCE) + boxed(page.getNextOffset())
+                    + weighValue(page.getItems());
+        }
+        if (value instanceof PageGetDto<?> page) {
+            return align(HEADER + 2 * REFERENCE) + boxed(page.getNextCursor())
+                    + weighValue(page.getItems());
+        }
+        if (value instanceof String string) {
+            return weighString(string);
+        }
+        if (value instanceof Number || value instanceof Boolean) {
+            return BOXED;
+        }
+        if (value instanceof Collection<?> collection) {
+            long weight = weighCollection(collection);
+            for (Object element : collection) {
+                weight += weighValue(element);
+            }
+            return weight;
+        }
+        if (value instanceof Map<?, ?> map) {
+            long weight = weighCollection(map.entrySet());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                weight += weighValue(entry.getKey()) + weighValue(entry.getValue());
+            }
+            return weight;
+        }
+        return align(HEADER + 8 * REFERENCE);
+    }
+
+    private static long weighBook(BookGetDto book) {
+        long weight = align(HEADER + 9 * REFERENCE) + boxed(book.getId())
+                + boxed(book.getPageAmount()) + boxed(book.getYear()) + boxed(book.getRating())
+                + weighString(book.getName());
+        if (book.getReviewSummary() != null) {
+            weight += weighReviewSummary(book.getReviewSummary());
+        }
+        if (book.getAuthors() != null) {
+            weight += weighCollection(book.getAuthors());
+            for (AuthorGetDto author : book.getAuthors()) {
+                weight += weighAuthor(author);
+            }
+        }
+        if (book.getCategories() != null) {
+            weight += weighCollection(book.getCategories());
+            for (CategoryGetDto category : book.getCategories()) {
+                weight += weighCategory(category);
+            }
+        }
+        if (book.getReviews() != null) {
+            weight += weighCollection(book.getReviews());
+            for (ReviewGetDto review : book.getReviews()) {
+                weight += weighReview(review);
+            }
+        }
+        return weight;
+    }
+
+    private static long weighAuthor(AuthorGetDto author) {
+        long weight = align(HEADER + 4 * REFERENCE) + boxed(author.getId())
+                + weighString(author.getName()) + weighString(author.getInfo());
+        if (author.getBooks() != null) {
+            weight += weighCollection(author.getBooks());
+            for (String book : author.getBooks()) {
+                weight += weighString(book);
+            }
+        }
+        return weight;
+    }
+
+    private static long weighCategory(CategoryGetDto category) {
+        return align(HEADER + 3 * REFERENCE) + boxed(category.getId())
+                + boxed(category.getCount()) + weighString(category.getName());
+    }
+
+    private static long weighReview(ReviewGetDto review) {
+        long weight = align(HEADER + 3 * REFERENCE + 4) + boxed(review.getId())
+                + weighString(review.getComment());
+        if (review.getUser() != null) {
+            weight += weighUser(review.getUser());
+        }
+        return weight;
+    }
+
+    private static long weighReviewSummary(ReviewSummaryGetDto summary) {
+        return align(HEADER + 2 * REFERENCE + 8) + boxed(summary.getAverage())
+                + weighValue(summary.getHistogram());
+    }
+
+    private static long weighUser(UserGetDto user) {
+        return align(HEADER + 3 * REFERENCE) + boxed(user.getId())
+                + weighString(user.getName()) + weighString(user.getEmail());
+    }
+
+    // Hash-based collections pay for a table and one node per element; lists
+    // only for the backing array.
+    private static long weighCollection(Collection<?> collection) {
+        int size = collection.size();
+        if (collection instanceof Set<?>) {
+            int table = Integer.highestOneBit(Math.max(1, (int) (size / 0.75f)) * 2 - 1);
+            return 16 + 48 + align(16 + (long) REFERENCE * table) + 32L * size;
+        }
+        return 24 + align(16 + (long) REFERENCE * size);
+    }
+
+    // Compact strings keep Latin-1 text at one byte per char; anything else,
+    // Cyrillic titles included, takes two.
+    static long weighString(String string) {
+        if (string == null) {
+            return 0;
+        }
+        int coder = 1;
+        for (int i = 0; i < string.length(); i++) {
+            if (string.charAt(i) > 0xFF) {
+                coder = 2;
+                break;
+            }
+        }
+        return 24 + align(16 + (long) coder * string.length());
+    }
+
+    private static long boxed(Object value) {
+        return value == null ? 0 : BOXED;
+    }
+
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+}
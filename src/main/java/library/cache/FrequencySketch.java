@@ -0,0 +1,93 @@
+package library.cache;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+final class FrequencySketch {
+    private static final long[] SEEDS = {
+        0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+    };
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final int MAX_COUNTER = 15;
+
+    private final AtomicLongArray table;
+    private final int tableMask;
+    private final int sampleSize;
+    private final AtomicInteger additions = new AtomicInteger();
+
+    FrequencySketch(int maximumSize) {
+        int length = tableSizeFor(Math.max(maximumSize, 16));
+        this.table = new AtomicLongArray(length);
+        this.tableMask = length - 1;
+        this.sampleSize = (int) Math.min(10L * Math.max(maximumSize, 16), Integer.MAX_VALUE);
+    }
+
+    int frequency(Object key) {
+        int hash = spread(key.hashCode());
+        int frequency = MAX_COUNTER;
+        for (int depth = 0; depth < SEEDS.length; depth++) {
+            long slot = slot(hash, depth);
+            int index = (int) (slot >>> 32) & tableMask;
+            int offset = ((int) slot & 15) << 2;
+            frequency = Math.min(frequency, (int) ((table.get(index) >>> offset) & 0xFL));
+        }
+        return frequency;
+    }
+
+    void increment(Object key) {
+        int hash = spread(key.hashCode());
+        boolean added = false;
+        for (int depth = 0; depth < SEEDS.length; depth++) {
+            long slot = slot(hash, depth);
+            int index = (int) (slot >>> 32) & tableMask;
+            int offset = ((int) slot & 15) << 2;
+            added |= incrementAt(index, offset);
+        }
+        if (added && additions.incrementAndGet() == sampleSize) {
+            reset();
+        }
+    }
+
+    void clear() {
+        for (int i = 0; i < table.length(); i++) {
+            table.set(i, 0L);
+        }
+        additions.set(0);
+    }
+
+    private boolean incrementAt(int index, int offset) {
+        long mask = 0xFL << offset;
+        while (true) {
+            long current = table.get(index);
+            if ((current & mask) == mask) {
+                return false;
+            }
+            if (table.compareAndSet(index, current, current + (1L << offset))) {
+                return true;
+            }
+        }
+    }
+
+    // Halves every counter so that popularity follows recent traffic.
+    private void reset() {
+        for (int i = 0; i < table.length(); i++) {
+            table.getAndUpdate(i, value -> (value >>> 1) & RESET_MASK);
+        }
+        additions.set(sampleSize / 2);
+    }
+
+    private static long slot(int hash, int depth) {
+        long slot = (hash + SEEDS[depth]) * SEEDS[depth];
+        return slot ^ (slot >>> 29);
+    }
+
+    private static int spread(int hash) {
+        int spread = hash * 0x9e3779b9;
+        return spread ^ (spread >>> 16);
+    }
+
+    private static int tableSizeFor(int capacity) {
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        return Math.min(Math.max(size, 16), 1 << 24);
+    }
+}
@@ -1,44 +1,765 @@
 package library.cache;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.logging.Logger;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import library.exception.NotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Component
 public class InMemoryCache {
-    private final Map<String, Object> cache = new LinkedHashMap<>();
-    private static final int MAX_SIZE = 100;
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryCache.class);
+    private static final int MAX_FREQUENCY = 15;
+    private static final int INVALIDATION_STRIPES = 1024;
 
-    public void put(String key, Object value) {
-        if (cache.size() >= MAX_SIZE) {
-            String oldestKey = cache.keySet().iterator().next();
-            cache.remove(oldestKey);
+    private final Map<CacheKey, Node> cache = new ConcurrentHashMap<>();
+    private final LinkedHashMap<CacheKey, Node> accessOrder = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<CacheTag, Set<CacheKey>> dependents = new HashMap<>();
+    private final Map<CacheKey, CompletableFuture<Object>> loading = new ConcurrentHashMap<>();
+    private final AtomicLong invalidations = new AtomicLong();
+    // Number of the last invalidation that hit each stripe of keys and tags,
+    // guarded by evictionLock. A load is dropped only when its key or one of
+    // its tags was invalidated after it started; a stripe shared by two tags
+    // at worst drops a load that was still fresh.
+    private final long[] invalidatedAt = new long[INVALIDATION_STRIPES];
+    private long clearedAt;
+    private final StatsCounter stats = new StatsCounter();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    // Estimated bytes of all entries, guarded by evictionLock.
+    private long weightedSize;
+    private final FrequencySketch sketch;
+    private final CacheProperties properties;
+    private final ThreadPoolExecutor refreshExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final OffHeapTier offHeap;
+    private final Map<CacheKey.Type, Duration> ttls;
+
+    public InMemoryCache(int maximumSize) {
+        this(propertiesOf(maximumSize), (PlatformTransactionManager) null);
+    }
+
+    public InMemoryCache(CacheProperties properties) {
+        this(properties, (PlatformTransactionManager) null);
+    }
+
+    @Autowired
+    public InMemoryCache(CacheProperties properties,
+                         ObjectProvider<PlatformTransactionManager> transactionManager) {
+        this(properties, transactionManager.getIfAvailable());
+    }
+
+    private InMemoryCache(CacheProperties properties, PlatformTransactionManager manager) {
+        if (properties.getMaximumSize() <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive: "
+                    + properties.getMaximumSize());
         }
+        this.properties = properties;
+        this.ttls = ttlsOf(properties);
+        this.sketch = new FrequencySketch(properties.getMaximumSize());
+        this.refreshExecutor = newRefreshExecutor(properties.getRefreshThreads());
+        long offHeapCapacity = properties.getOffHeapCapacity().toBytes();
+        this.offHeap = offHeapCapacity > 0 ? new OffHeapTier(offHeapCapacity,
+                (int) properties.getOffHeapSlabSize().toBytes()) : null;
+        if (manager != null) {
+            // Background reloads run outside any request, so they get their own
+            // read-only transaction to resolve lazy associations.
+            this.transactionTemplate = new TransactionTemplate(manager);
+            this.transactionTemplate.setReadOnly(true);
+        } else {
+            this.transactionTemplate = null;
+        }
+    }
 
-        cache.put(key, value);
-        Logger logger = Logger.getLogger(InMemoryCache.class.getName());
-        String message = "Cache size: " + cache.size();
-        logger.info(message);
+    public void put(CacheKey key, Object value) {
+        put(key, value, Set.of());
     }
 
-    public Object get(String key) {
-        Logger logger = Logger.getLogger(InMemoryCache.class.getName());
-        logger.info("Object get from cache");
-        return cache.get(key);
+    public void put(CacheKey key, Object value, Collection<CacheTag> tags) {
+        sketch.increment(key);
+        put(key, newNode(key, value, tags, System.nanoTime()), -1);
     }
 
-    public boolean containsKey(String key) {
-        return cache.containsKey(key);
+    public <T> T getOrLoad(CacheKey key, Supplier<T> loader) {
+        return getOrLoad(key, loader, value -> Set.of());
     }
 
-    public void remove(String key) {
-        cache.remove(key);
+    public <T> T getOrLoad(CacheKey key, Supplier<T> loader,
+                           Function<? super T, Collection<CacheTag>> tags) {
+        return getOrLoad(key, loader, tags, null);
+    }
+
+    // Concurrent misses for the same key share one load; every waiting caller
+    // gets its result or the exception it failed with. When missTags is given,
+    // a NotFoundException from the loader is kept for the negative TTL and
+    // rethrown until one of the tags is invalidated.
+    @SuppressWarnings("unchecked")
+    public <T> T getOrLoad(CacheKey key, Supplier<T> loader,
+                           Function<? super T, Collection<CacheTag>> tags,
+                           Collection<CacheTag> missTags) {
+        sketch.increment(key);
+        long now = System.nanoTime();
+        Node node = cache.get(key);
+        if (node == null) {
+            node = promote(key, now);
+        }
+        if (node != null && !node.isExpired(now)) {
+            stats.recordHit();
+            touch(key);
+            if (node.needsRefresh(now)) {
+                refresh(key, loader, tags, missTags);
+            }
+            return (T) unwrap(node);
+        }
+        if (node != null && node.isServableStale(now)) {
+            stats.recordHit();
+            return (T) reloadOrServeStale(key, node, loader, tags, missTags);
+        }
+
+        stats.recordMiss();
+        CompletableFuture<Object> load = new CompletableFuture<>();
+        CompletableFuture<Object> inFlight = loading.putIfAbsent(key, load);
+        if (inFlight != null) {
+            return (T) await(inFlight);
+        }
+        return (T) load(key, loader, tags, missTags, load);
+    }
+
+    public Object get(CacheKey key) {
+        sketch.increment(key);
+        long now = System.nanoTime();
+        Node node = cache.get(key);
+        if (node == null) {
+            node = promote(key, now);
+        }
+        if (node == null || node.isNegative() || node.isExpired(now)) {
+            stats.recordMiss();
+            return null;
+        }
+        stats.recordHit();
+        touch(key);
+        return node.value;
+    }
+
+    public boolean containsKey(CacheKey key) {
+        Node node = cache.get(key);
+        if (node == null) {
+            return offHeap != null && offHeap.containsKey(key);
+        }
+        return !node.isNegative() && !node.isExpired(System.nanoTime());
+    }
+
+    public void remove(CacheKey key) {
+        evictionLock.lock();
+        try {
+            invalidatedAt[stripe(key)] = invalidations.incrementAndGet();
+            unlink(key, cache.remove(key), RemovalCause.EXPLICIT);
+            accessOrder.remove(key);
+            if (offHeap != null) {
+                offHeap.evict(key);
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    public void invalidate(Collection<CacheTag> tags) {
+        evictionLock.lock();
+        try {
+            long invalidation = invalidations.incrementAndGet();
+            for (CacheTag tag : tags) {
+                invalidatedAt[stripe(tag)] = invalidation;
+                Set<CacheKey> keys = dependents.remove(tag);
+                if (keys == null) {
+                    continue;
+                }
+                for (CacheKey key : keys) {
+                    unlink(key, cache.remove(key), RemovalCause.INVALIDATED);
+                    accessOrder.remove(key);
+                }
+            }
+            if (offHeap != null) {
+                offHeap.invalidate(tags);
+            }
+        } finally {
+            evictionLock.unlock();
+        }
     }
 
     public void clear() {
-        Logger logger = Logger.getLogger(InMemoryCache.class.getName());
-        logger.info("Cache cleared");
-        cache.clear();
+        int removed;
+        evictionLock.lock();
+        try {
+            clearedAt = invalidations.incrementAndGet();
+            removed = cache.size();
+            cache.clear();
+            accessOrder.clear();
+            dependents.clear();
+            weightedSize = 0;
+            if (offHeap != null) {
+                offHeap.clear();
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+        stats.recordRemovals(RemovalCause.EXPLICIT, removed);
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    // Walks the entries, so it is meant for the stats endpoint rather than
+    // the request path.
+    public CacheStats stats() {
+        Map<String, Integer> sizeByFamily = new TreeMap<>();
+        Map<String, Long> bytesByFamily = new TreeMap<>();
+        long bytes = 0;
+        for (Map.Entry<CacheKey, Node> entry : cache.entrySet()) {
+            String family = entry.getKey().type().family();
+            long weight = entry.getValue().weight;
+            sizeByFamily.merge(family, 1, Integer::sum);
+            bytesByFamily.merge(family, weight, Long::sum);
+            bytes += weight;
+        }
+        return stats.snapshot(cache.size(), sizeByFamily, bytes, bytesByFamily,
+                offHeap == null ? 0 : offHeap.size(), offHeap == null ? 0 : offHeap.storedBytes());
+    }
+
+    public void resetStats() {
+        stats.reset();
+    }
+
+    @PostConstruct
+    public void warmUp() {
+        if (properties.getSnapshotPath().isBlank()) {
+            return;
+        }
+        Path path = Path.of(properties.getSnapshotPath());
+        long start = System.nanoTime();
+        int restored = restoreSnapshot(path, properties.getWarmUpTimeout());
+        logger.info("Restored {} cache entries from {} in {} ms", restored, path,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+        if (properties.getSnapshotPath().isBlank()) {
+            return;
+        }
+        Path path = Path.of(properties.getSnapshotPath());
+        try {
+            int saved = saveSnapshot(path);
+            logger.info("Saved {} cache entries to {}", saved, path);
+        } catch (IOException e) {
+            logger.warn("Could not save cache snapshot to {}: {}", path, e.getMessage());
+        }
+    }
+
+    // Keeps the live, serializable entries, hottest first, with the time to
+    // live they have left.
+    public int saveSnapshot(Path path) throws IOException {
+        long now = System.nanoTime();
+        List<CacheSnapshot.Entry> entries = new ArrayList<>();
+        for (Map.Entry<CacheKey, Node> entry : cache.entrySet()) {
+            Node node = entry.getValue();
+            if (node.isNegative() || node.isExpired(now) || !CacheCodec.supports(node.value)) {
+                continue;
+            }
+            try {
+                entries.add(new CacheSnapshot.Entry(entry.getKey(), node.tags,
+                        sketch.frequency(entry.getKey()),
+                        node.expiresAt == 0L ? 0L : node.expiresAt - now,
+                        CacheCodec.encode(node.value)));
+            } catch (IOException e) {
+                // An entry that cannot be serialized is left out of the snapshot.
+            }
+        }
+        entries.sort(Comparator.comparingInt(CacheSnapshot.Entry::frequency).reversed());
+        CacheSnapshot.write(path, System.currentTimeMillis(), entries);
+        return entries.size();
+    }
+
+    // Values are decoded in parallel, hottest first, until the timeout; an
+    // entry whose time to live ran out while the instance was down is
+    // skipped, and the rest are reloaded by refresh-ahead on first read.
+    public int restoreSnapshot(Path path, Duration timeout) {
+        if (!Files.exists(path)) {
+            return 0;
+        }
+        CacheSnapshot.Contents contents;
+        try {
+            contents = CacheSnapshot.read(path);
+        } catch (IOException e) {
+            logger.warn("Could not read cache snapshot {}: {}", path, e.getMessage());
+            return 0;
+        }
+        long age = System.currentTimeMillis() - contents.savedAtMillis();
+        if (age < 0 || age > properties.getSnapshotMaxAge().toMillis()) {
+            return 0;
+        }
+
+        long elapsedNanos = TimeUnit.MILLISECONDS.toNanos(age);
+        long generation = invalidations.get();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        AtomicInteger restored = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(
+                Runtime.getRuntime().availableProcessors());
+        for (CacheSnapshot.Entry entry : contents.entries()) {
+            workers.execute(() -> {
+                if (System.nanoTime() - deadline < 0 && restore(entry, elapsedNanos, generation)) {
+                    restored.incrementAndGet();
+                }
+            });
+        }
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(timeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        return restored.get();
+    }
+
+    private boolean restore(CacheSnapshot.Entry entry, long elapsedNanos, long generation) {
+        Object value;
+        try {
+            value = CacheCodec.decode(entry.data());
+        } catch (IOException e) {
+            return false;
+        }
+        CacheKey key = entry.key();
+        long weight = CacheWeigher.weigh(key, value, entry.tags().size());
+        Duration ttl = ttlOf(key);
+        Node node;
+        if (ttl == null) {
+            node = new Node(value, entry.tags(), 0L, 0L, 0L, weight);
+        } else {
+            long ttlNanos = ttl.toNanos();
+            long remaining = entry.remainingNanos() == 0L
+                    ? ttlNanos : Math.min(entry.remainingNanos() - elapsedNanos, ttlNanos);
+            if (remaining <= 0) {
+                return false;
+            }
+            long expiresAt = System.nanoTime() + remaining;
+            long refreshAt = expiresAt - (long) (ttlNanos * (1 - properties.getRefreshAhead()));
+            node = new Node(value, entry.tags(), refreshAt, expiresAt,
+                    expiresAt + properties.getStaleTtl().toNanos(), weight);
+        }
+        for (int i = Math.min(entry.frequency(), MAX_FREQUENCY); i > 0; i--) {
+            sketch.increment(key);
+        }
+        return put(key, node, generation);
+    }
+
+    private <T> Object load(CacheKey key, Supplier<T> loader,
+                            Function<? super T, Collection<CacheTag>> tags,
+                            Collection<CacheTag> missTags, CompletableFuture<Object> load) {
+        long generation = invalidations.get();
+        long start = System.nanoTime();
+        try {
+            T value = loader.get();
+            stats.recordLoadSuccess(System.nanoTime() - start);
+            if (value != null) {
+                put(key, newNode(key, value, tags.apply(value), System.nanoTime()), generation);
+            }
+            load.complete(value);
+            return value;
+        } catch (NotFoundException e) {
+            stats.recordLoadFailure(System.nanoTime() - start);
+            if (missTags != null && !properties.getNegativeTtl().isZero()) {
+                long expiresAt = System.nanoTime() + properties.getNegativeTtl().toNanos();
+                put(key, new Node(e, Set.copyOf(missTags), 0L, expiresAt, expiresAt,
+                        CacheWeigher.weigh(key, e.getMessage(), missTags.size())), generation);
+            }
+            load.completeExceptionally(e);
+            throw e;
+        } catch (RuntimeException | Error e) {
+            stats.recordLoadFailure(System.nanoTime() - start);
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key, load);
+        }
+    }
+
+    private <T> CompletableFuture<Object> refresh(CacheKey key, Supplier<T> loader,
+                                                  Function<? super T, Collection<CacheTag>> tags,
+                                                  Collection<CacheTag> missTags) {
+        CompletableFuture<Object> load = new CompletableFuture<>();
+        CompletableFuture<Object> inFlight = loading.putIfAbsent(key, load);
+        if (inFlight != null) {
+            return inFlight;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    if (transactionTemplate == null) {
+                        load(key, loader, tags, missTags, load);
+                    } else {
+                        transactionTemplate.executeWithoutResult(status
+                                -> load(key, loader, tags, missTags, load));
+                    }
+                } catch (RuntimeException e) {
+                    // Readers see the failure through the future.
+                    load.completeExceptionally(e);
+                    loading.remove(key, load);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            loading.remove(key, load);
+            load.completeExceptionally(e);
+        }
+        return load;
+    }
+
+    // Stale-while-revalidate: the reader waits for the reload only within the
+    // latency budget and gets the old value when the reload is slow or fails.
+    private <T> Object reloadOrServeStale(CacheKey key, Node stale, Supplier<T> loader,
+                                          Function<? super T, Collection<CacheTag>> tags,
+                                          Collection<CacheTag> missTags) {
+        CompletableFuture<Object> load = refresh(key, loader, tags, missTags);
+        try {
+            return load.get(properties.getLoadTimeout().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return stale.value;
+        } catch (ExecutionException | TimeoutException e) {
+            return stale.value;
+        }
+    }
+
+    private boolean put(CacheKey key, Node node, long generation) {
+        evictionLock.lock();
+        try {
+            // A value loaded before an invalidation of its key or tags may
+            // already be stale.
+            if (generation >= 0 && invalidatedSince(key, node.tags, generation)) {
+                return false;
+            }
+            if (offHeap != null) {
+                offHeap.evict(key);
+            }
+            if (node.weight > maximumWeight()) {
+                // It can never fit, and the value it replaces must not outlive it.
+                accessOrder.remove(key);
+                unlink(key, cache.remove(key), RemovalCause.SIZE);
+                stats.recordRejection();
+                demote(key, node);
+                return false;
+            }
+            boolean replacing = cache.containsKey(key);
+            if (!replacing && !evictFor(key, node.weight, System.nanoTime())) {
+                stats.recordRejection();
+                demote(key, node);
+                return false;
+            }
+            unlink(key, cache.put(key, node), RemovalCause.REPLACED);
+            accessOrder.put(key, node);
+            weightedSize += node.weight;
+            if (replacing) {
+                evictOverweight(key);
+            }
+            for (CacheTag tag : node.tags) {
+                dependents.computeIfAbsent(tag, t -> new HashSet<>()).add(key);
+            }
+            return true;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private Node newNode(CacheKey key, Object value, Collection<CacheTag> tags, long now) {
+        Duration ttl = ttlOf(key);
+        long weight = CacheWeigher.weigh(key, value, tags.size());
+        if (ttl == null) {
+            return new Node(value, Set.copyOf(tags), 0L, 0L, 0L, weight);
+        }
+        long ttlNanos = ttl.toNanos();
+        long refreshAt = now + (long) (ttlNanos * properties.getRefreshAhead());
+        long expiresAt = now + ttlNanos;
+        return new Node(value, Set.copyOf(tags), refreshAt, expiresAt,
+                expiresAt + properties.getStaleTtl().toNanos(), weight);
+    }
+
+    private Duration ttlOf(CacheKey key) {
+        return ttls.get(key.type());
+    }
+
+    // Policies are keyed by family prefix; the longest one matching a key
+    // type's family wins.
+    private static Map<CacheKey.Type, Duration> ttlsOf(CacheProperties properties) {
+        Map<CacheKey.Type, Duration> ttls = new EnumMap<>(CacheKey.Type.class);
+        for (CacheKey.Type type : CacheKey.Type.values()) {
+            int matched = -1;
+            for (Map.Entry<String, Duration> policy : properties.getExpiry().entrySet()) {
+                String prefix = policy.getKey();
+                if (prefix.length() > matched && type.family().startsWith(prefix)) {
+                    ttls.put(type, policy.getValue());
+                    matched = prefix.length();
+                }
+            }
+        }
+        return ttls;
+    }
+
+    private void touch(CacheKey key) {
+        // Reordering is best effort: a busy lock must never block a reader.
+        if (evictionLock.tryLock()) {
+            try {
+                accessOrder.get(key);
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    private static Object unwrap(Node node) {
+        if (node.isNegative()) {
+            throw (NotFoundException) node.value;
+        }
+        return node.value;
+    }
+
+    private static Object await(CompletableFuture<Object> load) {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    // TinyLFU admission: the candidate replaces the least recently used entries
+    // it needs room from only when the sketch estimates it is requested more
+    // often than each of them. Entries past their stale window are dropped
+    // without a contest. Nothing is evicted unless the candidate is admitted.
+    private boolean evictFor(CacheKey candidate, long weight, long now) {
+        int excessEntries = cache.size() + 1 - properties.getMaximumSize();
+        long excessWeight = weightedSize + weight - maximumWeight();
+        if (excessEntries <= 0 && excessWeight <= 0) {
+            return true;
+        }
+        int frequency = sketch.frequency(candidate);
+        List<Map.Entry<CacheKey, Node>> victims = new ArrayList<>();
+        for (Map.Entry<CacheKey, Node> victim : accessOrder.entrySet()) {
+            if (excessEntries <= 0 && excessWeight <= 0) {
+                break;
+            }
+            if (!victim.getValue().isDead(now) && frequency <= sketch.frequency(victim.getKey())) {
+                return false;
+            }
+            victims.add(victim);
+            excessEntries--;
+            excessWeight -= victim.getValue().weight;
+        }
+        for (Map.Entry<CacheKey, Node> victim : victims) {
+            CacheKey key = victim.getKey();
+            Node node = victim.getValue();
+            accessOrder.remove(key);
+            if (node.isDead(now)) {
+                unlink(key, cache.remove(key), RemovalCause.EXPIRED);
+            } else {
+                unlink(key, cache.remove(key), RemovalCause.SIZE);
+                demote(key, node);
+            }
+        }
+        return true;
+    }
+
+    // A replaced value may have grown; the key itself was already admitted, so
+    // the least recently used other entries make room for it.
+    private void evictOverweight(CacheKey key) {
+        Iterator<Map.Entry<CacheKey, Node>> iterator = accessOrder.entrySet().iterator();
+        while (weightedSize > maximumWeight() && iterator.hasNext()) {
+            Map.Entry<CacheKey, Node> victim = iterator.next();
+            if (victim.getKey().equals(key)) {
+                continue;
+            }
+            iterator.remove();
+            unlink(victim.getKey(), cache.remove(victim.getKey()), RemovalCause.SIZE);
+            demote(victim.getKey(), victim.getValue());
+        }
+    }
+
+    // Runs under evictionLock, so an invalidation or a newer value for the key
+    // cannot slip in between the heap eviction and the off-heap write.
+    private void demote(CacheKey key, Node node) {
+        if (offHeap == null || node.isNegative() || !CacheCodec.supports(node.value)) {
+            return;
+        }
+        try {
+            if (offHeap.put(key, CacheCodec.encode(node.value), node.tags,
+                    node.refreshAt, node.expiresAt, node.staleUntil)) {
+                stats.recordDemotion();
+            }
+        } catch (IOException e) {
+            // A value that cannot be serialized is simply not kept.
+        }
+    }
+
+    private Node promote(CacheKey key, long now) {
+        if (offHeap == null) {
+            return null;
+        }
+        long generation = invalidations.get();
+        OffHeapTier.Stored stored = offHeap.take(key);
+        if (stored == null) {
+            return null;
+        }
+        Node node;
+        try {
+            Object value = CacheCodec.decode(stored.data());
+            node = new Node(value, stored.tags(), stored.refreshAt(), stored.expiresAt(),
+                    stored.staleUntil(), CacheWeigher.weigh(key, value, stored.tags().size()));
+        } catch (IOException e) {
+            return null;
+        }
+        if (node.isDead(now)) {
+            return null;
+        }
+        stats.recordPromotion();
+        put(key, node, generation);
+        return node;
+    }
+
+    private long maximumWeight() {
+        return properties.getMaximumWeight().toBytes();
+    }
+
+    private void unlink(CacheKey key, Node node, RemovalCause cause) {
+        if (node == null) {
+            return;
+        }
+        stats.recordRemoval(cause);
+        weightedSize -= node.weight;
+        for (CacheTag tag : node.tags) {
+            Set<CacheKey> keys = dependents.get(tag);
+            if (keys != null) {
+                keys.remove(key);
+                if (keys.isEmpty()) {
+                    dependents.remove(tag);
+                }
+            }
+        }
+    }
+
+    private boolean invalidatedSince(CacheKey key, Set<CacheTag> tags, long generation) {
+        if (clearedAt > generation || invalidatedAt[stripe(key)] > generation) {
+            return true;
+        }
+        for (CacheTag tag : tags) {
+            if (invalidatedAt[stripe(tag)] > generation) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int stripe(Object keyOrTag) {
+        int hash = keyOrTag.hashCode();
+        return (hash ^ (hash >>> 16)) & (INVALIDATION_STRIPES - 1);
+    }
+
+    private static ThreadPoolExecutor newRefreshExecutor(int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads,
+                30, TimeUnit.SECONDS, new ArrayBlockingQueue<>(1024), task -> {
+                    Thread thread = new Thread(task, "cache-refresh-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static CacheProperties propertiesOf(int maximumSize) {
+        CacheProperties properties = new CacheProperties();
+        properties.setMaximumSize(maximumSize);
+        return properties;
+    }
+
+    private static final class Node {
+        private final Object value;
+        private final Set<CacheTag> tags;
+        private final long refreshAt;
+        private final long expiresAt;
+        private final long staleUntil;
+        private final long weight;
+
+        private Node(Object value, Set<CacheTag> tags, long refreshAt,
+                     long expiresAt, long staleUntil, long weight) {
+            this.value = value;
+            this.tags = tags;
+            this.refreshAt = refreshAt;
+            this.expiresAt = expiresAt;
+            this.staleUntil = staleUntil;
+            this.weight = weight;
+        }
+
+        private boolean isNegative() {
+            return value instanceof NotFoundException;
+        }
+
+        private boolean needsRefresh(long now) {
+            return refreshAt != 0L && now - refreshAt >= 0;
+        }
+
+        private boolean isExpired(long now) {
+            return expiresAt != 0L && now - expiresAt >= 0;
+        }
+
+        private boolean isServableStale(long now) {
+            return !isNegative() && isExpired(now) && now - staleUntil < 0;
+        }
+
+        private boolean isDead(long now) {
+            return staleUntil != 0L && now - staleUntil >= 0;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,186 @@
+package library.cache;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Second tier for entries evicted from the heap. Serialized values are
+// appended to a ring of direct ByteBuffer slabs; when the writer wraps
+// around, every entry left in the slab it reuses is dropped, so there is
+// no fragmentation to manage. Only the small index lives on the heap.
+final class OffHeapTier {
+    private final ByteBuffer[] slabs;
+    private final List<Set<CacheKey>> slabKeys;
+    private final int slabSize;
+    private final Map<CacheKey, Slot> index = new HashMap<>();
+    private final Map<CacheTag, Set<CacheKey>> dependents = new HashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private int current;
+    private int position;
+    private long storedBytes;
+
+    OffHeapTier(long capacity, int slabSize) {
+        // A tier smaller than a slab gets one slab of its own size rather
+        // than a whole slab beyond its capacity.
+        this.slabSize = (int) Math.min(slabSize, capacity);
+        int count = (int) (capacity / this.slabSize);
+        this.slabs = new ByteBuffer[count];
+        this.slabKeys = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            slabKeys.add(new HashSet<>());
+        }
+    }
+
+    boolean put(CacheKey key, byte[] data, Set<CacheTag> tags,
+                long refreshAt, long expiresAt, long staleUntil) {
+        lock.lock();
+        try {
+            remove(key);
+            if (data.length > slabSize) {
+                return false;
+            }
+            if (position + data.length > slabSize || slabs[current] == null) {
+                advance();
+            }
+            slabs[current].put(position, data);
+            Slot slot = new Slot(current, position, data.length, tags,
+                    refreshAt, expiresAt, staleUntil);
+            position += data.length;
+            index.put(key, slot);
+            slabKeys.get(slot.slab).add(key);
+            for (CacheTag tag : tags) {
+                dependents.computeIfAbsent(tag, t -> new HashSet<>()).add(key);
+            }
+            storedBytes += data.length;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Removes the entry and copies it back onto the heap.
+    Stored take(CacheKey key) {
+        lock.lock();
+        try {
+            Slot slot = index.get(key);
+            if (slot == null) {
+                return null;
+            }
+            byte[] data = new byte[slot.length];
+            slabs[slot.slab].get(slot.offset, data);
+            remove(key);
+            return new Stored(data, slot.tags, slot.refreshAt, slot.expiresAt, slot.staleUntil);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    boolean containsKey(CacheKey key) {
+        lock.lock();
+        try {
+            return index.containsKey(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void invalidate(Collection<CacheTag> tags) {
+        lock.lock();
+        try {
+            for (CacheTag tag : tags) {
+                Set<CacheKey> keys = dependents.remove(tag);
+                if (keys != null) {
+                    keys.forEach(this::remove);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void evict(CacheKey key) {
+        lock.lock();
+        try {
+            remove(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void clear() {
+        lock.lock();
+        try {
+            index.clear();
+            dependents.clear();
+            slabKeys.forEach(Set::clear);
+            position = 0;
+            storedBytes = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int size() {
+        lock.lock();
+        try {
+            return index.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long storedBytes() {
+        lock.lock();
+        try {
+            return storedBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void advance() {
+        if (slabs[current] != null) {
+            current = (current + 1) % slabs.length;
+        }
+        if (slabs[current] == null) {
+            // Slabs are allocated on first use, so an idle tier costs nothing.
+            slabs[current] = ByteBuffer.allocateDirect(slabSize);
+        }
+        for (CacheKey key : new HashSet<>(slabKeys.get(current))) {
+            remove(key);
+        }
+        position = 0;
+    }
+
+    private void remove(CacheKey key) {
+        Slot slot = index.remove(key);
+        if (slot == null) {
+            return;
+        }
+        slabKeys.get(slot.slab).remove(key);
+        storedBytes -= slot.length;
+        for (CacheTag tag : slot.tags) {
+            Set<CacheKey> keys = dependents.get(tag);
+            if (keys != null) {
+                keys.remove(key);
+                if (keys.isEmpty()) {
+                    dependents.remove(tag);
+                }
+            }
+        }
+    }
+
+    record Stored(byte[] data, Set<CacheTag> tags,
+                  long refreshAt, long expiresAt, long staleUntil) {
+    }
+
+    private record Slot(int slab, int offset, int length, Set<CacheTag> tags,
+                        long refreshAt, long expiresAt, long staleUntil) {
+    }
+}
@@ -0,0 +1,9 @@
+package library.cache;
+
+public enum RemovalCause {
+    SIZE,
+    EXPIRED,
+    INVALIDATED,
+    REPLACED,
+    EXPLICIT
+}
@@ -0,0 +1,92 @@
+package library.cache;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+final class StatsCounter {
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loadSuccesses = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder totalLoadNanos = new LongAdder();
+    private final LongAdder admissionRejections = new LongAdder();
+    private final LongAdder demotions = new LongAdder();
+    private final LongAdder promotions = new LongAdder();
+    private final Map<RemovalCause, LongAdder> evictions = new EnumMap<>(RemovalCause.class);
+
+    StatsCounter() {
+        for (RemovalCause cause : RemovalCause.values()) {
+            evictions.put(cause, new LongAdder());
+        }
+    }
+
+    void recordHit() {
+        hits.increment();
+    }
+
+    void recordMiss() {
+        misses.increment();
+    }
+
+    void recordLoadSuccess(long loadNanos) {
+        loadSuccesses.increment();
+        totalLoadNanos.add(loadNanos);
+    }
+
+    void recordLoadFailure(long loadNanos) {
+        loadFailures.increment();
+        totalLoadNanos.add(loadNanos);
+    }
+
+    void recordRejection() {
+        admissionRejections.increment();
+    }
+
+    void recordDemotion() {
+        demotions.increment();
+    }
+
+    void recordPromotion() {
+        promotions.increment();
+    }
+
+    void recordRemoval(RemovalCause cause) {
+        evictions.get(cause).increment();
+    }
+
+    void recordRemovals(RemovalCause cause, int count) {
+        evictions.get(cause).add(count);
+    }
+
+    void reset() {
+        hits.reset();
+        misses.reset();
+        loadSuccesses.reset();
+        loadFailures.reset();
+        totalLoadNanos.reset();
+        admissionRejections.reset();
+        demotions.reset();
+        promotions.reset();
+        evictions.values().forEach(LongAdder::reset);
+    }
+
+    CacheStats snapshot(int size, Map<String, Integer> sizeByFamily,
+                        long estimatedBytes, Map<String, Long> estimatedBytesByFamily,
+                        int offHeapSize, long offHeapBytes) {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long requests = hitCount + missCount;
+        long loads = loadSuccesses.sum() + loadFailures.sum();
+        Map<RemovalCause, Long> evictionCounts = new EnumMap<>(RemovalCause.class);
+        evictions.forEach((cause, count) -> evictionCounts.put(cause, count.sum()));
+
+        return new CacheStats(hitCount, missCount,
+                requests == 0 ? 1.0 : (double) hitCount / requests,
+                loadSuccesses.sum(), loadFailures.sum(),
+                loads == 0 ? 0.0 : totalLoadNanos.sum() / 1_000_000.0 / loads,
+                admissionRejections.sum(), evictionCounts,
+                size, sizeByFamily, estimatedBytes, estimatedBytesByFamily,
+                demotions.sum(), promotions.sum(), offHeapSize, offHeapBytes);
+    }
+}
@@ -18,6 +18,7 @@ public class CorsConfig {
                         .allowedOrigins("https://online-library-ow4b.onrender.com")
                         .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
                         .allowedHeaders("*")
+                        .exposedHeaders("X-Approximate-Match")
                         .allowCredentials(true);
             }
         };
@@ -0,0 +1,28 @@
+package library.config;
+
+import jakarta.annotation.PostConstruct;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+// schema.sql runs before Hibernate creates the tables, so the name indexes
+// are created here instead, once the entity manager factory has updated
+// the schema. A fresh database gets them on its first start.
+@Configuration
+@DependsOn("entityManagerFactory")
+public class NameIndexConfig {
+    private final DataSource dataSource;
+
+    @Autowired
+    public NameIndexConfig(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @PostConstruct
+    public void createIndexes() {
+        new ResourceDatabasePopulator(new ClassPathResource("indexes.sql")).execute(dataSource);
+    }
+}
@@ -6,9 +6,9 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
-import java.util.List;
 import library.dto.create.AuthorCreateDto;
 import library.dto.get.AuthorGetDto;
+import library.dto.get.PageGetDto;
 import library.service.AuthorService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -20,6 +20,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
@@ -44,11 +45,16 @@ public class AuthorController {
         return ResponseEntity.ok(authorService.getAuthorById(id));
     }
 
-    @Operation(summary = "Get all authors", description = "Retrieves all authors")
+    @Operation(summary = "Get all authors",
+            description = "Retrieves a page of authors ordered by ID")
     @ApiResponse(responseCode = "200", description = "Authors retrieved successfully")
     @GetMapping
-    public ResponseEntity<List<AuthorGetDto>> getAllAuthors() {
-        return ResponseEntity.ok(authorService.getAllAuthors());
+    public ResponseEntity<PageGetDto<AuthorGetDto>> getAllAuthors(
+            @Parameter(description = "Return authors with IDs greater than this cursor")
+            @RequestParam(required = false) Long after,
+            @Parameter(description = "Page size, from 1 to 100", example = "20")
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(authorService.getAllAuthors(after, limit));
     }
 
     @Operation(summary = "Create author", description = "Creates new author")
@@ -6,13 +6,31 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import library.dto.BookFacetDto;
+import library.dto.BookFields;
+import library.dto.BookMatch;
+import library.dto.BookSearchDto;
 import library.dto.create.BookCreateDto;
 import library.dto.create.BulkCreateDto;
+import library.dto.get.BookFacetsGetDto;
 import library.dto.get.BookGetDto;
+import library.dto.get.BookPageGetDto;
+import library.dto.get.ImportJobGetDto;
+import library.dto.get.PageGetDto;
+import library.dto.get.SuggestionsGetDto;
+import library.service.BookExportService;
+import library.service.BookImportService;
 import library.service.BookService;
+import library.service.FileFormat;
+import library.service.SuggestService;
+import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -20,75 +38,291 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/api/books")
 @Tag(name = "Book", description = "API for managing books")
 public class BookController {
+    // Set to true when a name lookup matched nothing exactly and returns the
+    // books of the closest names instead.
+    static final String APPROXIMATE_MATCH_HEADER = "X-Approximate-Match";
+
     private final BookService bookService;
+    private final BookExportService bookExportService;
+    private final BookImportService bookImportService;
+    private final SuggestService suggestService;
 
     @Autowired
-    public BookController(BookService bookService) {
+    public BookController(BookService bookService, BookExportService bookExportService,
+                          BookImportService bookImportService, SuggestService suggestService) {
         this.bookService = bookService;
+        this.bookExportService = bookExportService;
+        this.bookImportService = bookImportService;
+        this.suggestService = suggestService;
     }
 
     @Operation(summary = "Get book by ID", description = "Retrieves book by ID")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Book retrieved successfully"),
+        @ApiResponse(responseCode = "400", description = "Unknown field requested"),
         @ApiResponse(responseCode = "404", description = "Book not found")
     })
     @GetMapping("/{id}")
     public ResponseEntity<BookGetDto> getBookById(
-            @Parameter(description = "Book's ID", example = "2") @PathVariable Long id) {
-        return ResponseEntity.ok(bookService.getBookById(id));
+            @Parameter(description = "Book's ID", example = "2") @PathVariable Long id,
+            @Parameter(description = "Fields to return, e.g. id,name,year,rating")
+            @RequestParam(required = false) String fields,
+            @Parameter(description = "Associations to add: authors, categories, reviewSummary, "
+                    + "reviews")
+            @RequestParam(required = false) String expand,
+            @Parameter(description = "Same as expand=reviews, kept for older clients")
+            @RequestParam(defaultValue = "false") boolean includeReviews) {
+        BookFields bookFields = fieldsOf(fields, expand, includeReviews);
+        return ResponseEntity.ok(bookService.getBookById(id, bookFields));
+    }
+
+    @Operation(summary = "Get recommendations for a book",
+            description = "Retrieves the books most often reviewed by the readers "
+                    + "who reviewed this book, best match first")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Recommendations found successfully"),
+        @ApiResponse(responseCode = "400", description = "Incorrect limit or unknown field"),
+        @ApiResponse(responseCode = "404", description = "Book not found")
+    })
+    @GetMapping("/{id}/recommendations")
+    public ResponseEntity<List<BookGetDto>> getRecommendations(
+            @Parameter(description = "Book's ID", example = "2") @PathVariable Long id,
+            @Parameter(description = "Number of books, from 1 to 20", example = "10")
+            @RequestParam(defaultValue = "10") int limit,
+            @Parameter(description = "Fields to return, e.g. id,name,year,rating")
+            @RequestParam(required = false) String fields,
+            @Parameter(description = "Associations to add: authors, categories, reviewSummary, "
+                    + "reviews")
+            @RequestParam(required = false) String expand) {
+        BookFields bookFields = BookFields.of(fields, expand);
+        return ResponseEntity.ok(bookService.getRecommendations(id, limit, bookFields));
+    }
+
+    @Operation(summary = "Get similar books",
+            description = "Retrieves the books sharing the most authors and categories "
+                    + "with this book, most alike first")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Similar books found successfully"),
+        @ApiResponse(responseCode = "400", description = "Incorrect limit or unknown field"),
+        @ApiResponse(responseCode = "404", description = "Book not found")
+    })
+    @GetMapping("/{id}/similar")
+    public ResponseEntity<List<BookGetDto>> getSimilarBooks(
+            @Parameter(description = "Book's ID", example = "2") @PathVariable Long id,
+            @Parameter(description = "Number of books, from 1 to 20", example = "10")
+            @RequestParam(defaultValue = "10") int limit,
+            @Parameter(description = "Fields to return, e.g. id,name,year,rating")
+            @RequestParam(required = false) String fields,
+            @Parameter(description = "Associations to add: authors, categories, reviewSummary, "
+                    + "reviews")
+            @RequestParam(required = false) String expand) {
+        BookFields bookFields = BookFields.of(fields, expand);
+        return ResponseEntity.ok(bookService.getSimilarBooks(id, limit, bookFields));
     }
 
     @Operation(summary = "Get books by author",
-            description = "Retrieves book's list by author's name")
+            description = "Retrieves book's list by author's name; when no author has "
+                    + "this exact name, books of the closest names are returned and "
+                    + "X-Approximate-Match is true")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Book found successfully"),
+        @ApiResponse(responseCode = "400", description = "Unknown field requested"),
         @ApiResponse(responseCode = "404", description = "Book not found")
     })
     @GetMapping("/search/author")
     public ResponseEntity<List<BookGetDto>> getBookByAuthor(
             @Parameter(description = "Author's name", example = "Юваль Ной Харари")
-            @RequestParam String name) {
-        return ResponseEntity.ok(bookService.getBookByAuthor(name));
+            @RequestParam String name,
+            @Parameter(description = "Fields to return, e.g. id,name,year,rating")
+            @RequestParam(required = false) String fields,
+            @Parameter(description = "Associations to add: authors, categories, reviewSummary, "
+                    + "reviews")
+            @RequestParam(required = false) String expand,
+            @Parameter(description = "Same as expand=reviews, kept for older clients")
+            @RequestParam(defaultValue = "false") boolean includeReviews) {
+        BookFields bookFields = fieldsOf(fields, expand, includeReviews);
+        return matchResponse(bookService.getBookByAuthor(name, bookFields));
     }
 
     @Operation(summary = "Get books by category",
             description = "Retrieves book's list by category's name")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Book found successfully"),
+        @ApiResponse(responseCode = "400", description = "Unknown field requested"),
         @ApiResponse(responseCode = "404", description = "Book not found")
     })
     @GetMapping("/search/category")
     public ResponseEntity<List<BookGetDto>> getBookByCategory(
             @Parameter(description = "Category's name", example = "Бестселлер")
-            @RequestParam String name) {
-        return ResponseEntity.ok(bookService.getBookByCategory(name));
+            @RequestParam String name,
+            @Parameter(description = "Fields to return, e.g. id,name,year,rating")
+            @RequestParam(required = false) String fields,
+            @Parameter(description = "Associations to add: authors, categories, reviewSummary, "
+                    + "reviews")
+            @RequestParam(required = false) String expand,
+            @Parameter(description = "Same as expand=reviews, kept for older clients")
+            @RequestParam(defaultValue = "false") boolean includeReviews) {
+        BookFields bookFields = fieldsOf(fields, expand, includeReviews);
+        return ResponseEntity.ok(bookService.getBookByCategory(name, bookFields));
     }
 
     @Operation(summary = "Get books by name",
-            description = "Retrieves book's list by its name")
+            description = "Retrieves book's list by its name; when no book has this exact "
+                    + "name, books with the closest names are returned and "
+                    + "X-Approximate-Match is true")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Book found successfully"),
+        @ApiResponse(responseCode = "400", description = "Unknown field requested"),
         @ApiResponse(responseCode = "404", description = "Book not found")
     })
     @GetMapping("/search")
     public ResponseEntity<List<BookGetDto>> getBookByName(
-            @Parameter(description = "Book's name", example = "Библия") @RequestParam String name) {
-        return ResponseEntity.ok(bookService.getBookByName(name));
+            @Parameter(description = "Book's name", example = "Библия") @RequestParam String name,
+            @Parameter(description = "Fields to return, e.g. id,name,year,rating")
+            @RequestParam(required = false) String fields,
+            @Parameter(description = "Associations to add: authors, categories, reviewSummary, "
+                    + "reviews")
+            @RequestParam(required = false) String expand,
+            @Parameter(description = "Same as expand=reviews, kept for older clients")
+            @RequestParam(defaultValue = "false") boolean includeReviews) {
+        BookFields bookFields = fieldsOf(fields, expand, includeReviews);
+        return matchResponse(bookService.getBookByName(name, bookFields));
+    }
+
+    @Operation(summary = "Search books",
+            description = "Retrieves a page of books matching all given filters")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Books found successfully"),
+        @ApiResponse(responseCode = "400", description = "Incorrect filters, sort or paging")
+    })
+    @GetMapping("/find")
+    public ResponseEntity<BookPageGetDto> searchBooks(
+            @Parameter(description = "Filters and sort order")
+            @Valid @ParameterObject BookSearchDto search,
+            @Parameter(description = "Number of matching books to skip, up to 10000; "
+                    + "take it from nextOffset of the previous page", example = "0")
+            @RequestParam(defaultValue = "0") int offset,
+            @Parameter(description = "Page size, from 1 to 100", example = "20")
+            @RequestParam(defaultValue = "20") int limit,
+            @Parameter(description = "Fields to return, e.g. id,name,year,rating")
+            @RequestParam(required = false) String fields,
+            @Parameter(description = "Associations to add: authors, categories, reviewSummary, "
+                    + "reviews")
+            @RequestParam(required = false) String expand) {
+        BookFields bookFields = BookFields.of(fields, expand);
+        return ResponseEntity.ok(bookService.searchBooks(search, offset, limit, bookFields));
+    }
+
+    @Operation(summary = "Browse books by facets",
+            description = "Retrieves a page of books ordered by ID that match the chosen "
+                    + "categories, authors, decades and ratings, with book counts per facet value")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Books found successfully"),
+        @ApiResponse(responseCode = "400", description = "Incorrect page size or unknown field")
+    })
+    @GetMapping("/browse")
+    public ResponseEntity<BookFacetsGetDto> browseBooks(
+            @Parameter(description = "Facet values; several values of one facet are alternatives")
+            @ParameterObject BookFacetDto filter,
+            @Parameter(description = "Return books with IDs greater than this cursor")
+            @RequestParam(required = false) Long after,
+            @Parameter(description = "Page size, from 1 to 100", example = "20")
+            @RequestParam(defaultValue = "20") int limit,
+            @Parameter(description = "Fields to return, e.g. id,name,year,rating")
+            @RequestParam(required = false) String fields,
+            @Parameter(description = "Associations to add: authors, categories, reviewSummary, "
+                    + "reviews")
+            @RequestParam(required = false) String expand) {
+        BookFields bookFields = BookFields.of(fields, expand);
+        return ResponseEntity.ok(bookService.browseBooks(filter, after, limit, bookFields));
     }
 
-    @Operation(summary = "Get all books", description = "Retrieves all books")
-    @ApiResponse(responseCode = "200", description = "Book found successfully")
+    @Operation(summary = "Full-text search of books",
+            description = "Retrieves the best matching books for words from their names, "
+                    + "authors' names and info and categories' names, best match first")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Books found successfully"),
+        @ApiResponse(responseCode = "400", description = "Incorrect limit or unknown field")
+    })
+    @GetMapping("/search/text")
+    public ResponseEntity<List<BookGetDto>> searchBooksByText(
+            @Parameter(description = "Words every returned book must contain",
+                    example = "толстой война") @RequestParam String query,
+            @Parameter(description = "Number of books, from 1 to 100", example = "20")
+            @RequestParam(defaultValue = "20") int limit,
+            @Parameter(description = "Fields to return, e.g. id,name,year,rating")
+            @RequestParam(required = false) String fields,
+            @Parameter(description = "Associations to add: authors, categories, reviewSummary, "
+                    + "reviews")
+            @RequestParam(required = false) String expand) {
+        BookFields bookFields = BookFields.of(fields, expand);
+        return ResponseEntity.ok(bookService.searchBooksByText(query, limit, bookFields));
+    }
+
+    @Operation(summary = "Suggest books and authors",
+            description = "Retrieves book and author names starting with the typed text "
+                    + "or with a word of it, best rated books and most prolific authors first")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Suggestions retrieved successfully"),
+        @ApiResponse(responseCode = "400", description = "Incorrect limit")
+    })
+    @GetMapping("/suggest")
+    public ResponseEntity<SuggestionsGetDto> suggest(
+            @Parameter(description = "Text typed so far", example = "войн")
+            @RequestParam String prefix,
+            @Parameter(description = "Suggestions of each kind, from 1 to 10", example = "10")
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(suggestService.suggest(prefix, limit));
+    }
+
+    @Operation(summary = "Get all books", description = "Retrieves a page of books ordered by ID")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Book found successfully"),
+        @ApiResponse(responseCode = "400", description = "Incorrect page size or unknown field")
+    })
     @GetMapping
-    public ResponseEntity<List<BookGetDto>> getAllBooks() {
-        return ResponseEntity.ok(bookService.getAllBooks());
+    public ResponseEntity<PageGetDto<BookGetDto>> getAllBooks(
+            @Parameter(description = "Return books with IDs greater than this cursor")
+            @RequestParam(required = false) Long after,
+            @Parameter(description = "Page size, from 1 to 100", example = "20")
+            @RequestParam(defaultValue = "20") int limit,
+            @Parameter(description = "Fields to return, e.g. id,name,year,rating")
+            @RequestParam(required = false) String fields,
+            @Parameter(description = "Associations to add: authors, categories, reviewSummary, "
+                    + "reviews")
+            @RequestParam(required = false) String expand,
+            @Parameter(description = "Same as expand=reviews, kept for older clients")
+            @RequestParam(defaultValue = "false") boolean includeReviews) {
+        BookFields bookFields = fieldsOf(fields, expand, includeReviews);
+        return ResponseEntity.ok(bookService.getAllBooks(after, limit, bookFields));
+    }
+
+    @Operation(summary = "Export all books",
+            description = "Streams the whole catalog as NDJSON or CSV, one book per line")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Catalog exported successfully"),
+        @ApiResponse(responseCode = "400", description = "Unsupported format")
+    })
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportBooks(
+            @Parameter(description = "ndjson or csv", example = "ndjson")
+            @RequestParam(defaultValue = "ndjson") String format) {
+        FileFormat fileFormat = FileFormat.of(format);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(fileFormat.contentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"books." + fileFormat.extension() + "\"")
+                .body(out -> bookExportService.exportBooks(fileFormat, out));
     }
 
     @Operation(summary = "Create book", description = "Creates new book")
@@ -112,9 +346,41 @@ public class BookController {
             @Parameter(description = "Data to create books")
             @Valid @RequestBody
             BulkCreateDto<BookCreateDto> books) {
-        return new ResponseEntity<>(books.getDtos().stream().map(
-                bookCreateDto -> bookService.createBook(bookCreateDto))
-                .toList(), HttpStatus.CREATED);
+        return new ResponseEntity<>(bookService.createBooks(books.getDtos()),
+                HttpStatus.CREATED);
+    }
+
+    @Operation(summary = "Import books",
+            description = "Starts importing books from an NDJSON or CSV upload "
+                    + "(header: name,page_amount,year,author_ids,category_ids; "
+                    + "ids separated by ';')")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Import started successfully"),
+        @ApiResponse(responseCode = "400", description = "Unsupported format"),
+        @ApiResponse(responseCode = "413", description = "Upload is too large"),
+        @ApiResponse(responseCode = "507", description = "Not enough disk space for the upload")
+    })
+    @PostMapping("/import")
+    public ResponseEntity<ImportJobGetDto> importBooks(
+            @Parameter(description = "ndjson or csv", example = "ndjson")
+            @RequestParam(defaultValue = "ndjson") String format,
+            @Parameter(hidden = true)
+            @RequestHeader(value = HttpHeaders.CONTENT_LENGTH, required = false) Long size,
+            InputStream upload) throws IOException {
+        return new ResponseEntity<>(bookImportService.startImport(FileFormat.of(format), upload,
+                size == null ? -1 : size), HttpStatus.ACCEPTED);
+    }
+
+    @Operation(summary = "Get import status",
+            description = "Retrieves progress and per-record errors of an import")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Status retrieved successfully"),
+        @ApiResponse(responseCode = "404", description = "Import wasn't found")
+    })
+    @GetMapping("/import/{jobId}")
+    public ResponseEntity<ImportJobGetDto> getImportJob(
+            @Parameter(description = "Import job's ID") @PathVariable String jobId) {
+        return ResponseEntity.ok(bookImportService.getImportJob(jobId));
     }
 
     @Operation(summary = "Update book by ID", description = "Update existing book")
@@ -142,4 +408,15 @@ public class BookController {
         bookService.deleteBook(id);
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
+
+    private static ResponseEntity<List<BookGetDto>> matchResponse(BookMatch match) {
+        return ResponseEntity.ok()
+                .header(APPROXIMATE_MATCH_HEADER, String.valueOf(match.approximate()))
+                .body(match.books());
+    }
+
+    private static BookFields fieldsOf(String fields, String expand, boolean includeReviews) {
+        BookFields bookFields = BookFields.of(fields, expand);
+        return includeReviews ? bookFields.withReviews() : bookFields;
+    }
 }
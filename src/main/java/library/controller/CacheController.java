@@ -0,0 +1,40 @@
+package library.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import library.cache.CacheStats;
+import library.cache.InMemoryCache;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/cache")
+@Tag(name = "Cache Controller", description = "API for inspecting the cache")
+public class CacheController {
+    private final InMemoryCache cache;
+
+    public CacheController(InMemoryCache cache) {
+        this.cache = cache;
+    }
+
+    @GetMapping("/stats")
+    @Operation(summary = "Get cache statistics",
+            description = "Retrieves hits, misses, load time, evictions by cause, "
+                    + "size and estimated bytes per key family")
+    @ApiResponse(responseCode = "200", description = "Successfully retrieved statistics")
+    public ResponseEntity<CacheStats> getStats() {
+        return ResponseEntity.ok(cache.stats());
+    }
+
+    @DeleteMapping("/stats")
+    @Operation(summary = "Reset cache statistics")
+    @ApiResponse(responseCode = "204", description = "Statistics were reset")
+    public ResponseEntity<Void> resetStats() {
+        cache.resetStats();
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -6,9 +6,9 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
-import java.util.List;
 import library.dto.create.CategoryCreateDto;
 import library.dto.get.CategoryGetDto;
+import library.dto.get.PageGetDto;
 import library.service.CategoryService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -20,6 +20,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
@@ -44,11 +45,16 @@ public class CategoryController {
         return ResponseEntity.ok(categoryService.getCategoryById(id));
     }
 
-    @Operation(summary = "Get all categories", description = "Retrieves all categories")
+    @Operation(summary = "Get all categories",
+            description = "Retrieves a page of categories ordered by ID")
     @ApiResponse(responseCode = "200", description = "All categories retrieved successfully")
     @GetMapping
-    public ResponseEntity<List<CategoryGetDto>> getAllCategories() {
-        return ResponseEntity.ok(categoryService.getAllCategories());
+    public ResponseEntity<PageGetDto<CategoryGetDto>> getAllCategories(
+            @Parameter(description = "Return categories with IDs greater than this cursor")
+            @RequestParam(required = false) Long after,
+            @Parameter(description = "Page size, from 1 to 100", example = "20")
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(categoryService.getAllCategories(after, limit));
     }
 
     @Operation(summary = "Create category", description = "Create new category")
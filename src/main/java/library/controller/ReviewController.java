@@ -6,8 +6,8 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
-import java.util.List;
 import library.dto.create.ReviewCreateDto;
+import library.dto.get.PageGetDto;
 import library.dto.get.ReviewGetDto;
 import library.service.ReviewService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -20,6 +20,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
@@ -33,15 +34,21 @@ public class ReviewController {
         this.reviewService = reviewService;
     }
 
-    @Operation(summary = "Get all reviews", description = "Retrieves all reviews of specified book")
+    @Operation(summary = "Get all reviews",
+            description = "Retrieves a page of reviews of specified book ordered by ID")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Reviews retrieved successfully"),
+        @ApiResponse(responseCode = "400", description = "Incorrect page size"),
         @ApiResponse(responseCode = "404", description = "Book not found")
     })
     @GetMapping
-    public ResponseEntity<List<ReviewGetDto>> getAllReviews(
-            @Parameter(description = "Book's ID", example = "2") @PathVariable Long bookId) {
-        return ResponseEntity.ok(reviewService.getAllReviews(bookId));
+    public ResponseEntity<PageGetDto<ReviewGetDto>> getAllReviews(
+            @Parameter(description = "Book's ID", example = "2") @PathVariable Long bookId,
+            @Parameter(description = "Return reviews with IDs greater than this cursor")
+            @RequestParam(required = false) Long after,
+            @Parameter(description = "Page size, from 1 to 100", example = "20")
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(reviewService.getAllReviews(bookId, after, limit));
     }
 
     @Operation(summary = "Get book's review by ID",
@@ -6,10 +6,10 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
-import java.util.List;
 import library.dto.AuthorizationRequest;
 import library.dto.AuthorizationResponse;
 import library.dto.create.UserCreateDto;
+import library.dto.get.PageGetDto;
 import library.dto.get.UserGetDto;
 import library.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -22,6 +22,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
@@ -48,11 +49,15 @@ public class UserController {
         return ResponseEntity.ok(user);
     }
 
-    @Operation(summary = "Get all users", description = "Retrieves all users")
+    @Operation(summary = "Get all users", description = "Retrieves a page of users ordered by ID")
     @ApiResponse(responseCode = "200", description = "All users retrieved successfully")
     @GetMapping
-    public ResponseEntity<List<UserGetDto>> getAllUsers() {
-        return ResponseEntity.ok(userService.getAllUsers());
+    public ResponseEntity<PageGetDto<UserGetDto>> getAllUsers(
+            @Parameter(description = "Return users with IDs greater than this cursor")
+            @RequestParam(required = false) Long after,
+            @Parameter(description = "Page size, from 1 to 100", example = "20")
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(userService.getAllUsers(after, limit));
     }
 
     @Operation(summary = "Create user",
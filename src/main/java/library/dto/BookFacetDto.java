@@ -0,0 +1,18 @@
+package library.dto;
+
+import java.util.List;
+import lombok.Getter;
+import lombok.Setter;
+
+// Query parameters of faceted browsing. Values of one facet are
+// alternatives; books must match every facet given.
+@Getter
+@Setter
+public class BookFacetDto {
+    private List<Long> categoryIds;
+    private List<Long> authorIds;
+    // First years of decades, e.g. 1860.
+    private List<Integer> decades;
+    // Whole stars: 4 holds ratings from 4 up to 5; 0 also holds unrated books.
+    private List<Integer> ratings;
+}
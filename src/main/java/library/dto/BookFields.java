@@ -0,0 +1,101 @@
+package library.dto;
+
+import java.util.HashSet;
+import java.util.Set;
+import library.exception.BadRequestException;
+
+// The BookGetDto fields a client asked for with fields= and expand=. Every
+// association costs at least one query, so only the ones in the set are
+// loaded, mapped and serialized. The id is always kept because cursors and
+// cache tags rely on it.
+public final class BookFields {
+    public static final String ID = "id";
+    public static final String NAME = "name";
+    public static final String PAGE_AMOUNT = "pageAmount";
+    public static final String YEAR = "year";
+    public static final String RATING = "rating";
+    public static final String AUTHORS = "authors";
+    public static final String CATEGORIES = "categories";
+    public static final String REVIEW_SUMMARY = "reviewSummary";
+    public static final String REVIEWS = "reviews";
+
+    private static final Set<String> ALL = Set.of(ID, NAME, PAGE_AMOUNT, YEAR, RATING,
+            AUTHORS, CATEGORIES, REVIEW_SUMMARY, REVIEWS);
+    private static final Set<String> ASSOCIATIONS = Set.of(AUTHORS, CATEGORIES,
+            REVIEW_SUMMARY, REVIEWS);
+
+    // The shape books had before fields could be chosen: everything except
+    // the full reviews.
+    public static final BookFields DEFAULT = new BookFields(Set.of(ID, NAME, PAGE_AMOUNT, YEAR,
+            RATING, AUTHORS, CATEGORIES, REVIEW_SUMMARY));
+
+    private final Set<String> names;
+
+    private BookFields(Set<String> names) {
+        this.names = names;
+    }
+
+    // fields replaces the default set, expand adds associations to it.
+    public static BookFields of(String fields, String expand) {
+        if (isBlank(fields) && isBlank(expand)) {
+            return DEFAULT;
+        }
+        Set<String> names = new HashSet<>(isBlank(fields) ? DEFAULT.names : parse(fields, ALL));
+        names.add(ID);
+        if (!isBlank(expand)) {
+            names.addAll(parse(expand, ASSOCIATIONS));
+        }
+        return names.equals(DEFAULT.names) ? DEFAULT : new BookFields(Set.copyOf(names));
+    }
+
+    public BookFields withReviews() {
+        if (has(REVIEWS)) {
+            return this;
+        }
+        Set<String> withReviews = new HashSet<>(names);
+        withReviews.add(REVIEWS);
+        return new BookFields(Set.copyOf(withReviews));
+    }
+
+    public boolean has(String name) {
+        return names.contains(name);
+    }
+
+    public boolean isDefault() {
+        return names.equals(DEFAULT.names);
+    }
+
+    private static Set<String> parse(String list, Set<String> allowed) {
+        Set<String> names = new HashSet<>();
+        for (String name : list.split(",")) {
+            String trimmed = name.strip();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            if (!allowed.contains(trimmed)) {
+                throw new BadRequestException("Unknown book field: " + trimmed);
+            }
+            names.add(trimmed);
+        }
+        return names;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof BookFields other && names.equals(other.names);
+    }
+
+    @Override
+    public int hashCode() {
+        return names.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return String.join(",", names.stream().sorted().toList());
+    }
+}
@@ -0,0 +1,16 @@
+package library.dto;
+
+import java.util.List;
+import library.dto.get.BookGetDto;
+
+// Books found by a name lookup. Approximate when the exact name matched
+// nothing and the books come from the closest names instead.
+public record BookMatch(List<BookGetDto> books, boolean approximate) {
+    public static BookMatch exact(List<BookGetDto> books) {
+        return new BookMatch(books, false);
+    }
+
+    public static BookMatch approximate(List<BookGetDto> books) {
+        return new BookMatch(books, true);
+    }
+}
@@ -0,0 +1,65 @@
+package library.dto;
+
+import java.util.Set;
+import library.cache.CacheKey;
+import library.exception.BadRequestException;
+
+// Normalized form of a BookSearchDto. Names are normalized like cache keys
+// and blank filters are dropped, so equivalent searches share one key.
+public record BookSearchCriteria(String name, String author, String category,
+                                 Integer yearFrom, Integer yearTo,
+                                 Integer pagesFrom, Integer pagesTo, Double minRating,
+                                 String sortField, boolean descending) {
+    private static final Set<String> SORT_FIELDS = Set.of(BookFields.ID, BookFields.NAME,
+            BookFields.YEAR, BookFields.PAGE_AMOUNT, BookFields.RATING);
+
+    public static BookSearchCriteria of(BookSearchDto dto) {
+        checkRange(dto.getYearFrom(), dto.getYearTo(), "year");
+        checkRange(dto.getPagesFrom(), dto.getPagesTo(), "page amount");
+
+        String sort = dto.getSort() == null || dto.getSort().isBlank()
+                ? BookFields.ID : dto.getSort().strip();
+        boolean descending = sort.startsWith("-");
+        String sortField = descending ? sort.substring(1) : sort;
+        if (!SORT_FIELDS.contains(sortField)) {
+            throw new BadRequestException("Unsupported sort field: " + sortField);
+        }
+
+        return new BookSearchCriteria(normalize(dto.getName()), normalize(dto.getAuthor()),
+                normalize(dto.getCategory()), dto.getYearFrom(), dto.getYearTo(),
+                dto.getPagesFrom(), dto.getPagesTo(), dto.getMinRating(),
+                sortField, descending);
+    }
+
+    // Canonical text of the criteria, used as the cache key argument.
+    public String key() {
+        return "name=" + escape(name) + "|author=" + escape(author)
+                + "|category=" + escape(category)
+                + "|year=" + orEmpty(yearFrom) + ".." + orEmpty(yearTo)
+                + "|pages=" + orEmpty(pagesFrom) + ".." + orEmpty(pagesTo)
+                + "|minRating=" + orEmpty(minRating)
+                + "|sort=" + (descending ? "-" : "") + sortField;
+    }
+
+    private static void checkRange(Integer from, Integer to, String field) {
+        if (from != null && to != null && from > to) {
+            throw new BadRequestException("Invalid " + field + " range: " + from + ".." + to);
+        }
+    }
+
+    private static String normalize(String name) {
+        if (name == null || name.isBlank()) {
+            return null;
+        }
+        return CacheKey.normalize(name);
+    }
+
+    // Separators inside names are escaped so two searches never share a key.
+    private static String escape(String value) {
+        return value == null ? "" : value.replace("\\", "\\\\").replace("|", "\\|");
+    }
+
+    private static String orEmpty(Object value) {
+        return value == null ? "" : value.toString();
+    }
+}
@@ -0,0 +1,27 @@
+package library.dto;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.Getter;
+import lombok.Setter;
+
+// Query parameters of the book search; every filter is optional.
+@Getter
+@Setter
+public class BookSearchDto {
+    private String name;
+    private String author;
+    private String category;
+    private Integer yearFrom;
+    private Integer yearTo;
+    @PositiveOrZero(message = "Page amount can't be negative")
+    private Integer pagesFrom;
+    @PositiveOrZero(message = "Page amount can't be negative")
+    private Integer pagesTo;
+    @DecimalMin(value = "0.0", message = "Rating must be between 0 and 5")
+    @DecimalMax(value = "5.0", message = "Rating must be between 0 and 5")
+    private Double minRating;
+    // A field name, prefixed with "-" for descending order.
+    private String sort;
+}
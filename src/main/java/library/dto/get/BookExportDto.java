@@ -0,0 +1,17 @@
+package library.dto.get;
+
+import java.util.List;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class BookExportDto {
+    private Long id;
+    private String name;
+    private int pageAmount;
+    private int year;
+    private Double rating;
+    private List<String> authors;
+    private List<String> categories;
+}
@@ -0,0 +1,20 @@
+package library.dto.get;
+
+import java.util.List;
+import lombok.Getter;
+import lombok.Setter;
+
+// A page of books matching the facet filters, with the number of all
+// matching books and, per facet, the values with the most books. Counts
+// of a facet ignore its own filter, so they show what choosing another
+// value would give.
+@Getter
+@Setter
+public class BookFacetsGetDto {
+    private PageGetDto<BookGetDto> books;
+    private int total;
+    private List<FacetCountGetDto> categories;
+    private List<FacetCountGetDto> authors;
+    private List<FacetCountGetDto> decades;
+    private List<FacetCountGetDto> ratings;
+}
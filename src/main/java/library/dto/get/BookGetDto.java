@@ -1,19 +1,25 @@
 package library.dto.get;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import java.util.List;
 import java.util.Set;
 import lombok.Getter;
 import lombok.Setter;
 
+// Fields left out of the requested BookFields stay null and are not
+// serialized. Full reviews are only filled when asked for; otherwise they
+// are paged through /api/books/{bookId}/reviews.
 @Getter
 @Setter
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class BookGetDto {
     private Long id;
     private String name;
     private Set<AuthorGetDto> authors;
     private Set<CategoryGetDto> categories;
-    private int pageAmount;
+    private Integer pageAmount;
+    private ReviewSummaryGetDto reviewSummary;
     private List<ReviewGetDto> reviews;
-    private int year;
+    private Integer year;
     private Double rating;
 }
@@ -0,0 +1,16 @@
+package library.dto.get;
+
+import java.util.List;
+import lombok.Getter;
+import lombok.Setter;
+
+// A page of search results. Search can sort by any field, so it is paged by
+// offset rather than by the id cursor of the other lists, and says so in
+// the name of the field.
+@Getter
+@Setter
+public class BookPageGetDto {
+    private List<BookGetDto> items;
+    // Pass back as "offset" to get the next page; null on the last page.
+    private Long nextOffset;
+}
@@ -0,0 +1,13 @@
+package library.dto.get;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class FacetCountGetDto {
+    private Long value;
+    // Name of the category or author; null for decades and ratings.
+    private String name;
+    private int count;
+}
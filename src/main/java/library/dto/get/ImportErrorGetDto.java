@@ -0,0 +1,13 @@
+package library.dto.get;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class ImportErrorGetDto {
+    private long line;
+    private String message;
+}
@@ -0,0 +1,17 @@
+package library.dto.get;
+
+import java.util.List;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class ImportJobGetDto {
+    private String id;
+    private String status;
+    private long processed;
+    private long imported;
+    private long failed;
+    // At most the first BookImportService.MAX_REPORTED_ERRORS failures.
+    private List<ImportErrorGetDto> errors;
+}
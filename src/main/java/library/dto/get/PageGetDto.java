@@ -0,0 +1,13 @@
+package library.dto.get;
+
+import java.util.List;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class PageGetDto<T> {
+    private List<T> items;
+    // Pass back as "after" to get the next page; null on the last page.
+    private Long nextCursor;
+}
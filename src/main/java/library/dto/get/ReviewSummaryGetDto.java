@@ -0,0 +1,14 @@
+package library.dto.get;
+
+import java.util.Map;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class ReviewSummaryGetDto {
+    private long count;
+    private Double average;
+    // Number of reviews per rating, from 1 to 5.
+    private Map<Integer, Long> histogram;
+}
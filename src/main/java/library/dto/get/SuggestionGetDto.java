@@ -0,0 +1,11 @@
+package library.dto.get;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class SuggestionGetDto {
+    private Long id;
+    private String name;
+}
@@ -0,0 +1,12 @@
+package library.dto.get;
+
+import java.util.List;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class SuggestionsGetDto {
+    private List<SuggestionGetDto> books;
+    private List<SuggestionGetDto> authors;
+}
@@ -0,0 +1,4 @@
+package library.dto.projection;
+
+public record AuthorBookRow(Long authorId, String bookName) {
+}
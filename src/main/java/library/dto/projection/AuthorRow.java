@@ -0,0 +1,4 @@
+package library.dto.projection;
+
+public record AuthorRow(Long bookId, Long id, String name, String info) {
+}
@@ -0,0 +1,4 @@
+package library.dto.projection;
+
+public record BookLinkRow(Long bookId, Long id) {
+}
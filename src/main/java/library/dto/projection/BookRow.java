@@ -0,0 +1,4 @@
+package library.dto.projection;
+
+public record BookRow(Long id, String name, int pageAmount, int year, Double rating) {
+}
@@ -0,0 +1,4 @@
+package library.dto.projection;
+
+public record CategoryNameRow(Long bookId, Long id, String name) {
+}
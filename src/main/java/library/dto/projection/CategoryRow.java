@@ -0,0 +1,4 @@
+package library.dto.projection;
+
+public record CategoryRow(Long bookId, Long id, String name, Integer count) {
+}
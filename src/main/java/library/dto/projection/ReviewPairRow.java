@@ -0,0 +1,4 @@
+package library.dto.projection;
+
+public record ReviewPairRow(Long id, Long userId, Long bookId) {
+}
@@ -0,0 +1,5 @@
+package library.dto.projection;
+
+public record ReviewRow(Long bookId, Long id, int rating, String comment,
+                        Long userId, String userName, String userEmail) {
+}
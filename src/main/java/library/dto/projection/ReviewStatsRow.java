@@ -0,0 +1,4 @@
+package library.dto.projection;
+
+public record ReviewStatsRow(Long bookId, int rating, Long count) {
+}
@@ -0,0 +1,4 @@
+package library.dto.projection;
+
+public record SuggestRow(Long id, String name, Double score) {
+}
@@ -0,0 +1,7 @@
+package library.exception;
+
+public class InsufficientStorageException extends RuntimeException {
+    public InsufficientStorageException(String message) {
+        super(message);
+    }
+}
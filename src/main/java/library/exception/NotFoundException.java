@@ -1,7 +1,9 @@
 package library.exception;
 
 public class NotFoundException extends RuntimeException {
+    // 404s are answered from the message alone, so the stack trace is never
+    // filled in; cached misses rethrow the same instance.
     public NotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
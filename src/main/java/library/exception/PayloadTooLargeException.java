@@ -0,0 +1,7 @@
+package library.exception;
+
+public class PayloadTooLargeException extends RuntimeException {
+    public PayloadTooLargeException(String message) {
+        super(message);
+    }
+}
@@ -4,11 +4,11 @@ import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 import library.dto.create.BookCreateDto;
+import library.dto.get.BookExportDto;
 import library.dto.get.BookGetDto;
 import library.model.Author;
 import library.model.Book;
 import library.model.Category;
-import library.model.Review;
 import lombok.experimental.UtilityClass;
 
 @UtilityClass
@@ -22,9 +22,10 @@ public class BookMapper {
         dto.setYear(book.getYear());
         dto.setRating(book.getRating());
 
+        // Reviews are left out: walking them here would lazily load every
+        // review and its user.
         Set<Author> authors = book.getAuthors();
         Set<Category> categories = book.getCategories();
-        List<Review> reviews = book.getReviews();
         if (authors != null) {
             dto.setAuthors(book.getAuthors().stream()
                     .map(AuthorMapper::toDto)
@@ -35,15 +36,32 @@ public class BookMapper {
                     .map(CategoryMapper::toDto)
                     .collect(Collectors.toSet()));
         }
-        if (reviews != null) {
-            dto.setReviews(book.getReviews().stream()
-                    .map(ReviewMapper::toDto)
-                    .toList());
-        }
         return dto;
 
     }
 
+    // Flat row for catalog exports: names instead of nested objects and no
+    // reviews, so each row stays small whatever the book's history.
+    public BookExportDto toExportDto(Book book) {
+        BookExportDto dto = new BookExportDto();
+
+        dto.setId(book.getId());
+        dto.setName(book.getName());
+        dto.setPageAmount(book.getPageAmount());
+        dto.setYear(book.getYear());
+        dto.setRating(book.getRating());
+        dto.setAuthors(book.getAuthors() == null ? List.of() : book.getAuthors().stream()
+                .map(Author::getName)
+                .sorted()
+                .toList());
+        dto.setCategories(book.getCategories() == null ? List.of() : book.getCategories().stream()
+                .map(Category::getName)
+                .sorted()
+                .toList());
+
+        return dto;
+    }
+
     public Book fromDto(BookCreateDto dto) {
         Book entity = new Book();
 
@@ -0,0 +1,161 @@
+package library.mapper;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import library.dto.BookFields;
+import library.dto.get.AuthorGetDto;
+import library.dto.get.BookGetDto;
+import library.dto.get.CategoryGetDto;
+import library.dto.get.ReviewGetDto;
+import library.dto.projection.AuthorBookRow;
+import library.dto.projection.AuthorRow;
+import library.dto.projection.BookRow;
+import library.dto.projection.CategoryRow;
+import library.dto.projection.ReviewRow;
+import library.dto.projection.ReviewStatsRow;
+import lombok.experimental.UtilityClass;
+
+// Assembles BookGetDto graphs from flat projection rows in one pass over
+// each result. An author or category linked to several books is built
+// once and shared between them; reviews are reduced to a summary. Fields
+// outside the requested set are left null.
+@UtilityClass
+public class BookRowMapper {
+    public List<BookGetDto> toDtos(BookFields fields, List<BookRow> books,
+                                   List<AuthorRow> authors, List<AuthorBookRow> authorBooks,
+                                   List<CategoryRow> categories,
+                                   List<ReviewStatsRow> reviewStats) {
+        Map<Long, BookGetDto> byId = new LinkedHashMap<>();
+        for (BookRow row : books) {
+            BookGetDto dto = new BookGetDto();
+            dto.setId(row.id());
+            if (fields.has(BookFields.NAME)) {
+                dto.setName(row.name());
+            }
+            if (fields.has(BookFields.PAGE_AMOUNT)) {
+                dto.setPageAmount(row.pageAmount());
+            }
+            if (fields.has(BookFields.YEAR)) {
+                dto.setYear(row.year());
+            }
+            if (fields.has(BookFields.RATING)) {
+                dto.setRating(row.rating());
+            }
+            if (fields.has(BookFields.AUTHORS)) {
+                dto.setAuthors(new HashSet<>());
+            }
+            if (fields.has(BookFields.CATEGORIES)) {
+                dto.setCategories(new HashSet<>());
+            }
+            byId.put(row.id(), dto);
+        }
+
+        Map<Long, List<String>> bookNames = new HashMap<>();
+        for (AuthorBookRow row : authorBooks) {
+            bookNames.computeIfAbsent(row.authorId(), id -> new ArrayList<>()).add(row.bookName());
+        }
+        Map<Long, AuthorGetDto> authorDtos = new HashMap<>();
+        for (AuthorRow row : authors) {
+            AuthorGetDto author = authorDtos.computeIfAbsent(row.id(), id -> {
+                AuthorGetDto dto = new AuthorGetDto();
+                dto.setId(id);
+                dto.setName(row.name());
+                dto.setInfo(row.info());
+                dto.setBooks(bookNames.getOrDefault(id, List.of()));
+                return dto;
+            });
+            byId.get(row.bookId()).getAuthors().add(author);
+        }
+
+        Map<Long, CategoryGetDto> categoryDtos = new HashMap<>();
+        for (CategoryRow row : categories) {
+            CategoryGetDto category = categoryDtos.computeIfAbsent(row.id(), id -> {
+                CategoryGetDto dto = new CategoryGetDto();
+                dto.setId(id);
+                dto.setName(row.name());
+                dto.setCount(row.count());
+                return dto;
+            });
+            byId.get(row.bookId()).getCategories().add(category);
+        }
+
+        Map<Long, List<ReviewStatsRow>> stats = new HashMap<>();
+        for (ReviewStatsRow row : reviewStats) {
+            stats.computeIfAbsent(row.bookId(), id -> new ArrayList<>()).add(row);
+        }
+        if (fields.has(BookFields.REVIEW_SUMMARY)) {
+            for (BookGetDto dto : byId.values()) {
+                dto.setReviewSummary(ReviewMapper.toSummary(
+                        stats.getOrDefault(dto.getId(), List.of())));
+            }
+        }
+
+        return new ArrayList<>(byId.values());
+    }
+
+    // Returns copies of the books with their full reviews embedded. The
+    // books themselves may be shared through the cache, so they are left
+    // untouched.
+    public List<BookGetDto> withReviews(List<BookGetDto> books, List<ReviewRow> reviews) {
+        Map<Long, List<ReviewGetDto>> byBook = new HashMap<>();
+        for (ReviewRow row : reviews) {
+            byBook.computeIfAbsent(row.bookId(), id -> new ArrayList<>())
+                    .add(ReviewMapper.toDto(row));
+        }
+        List<BookGetDto> copies = new ArrayList<>(books.size());
+        for (BookGetDto book : books) {
+            BookGetDto copy = new BookGetDto();
+            copy.setId(book.getId());
+            copy.setName(book.getName());
+            copy.setAuthors(book.getAuthors());
+            copy.setCategories(book.getCategories());
+            copy.setPageAmount(book.getPageAmount());
+            copy.setYear(book.getYear());
+            copy.setRating(book.getRating());
+            copy.setReviewSummary(book.getReviewSummary());
+            copy.setReviews(byBook.getOrDefault(book.getId(), List.of()));
+            copies.add(copy);
+        }
+        return copies;
+    }
+
+    // Narrows books loaded in the default shape, such as cached ones, down to
+    // the requested fields. Copies are returned so the originals stay intact.
+    public List<BookGetDto> select(List<BookGetDto> books, BookFields fields) {
+        List<BookGetDto> copies = new ArrayList<>(books.size());
+        for (BookGetDto book : books) {
+            BookGetDto copy = new BookGetDto();
+            copy.setId(book.getId());
+            if (fields.has(BookFields.NAME)) {
+                copy.setName(book.getName());
+            }
+            if (fields.has(BookFields.PAGE_AMOUNT)) {
+                copy.setPageAmount(book.getPageAmount());
+            }
+            if (fields.has(BookFields.YEAR)) {
+                copy.setYear(book.getYear());
+            }
+            if (fields.has(BookFields.RATING)) {
+                copy.setRating(book.getRating());
+            }
+            if (fields.has(BookFields.AUTHORS)) {
+                copy.setAuthors(book.getAuthors());
+            }
+            if (fields.has(BookFields.CATEGORIES)) {
+                copy.setCategories(book.getCategories());
+            }
+            if (fields.has(BookFields.REVIEW_SUMMARY)) {
+                copy.setReviewSummary(book.getReviewSummary());
+            }
+            if (fields.has(BookFields.REVIEWS)) {
+                copy.setReviews(book.getReviews());
+            }
+            copies.add(copy);
+        }
+        return copies;
+    }
+}
@@ -0,0 +1,35 @@
+package library.mapper;
+
+import java.util.List;
+import library.dto.get.BookFacetsGetDto;
+import library.dto.get.BookGetDto;
+import library.dto.get.FacetCountGetDto;
+import library.dto.get.PageGetDto;
+import library.search.FacetIndex;
+import lombok.experimental.UtilityClass;
+
+@UtilityClass
+public class FacetMapper {
+    public BookFacetsGetDto toDto(FacetIndex.Result result, PageGetDto<BookGetDto> books) {
+        BookFacetsGetDto dto = new BookFacetsGetDto();
+
+        dto.setBooks(books);
+        dto.setTotal(result.total());
+        dto.setCategories(toDtos(result.counts().get(FacetIndex.Facet.CATEGORY)));
+        dto.setAuthors(toDtos(result.counts().get(FacetIndex.Facet.AUTHOR)));
+        dto.setDecades(toDtos(result.counts().get(FacetIndex.Facet.DECADE)));
+        dto.setRatings(toDtos(result.counts().get(FacetIndex.Facet.RATING)));
+
+        return dto;
+    }
+
+    private List<FacetCountGetDto> toDtos(List<FacetIndex.Count> counts) {
+        return counts.stream().map(count -> {
+            FacetCountGetDto dto = new FacetCountGetDto();
+            dto.setValue(count.value());
+            dto.setName(count.label());
+            dto.setCount(count.count());
+            return dto;
+        }).toList();
+    }
+}
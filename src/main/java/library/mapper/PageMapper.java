@@ -0,0 +1,31 @@
+package library.mapper;
+
+import java.util.List;
+import java.util.function.Function;
+import library.dto.get.PageGetDto;
+import lombok.experimental.UtilityClass;
+
+@UtilityClass
+public class PageMapper {
+    public <E, D> PageGetDto<D> toDto(List<E> rows, int limit,
+                                      Function<E, Long> idOf, Function<E, D> toDto) {
+        return toBatchDto(rows, limit, idOf, page -> page.stream().map(toDto).toList());
+    }
+
+    // Rows are fetched with one extra element beyond the limit; its presence
+    // means there is a next page, which starts after the last returned id.
+    // The page is mapped as a whole so the mapper can load what it needs for
+    // all rows at once.
+    public <E, D> PageGetDto<D> toBatchDto(List<E> rows, int limit, Function<E, Long> idOf,
+                                           Function<List<E>, List<D>> toDtos) {
+        PageGetDto<D> dto = new PageGetDto<>();
+        List<E> page = rows.size() > limit ? rows.subList(0, limit) : rows;
+
+        dto.setItems(toDtos.apply(page));
+        if (rows.size() > limit) {
+            dto.setNextCursor(idOf.apply(page.get(page.size() - 1)));
+        }
+
+        return dto;
+    }
+}
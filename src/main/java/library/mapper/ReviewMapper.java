@@ -1,12 +1,22 @@
 package library.mapper;
 
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import library.dto.create.ReviewCreateDto;
 import library.dto.get.ReviewGetDto;
+import library.dto.get.ReviewSummaryGetDto;
+import library.dto.get.UserGetDto;
+import library.dto.projection.ReviewRow;
+import library.dto.projection.ReviewStatsRow;
 import library.model.Review;
 import lombok.experimental.UtilityClass;
 
 @UtilityClass
 public class ReviewMapper {
+    private static final int MIN_RATING = 1;
+    private static final int MAX_RATING = 5;
+
     public ReviewGetDto toDto(Review review) {
         ReviewGetDto dto = new ReviewGetDto();
 
@@ -18,6 +28,44 @@ public class ReviewMapper {
         return dto;
     }
 
+    public ReviewGetDto toDto(ReviewRow row) {
+        UserGetDto user = new UserGetDto();
+        user.setId(row.userId());
+        user.setName(row.userName());
+        user.setEmail(row.userEmail());
+
+        ReviewGetDto dto = new ReviewGetDto();
+        dto.setId(row.id());
+        dto.setUser(user);
+        dto.setRating(row.rating());
+        dto.setComment(row.comment());
+
+        return dto;
+    }
+
+    // Builds the summary of one book from its per-rating counts. Every rating
+    // is present in the histogram, with zero when nobody gave it.
+    public ReviewSummaryGetDto toSummary(List<ReviewStatsRow> stats) {
+        Map<Integer, Long> histogram = new TreeMap<>();
+        for (int rating = MIN_RATING; rating <= MAX_RATING; rating++) {
+            histogram.put(rating, 0L);
+        }
+        long count = 0;
+        long sum = 0;
+        for (ReviewStatsRow row : stats) {
+            histogram.merge(row.rating(), row.count(), Long::sum);
+            count += row.count();
+            sum += row.rating() * row.count();
+        }
+
+        ReviewSummaryGetDto dto = new ReviewSummaryGetDto();
+        dto.setCount(count);
+        dto.setAverage(count == 0 ? null : (double) sum / count);
+        dto.setHistogram(histogram);
+
+        return dto;
+    }
+
     public Review fromDto(ReviewCreateDto reviewDto) {
         Review entity = new Review();
 
@@ -6,6 +6,7 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
@@ -17,7 +18,9 @@ import lombok.Setter;
 @Getter
 @Setter
 @Entity
-@Table(name = "reviews")
+// Reviews are read per book in id order, both for pages and for summaries.
+@Table(name = "reviews",
+        indexes = @Index(name = "idx_reviews_book_id_id", columnList = "book_id, id"))
 @AllArgsConstructor
 @NoArgsConstructor
 public class Review {
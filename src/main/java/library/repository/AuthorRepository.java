@@ -1,10 +1,16 @@
 package library.repository;
 
 import jakarta.annotation.Nonnull;
+import java.util.Collection;
 import java.util.List;
+import library.dto.projection.AuthorBookRow;
+import library.dto.projection.AuthorRow;
+import library.dto.projection.SuggestRow;
 import library.model.Author;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
@@ -12,4 +18,20 @@ public interface AuthorRepository extends JpaRepository<Author, Long> {
     @Nonnull
     @Query("SELECT a FROM Author a LEFT JOIN a.books")
     List<Author> findAll();
-}
\ No newline at end of file
+
+    List<Author> findByIdGreaterThanOrderByIdAsc(long after, Limit limit);
+
+    @Query("SELECT new library.dto.projection.AuthorRow(b.id, a.id, a.name, a.info) "
+            + "FROM Book b JOIN b.authors a WHERE b.id IN :bookIds")
+    List<AuthorRow> findRowsByBookIds(@Param("bookIds") Collection<Long> bookIds);
+
+    @Query("SELECT new library.dto.projection.AuthorBookRow(a.id, b.name) "
+            + "FROM Author a JOIN a.books b WHERE a.id IN :authorIds ORDER BY b.id")
+    List<AuthorBookRow> findBookNamesByAuthorIds(
+            @Param("authorIds") Collection<Long> authorIds);
+
+    // Authors are ranked in suggestions by how many books they have.
+    @Query("SELECT new library.dto.projection.SuggestRow(a.id, a.name, SIZE(a.books) * 1.0) "
+            + "FROM Author a WHERE a.id > :after ORDER BY a.id")
+    List<SuggestRow> findSuggestRowsAfter(@Param("after") long after, Limit limit);
+}
@@ -1,34 +1,122 @@
 package library.repository;
 
-import jakarta.annotation.Nonnull;
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+import library.dto.projection.BookLinkRow;
+import library.dto.projection.BookRow;
+import library.dto.projection.SuggestRow;
 import library.model.Book;
-import org.springframework.data.jpa.repository.EntityGraph;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
-public interface BookRepository extends JpaRepository<Book, Long> {
-    @Nonnull
-    @EntityGraph("book_get_all")
-    List<Book> findAll();
-
-    @Query("SELECT DISTINCT b FROM Book b INNER JOIN FETCH b.authors a "
-            + "LEFT JOIN FETCH b.categories LEFT JOIN FETCH b.reviews WHERE a.name = :name")
-    List<Book> findByAuthor(@Param("name") String author);
-
-    @Query(value = "SELECT DISTINCT b.* FROM books b "
-            + "LEFT JOIN book_authors ba ON b.id = ba.book_id "
-            + "INNER JOIN book_categories bc ON b.id = bc.book_id "
-            + "INNER JOIN categories c ON bc.category_id = c.id "
-            + "LEFT JOIN authors a ON ba.author_id = a.id "
-            + "LEFT JOIN reviews r ON b.id = r.id "
-            + "WHERE c.name = :name", nativeQuery = true)
-    List<Book> findByCategory(@Param("name") String category);
-
-    @Query("SELECT DISTINCT b FROM Book b LEFT JOIN FETCH b.authors a "
-            + "LEFT JOIN FETCH b.categories LEFT JOIN FETCH b.reviews WHERE b.name = :name ")
-    List<Book> findByName(String name);
+public interface BookRepository extends JpaRepository<Book, Long>, BookSearchRepository {
+    int EXPORT_FETCH_SIZE = 500;
+    // Reviews a book's rating is damped by in suggestions, so one 5-star
+    // review does not put a book above a well-reviewed one.
+    int SUGGEST_PRIOR_REVIEWS = 5;
+    String BOOK_ROW = "SELECT new library.dto.projection.BookRow("
+            + "b.id, b.name, b.pageAmount, b.year, b.rating) FROM Book b ";
+
+    @Query(BOOK_ROW + "WHERE b.id = :id")
+    List<BookRow> findRowsById(@Param("id") Long id);
+
+    @Query(BOOK_ROW + "WHERE b.id IN :ids")
+    List<BookRow> findRowsByIds(@Param("ids") Collection<Long> ids);
+
+    @Query(BOOK_ROW + "WHERE LOWER(TRIM(b.name)) = :name ORDER BY b.id")
+    List<BookRow> findRowsByName(@Param("name") String name);
+
+    @Query(BOOK_ROW + "WHERE b.id IN (SELECT ab.id FROM Author a JOIN a.books ab "
+            + "WHERE LOWER(TRIM(a.name)) = :name) ORDER BY b.id")
+    List<BookRow> findRowsByAuthor(@Param("name") String author);
+
+    @Query(BOOK_ROW + "WHERE b.id IN (SELECT cb.id FROM Category c JOIN c.books cb "
+            + "WHERE LOWER(TRIM(c.name)) = :name) ORDER BY b.id")
+    List<BookRow> findRowsByCategory(@Param("name") String category);
+
+    @Query(BOOK_ROW + "WHERE b.id > :after ORDER BY b.id")
+    List<BookRow> findRowsAfter(@Param("after") long after, Limit limit);
+
+    // Rows are pulled from the driver EXPORT_FETCH_SIZE at a time instead of
+    // being buffered whole; the stream must be consumed inside a transaction.
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT b FROM Book b ORDER BY b.id")
+    Stream<Book> streamAllOrderById();
+
+    // One statement per review write, so the row lock serializes concurrent
+    // writers and no update is lost.
+    @Transactional
+    @Modifying
+    @Query("UPDATE Book b SET b.ratingSum = b.ratingSum + :sumDelta, "
+            + "b.ratingCount = b.ratingCount + :countDelta, "
+            + "b.rating = CASE WHEN b.ratingCount + :countDelta = 0 THEN 0.0 "
+            + "ELSE (b.ratingSum + :sumDelta) * 1.0 / (b.ratingCount + :countDelta) END "
+            + "WHERE b.id = :id")
+    int adjustRating(@Param("id") Long id, @Param("sumDelta") long sumDelta,
+                     @Param("countDelta") int countDelta);
+
+    @Query("SELECT new library.dto.projection.SuggestRow(b.id, b.name, "
+            + "b.ratingSum * 1.0 / (b.ratingCount + " + SUGGEST_PRIOR_REVIEWS + ")) "
+            + "FROM Book b WHERE b.id > :after ORDER BY b.id")
+    List<SuggestRow> findSuggestRowsAfter(@Param("after") long after, Limit limit);
+
+    @Query("SELECT b.id FROM Book b WHERE b.id > :after ORDER BY b.id")
+    List<Long> findIdsAfter(@Param("after") long after, Limit limit);
+
+    @Query("SELECT b.id FROM Book b JOIN b.authors a WHERE a.id = :authorId")
+    List<Long> findIdsByAuthorId(@Param("authorId") Long authorId);
+
+    @Query("SELECT b.id FROM Book b JOIN b.categories c WHERE c.id = :categoryId")
+    List<Long> findIdsByCategoryId(@Param("categoryId") Long categoryId);
+
+    @Query("SELECT new library.dto.projection.BookLinkRow(b.id, a.id) "
+            + "FROM Book b JOIN b.authors a WHERE b.id IN :ids")
+    List<BookLinkRow> findAuthorLinksByIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT new library.dto.projection.BookLinkRow(b.id, c.id) "
+            + "FROM Book b JOIN b.categories c WHERE b.id IN :ids")
+    List<BookLinkRow> findCategoryLinksByIds(@Param("ids") Collection<Long> ids);
+
+    // Aggregates of the given books recomputed from their reviews, joined to
+    // the books by the reconcile updates below.
+    String RATING_TOTALS = "UPDATE books b SET rating_sum = s.total, rating_count = s.cnt, "
+            + "rating = CASE WHEN s.cnt = 0 THEN 0 ELSE CAST(s.total AS float8) / s.cnt END "
+            + "FROM (SELECT bk.id, COALESCE(SUM(r.rating), 0) AS total, COUNT(r.id) AS cnt "
+            + "FROM books bk LEFT JOIN reviews r ON r.book_id = bk.id "
+            + "WHERE bk.id IN (:ids) GROUP BY bk.id) s WHERE b.id = s.id ";
+
+    // Taken before the aggregates are recomputed, in id order so two passes
+    // cannot deadlock. A review write holds the row until it commits, so
+    // once this returns the next statement reads every review the counters
+    // already include, and writes after it wait for the reconcile to commit.
+    @Query(value = "SELECT id FROM books WHERE id IN (:ids) ORDER BY id FOR UPDATE",
+            nativeQuery = true)
+    List<Long> lockByIds(@Param("ids") Collection<Long> ids);
+
+    // Fills in the aggregates of books from before they existed: reviewed
+    // books and books whose rating was never set. New books are inserted
+    // rated 0, so after the migration this matches nothing. Returns the ids
+    // it changed.
+    @Query(value = RATING_TOTALS + "AND b.rating_sum = 0 AND b.rating_count = 0 "
+            + "AND (s.cnt > 0 OR b.rating IS NULL) RETURNING b.id", nativeQuery = true)
+    List<Long> backfillRatings(@Param("ids") Collection<Long> ids);
+
+    // Rewrites only the rows that drifted from their reviews and returns
+    // their ids.
+    @Query(value = RATING_TOTALS + "AND (b.rating_sum <> s.total OR b.rating_count <> s.cnt "
+            + "OR b.rating IS NULL) RETURNING b.id", nativeQuery = true)
+    List<Long> reconcileRatings(@Param("ids") Collection<Long> ids);
 }
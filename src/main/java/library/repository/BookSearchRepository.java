@@ -0,0 +1,9 @@
+package library.repository;
+
+import java.util.List;
+import library.dto.BookSearchCriteria;
+import library.dto.projection.BookRow;
+
+public interface BookSearchRepository {
+    List<BookRow> searchRows(BookSearchCriteria criteria, int offset, int limit);
+}
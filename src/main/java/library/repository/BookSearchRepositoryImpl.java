@@ -0,0 +1,89 @@
+package library.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import java.util.ArrayList;
+import java.util.List;
+import library.dto.BookSearchCriteria;
+import library.dto.projection.BookRow;
+import library.model.Author;
+import library.model.Book;
+import library.model.Category;
+import org.springframework.beans.factory.annotation.Autowired;
+
+// Builds one query from whichever filters are set. Name filters compare
+// LOWER(TRIM(name)) to match the expression indexes in indexes.sql, and
+// author and category filters are IN subqueries over the join tables, so
+// a book linked to several matches is still returned once.
+public class BookSearchRepositoryImpl implements BookSearchRepository {
+    private final EntityManager entityManager;
+
+    @Autowired
+    public BookSearchRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<BookRow> searchRows(BookSearchCriteria criteria, int offset, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<BookRow> query = cb.createQuery(BookRow.class);
+        Root<Book> book = query.from(Book.class);
+
+        List<Predicate> where = new ArrayList<>();
+        if (criteria.name() != null) {
+            where.add(cb.equal(normalized(cb, book.get("name")), criteria.name()));
+        }
+        if (criteria.author() != null) {
+            where.add(book.get("id").in(bookIdsOf(cb, query, Author.class, criteria.author())));
+        }
+        if (criteria.category() != null) {
+            where.add(book.get("id").in(
+                    bookIdsOf(cb, query, Category.class, criteria.category())));
+        }
+        addRange(cb, where, book.get("year"), criteria.yearFrom(), criteria.yearTo());
+        addRange(cb, where, book.get("pageAmount"), criteria.pagesFrom(), criteria.pagesTo());
+        if (criteria.minRating() != null) {
+            where.add(cb.greaterThanOrEqualTo(book.get("rating"), criteria.minRating()));
+        }
+
+        Path<Object> sortPath = book.get(criteria.sortField());
+        query.select(cb.construct(BookRow.class, book.get("id"), book.get("name"),
+                        book.get("pageAmount"), book.get("year"), book.get("rating")))
+                .where(where.toArray(new Predicate[0]))
+                .orderBy(criteria.descending() ? cb.desc(sortPath) : cb.asc(sortPath),
+                        cb.asc(book.get("id")));
+
+        return entityManager.createQuery(query)
+                .setFirstResult(offset)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    private static <T> Subquery<Long> bookIdsOf(CriteriaBuilder cb, CriteriaQuery<?> query,
+                                                Class<T> owner, String name) {
+        Subquery<Long> ids = query.subquery(Long.class);
+        Root<T> root = ids.from(owner);
+        return ids.select(root.join("books").get("id"))
+                .where(cb.equal(normalized(cb, root.get("name")), name));
+    }
+
+    private static Expression<String> normalized(CriteriaBuilder cb, Path<String> name) {
+        return cb.lower(cb.trim(name));
+    }
+
+    private static void addRange(CriteriaBuilder cb, List<Predicate> where,
+                                 Path<Integer> path, Integer from, Integer to) {
+        if (from != null) {
+            where.add(cb.greaterThanOrEqualTo(path, from));
+        }
+        if (to != null) {
+            where.add(cb.lessThanOrEqualTo(path, to));
+        }
+    }
+}
@@ -1,10 +1,15 @@
 package library.repository;
 
 import jakarta.annotation.Nonnull;
+import java.util.Collection;
 import java.util.List;
+import library.dto.projection.CategoryNameRow;
+import library.dto.projection.CategoryRow;
 import library.model.Category;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
@@ -12,4 +17,15 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
     @Nonnull
     @Query("SELECT с FROM Category с LEFT JOIN с.books")
     List<Category> findAll();
+
+    List<Category> findByIdGreaterThanOrderByIdAsc(long after, Limit limit);
+
+    // SIZE() becomes a correlated count, so the category's books are never loaded.
+    @Query("SELECT new library.dto.projection.CategoryRow(b.id, c.id, c.name, SIZE(c.books)) "
+            + "FROM Book b JOIN b.categories c WHERE b.id IN :bookIds")
+    List<CategoryRow> findRowsByBookIds(@Param("bookIds") Collection<Long> bookIds);
+
+    @Query("SELECT new library.dto.projection.CategoryNameRow(b.id, c.id, c.name) "
+            + "FROM Book b JOIN b.categories c WHERE b.id IN :bookIds")
+    List<CategoryNameRow> findNamesByBookIds(@Param("bookIds") Collection<Long> bookIds);
 }
@@ -1,8 +1,13 @@
 package library.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import library.dto.projection.ReviewPairRow;
+import library.dto.projection.ReviewRow;
+import library.dto.projection.ReviewStatsRow;
 import library.model.Review;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -10,8 +15,24 @@ import org.springframework.stereotype.Repository;
 
 @Repository
 public interface ReviewRepository extends JpaRepository<Review, Long> {
-    @Query("SELECT r FROM Review r INNER JOIN r.book b WHERE b.id = :bookId")
-    List<Review> findByBookId(@Param("bookId") Long bookId);
-
     Optional<Review> findByIdAndBookId(Long id, Long bookId);
-}
\ No newline at end of file
+
+    @Query("SELECT new library.dto.projection.ReviewRow(r.book.id, r.id, r.rating, r.comment, "
+            + "u.id, u.name, u.email) FROM Review r JOIN r.user u "
+            + "WHERE r.book.id = :bookId AND r.id > :after ORDER BY r.id")
+    List<ReviewRow> findRowsByBookIdAfter(@Param("bookId") Long bookId,
+                                          @Param("after") long after, Limit limit);
+
+    @Query("SELECT new library.dto.projection.ReviewRow(r.book.id, r.id, r.rating, r.comment, "
+            + "u.id, u.name, u.email) FROM Review r JOIN r.user u "
+            + "WHERE r.book.id IN :bookIds ORDER BY r.id")
+    List<ReviewRow> findRowsByBookIds(@Param("bookIds") Collection<Long> bookIds);
+
+    @Query("SELECT new library.dto.projection.ReviewStatsRow(r.book.id, r.rating, COUNT(r)) "
+            + "FROM Review r WHERE r.book.id IN :bookIds GROUP BY r.book.id, r.rating")
+    List<ReviewStatsRow> findStatsByBookIds(@Param("bookIds") Collection<Long> bookIds);
+
+    @Query("SELECT new library.dto.projection.ReviewPairRow(r.id, r.user.id, r.book.id) "
+            + "FROM Review r WHERE r.id > :after ORDER BY r.id")
+    List<ReviewPairRow> findPairsAfter(@Param("after") long after, Limit limit);
+}
@@ -1,6 +1,8 @@
 package library.repository;
 
+import java.util.List;
 import library.model.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -13,4 +15,6 @@ public interface UserRepository extends JpaRepository<User, Long> {
     boolean existsByEmail(String email);
 
     boolean existsByName(String email);
-}
\ No newline at end of file
+
+    List<User> findByIdGreaterThanOrderByIdAsc(long after, Limit limit);
+}
@@ -0,0 +1,478 @@
+package library.search;
+
+import java.util.Arrays;
+
+// Compressed set of non-negative ints in the Roaring layout: values are
+// grouped by their high 16 bits and every group keeps its low bits as a
+// sorted array while it holds at most 4096 of them, or as a 65536-bit
+// bitmap once it is denser. Both sparse and dense id ranges stay small and
+// set operations work group by group. Not thread-safe.
+public class Bitmap {
+    static final int ARRAY_MAX = 4096;
+
+    private char[] keys = new char[4];
+    private Container[] containers = new Container[4];
+    private int size;
+    private int cardinality;
+
+    public void add(int value) {
+        checkValue(value);
+        char key = (char) (value >>> 16);
+        int index = indexOf(key);
+        if (index >= 0) {
+            int before = containers[index].cardinality();
+            containers[index] = containers[index].add((char) value);
+            cardinality += containers[index].cardinality() - before;
+            return;
+        }
+        insert(-index - 1, key, new ArrayContainer().add((char) value));
+    }
+
+    public void remove(int value) {
+        int index = indexOf((char) (value >>> 16));
+        if (value < 0 || index < 0) {
+            return;
+        }
+        int before = containers[index].cardinality();
+        Container container = containers[index].remove((char) value);
+        cardinality += container.cardinality() - before;
+        if (container.cardinality() > 0) {
+            containers[index] = container;
+            return;
+        }
+        System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+        System.arraycopy(containers, index + 1, containers, index, size - index - 1);
+        containers[--size] = null;
+    }
+
+    public boolean contains(int value) {
+        int index = indexOf((char) (value >>> 16));
+        return value >= 0 && index >= 0 && containers[index].contains((char) value);
+    }
+
+    public int cardinality() {
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public static Bitmap and(Bitmap a, Bitmap b) {
+        Bitmap result = new Bitmap();
+        int i = 0;
+        int j = 0;
+        while (i < a.size && j < b.size) {
+            if (a.keys[i] < b.keys[j]) {
+                i++;
+            } else if (a.keys[i] > b.keys[j]) {
+                j++;
+            } else {
+                Container container = a.containers[i].and(b.containers[j]);
+                if (container.cardinality() > 0) {
+                    result.append(a.keys[i], container);
+                }
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    public static Bitmap or(Bitmap a, Bitmap b) {
+        Bitmap result = new Bitmap();
+        int i = 0;
+        int j = 0;
+        while (i < a.size || j < b.size) {
+            if (j == b.size || i < a.size && a.keys[i] < b.keys[j]) {
+                result.append(a.keys[i], a.containers[i++].copy());
+            } else if (i == a.size || a.keys[i] > b.keys[j]) {
+                result.append(b.keys[j], b.containers[j++].copy());
+            } else {
+                result.append(a.keys[i], a.containers[i++].or(b.containers[j++]));
+            }
+        }
+        return result;
+    }
+
+    // Size of the intersection without building it.
+    public static int andCardinality(Bitmap a, Bitmap b) {
+        int cardinality = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.size && j < b.size) {
+            if (a.keys[i] < b.keys[j]) {
+                i++;
+            } else if (a.keys[i] > b.keys[j]) {
+                j++;
+            } else {
+                cardinality += a.containers[i++].andCardinality(b.containers[j++]);
+            }
+        }
+        return cardinality;
+    }
+
+    // At most limit values greater than after, ascending.
+    public int[] toArray(long after, int limit) {
+        long start = Math.max(0, after + 1);
+        if (start > Integer.MAX_VALUE) {
+            return new int[0];
+        }
+        int[] values = new int[limit];
+        int count = 0;
+        int index = indexOf((char) (start >>> 16));
+        int low = (int) (start & 0xFFFF);
+        if (index < 0) {
+            index = -index - 1;
+            low = 0;
+        }
+        for (; index < size && count < limit; index++, low = 0) {
+            int high = keys[index] << 16;
+            while (count < limit && low <= 0xFFFF) {
+                int next = containers[index].next(low);
+                if (next < 0) {
+                    break;
+                }
+                values[count++] = high | next;
+                low = next + 1;
+            }
+        }
+        return Arrays.copyOf(values, count);
+    }
+
+    private static void checkValue(int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Negative value " + value);
+        }
+    }
+
+    private int indexOf(char key) {
+        return Arrays.binarySearch(keys, 0, size, key);
+    }
+
+    private void insert(int index, char key, Container container) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            containers = Arrays.copyOf(containers, size * 2);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(containers, index, containers, index + 1, size - index);
+        keys[index] = key;
+        containers[index] = container;
+        cardinality += container.cardinality();
+        size++;
+    }
+
+    private void append(char key, Container container) {
+        insert(size, key, container);
+    }
+
+    // Low 16 bits of the values sharing the same high bits. Updates return
+    // the container to keep, which changes type when it crosses ARRAY_MAX.
+    private abstract static class Container {
+        abstract Container add(char low);
+
+        abstract Container remove(char low);
+
+        abstract boolean contains(char low);
+
+        abstract int cardinality();
+
+        abstract Container and(Container other);
+
+        abstract Container or(Container other);
+
+        abstract int andCardinality(Container other);
+
+        // Smallest value not below low, or -1.
+        abstract int next(int low);
+
+        abstract Container copy();
+    }
+
+    private static final class ArrayContainer extends Container {
+        private char[] values;
+        private int cardinality;
+
+        ArrayContainer() {
+            this(new char[4], 0);
+        }
+
+        ArrayContainer(char[] values, int cardinality) {
+            this.values = values;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        Container add(char low) {
+            int index = Arrays.binarySearch(values, 0, cardinality, low);
+            if (index >= 0) {
+                return this;
+            }
+            if (cardinality == ARRAY_MAX) {
+                return toBitmap().add(low);
+            }
+            index = -index - 1;
+            if (cardinality == values.length) {
+                int capacity = Math.min(ARRAY_MAX, Math.max(4, cardinality * 2));
+                values = Arrays.copyOf(values, capacity);
+            }
+            System.arraycopy(values, index, values, index + 1, cardinality - index);
+            values[index] = low;
+            cardinality++;
+            return this;
+        }
+
+        @Override
+        Container remove(char low) {
+            int index = Arrays.binarySearch(values, 0, cardinality, low);
+            if (index >= 0) {
+                System.arraycopy(values, index + 1, values, index, cardinality - index - 1);
+                cardinality--;
+            }
+            return this;
+        }
+
+        @Override
+        boolean contains(char low) {
+            return Arrays.binarySearch(values, 0, cardinality, low) >= 0;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        Container and(Container other) {
+            if (other instanceof ArrayContainer array && array.isSmall(this)) {
+                return array.and(this);
+            }
+            char[] result = new char[Math.min(cardinality, other.cardinality())];
+            int count = 0;
+            if (other instanceof ArrayContainer array && !isSmall(array)) {
+                int i = 0;
+                int j = 0;
+                while (i < cardinality && j < array.cardinality) {
+                    if (values[i] < array.values[j]) {
+                        i++;
+                    } else if (values[i] > array.values[j]) {
+                        j++;
+                    } else {
+                        result[count++] = values[i++];
+                        j++;
+                    }
+                }
+            } else {
+                for (int i = 0; i < cardinality; i++) {
+                    if (other.contains(values[i])) {
+                        result[count++] = values[i];
+                    }
+                }
+            }
+            return new ArrayContainer(result, count);
+        }
+
+        @Override
+        Container or(Container other) {
+            if (!(other instanceof ArrayContainer array)) {
+                return other.or(this);
+            }
+            char[] result = new char[cardinality + array.cardinality];
+            int count = 0;
+            int i = 0;
+            int j = 0;
+            while (i < cardinality || j < array.cardinality) {
+                if (j == array.cardinality || i < cardinality && values[i] < array.values[j]) {
+                    result[count++] = values[i++];
+                } else if (i == cardinality || values[i] > array.values[j]) {
+                    result[count++] = array.values[j++];
+                } else {
+                    result[count++] = values[i++];
+                    j++;
+                }
+            }
+            ArrayContainer merged = new ArrayContainer(result, count);
+            return count > ARRAY_MAX ? merged.toBitmap() : merged;
+        }
+
+        @Override
+        int andCardinality(Container other) {
+            if (other instanceof ArrayContainer array && array.isSmall(this)) {
+                return array.andCardinality(this);
+            }
+            int count = 0;
+            if (other instanceof ArrayContainer array && !isSmall(array)) {
+                int i = 0;
+                int j = 0;
+                while (i < cardinality && j < array.cardinality) {
+                    if (values[i] < array.values[j]) {
+                        i++;
+                    } else if (values[i] > array.values[j]) {
+                        j++;
+                    } else {
+                        count++;
+                        i++;
+                        j++;
+                    }
+                }
+            } else {
+                for (int i = 0; i < cardinality; i++) {
+                    if (other.contains(values[i])) {
+                        count++;
+                    }
+                }
+            }
+            return count;
+        }
+
+        @Override
+        int next(int low) {
+            int index = Arrays.binarySearch(values, 0, cardinality, (char) low);
+            if (index < 0) {
+                index = -index - 1;
+            }
+            return index < cardinality ? values[index] : -1;
+        }
+
+        @Override
+        Container copy() {
+            return new ArrayContainer(Arrays.copyOf(values, cardinality), cardinality);
+        }
+
+        // Much smaller than the other array, so probing it with a binary
+        // search per value beats a merge.
+        private boolean isSmall(ArrayContainer other) {
+            return cardinality * 16L < other.cardinality;
+        }
+
+        private BitmapContainer toBitmap() {
+            BitmapContainer bitmap = new BitmapContainer();
+            for (int i = 0; i < cardinality; i++) {
+                bitmap.add(values[i]);
+            }
+            return bitmap;
+        }
+    }
+
+    private static final class BitmapContainer extends Container {
+        private final long[] words;
+        private int cardinality;
+
+        BitmapContainer() {
+            this(new long[1 << 10], 0);
+        }
+
+        BitmapContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        Container add(char low) {
+            long before = words[low >>> 6];
+            words[low >>> 6] = before | 1L << low;
+            if (before != words[low >>> 6]) {
+                cardinality++;
+            }
+            return this;
+        }
+
+        @Override
+        Container remove(char low) {
+            long before = words[low >>> 6];
+            words[low >>> 6] = before & ~(1L << low);
+            if (before != words[low >>> 6]) {
+                cardinality--;
+            }
+            return cardinality > ARRAY_MAX ? this : toArray();
+        }
+
+        @Override
+        boolean contains(char low) {
+            return (words[low >>> 6] & 1L << low) != 0;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        Container and(Container other) {
+            if (!(other instanceof BitmapContainer bitmap)) {
+                return other.and(this);
+            }
+            long[] result = new long[words.length];
+            int count = 0;
+            for (int i = 0; i < words.length; i++) {
+                result[i] = words[i] & bitmap.words[i];
+                count += Long.bitCount(result[i]);
+            }
+            BitmapContainer intersection = new BitmapContainer(result, count);
+            return count > ARRAY_MAX ? intersection : intersection.toArray();
+        }
+
+        @Override
+        Container or(Container other) {
+            BitmapContainer result = (BitmapContainer) copy();
+            if (other instanceof BitmapContainer bitmap) {
+                result.cardinality = 0;
+                for (int i = 0; i < words.length; i++) {
+                    result.words[i] |= bitmap.words[i];
+                    result.cardinality += Long.bitCount(result.words[i]);
+                }
+                return result;
+            }
+            for (int low = other.next(0); low >= 0; low = other.next(low + 1)) {
+                result.add((char) low);
+                if (low == 0xFFFF) {
+                    break;
+                }
+            }
+            return result;
+        }
+
+        @Override
+        int andCardinality(Container other) {
+            if (!(other instanceof BitmapContainer bitmap)) {
+                return other.andCardinality(this);
+            }
+            int count = 0;
+            for (int i = 0; i < words.length; i++) {
+                count += Long.bitCount(words[i] & bitmap.words[i]);
+            }
+            return count;
+        }
+
+        @Override
+        int next(int low) {
+            int index = low >>> 6;
+            if (index >= words.length) {
+                return -1;
+            }
+            long word = words[index] & -1L << low;
+            while (word == 0) {
+                if (++index == words.length) {
+                    return -1;
+                }
+                word = words[index];
+            }
+            return index << 6 | Long.numberOfTrailingZeros(word);
+        }
+
+        @Override
+        Container copy() {
+            return new BitmapContainer(words.clone(), cardinality);
+        }
+
+        private ArrayContainer toArray() {
+            char[] values = new char[cardinality];
+            int count = 0;
+            for (int low = next(0); low >= 0; low = low == 0xFFFF ? -1 : next(low + 1)) {
+                values[count++] = (char) low;
+            }
+            return new ArrayContainer(values, count);
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package library.search;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+
+// Item-to-item model of "readers who reviewed this also reviewed": for
+// every pair of books, the number of readers who reviewed both, scored by
+// cosine similarity against the readers of each book. The top books per
+// book are kept ready, so a lookup is a single map read. Readers with more
+// than MAX_USER_BOOKS books are left out, as they would add a quadratic
+// number of pairs while telling little about any single book.
+public class CoReviewModel {
+    public static final int TOP_N = 20;
+    static final int MAX_USER_BOOKS = 500;
+    // Readers per fork-join leaf of the initial count.
+    private static final int USERS_PER_TASK = 256;
+
+    // Reader -> book -> reviews of it by the reader.
+    private final LongObjectMap<LongIntMap> booksByUser;
+    // Book -> other book -> readers who reviewed both.
+    private final LongObjectMap<LongIntMap> pairs;
+    // Book -> readers counted in pairs.
+    private final LongIntMap readers;
+    private final LongObjectMap<long[]> top = new LongObjectMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public CoReviewModel() {
+        this(new LongObjectMap<>(), new LongObjectMap<>(), new LongIntMap());
+    }
+
+    private CoReviewModel(LongObjectMap<LongIntMap> booksByUser,
+                          LongObjectMap<LongIntMap> pairs, LongIntMap readers) {
+        this.booksByUser = booksByUser;
+        this.pairs = pairs;
+        this.readers = readers;
+    }
+
+    // Counts the pairs of every reader's books in parallel, one fork-join
+    // task per slice of readers with the partial counts merged on join, and
+    // then ranks every book's row in parallel.
+    public static CoReviewModel build(LongObjectMap<LongIntMap> booksByUser, ForkJoinPool pool) {
+        long[] users = booksByUser.keys();
+        long[][] books = new long[users.length][];
+        for (int i = 0; i < users.length; i++) {
+            books[i] = booksByUser.get(users[i]).keys();
+        }
+        LongObjectMap<LongIntMap> pairs = pool.invoke(new PairCount(books, 0, books.length));
+        LongIntMap readers = new LongIntMap();
+        for (long[] userBooks : books) {
+            if (userBooks.length <= MAX_USER_BOOKS) {
+                for (long book : userBooks) {
+                    readers.add(book, 1);
+                }
+            }
+        }
+        CoReviewModel model = new CoReviewModel(booksByUser, pairs, readers);
+        long[] rows = pairs.keys();
+        long[][] ranked = new long[rows.length][];
+        pool.submit(() -> IntStream.range(0, rows.length).parallel()
+                .forEach(i -> ranked[i] = model.rank(rows[i]))).join();
+        for (int i = 0; i < rows.length; i++) {
+            model.top.put(rows[i], ranked[i]);
+        }
+        return model;
+    }
+
+    // Up to limit books most often reviewed together with the given one,
+    // best first.
+    public List<Long> similar(long book, int limit) {
+        lock.readLock().lock();
+        try {
+            return TopN.head(top.get(book), limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Books with at least one co-reviewed book.
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return top.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Only the rows of the reviewed book and of the reader's other books
+    // are ranked again. Other rows holding the book keep its previous score
+    // until the next build.
+    public void add(long user, long book) {
+        lock.writeLock().lock();
+        try {
+            LongIntMap userBooks = booksByUser.computeIfAbsent(user, key -> new LongIntMap());
+            if (userBooks.add(book, 1) > 1) {
+                return;
+            }
+            long[] others = othersOf(userBooks, book);
+            if (userBooks.size() <= MAX_USER_BOOKS) {
+                link(book, others, 1);
+                rerank(book, others);
+            } else if (userBooks.size() == MAX_USER_BOOKS + 1) {
+                contribute(others, -1);
+                rerank(book, others);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long user, long book) {
+        lock.writeLock().lock();
+        try {
+            LongIntMap userBooks = booksByUser.get(user);
+            if (userBooks == null || !userBooks.containsKey(book)
+                    || userBooks.add(book, -1) > 0) {
+                return;
+            }
+            long[] others = userBooks.keys();
+            if (userBooks.isEmpty()) {
+                booksByUser.remove(user);
+            }
+            if (others.length < MAX_USER_BOOKS) {
+                link(book, others, -1);
+                rerank(book, others);
+            } else if (others.length == MAX_USER_BOOKS) {
+                contribute(others, 1);
+                rerank(book, others);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static long[] othersOf(LongIntMap userBooks, long book) {
+        long[] others = new long[userBooks.size() - 1];
+        int count = 0;
+        for (long other : userBooks.keys()) {
+            if (other != book) {
+                others[count++] = other;
+            }
+        }
+        return others;
+    }
+
+    // Adds delta to every pair among the books and to their readers.
+    private void contribute(long[] books, int delta) {
+        for (int i = 0; i < books.length; i++) {
+            link(books[i], Arrays.copyOfRange(books, i + 1, books.length), delta);
+        }
+    }
+
+    // Adds delta to the readers of the book and to its pairs with others.
+    private void link(long book, long[] others, int delta) {
+        readers.add(book, delta);
+        for (long other : others) {
+            count(pairs, book, other, delta);
+            count(pairs, other, book, delta);
+        }
+    }
+
+    private static void count(LongObjectMap<LongIntMap> pairs, long book, long other,
+                              int delta) {
+        LongIntMap row = pairs.computeIfAbsent(book, key -> new LongIntMap());
+        row.add(other, delta);
+        if (row.isEmpty()) {
+            pairs.remove(book);
+        }
+    }
+
+    private void rerank(long book, long[] others) {
+        updateTop(book);
+        for (long other : others) {
+            updateTop(other);
+        }
+    }
+
+    private void updateTop(long book) {
+        long[] ranked = rank(book);
+        if (ranked.length == 0) {
+            top.remove(book);
+        } else {
+            top.put(book, ranked);
+        }
+    }
+
+    // The TOP_N best books of the row by cosine similarity, then by count
+    // and id. The book's own reader count scales the whole row, so only the
+    // other book's count matters for the order.
+    private long[] rank(long book) {
+        LongIntMap row = pairs.get(book);
+        if (row == null) {
+            return new long[0];
+        }
+        TopN ranked = new TopN(TOP_N);
+        row.forEach((other, count) -> ranked.offer(other,
+                count / Math.sqrt(Math.max(1, readers.get(other))), count));
+        return ranked.ids();
+    }
+
+    private static final class PairCount extends RecursiveTask<LongObjectMap<LongIntMap>> {
+        private final long[][] books;
+        private final int from;
+        private final int to;
+
+        PairCount(long[][] books, int from, int to) {
+            this.books = books;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected LongObjectMap<LongIntMap> compute() {
+            if (to - from <= USERS_PER_TASK) {
+                LongObjectMap<LongIntMap> pairs = new LongObjectMap<>();
+                for (int user = from; user < to; user++) {
+                    long[] userBooks = books[user];
+                    if (userBooks.length > MAX_USER_BOOKS) {
+                        continue;
+                    }
+                    for (int i = 0; i < userBooks.length; i++) {
+                        for (int j = i + 1; j < userBooks.length; j++) {
+                            count(pairs, userBooks[i], userBooks[j], 1);
+                            count(pairs, userBooks[j], userBooks[i], 1);
+                        }
+                    }
+                }
+                return pairs;
+            }
+            int middle = (from + to) >>> 1;
+            PairCount left = new PairCount(books, from, middle);
+            left.fork();
+            LongObjectMap<LongIntMap> right = new PairCount(books, middle, to).compute();
+            return merge(left.join(), right);
+        }
+
+        // Adds the smaller map into the larger one.
+        private static LongObjectMap<LongIntMap> merge(LongObjectMap<LongIntMap> a,
+                                                       LongObjectMap<LongIntMap> b) {
+            LongObjectMap<LongIntMap> into = a.size() >= b.size() ? a : b;
+            LongObjectMap<LongIntMap> from = into == a ? b : a;
+            from.forEach((book, row) -> {
+                LongIntMap target = into.get(book);
+                if (target == null) {
+                    into.put(book, row);
+                } else {
+                    row.forEach((other, count) -> target.add(other, count));
+                }
+            });
+            return into;
+        }
+    }
+}
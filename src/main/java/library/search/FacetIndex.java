@@ -0,0 +1,206 @@
+package library.search;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+
+// Books per facet value as compressed bitmaps. Values of one facet are
+// alternatives and are OR-ed, facets narrow each other and are AND-ed, and
+// a count is the cardinality of a value's bitmap against the other facets'
+// filters, so picking a value never hides the other values of its facet.
+public class FacetIndex {
+    public enum Facet {
+        CATEGORY, AUTHOR, DECADE, RATING
+    }
+
+    public record Count(long value, String label, int count) {
+    }
+
+    public record Result(List<Long> ids, int total, Map<Facet, List<Count>> counts) {
+    }
+
+    private static final int SCAN_RATIO = 4;
+    // Most books first, then by value.
+    private static final Comparator<Count> ORDER = Comparator.comparingInt(Count::count)
+            .reversed().thenComparingLong(Count::value);
+
+    private final Map<Facet, Map<Long, Value>> values = new EnumMap<>(Facet.class);
+    private final Map<Integer, long[][]> valuesByDocument = new HashMap<>();
+    private final Bitmap documents = new Bitmap();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private static final class Value {
+        private final Bitmap documents = new Bitmap();
+        private String label;
+    }
+
+    public FacetIndex() {
+        for (Facet facet : Facet.values()) {
+            values.put(facet, new HashMap<>());
+        }
+    }
+
+    // Replaces the facet values of the document, each mapped to its label
+    // or to null.
+    public void put(long id, Map<Facet, Map<Long, String>> facets) {
+        int document = documentOf(id);
+        lock.writeLock().lock();
+        try {
+            removeLocked(document);
+            long[][] current = new long[Facet.values().length][];
+            for (Facet facet : Facet.values()) {
+                Map<Long, String> labels = facets.getOrDefault(facet, Map.of());
+                current[facet.ordinal()] = new long[labels.size()];
+                int i = 0;
+                for (Map.Entry<Long, String> label : labels.entrySet()) {
+                    Value value = values.get(facet)
+                            .computeIfAbsent(label.getKey(), key -> new Value());
+                    value.documents.add(document);
+                    if (label.getValue() != null) {
+                        value.label = label.getValue();
+                    }
+                    current[facet.ordinal()][i++] = label.getKey();
+                }
+            }
+            valuesByDocument.put(document, current);
+            documents.add(document);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(documentOf(id));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Up to limit ids after the given one matching the filters, with the
+    // total and, per facet, the top values by count.
+    public Result browse(Map<Facet, ? extends Collection<Long>> filters, long after, int limit,
+                         int top) {
+        lock.readLock().lock();
+        try {
+            Map<Facet, Bitmap> unions = new EnumMap<>(Facet.class);
+            filters.forEach((facet, selected) -> {
+                if (!selected.isEmpty()) {
+                    unions.put(facet, union(facet, selected));
+                }
+            });
+            Bitmap matches = intersect(unions, null);
+            List<Long> ids = new ArrayList<>(limit);
+            for (int document : matches.toArray(after, limit)) {
+                ids.add((long) document);
+            }
+            Map<Facet, List<Count>> counts = new EnumMap<>(Facet.class);
+            for (Facet facet : Facet.values()) {
+                counts.put(facet, count(facet, intersect(unions, facet), top));
+            }
+            return new Result(ids, matches.cardinality(), counts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static int documentOf(long id) {
+        if (id < 0 || id > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Id out of range: " + id);
+        }
+        return (int) id;
+    }
+
+    private Bitmap union(Facet facet, Collection<Long> selected) {
+        Bitmap union = new Bitmap();
+        for (Long key : selected) {
+            Value value = values.get(facet).get(key);
+            if (value != null) {
+                union = Bitmap.or(union, value.documents);
+            }
+        }
+        return union;
+    }
+
+    // Documents passing every filter but the one of the skipped facet.
+    private Bitmap intersect(Map<Facet, Bitmap> unions, Facet skipped) {
+        Bitmap result = documents;
+        for (Map.Entry<Facet, Bitmap> union : unions.entrySet()) {
+            if (union.getKey() != skipped) {
+                result = Bitmap.and(result, union.getValue());
+            }
+        }
+        return result;
+    }
+
+    // Filtered sets much smaller than the number of values, typical for
+    // authors, are counted by walking their documents instead of
+    // intersecting every value's bitmap. Only the top values are kept on a
+    // heap, so a facet with many values is never sorted as a whole.
+    private List<Count> count(Facet facet, Bitmap base, int top) {
+        Map<Long, Value> facetValues = values.get(facet);
+        PriorityQueue<Count> heap = new PriorityQueue<>(top + 1, ORDER.reversed());
+        BiConsumer<Long, Integer> offer = (key, count) -> {
+            heap.add(new Count(key, facetValues.get(key).label, count));
+            if (heap.size() > top) {
+                heap.poll();
+            }
+        };
+        int matching = base.cardinality();
+        if (base != documents && matching <= (long) facetValues.size() * SCAN_RATIO) {
+            Map<Long, Integer> counts = new HashMap<>();
+            for (int document : base.toArray(-1, matching)) {
+                for (long key : valuesByDocument.get(document)[facet.ordinal()]) {
+                    counts.merge(key, 1, Integer::sum);
+                }
+            }
+            counts.forEach(offer);
+        } else {
+            facetValues.forEach((key, value) -> {
+                int count = base == documents ? value.documents.cardinality()
+                        : Bitmap.andCardinality(value.documents, base);
+                if (count > 0) {
+                    offer.accept(key, count);
+                }
+            });
+        }
+        List<Count> counts = new ArrayList<>(heap);
+        counts.sort(ORDER);
+        return counts;
+    }
+
+    private void removeLocked(int document) {
+        long[][] current = valuesByDocument.remove(document);
+        if (current == null) {
+            return;
+        }
+        for (Facet facet : Facet.values()) {
+            Map<Long, Value> facetValues = values.get(facet);
+            for (long key : current[facet.ordinal()]) {
+                Value value = facetValues.get(key);
+                value.documents.remove(document);
+                if (value.documents.isEmpty()) {
+                    facetValues.remove(key);
+                }
+            }
+        }
+        documents.remove(document);
+    }
+}
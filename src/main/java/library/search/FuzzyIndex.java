@@ -0,0 +1,290 @@
+package library.search;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Typo-tolerant lookup of whole names. Every distinct normalized name is
+// split into padded trigrams with a posting list of names per trigram.
+// One edit changes at most three trigrams, so a name within distance k of
+// the query holds at least one of any 3k + 1 of the query's trigrams: the
+// candidates are read from the rarest 3k + 1 lists only, filtered by
+// length and verified with a banded Levenshtein distance.
+public class FuzzyIndex {
+    private static final int GRAM = 3;
+    private static final String PADDING = "^^";
+    private static final String END_PADDING = "$$";
+
+    private final Map<String, Name> names = new HashMap<>();
+    private final List<Name> namesById = new ArrayList<>();
+    // Ids of removed names, reused by the next new ones so that reindexing
+    // does not leave namesById growing with empty slots.
+    private final Deque<Integer> freeIds = new ArrayDeque<>();
+    private final Map<String, IntPostings> grams = new HashMap<>();
+    private final Map<Long, String[]> keysByDocument = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Documents sharing a normalized name, in insertion order.
+    private static final class Name {
+        private final int id;
+        private final String key;
+        private final Set<Long> documents = new LinkedHashSet<>(2);
+
+        Name(int id, String key) {
+            this.id = id;
+            this.key = key;
+        }
+    }
+
+    // Replaces the names indexed for the document.
+    public void put(long id, Collection<String> texts) {
+        String[] keys = texts.stream()
+                .map(FuzzyIndex::keyOf)
+                .filter(key -> !key.isEmpty())
+                .distinct()
+                .toArray(String[]::new);
+        lock.writeLock().lock();
+        try {
+            // Reindexing a document whose names did not change is the
+            // common case, as every review write reindexes its book.
+            if (Arrays.equals(keysByDocument.get(id), keys)) {
+                return;
+            }
+            removeLocked(id);
+            if (keys.length == 0) {
+                return;
+            }
+            for (String key : keys) {
+                names.computeIfAbsent(key, this::addName).documents.add(id);
+            }
+            keysByDocument.put(id, keys);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Documents whose names are closest to the query, none further than
+    // maxDistance edits. Short queries get a smaller distance: none up to
+    // two characters and one up to five, or most names would match. Longer
+    // ones get maxDistance, bounded by a third of their trigrams.
+    public List<Long> search(String query, int maxDistance, int limit) {
+        String key = keyOf(query);
+        int distance = key.length() <= 2 ? 0
+                : key.length() <= 5 ? Math.min(maxDistance, 1) : maxDistance;
+        String[] queryGrams = distinctGrams(key);
+        distance = Math.min(distance, (queryGrams.length - 1) / GRAM);
+        if (key.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            int best = distance + 1;
+            List<Name> closest = new ArrayList<>();
+            for (int nameId : candidates(queryGrams, distance)) {
+                Name name = namesById.get(nameId);
+                int found = levenshtein(key, name.key, Math.min(best, distance));
+                if (found > distance) {
+                    continue;
+                }
+                if (found < best) {
+                    best = found;
+                    closest.clear();
+                }
+                if (found == best) {
+                    closest.add(name);
+                }
+            }
+            closest.sort(Comparator.comparing(name -> name.key));
+            List<Long> documents = new ArrayList<>();
+            for (Name name : closest) {
+                for (Long document : name.documents) {
+                    if (documents.size() == limit) {
+                        return documents;
+                    }
+                    documents.add(document);
+                }
+            }
+            return documents;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static String keyOf(String text) {
+        return String.join(" ", Tokenizer.tokenize(text));
+    }
+
+    // Union of the postings of the rarest 3k + 1 trigrams, ascending.
+    private int[] candidates(String[] queryGrams, int distance) {
+        IntPostings[] lists = new IntPostings[queryGrams.length];
+        for (int i = 0; i < queryGrams.length; i++) {
+            lists[i] = grams.getOrDefault(queryGrams[i], IntPostings.EMPTY);
+        }
+        Arrays.sort(lists, Comparator.comparingInt(list -> list.size));
+        int count = Math.min(lists.length, GRAM * distance + 1);
+        int total = 0;
+        for (int i = 0; i < count; i++) {
+            total += lists[i].size;
+        }
+        int[] ids = new int[total];
+        int size = 0;
+        for (int i = 0; i < count; i++) {
+            System.arraycopy(lists[i].ids, 0, ids, size, lists[i].size);
+            size += lists[i].size;
+        }
+        Arrays.sort(ids);
+        int distinct = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if (i == 0 || ids[i] != ids[i - 1]) {
+                ids[distinct++] = ids[i];
+            }
+        }
+        return Arrays.copyOf(ids, distinct);
+    }
+
+    // Number of name slots, used or free.
+    int nameSlots() {
+        lock.readLock().lock();
+        try {
+            return namesById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Name addName(String key) {
+        Integer free = freeIds.poll();
+        Name name = new Name(free == null ? namesById.size() : free, key);
+        if (free == null) {
+            namesById.add(name);
+        } else {
+            namesById.set(free, name);
+        }
+        for (String gram : distinctGrams(key)) {
+            grams.computeIfAbsent(gram, g -> new IntPostings()).add(name.id);
+        }
+        return name;
+    }
+
+    private void removeLocked(long id) {
+        String[] keys = keysByDocument.remove(id);
+        if (keys == null) {
+            return;
+        }
+        for (String key : keys) {
+            Name name = names.get(key);
+            name.documents.remove(id);
+            if (!name.documents.isEmpty()) {
+                continue;
+            }
+            names.remove(key);
+            namesById.set(name.id, null);
+            freeIds.push(name.id);
+            for (String gram : distinctGrams(key)) {
+                IntPostings list = grams.get(gram);
+                list.remove(name.id);
+                if (list.size == 0) {
+                    grams.remove(gram);
+                }
+            }
+        }
+    }
+
+    private static String[] distinctGrams(String key) {
+        if (key.isEmpty()) {
+            return new String[0];
+        }
+        String padded = PADDING + key + END_PADDING;
+        Set<String> distinct = new LinkedHashSet<>();
+        for (int i = 0; i + GRAM <= padded.length(); i++) {
+            distinct.add(padded.substring(i, i + GRAM));
+        }
+        return distinct.toArray(String[]::new);
+    }
+
+    // Edit distance, or max + 1 once it is certain to exceed max. Only the
+    // cells within max of the diagonal can stay under it.
+    static int levenshtein(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) {
+            return max + 1;
+        }
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            int from = Math.max(1, i - max);
+            int to = Math.min(b.length(), i + max);
+            current[0] = i;
+            if (from > 1) {
+                current[from - 1] = max + 1;
+            }
+            int rowMin = from == 1 ? i : max + 1;
+            for (int j = from; j <= to; j++) {
+                int substitution = previous[j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+                int deletion = j < i + max ? previous[j] + 1 : max + 1;
+                int insertion = current[j - 1] + 1;
+                current[j] = Math.min(substitution, Math.min(deletion, insertion));
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (to < b.length()) {
+                current[to + 1] = max + 1;
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return Math.min(previous[b.length()], max + 1);
+    }
+
+    // Name ids ascending.
+    private static final class IntPostings {
+        private static final IntPostings EMPTY = new IntPostings();
+
+        private int[] ids = new int[2];
+        private int size;
+
+        // New names mostly take the next id, so adds are mostly appends;
+        // a reused id is inserted in place.
+        void add(int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size + (size >> 1) + 1);
+            }
+            int index = size == 0 || ids[size - 1] < id
+                    ? size : -Arrays.binarySearch(ids, 0, size, id) - 1;
+            System.arraycopy(ids, index, ids, index + 1, size - index);
+            ids[index] = id;
+            size++;
+        }
+
+        void remove(int id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+                size--;
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package library.search;
+
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+import org.springframework.data.domain.Limit;
+
+// Walks a table in id order, a batch at a time, each batch starting after
+// the last id of the previous one, so a full pass never holds more than
+// one batch and never re-reads skipped rows the way an offset would.
+public final class IdBatches {
+    private IdBatches() {
+    }
+
+    public static <T> void forEach(int batchSize, BiFunction<Long, Limit, List<T>> rowsAfter,
+                                   ToLongFunction<T> idOf, Consumer<List<T>> action) {
+        long after = 0;
+        List<T> rows = rowsAfter.apply(after, Limit.of(batchSize));
+        while (!rows.isEmpty()) {
+            action.accept(rows);
+            if (rows.size() < batchSize) {
+                break;
+            }
+            after = idOf.applyAsLong(rows.get(rows.size() - 1));
+            rows = rowsAfter.apply(after, Limit.of(batchSize));
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package library.search;
+
+// Open-addressing map from long keys to int counts, with no boxing and two
+// flat arrays per map. Keys are ids and must not be 0, which marks a free
+// slot; a count dropping to 0 removes its key. Not thread-safe.
+public class LongIntMap {
+    private static final int MIN_CAPACITY = 4;
+
+    private long[] keys;
+    private int[] values;
+    private int size;
+
+    @FunctionalInterface
+    public interface Visitor {
+        void visit(long key, int value);
+    }
+
+    public LongIntMap() {
+        this(MIN_CAPACITY);
+    }
+
+    public LongIntMap(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(MIN_CAPACITY, expected * 2 - 1) << 1);
+        keys = new long[capacity];
+        values = new int[capacity];
+    }
+
+    public int get(long key) {
+        int slot = slotOf(key);
+        return keys[slot] == key ? values[slot] : 0;
+    }
+
+    public boolean containsKey(long key) {
+        return key != 0 && keys[slotOf(key)] == key;
+    }
+
+    // Adds delta to the count of the key and returns the new count.
+    public int add(long key, int delta) {
+        if (key == 0) {
+            throw new IllegalArgumentException("Key 0 is reserved");
+        }
+        int slot = slotOf(key);
+        if (keys[slot] != key) {
+            if (delta == 0) {
+                return 0;
+            }
+            keys[slot] = key;
+            values[slot] = delta;
+            if (++size * 2 > keys.length) {
+                resize(keys.length * 2);
+            }
+            return delta;
+        }
+        values[slot] += delta;
+        int value = values[slot];
+        if (value == 0) {
+            removeSlot(slot);
+        }
+        return value;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long[] keys() {
+        long[] result = new long[size];
+        int count = 0;
+        for (long key : keys) {
+            if (key != 0) {
+                result[count++] = key;
+            }
+        }
+        return result;
+    }
+
+    // At most limit keys in table order, so a caller sampling a large map
+    // does not copy all of it.
+    public long[] keys(int limit) {
+        long[] result = new long[Math.min(size, limit)];
+        int count = 0;
+        for (int slot = 0; slot < keys.length && count < result.length; slot++) {
+            if (keys[slot] != 0) {
+                result[count++] = keys[slot];
+            }
+        }
+        return result;
+    }
+
+    public void forEach(Visitor visitor) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != 0) {
+                visitor.visit(keys[slot], values[slot]);
+            }
+        }
+    }
+
+    // Slot holding the key, or the free slot where it would go.
+    private int slotOf(long key) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (keys[slot] != 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    static int hash(long key) {
+        long mixed = key * 0x9E3779B97F4A7C15L;
+        return (int) (mixed ^ mixed >>> 32);
+    }
+
+    // Shifts later entries of the probe run back, so lookups never stop at
+    // a hole.
+    private void removeSlot(int slot) {
+        int mask = keys.length - 1;
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (keys[next] != 0) {
+            int home = hash(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[hole] = 0;
+        values[hole] = 0;
+        size--;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[capacity];
+        values = new int[capacity];
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            if (oldKeys[slot] != 0) {
+                int target = slotOf(oldKeys[slot]);
+                keys[target] = oldKeys[slot];
+                values[target] = oldValues[slot];
+            }
+        }
+    }
+}
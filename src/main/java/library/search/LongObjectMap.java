@@ -0,0 +1,117 @@
+package library.search;
+
+import java.util.function.LongFunction;
+
+// Open-addressing map from long keys to objects, the counterpart of
+// LongIntMap for rows of a sparse structure. Keys must not be 0. Not
+// thread-safe.
+public class LongObjectMap<V> {
+    private static final int MIN_CAPACITY = 4;
+
+    private long[] keys = new long[MIN_CAPACITY];
+    private Object[] values = new Object[MIN_CAPACITY];
+    private int size;
+
+    @FunctionalInterface
+    public interface Visitor<V> {
+        void visit(long key, V value);
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        int slot = slotOf(key);
+        return keys[slot] == key ? (V) values[slot] : null;
+    }
+
+    public void put(long key, V value) {
+        if (key == 0) {
+            throw new IllegalArgumentException("Key 0 is reserved");
+        }
+        int slot = slotOf(key);
+        values[slot] = value;
+        if (keys[slot] != key) {
+            keys[slot] = key;
+            if (++size * 2 > keys.length) {
+                resize(keys.length * 2);
+            }
+        }
+    }
+
+    public V computeIfAbsent(long key, LongFunction<V> factory) {
+        V value = get(key);
+        if (value == null) {
+            value = factory.apply(key);
+            put(key, value);
+        }
+        return value;
+    }
+
+    public void remove(long key) {
+        int slot = slotOf(key);
+        if (key == 0 || keys[slot] != key) {
+            return;
+        }
+        int mask = keys.length - 1;
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (keys[next] != 0) {
+            int home = LongIntMap.hash(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[hole] = 0;
+        values[hole] = null;
+        size--;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long[] keys() {
+        long[] result = new long[size];
+        int count = 0;
+        for (long key : keys) {
+            if (key != 0) {
+                result[count++] = key;
+            }
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    public void forEach(Visitor<V> visitor) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != 0) {
+                visitor.visit(keys[slot], (V) values[slot]);
+            }
+        }
+    }
+
+    private int slotOf(long key) {
+        int mask = keys.length - 1;
+        int slot = LongIntMap.hash(key) & mask;
+        while (keys[slot] != 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new long[capacity];
+        values = new Object[capacity];
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            if (oldKeys[slot] != 0) {
+                int target = slotOf(oldKeys[slot]);
+                keys[target] = oldKeys[slot];
+                values[target] = oldValues[slot];
+            }
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package library.search;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "library.search")
+public class SearchProperties {
+    // Most edits a name or author lookup tolerates once the exact match
+    // finds nothing; zero turns the fallback off. Names of up to five
+    // characters tolerate at most one edit whatever the setting.
+    private int fuzzyMaxDistance = 2;
+}
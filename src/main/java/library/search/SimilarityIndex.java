@@ -0,0 +1,302 @@
+package library.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+
+// Books most alike by their authors and categories, scored by weighted
+// Jaccard similarity with an author counting AUTHOR_WEIGHT times a category.
+// Each book keeps a signature of sorted author and category ids and a
+// MinHash sketch of them cut into BANDS bands; books sharing a band land in
+// the same bucket, and only books met in a bucket are scored against each
+// other. The top books per book are kept ready, so a lookup is a single
+// map read.
+public class SimilarityIndex {
+    public static final int TOP_N = 20;
+    static final int AUTHOR_WEIGHT = 2;
+    static final int CATEGORY_WEIGHT = 1;
+    static final int BANDS = 16;
+    static final int ROWS = 2;
+    // Books scored per book. A bucket of books sharing a popular category
+    // can hold most of the catalog, and its first books are as good as any.
+    static final int MAX_CANDIDATES = 200;
+    private static final long[] SEEDS = seeds(BANDS * ROWS);
+
+    private final LongObjectMap<Signature> signatures = new LongObjectMap<>();
+    // Band -> band key -> books in the bucket.
+    private final List<LongObjectMap<LongIntMap>> buckets = new ArrayList<>(BANDS);
+    private final LongObjectMap<long[]> top = new LongObjectMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private record Signature(long[] authors, long[] categories, long[] bands) {
+        static Signature of(long[] authors, long[] categories) {
+            long[] sortedAuthors = sorted(authors);
+            long[] sortedCategories = sorted(categories);
+            return new Signature(sortedAuthors, sortedCategories,
+                    bandsOf(sortedAuthors, sortedCategories));
+        }
+
+        boolean isEmpty() {
+            return authors.length == 0 && categories.length == 0;
+        }
+    }
+
+    public SimilarityIndex() {
+        for (int band = 0; band < BANDS; band++) {
+            buckets.add(new LongObjectMap<>());
+        }
+    }
+
+    // Sketches the books in parallel, fills the buckets one band per task
+    // and then ranks every book in parallel.
+    public static SimilarityIndex build(long[] books, long[][] authors, long[][] categories,
+                                        ForkJoinPool pool) {
+        SimilarityIndex index = new SimilarityIndex();
+        Signature[] sketched = new Signature[books.length];
+        pool.submit(() -> IntStream.range(0, books.length).parallel()
+                .forEach(i -> sketched[i] = Signature.of(authors[i], categories[i]))).join();
+        for (int i = 0; i < books.length; i++) {
+            if (!sketched[i].isEmpty()) {
+                index.signatures.put(books[i], sketched[i]);
+            }
+        }
+        pool.submit(() -> IntStream.range(0, BANDS).parallel().forEach(band -> {
+            for (int i = 0; i < books.length; i++) {
+                if (!sketched[i].isEmpty()) {
+                    index.bucket(band, sketched[i].bands()[band]).add(books[i], 1);
+                }
+            }
+        })).join();
+        long[] indexed = index.signatures.keys();
+        long[][] ranked = new long[indexed.length][];
+        pool.submit(() -> IntStream.range(0, indexed.length).parallel()
+                .forEach(i -> ranked[i] = index.rank(indexed[i]))).join();
+        for (int i = 0; i < indexed.length; i++) {
+            index.putTop(indexed[i], ranked[i]);
+        }
+        return index;
+    }
+
+    // Up to limit books most alike the given one, best first.
+    public List<Long> similar(long book, int limit) {
+        lock.readLock().lock();
+        try {
+            return TopN.head(top.get(book), limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Books with at least one author or category.
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return signatures.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Only the book and the books it shared a bucket with before or shares
+    // one with now are ranked again. Other books listing it keep its
+    // previous score until the next build.
+    public void put(long book, long[] authors, long[] categories) {
+        Signature signature = Signature.of(authors, categories);
+        lock.writeLock().lock();
+        try {
+            LongIntMap affected = removeSignature(book);
+            if (!signature.isEmpty()) {
+                signatures.put(book, signature);
+                for (int band = 0; band < BANDS; band++) {
+                    bucket(band, signature.bands()[band]).add(book, 1);
+                }
+                candidatesOf(book, signature).forEach((other, count) -> affected.add(other, 1));
+            }
+            putTop(book, rank(book));
+            affected.forEach((other, count) -> putTop(other, rank(other)));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long book) {
+        lock.writeLock().lock();
+        try {
+            LongIntMap affected = removeSignature(book);
+            top.remove(book);
+            affected.forEach((other, count) -> putTop(other, rank(other)));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Drops the book from its buckets and returns the books it met there.
+    private LongIntMap removeSignature(long book) {
+        Signature signature = signatures.get(book);
+        if (signature == null) {
+            return new LongIntMap();
+        }
+        LongIntMap affected = candidatesOf(book, signature);
+        signatures.remove(book);
+        for (int band = 0; band < BANDS; band++) {
+            LongObjectMap<LongIntMap> bandBuckets = buckets.get(band);
+            long key = signature.bands()[band];
+            LongIntMap bucket = bandBuckets.get(key);
+            if (bucket != null && bucket.containsKey(book)) {
+                bucket.add(book, -1);
+                if (bucket.isEmpty()) {
+                    bandBuckets.remove(key);
+                }
+            }
+        }
+        return affected;
+    }
+
+    private LongIntMap bucket(int band, long key) {
+        return buckets.get(band).computeIfAbsent(key, bandKey -> new LongIntMap());
+    }
+
+    private void putTop(long book, long[] ranked) {
+        if (ranked.length == 0) {
+            top.remove(book);
+        } else {
+            top.put(book, ranked);
+        }
+    }
+
+    // Up to MAX_CANDIDATES other books sharing a bucket with the signature.
+    // Smaller buckets come first: they hold books agreeing on rarer
+    // features, such as an author, rather than on a popular category.
+    private LongIntMap candidatesOf(long book, Signature signature) {
+        LongIntMap[] found = new LongIntMap[BANDS];
+        int count = 0;
+        for (int band = 0; band < BANDS; band++) {
+            LongIntMap bucket = buckets.get(band).get(signature.bands()[band]);
+            if (bucket != null) {
+                found[count++] = bucket;
+            }
+        }
+        LongIntMap[] sortedBuckets = Arrays.copyOf(found, count);
+        Arrays.sort(sortedBuckets, Comparator.comparingInt(LongIntMap::size));
+        LongIntMap candidates = new LongIntMap(MAX_CANDIDATES);
+        for (LongIntMap bucket : sortedBuckets) {
+            // One more than needed, as the book itself may be among them.
+            for (long other : bucket.keys(MAX_CANDIDATES - candidates.size() + 1)) {
+                if (candidates.size() == MAX_CANDIDATES) {
+                    return candidates;
+                }
+                if (other != book) {
+                    candidates.add(other, 1);
+                }
+            }
+        }
+        return candidates;
+    }
+
+    // The TOP_N candidates with the highest similarity, then lowest id.
+    private long[] rank(long book) {
+        Signature signature = signatures.get(book);
+        if (signature == null) {
+            return new long[0];
+        }
+        TopN ranked = new TopN(TOP_N);
+        candidatesOf(book, signature).forEach((other, count) -> {
+            double score = similarity(signature, signatures.get(other));
+            if (score > 0) {
+                ranked.offer(other, score);
+            }
+        });
+        return ranked.ids();
+    }
+
+    private static double similarity(Signature a, Signature b) {
+        int sharedAuthors = intersection(a.authors(), b.authors());
+        int sharedCategories = intersection(a.categories(), b.categories());
+        int shared = AUTHOR_WEIGHT * sharedAuthors + CATEGORY_WEIGHT * sharedCategories;
+        int all = AUTHOR_WEIGHT * (a.authors().length + b.authors().length - sharedAuthors)
+                + CATEGORY_WEIGHT
+                * (a.categories().length + b.categories().length - sharedCategories);
+        return all == 0 ? 0 : (double) shared / all;
+    }
+
+    private static int intersection(long[] a, long[] b) {
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) {
+                count++;
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return count;
+    }
+
+    // MinHash over the features, an author entering AUTHOR_WEIGHT times
+    // under distinct copies, so two sketches agree at a row with the
+    // probability of their weighted Jaccard similarity. Every ROWS rows
+    // hash to one band key.
+    private static long[] bandsOf(long[] authors, long[] categories) {
+        long[] minimums = new long[SEEDS.length];
+        Arrays.fill(minimums, Long.MAX_VALUE);
+        for (long author : authors) {
+            for (int copy = 0; copy < AUTHOR_WEIGHT; copy++) {
+                offer(minimums, feature(0, author, copy));
+            }
+        }
+        for (long category : categories) {
+            for (int copy = 0; copy < CATEGORY_WEIGHT; copy++) {
+                offer(minimums, feature(1, category, copy));
+            }
+        }
+        long[] bands = new long[BANDS];
+        for (int band = 0; band < BANDS; band++) {
+            long key = band;
+            for (int row = 0; row < ROWS; row++) {
+                key = mix(key * 31 + minimums[band * ROWS + row]);
+            }
+            bands[band] = key == 0 ? 1 : key;
+        }
+        return bands;
+    }
+
+    private static void offer(long[] minimums, long feature) {
+        for (int row = 0; row < SEEDS.length; row++) {
+            minimums[row] = Math.min(minimums[row], mix(feature ^ SEEDS[row]));
+        }
+    }
+
+    private static long feature(int type, long id, int copy) {
+        return mix(mix(id) + type * 0x9E3779B97F4A7C15L + copy);
+    }
+
+    private static long[] sorted(long[] ids) {
+        long[] copy = ids.clone();
+        Arrays.sort(copy);
+        return copy;
+    }
+
+    private static long[] seeds(int count) {
+        long[] seeds = new long[count];
+        for (int i = 0; i < count; i++) {
+            seeds[i] = mix(i + 1L);
+        }
+        return seeds;
+    }
+
+    // SplitMix64 finalizer.
+    private static long mix(long value) {
+        long mixed = (value ^ value >>> 30) * 0xBF58476D1CE4E5B9L;
+        mixed = (mixed ^ mixed >>> 27) * 0x94D049BB133111EBL;
+        return mixed ^ mixed >>> 31;
+    }
+}
@@ -0,0 +1,242 @@
+package library.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Compressed prefix trie over normalized names. Every node keeps the best
+// TOP_K entries of its whole subtree, so a suggestion walks at most the
+// prefix's length of edges and copies a ready list. A name is keyed from
+// each of its first words, so "Война и мир" is found by "мир" as well.
+// Writes recompute the lists only along the paths they touch.
+public class SuggestTrie {
+    public static final int TOP_K = 10;
+    static final int MAX_WORDS = 6;
+    private static final Comparator<Suggestion> BEST_FIRST = Comparator
+            .comparingDouble(Suggestion::score).reversed()
+            .thenComparingLong(Suggestion::id);
+    private static final Suggestion[] NONE = new Suggestion[0];
+
+    private final Node root = new Node("");
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public record Suggestion(long id, String text, double score) {
+    }
+
+    private record Entry(Suggestion suggestion, List<String> keys) {
+    }
+
+    private static final class Node {
+        private String label;
+        private Map<Character, Node> children;
+        // Entries whose key ends at this node.
+        private List<Suggestion> terminal;
+        private Suggestion[] top = NONE;
+
+        Node(String label) {
+            this.label = label;
+        }
+    }
+
+    // Replaces whatever was stored under the id.
+    public void put(long id, String text, double score) {
+        List<String> keys = keysOf(text);
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            if (keys.isEmpty()) {
+                return;
+            }
+            Suggestion suggestion = new Suggestion(id, text, score);
+            for (String key : keys) {
+                List<Node> path = insertPath(key);
+                Node end = path.get(path.size() - 1);
+                if (end.terminal == null) {
+                    end.terminal = new ArrayList<>(1);
+                }
+                end.terminal.add(suggestion);
+                recompute(path);
+            }
+            entries.put(id, new Entry(suggestion, keys));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Suggestion> suggest(String prefix, int limit) {
+        String key = String.join(" ", Tokenizer.tokenize(prefix));
+        if (key.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            int matched = 0;
+            while (matched < key.length()) {
+                Node child = node.children == null ? null
+                        : node.children.get(key.charAt(matched));
+                if (child == null) {
+                    return List.of();
+                }
+                int common = commonPrefix(child.label, key, matched);
+                if (matched + common < key.length() && common < child.label.length()) {
+                    return List.of();
+                }
+                matched += common;
+                node = child;
+            }
+            Suggestion[] top = node.top;
+            return List.of(top).subList(0, Math.min(limit, top.length));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Joined terms from each word start, so every word can begin a match.
+    static List<String> keysOf(String text) {
+        List<String> terms = Tokenizer.tokenize(text);
+        Set<String> keys = new HashSet<>();
+        for (int i = 0; i < Math.min(terms.size(), MAX_WORDS); i++) {
+            keys.add(String.join(" ", terms.subList(i, terms.size())));
+        }
+        return List.copyOf(keys);
+    }
+
+    private void removeLocked(long id) {
+        Entry entry = entries.remove(id);
+        if (entry == null) {
+            return;
+        }
+        for (String key : entry.keys()) {
+            List<Node> path = findPath(key);
+            Node end = path.get(path.size() - 1);
+            end.terminal.removeIf(suggestion -> suggestion.id() == id);
+            if (end.terminal.isEmpty()) {
+                end.terminal = null;
+            }
+            prune(path);
+            recompute(path);
+        }
+    }
+
+    // Nodes from the root to the node the key ends at, splitting an edge
+    // when the key ends or diverges inside its label.
+    private List<Node> insertPath(String key) {
+        List<Node> path = new ArrayList<>();
+        path.add(root);
+        Node node = root;
+        int matched = 0;
+        while (matched < key.length()) {
+            char first = key.charAt(matched);
+            if (node.children == null) {
+                node.children = new HashMap<>(4);
+            }
+            Node child = node.children.get(first);
+            if (child == null) {
+                child = new Node(key.substring(matched));
+                node.children.put(first, child);
+                path.add(child);
+                return path;
+            }
+            int common = commonPrefix(child.label, key, matched);
+            if (common < child.label.length()) {
+                Node split = new Node(child.label.substring(0, common));
+                child.label = child.label.substring(common);
+                split.children = new HashMap<>(4);
+                split.children.put(child.label.charAt(0), child);
+                split.top = child.top;
+                node.children.put(first, split);
+                child = split;
+            }
+            matched += common;
+            node = child;
+            path.add(node);
+        }
+        return path;
+    }
+
+    private List<Node> findPath(String key) {
+        List<Node> path = new ArrayList<>();
+        path.add(root);
+        Node node = root;
+        int matched = 0;
+        while (matched < key.length()) {
+            node = node.children.get(key.charAt(matched));
+            matched += node.label.length();
+            path.add(node);
+        }
+        return path;
+    }
+
+    // Drops nodes left without entries or children below the root.
+    private static void prune(List<Node> path) {
+        for (int i = path.size() - 1; i > 0; i--) {
+            Node node = path.get(i);
+            if (node.terminal != null || node.children != null && !node.children.isEmpty()) {
+                return;
+            }
+            path.get(i - 1).children.remove(node.label.charAt(0));
+            path.remove(i);
+        }
+    }
+
+    // A node's best entries are the best of its own and its children's,
+    // recomputed from the deepest node up.
+    private static void recompute(List<Node> path) {
+        for (int i = path.size() - 1; i >= 0; i--) {
+            Node node = path.get(i);
+            List<Suggestion> candidates = new ArrayList<>();
+            if (node.terminal != null) {
+                candidates.addAll(node.terminal);
+            }
+            if (node.children != null) {
+                node.children.values().forEach(child -> candidates.addAll(List.of(child.top)));
+            }
+            candidates.sort(BEST_FIRST);
+            List<Suggestion> top = new ArrayList<>(TOP_K);
+            Set<Long> ids = new HashSet<>();
+            for (Suggestion candidate : candidates) {
+                if (top.size() == TOP_K) {
+                    break;
+                }
+                if (ids.add(candidate.id())) {
+                    top.add(candidate);
+                }
+            }
+            node.top = top.toArray(NONE);
+        }
+    }
+
+    private static int commonPrefix(String label, String key, int from) {
+        int length = Math.min(label.length(), key.length() - from);
+        int i = 0;
+        while (i < length && label.charAt(i) == key.charAt(from + i)) {
+            i++;
+        }
+        return i;
+    }
+}
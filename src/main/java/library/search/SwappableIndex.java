@@ -0,0 +1,70 @@
+package library.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+// An in-memory index that writes update in place and rebuilds replace
+// whole. A rebuild loads a fresh index while writes keep going to the
+// current one; the writes made meanwhile are then replayed on the fresh
+// index and it is swapped in at once, so none is lost. Only one rebuild
+// runs at a time: one started while another runs is skipped.
+public class SwappableIndex<T, W> {
+    private final BiConsumer<T, W> applier;
+    private final Object writeLock = new Object();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private volatile T current;
+    // Writes made while a rebuild runs, or null when none runs. Guarded by
+    // writeLock.
+    private List<W> pending;
+
+    public SwappableIndex(T initial, BiConsumer<T, W> applier) {
+        this.current = initial;
+        this.applier = applier;
+    }
+
+    public T current() {
+        return current;
+    }
+
+    public void write(W write) {
+        synchronized (writeLock) {
+            applier.accept(current, write);
+            if (pending != null) {
+                pending.add(write);
+            }
+        }
+    }
+
+    // The fresh index, or null when another rebuild was already running.
+    public T rebuild(Supplier<T> load) {
+        return rebuild(load, (fresh, writes) -> writes.forEach(
+                write -> applier.accept(fresh, write)));
+    }
+
+    // Same, with replay deciding which of the writes made meanwhile the
+    // fresh index still lacks.
+    public T rebuild(Supplier<T> load, BiConsumer<T, List<W>> replay) {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return null;
+        }
+        try {
+            synchronized (writeLock) {
+                pending = new ArrayList<>();
+            }
+            T fresh = load.get();
+            synchronized (writeLock) {
+                replay.accept(fresh, pending);
+                current = fresh;
+            }
+            return fresh;
+        } finally {
+            synchronized (writeLock) {
+                pending = null;
+            }
+            rebuilding.set(false);
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package library.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Inverted index from terms to the documents that contain them. Each term
+// keeps its postings as arrays sorted by document id, so a query walks the
+// rarest term's postings and galloping-searches the others for the same
+// ids; only documents holding every term are scored. Scores are BM25 over
+// term frequencies multiplied by the weight of the field they came from.
+// Queries share a read lock and updates take the write lock.
+public class TextIndex {
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    // The head of the top-k heap is the weakest hit kept so far.
+    private static final Comparator<Hit> WEAKEST_FIRST = Comparator.comparingDouble(Hit::score)
+            .thenComparing(Comparator.comparingLong(Hit::id).reversed());
+
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final Map<Long, Document> documents = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Sum of all document lengths, for the average BM25 normalizes by.
+    private long totalLength;
+
+    public record Field(String text, int weight) {
+    }
+
+    public record Hit(long id, double score) {
+    }
+
+    // Terms are kept per document so it can be removed without its text.
+    private record Document(String[] terms, int length) {
+    }
+
+    // Replaces whatever was indexed under the id.
+    public void put(long id, List<Field> fields) {
+        putAll(Map.of(id, fields));
+    }
+
+    public void putAll(Map<Long, List<Field>> documentsById) {
+        List<Map.Entry<Long, Map<String, Integer>>> analyzed = new ArrayList<>();
+        for (Map.Entry<Long, List<Field>> entry : documentsById.entrySet()) {
+            analyzed.add(Map.entry(entry.getKey(), frequenciesOf(entry.getValue())));
+        }
+        lock.writeLock().lock();
+        try {
+            for (Map.Entry<Long, Map<String, Integer>> entry : analyzed) {
+                long id = entry.getKey();
+                removeLocked(id);
+                if (!entry.getValue().isEmpty()) {
+                    addLocked(id, entry.getValue());
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Best hits first; ties go to the lower id so results are stable.
+    public List<Hit> search(String query, int limit) {
+        List<String> terms = List.copyOf(new LinkedHashSet<>(Tokenizer.tokenize(query)));
+        if (terms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            Postings[] lists = new Postings[terms.size()];
+            for (int i = 0; i < lists.length; i++) {
+                lists[i] = postings.get(terms.get(i));
+                if (lists[i] == null) {
+                    return List.of();
+                }
+            }
+            Arrays.sort(lists, Comparator.comparingInt(list -> list.size));
+            return topHits(lists, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<Hit> topHits(Postings[] lists, int limit) {
+        int count = documents.size();
+        double averageLength = (double) totalLength / count;
+        double[] idfs = new double[lists.length];
+        for (int i = 0; i < lists.length; i++) {
+            idfs[i] = Math.log(1 + (count - lists[i].size + 0.5) / (lists[i].size + 0.5));
+        }
+
+        PriorityQueue<Hit> top = new PriorityQueue<>(limit + 1, WEAKEST_FIRST);
+        int[] positions = new int[lists.length];
+        Postings rarest = lists[0];
+        candidates:
+        for (int i = 0; i < rarest.size; i++) {
+            long id = rarest.ids[i];
+            positions[0] = i;
+            for (int j = 1; j < lists.length; j++) {
+                positions[j] = lists[j].seek(id, positions[j]);
+                if (positions[j] == lists[j].size) {
+                    break candidates;
+                }
+                if (lists[j].ids[positions[j]] != id) {
+                    continue candidates;
+                }
+            }
+            double norm = K1 * (1 - B + B * documents.get(id).length() / averageLength);
+            double score = 0;
+            for (int j = 0; j < lists.length; j++) {
+                int frequency = lists[j].frequencies[positions[j]];
+                score += idfs[j] * frequency * (K1 + 1) / (frequency + norm);
+            }
+            top.add(new Hit(id, score));
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+
+        List<Hit> hits = new ArrayList<>(top);
+        hits.sort(WEAKEST_FIRST.reversed());
+        return hits;
+    }
+
+    private void addLocked(long id, Map<String, Integer> frequencies) {
+        int length = 0;
+        for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), term -> new Postings())
+                    .add(id, entry.getValue());
+            length += entry.getValue();
+        }
+        documents.put(id, new Document(frequencies.keySet().toArray(String[]::new), length));
+        totalLength += length;
+    }
+
+    private void removeLocked(long id) {
+        Document document = documents.remove(id);
+        if (document == null) {
+            return;
+        }
+        for (String term : document.terms()) {
+            Postings list = postings.get(term);
+            list.remove(id);
+            if (list.size == 0) {
+                postings.remove(term);
+            }
+        }
+        totalLength -= document.length();
+    }
+
+    private static Map<String, Integer> frequenciesOf(List<Field> fields) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (Field field : fields) {
+            for (String term : Tokenizer.tokenize(field.text())) {
+                frequencies.merge(term, field.weight(), Integer::sum);
+            }
+        }
+        return frequencies;
+    }
+
+    // Ids ascending with the weighted frequency of the term in each document.
+    private static final class Postings {
+        private long[] ids = new long[2];
+        private int[] frequencies = new int[2];
+        private int size;
+
+        // New books get the highest ids, so most adds are appends.
+        void add(long id, int frequency) {
+            int index = size == 0 || ids[size - 1] < id
+                    ? -size - 1 : Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                frequencies[index] = frequency;
+                return;
+            }
+            index = -index - 1;
+            if (size == ids.length) {
+                int capacity = size + (size >> 1) + 1;
+                ids = Arrays.copyOf(ids, capacity);
+                frequencies = Arrays.copyOf(frequencies, capacity);
+            }
+            System.arraycopy(ids, index, ids, index + 1, size - index);
+            System.arraycopy(frequencies, index, frequencies, index + 1, size - index);
+            ids[index] = id;
+            frequencies[index] = frequency;
+            size++;
+        }
+
+        void remove(long id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index < 0) {
+                return;
+            }
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            System.arraycopy(frequencies, index + 1, frequencies, index, size - index - 1);
+            size--;
+        }
+
+        // Position of the first id not below the given one, searching from
+        // a position known to be no further; size when there is none.
+        int seek(long id, int from) {
+            int step = 1;
+            int low = from;
+            int high = from;
+            while (high < size && ids[high] < id) {
+                low = high + 1;
+                high += step;
+                step <<= 1;
+            }
+            int index = Arrays.binarySearch(ids, low, Math.min(high + 1, size), id);
+            return index >= 0 ? index : -index - 1;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package library.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+
+// Splits text into index terms: runs of letters and digits, NFKC-normalized
+// and lower-cased, with ё folded to е. Apostrophes and combining accents
+// inside a word are dropped rather than splitting it, so "сям’я" matches
+// "сям'я" and a stressed "за́мок" matches "замок".
+public final class Tokenizer {
+    static final int MAX_TERM_LENGTH = 64;
+
+    private Tokenizer() {
+    }
+
+    public static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return terms;
+        }
+        String normalized = Normalizer.isNormalized(text, Normalizer.Form.NFKC)
+                ? text : Normalizer.normalize(text, Normalizer.Form.NFKC);
+        StringBuilder term = new StringBuilder();
+        for (int i = 0; i < normalized.length(); ) {
+            int c = normalized.codePointAt(i);
+            i += Character.charCount(c);
+            if (Character.isLetterOrDigit(c)) {
+                term.appendCodePoint(fold(c));
+            } else if (term.isEmpty() || !isInsideWord(c)) {
+                flush(term, terms);
+            }
+        }
+        flush(term, terms);
+        return terms;
+    }
+
+    private static int fold(int c) {
+        int lower = Character.toLowerCase(c);
+        return lower == 'ё' ? 'е' : lower;
+    }
+
+    private static boolean isInsideWord(int c) {
+        return c == '\'' || c == '’' || c == 'ʼ'
+                || Character.getType(c) == Character.NON_SPACING_MARK;
+    }
+
+    private static void flush(StringBuilder term, List<String> terms) {
+        if (!term.isEmpty()) {
+            terms.add(term.length() > MAX_TERM_LENGTH
+                    ? term.substring(0, MAX_TERM_LENGTH) : term.toString());
+            term.setLength(0);
+        }
+    }
+}
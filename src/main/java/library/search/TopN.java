@@ -0,0 +1,69 @@
+package library.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// The n best ids offered, kept sorted in flat arrays by insertion: by score,
+// then by tie, both highest first, then by lowest id. Meant for small n,
+// where shifting a few slots beats a heap. Not thread-safe.
+public class TopN {
+    private final long[] ids;
+    private final double[] scores;
+    private final int[] ties;
+    private int size;
+
+    public TopN(int n) {
+        ids = new long[n];
+        scores = new double[n];
+        ties = new int[n];
+    }
+
+    public void offer(long id, double score) {
+        offer(id, score, 0);
+    }
+
+    public void offer(long id, double score, int tie) {
+        int position = size;
+        while (position > 0 && better(score, tie, id,
+                scores[position - 1], ties[position - 1], ids[position - 1])) {
+            position--;
+        }
+        if (position == ids.length) {
+            return;
+        }
+        int moved = Math.min(size, ids.length - 1) - position;
+        System.arraycopy(ids, position, ids, position + 1, moved);
+        System.arraycopy(scores, position, scores, position + 1, moved);
+        System.arraycopy(ties, position, ties, position + 1, moved);
+        ids[position] = id;
+        scores[position] = score;
+        ties[position] = tie;
+        size = Math.min(size + 1, ids.length);
+    }
+
+    // Best first.
+    public long[] ids() {
+        return Arrays.copyOf(ids, size);
+    }
+
+    // Up to limit of the ranked ids, or none when there is no ranking.
+    public static List<Long> head(long[] ranked, int limit) {
+        if (ranked == null) {
+            return List.of();
+        }
+        List<Long> result = new ArrayList<>(Math.min(limit, ranked.length));
+        for (int i = 0; i < ranked.length && i < limit; i++) {
+            result.add(ranked[i]);
+        }
+        return result;
+    }
+
+    private static boolean better(double score, int tie, long id,
+                                  double otherScore, int otherTie, long otherId) {
+        if (score != otherScore) {
+            return score > otherScore;
+        }
+        return tie != otherTie ? tie > otherTie : id < otherId;
+    }
+}
@@ -4,11 +4,14 @@ import jakarta.transaction.Transactional;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import library.cache.CacheTag;
 import library.cache.InMemoryCache;
 import library.dto.create.AuthorCreateDto;
 import library.dto.get.AuthorGetDto;
+import library.dto.get.PageGetDto;
 import library.exception.NotFoundException;
 import library.mapper.AuthorMapper;
+import library.mapper.PageMapper;
 import library.model.Author;
 import library.model.Book;
 import library.repository.AuthorRepository;
@@ -23,18 +26,24 @@ public class AuthorService {
     private static final String AUTHOR_NOT_FOUND_MESSAGE = "Author is not found with id: ";
     private static final String BOOK_NOT_FOUND_MESSAGE = "Book is not found with id: ";
     private final InMemoryCache cache;
+    private final BookIndexService bookIndexService;
+    private final SuggestService suggestService;
 
     @Autowired
     public AuthorService(AuthorRepository authorRepository, BookRepository bookRepository,
-                         InMemoryCache cache) {
+                         InMemoryCache cache, BookIndexService bookIndexService,
+                         SuggestService suggestService) {
         this.authorRepository = authorRepository;
         this.bookRepository = bookRepository;
         this.cache = cache;
+        this.bookIndexService = bookIndexService;
+        this.suggestService = suggestService;
     }
 
-    public List<AuthorGetDto> getAllAuthors() {
-        return authorRepository.findAll().stream().map(AuthorMapper::toDto)
-                .toList();
+    public PageGetDto<AuthorGetDto> getAllAuthors(Long after, int limit) {
+        return PageMapper.toDto(authorRepository.findByIdGreaterThanOrderByIdAsc(
+                Keyset.afterOf(after), Keyset.limitOf(limit)),
+                limit, Author::getId, AuthorMapper::toDto);
     }
 
     public AuthorGetDto getAuthorById(Long id) {
@@ -56,15 +65,21 @@ public class AuthorService {
             }
         }
         author.setBooks(books);
-        cache.clear();
 
-        return AuthorMapper.toDto(authorRepository.save(author));
+        Author savedAuthor = authorRepository.save(author);
+        Set<CacheTag> tags = tagsOf(savedAuthor);
+        AfterCommit.run(() -> cache.invalidate(tags));
+        bookIndexService.reindex(bookIdsOf(savedAuthor));
+        suggestService.putAuthor(savedAuthor);
+        return AuthorMapper.toDto(savedAuthor);
     }
 
     @Transactional
     public AuthorGetDto updateAuthor(Long id, AuthorCreateDto authorDto) {
         Author authorEntity = authorRepository.findById(id)
                 .orElseThrow(() -> new NotFoundException(AUTHOR_NOT_FOUND_MESSAGE + id));
+        // The author's text is indexed with each of its books, old and new.
+        Set<Long> bookIds = new HashSet<>(bookRepository.findIdsByAuthorId(id));
         authorEntity.setName(authorDto.getName());
         authorEntity.setInfo(authorDto.getInfo());
 
@@ -78,9 +93,14 @@ public class AuthorService {
             }
         }
         authorEntity.setBooks(books);
-        cache.clear();
 
-        return AuthorMapper.toDto(authorRepository.save(authorEntity));
+        Author savedAuthor = authorRepository.save(authorEntity);
+        Set<CacheTag> tags = tagsOf(savedAuthor);
+        AfterCommit.run(() -> cache.invalidate(tags));
+        bookIds.addAll(bookIdsOf(savedAuthor));
+        bookIndexService.reindex(bookIds);
+        suggestService.putAuthor(savedAuthor);
+        return AuthorMapper.toDto(savedAuthor);
     }
 
     @Transactional
@@ -88,7 +108,29 @@ public class AuthorService {
         if (!authorRepository.existsById(id)) {
             throw new NotFoundException(AUTHOR_NOT_FOUND_MESSAGE + id);
         }
+        List<Long> bookIds = bookRepository.findIdsByAuthorId(id);
         authorRepository.deleteById(id);
-        cache.clear();
+        Set<CacheTag> tags = Set.of(CacheTag.author(id));
+        AfterCommit.run(() -> cache.invalidate(tags));
+        bookIndexService.reindex(bookIds);
+        suggestService.removeAuthor(id);
+    }
+
+    private static Set<Long> bookIdsOf(Author author) {
+        Set<Long> ids = new HashSet<>();
+        if (author.getBooks() != null) {
+            author.getBooks().forEach(book -> ids.add(book.getId()));
+        }
+        return ids;
+    }
+
+    private static Set<CacheTag> tagsOf(Author author) {
+        Set<CacheTag> tags = new HashSet<>();
+        tags.add(CacheTag.author(author.getId()));
+        tags.add(CacheTag.authorName(author.getName()));
+        if (author.getBooks() != null) {
+            author.getBooks().forEach(book -> tags.add(CacheTag.book(book.getId())));
+        }
+        return tags;
     }
 }
@@ -0,0 +1,100 @@
+package library.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+import library.dto.get.BookExportDto;
+import library.mapper.BookMapper;
+import library.model.Book;
+import library.repository.BookRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+// Writes the whole catalog without holding it in memory: books are read
+// from a database cursor one fetch-size chunk at a time, their authors and
+// categories are batch-loaded for the chunk, the rows are written and
+// flushed, and the persistence context is cleared before the next chunk.
+@Service
+public class BookExportService {
+    static final String CSV_HEADER = "id,name,year,page_amount,rating,authors,categories";
+    private static final String LIST_SEPARATOR = "; ";
+
+    private final BookRepository bookRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public BookExportService(BookRepository bookRepository, EntityManager entityManager,
+                             ObjectMapper objectMapper) {
+        this.bookRepository = bookRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+    }
+
+    @Transactional(readOnly = true)
+    public long exportBooks(FileFormat format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == FileFormat.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        long written = 0;
+        List<Book> chunk = new ArrayList<>(BookRepository.EXPORT_FETCH_SIZE);
+        try (Stream<Book> books = bookRepository.streamAllOrderById()) {
+            // The cursor only reads the next row when asked for it, so nothing
+            // is hydrated between writing a chunk and clearing the context.
+            for (Iterator<Book> iterator = books.iterator(); iterator.hasNext(); ) {
+                chunk.add(iterator.next());
+                if (chunk.size() == BookRepository.EXPORT_FETCH_SIZE) {
+                    written += writeChunk(format, chunk, writer);
+                    chunk.clear();
+                    entityManager.clear();
+                }
+            }
+            written += writeChunk(format, chunk, writer);
+        }
+        return written;
+    }
+
+    private int writeChunk(FileFormat format, List<Book> chunk, Writer writer)
+            throws IOException {
+        for (Book book : chunk) {
+            BookExportDto row = BookMapper.toExportDto(book);
+            writer.write(format == FileFormat.CSV ? toCsv(row) : toJson(row));
+            writer.write('\n');
+        }
+        writer.flush();
+        return chunk.size();
+    }
+
+    private String toJson(BookExportDto row) {
+        try {
+            return objectMapper.writeValueAsString(row);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static String toCsv(BookExportDto row) {
+        return row.getId() + ","
+                + Csv.field(row.getName()) + ","
+                + row.getYear() + ","
+                + row.getPageAmount() + ","
+                + (row.getRating() == null ? "" : row.getRating()) + ","
+                + Csv.field(String.join(LIST_SEPARATOR, row.getAuthors())) + ","
+                + Csv.field(String.join(LIST_SEPARATOR, row.getCategories()));
+    }
+}
@@ -0,0 +1,361 @@
+package library.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileStore;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+import library.dto.create.BookCreateDto;
+import library.dto.get.ImportErrorGetDto;
+import library.dto.get.ImportJobGetDto;
+import library.exception.BadRequestException;
+import library.exception.InsufficientStorageException;
+import library.exception.NotFoundException;
+import library.exception.PayloadTooLargeException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+// Imports books from NDJSON or CSV uploads of any size. The upload is
+// spooled to a temporary file so the client is released at once, then a
+// worker reads it one record at a time, validates each record with the
+// BookCreateDto constraints and writes the valid ones in batches through
+// BookService.createBooks. The next record is only read once the current
+// batch is written, so memory stays bounded by one batch. A record that
+// fails is reported with its line number and the run goes on.
+@Service
+public class BookImportService {
+    static final int BATCH_SIZE = 500;
+    static final int MAX_REPORTED_ERRORS = 1000;
+    static final String CSV_HEADER = "name,page_amount,year,author_ids,category_ids";
+    // Finished jobs stay readable this long and are evicted on the next
+    // import, so the job map does not grow with every run.
+    static final Duration JOB_RETENTION = Duration.ofHours(1);
+    static final DataSize DEFAULT_MAX_SIZE = DataSize.ofMegabytes(512);
+    // Free space is read again after at most this many spooled bytes.
+    static final long SPACE_CHECK_INTERVAL = DataSize.ofMegabytes(8).toBytes();
+    private static final String ID_SEPARATOR = ";";
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+    private final BookService bookService;
+    private final Validator validator;
+    private final ObjectReader bookReader;
+    private final ExecutorService executor;
+    private final LongSupplier nanoTime;
+    private final DataSize maxSize;
+
+    @Autowired
+    public BookImportService(BookService bookService, Validator validator,
+                             ObjectMapper objectMapper,
+                             @Value("${library.import.max-size:512MB}") DataSize maxSize) {
+        this(bookService, validator, objectMapper, Executors.newSingleThreadExecutor(),
+                System::nanoTime, maxSize);
+    }
+
+    BookImportService(BookService bookService, Validator validator,
+                      ObjectMapper objectMapper, ExecutorService executor) {
+        this(bookService, validator, objectMapper, executor, System::nanoTime,
+                DEFAULT_MAX_SIZE);
+    }
+
+    BookImportService(BookService bookService, Validator validator,
+                      ObjectMapper objectMapper, ExecutorService executor,
+                      LongSupplier nanoTime, DataSize maxSize) {
+        this.bookService = bookService;
+        this.validator = validator;
+        this.bookReader = objectMapper.readerFor(BookCreateDto.class);
+        this.executor = executor;
+        this.nanoTime = nanoTime;
+        this.maxSize = maxSize;
+    }
+
+    public ImportJobGetDto startImport(FileFormat format, InputStream upload) throws IOException {
+        return startImport(format, upload, -1);
+    }
+
+    // declaredSize is the Content-Length of the upload, or -1 if unknown. An
+    // upload declared too large, or larger than the free temp space, is
+    // turned down before any of it is read. One of unknown size is checked
+    // against the free space while it is spooled.
+    public ImportJobGetDto startImport(FileFormat format, InputStream upload,
+                                       long declaredSize) throws IOException {
+        if (declaredSize > maxSize.toBytes()) {
+            throw tooLarge();
+        }
+        Path file = Files.createTempFile("book-import-", "." + format.extension());
+        try {
+            FileStore store = Files.getFileStore(file);
+            if (declaredSize > store.getUsableSpace()) {
+                throw insufficientStorage();
+            }
+            spool(upload, file, store);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+
+        evictFinishedJobs();
+        ImportJob job = new ImportJob(UUID.randomUUID().toString());
+        jobs.put(job.id, job);
+        executor.execute(() -> {
+            try {
+                runImport(job, format, file);
+                job.finish("COMPLETED", nanoTime.getAsLong());
+            } catch (Exception e) {
+                logger.error("Book import {} failed", job.id, e);
+                job.finish("FAILED: " + e.getMessage(), nanoTime.getAsLong());
+            } finally {
+                deleteQuietly(file);
+            }
+        });
+        return job.toDto();
+    }
+
+    public ImportJobGetDto getImportJob(String jobId) {
+        ImportJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new NotFoundException("Import job wasn't found with ID = " + jobId);
+        }
+        return job.toDto();
+    }
+
+    private void spool(InputStream upload, Path file, FileStore store) throws IOException {
+        long limit = maxSize.toBytes();
+        long total = 0;
+        // Bytes known to fit as of the last free space check.
+        long fits = 0;
+        byte[] buffer = new byte[8192];
+        try (OutputStream out = Files.newOutputStream(file)) {
+            int read;
+            while ((read = upload.read(buffer)) != -1) {
+                total += read;
+                if (total > limit) {
+                    throw tooLarge();
+                }
+                if (total > fits) {
+                    long usable = store.getUsableSpace();
+                    if (usable < read) {
+                        throw insufficientStorage();
+                    }
+                    fits = total - read + Math.min(usable, SPACE_CHECK_INTERVAL);
+                }
+                out.write(buffer, 0, read);
+            }
+        }
+    }
+
+    private PayloadTooLargeException tooLarge() {
+        return new PayloadTooLargeException("Import must not be larger than " + maxSize);
+    }
+
+    private static InsufficientStorageException insufficientStorage() {
+        return new InsufficientStorageException("Not enough disk space to spool the import");
+    }
+
+    private void evictFinishedJobs() {
+        long now = nanoTime.getAsLong();
+        jobs.values().removeIf(job -> job.isExpired(now));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void runImport(ImportJob job, FileFormat format, Path file) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            long lineNumber = 0;
+            if (format == FileFormat.CSV) {
+                String header = reader.readLine();
+                lineNumber++;
+                if (header == null || !header.strip().equals(CSV_HEADER)) {
+                    throw new BadRequestException("CSV header must be: " + CSV_HEADER);
+                }
+            }
+
+            List<BookCreateDto> batch = new ArrayList<>(BATCH_SIZE);
+            List<Long> batchLines = new ArrayList<>(BATCH_SIZE);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                BookCreateDto book = parse(job, format, line, lineNumber);
+                if (book != null) {
+                    batch.add(book);
+                    batchLines.add(lineNumber);
+                }
+                if (batch.size() == BATCH_SIZE) {
+                    writeBatch(job, batch, batchLines);
+                }
+            }
+            writeBatch(job, batch, batchLines);
+        }
+    }
+
+    private BookCreateDto parse(ImportJob job, FileFormat format, String line, long lineNumber) {
+        BookCreateDto book;
+        try {
+            book = format == FileFormat.CSV ? fromCsv(line) : bookReader.readValue(line);
+        } catch (IOException | IllegalArgumentException e) {
+            job.fail(lineNumber, "Malformed record: " + e.getMessage());
+            return null;
+        }
+        if (book == null) {
+            job.fail(lineNumber, "Malformed record: null");
+            return null;
+        }
+        Set<ConstraintViolation<BookCreateDto>> violations = validator.validate(book);
+        if (!violations.isEmpty()) {
+            job.fail(lineNumber, violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+            return null;
+        }
+        return book;
+    }
+
+    private void writeBatch(ImportJob job, List<BookCreateDto> batch, List<Long> batchLines) {
+        if (!batch.isEmpty()) {
+            // A copy, as the batch is reused for the next records.
+            write(job, List.copyOf(batch), List.copyOf(batchLines));
+        }
+        batch.clear();
+        batchLines.clear();
+    }
+
+    // A batch that fails as a whole, typically on an unknown author or
+    // category id, is split in halves until the bad records are found, so
+    // a few bad records cost a few more transactions rather than one per
+    // record of the batch.
+    private void write(ImportJob job, List<BookCreateDto> books, List<Long> lines) {
+        try {
+            bookService.createBooks(books);
+            job.succeed(books.size());
+        } catch (RuntimeException e) {
+            if (books.size() == 1) {
+                job.fail(lines.get(0), e.getMessage());
+                return;
+            }
+            int half = books.size() / 2;
+            write(job, books.subList(0, half), lines.subList(0, half));
+            write(job, books.subList(half, books.size()), lines.subList(half, lines.size()));
+        }
+    }
+
+    static BookCreateDto fromCsv(String line) {
+        List<String> fields = Csv.split(line);
+        if (fields.size() != 5) {
+            throw new IllegalArgumentException("Expected 5 fields but found " + fields.size());
+        }
+        BookCreateDto book = new BookCreateDto();
+        book.setName(fields.get(0));
+        book.setPageAmount(parseInt(fields.get(1), "page_amount"));
+        book.setYear(parseInt(fields.get(2), "year"));
+        book.setAuthorIds(parseIds(fields.get(3)));
+        book.setCategoryIds(parseIds(fields.get(4)));
+        return book;
+    }
+
+    private static int parseInt(String value, String column) {
+        try {
+            return value.isBlank() ? 0 : Integer.parseInt(value.strip());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + column + ": " + value);
+        }
+    }
+
+    private static Set<Long> parseIds(String value) {
+        if (value.isBlank()) {
+            return Set.of();
+        }
+        try {
+            return Arrays.stream(value.split(ID_SEPARATOR))
+                    .map(String::strip)
+                    .map(Long::valueOf)
+                    .collect(Collectors.toCollection(LinkedHashSet::new));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid id list: " + value);
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Could not delete import file {}", file, e);
+        }
+    }
+
+    private static final class ImportJob {
+        private final String id;
+        private final List<ImportErrorGetDto> errors = new ArrayList<>();
+        private String status = "PROCESSING";
+        private long imported;
+        private long failed;
+        // System.nanoTime of the end of the run, or null while it runs.
+        private Long finishedAt;
+
+        private ImportJob(String id) {
+            this.id = id;
+        }
+
+        synchronized void succeed(int count) {
+            imported += count;
+        }
+
+        synchronized void fail(long line, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new ImportErrorGetDto(line, message));
+            }
+        }
+
+        synchronized void finish(String finalStatus, long now) {
+            status = finalStatus;
+            finishedAt = now;
+        }
+
+        synchronized boolean isExpired(long now) {
+            return finishedAt != null && now - finishedAt >= JOB_RETENTION.toNanos();
+        }
+
+        synchronized ImportJobGetDto toDto() {
+            ImportJobGetDto dto = new ImportJobGetDto();
+            dto.setId(id);
+            dto.setStatus(status);
+            dto.setProcessed(imported + failed);
+            dto.setImported(imported);
+            dto.setFailed(failed);
+            dto.setErrors(List.copyOf(errors));
+            return dto;
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package library.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import library.dto.BookFacetDto;
+import library.dto.projection.AuthorRow;
+import library.dto.projection.BookRow;
+import library.dto.projection.CategoryNameRow;
+import library.repository.AuthorRepository;
+import library.repository.BookRepository;
+import library.repository.CategoryRepository;
+import library.search.FacetIndex;
+import library.search.FuzzyIndex;
+import library.search.IdBatches;
+import library.search.SearchProperties;
+import library.search.TextIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+// Keeps the full-text index over book names, author names and info and
+// category names in step with the database. It is filled in id batches
+// once the application is up, and every write to books, authors or
+// categories reindexes the books it touched after its transaction commits,
+// so a rolled back write never reaches the index. Book names and author
+// names also go to typo-tolerant indexes behind the exact name lookups, and
+// categories, authors, decade and rating bucket to the facet index. The
+// initial fill runs once on the scheduler, so it does not hold up startup.
+@Service
+public class BookIndexService {
+    static final int BATCH_SIZE = 1000;
+    static final int NAME_WEIGHT = 4;
+    static final int AUTHOR_WEIGHT = 3;
+    static final int CATEGORY_WEIGHT = 2;
+    static final int INFO_WEIGHT = 1;
+    // Values listed per facet, most books first.
+    static final int FACET_SIZE = 20;
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+    private final BookRepository bookRepository;
+    private final AuthorRepository authorRepository;
+    private final CategoryRepository categoryRepository;
+    private final SearchProperties searchProperties;
+    private final TextIndex index = new TextIndex();
+    private final FuzzyIndex titles = new FuzzyIndex();
+    private final FuzzyIndex authorNames = new FuzzyIndex();
+    private final FacetIndex facets = new FacetIndex();
+    // Books reindexed while a rebuild runs. The rebuild skips them, so rows
+    // it read earlier never overwrite a newer document. Guarded by itself.
+    private final Set<Long> touched = new HashSet<>();
+    private volatile boolean rebuilding;
+
+    private record Document(List<TextIndex.Field> fields,
+                            Map<FacetIndex.Facet, Map<Long, String>> facets) {
+        Document() {
+            this(new ArrayList<>(), new EnumMap<>(FacetIndex.Facet.class));
+        }
+
+        // Facet values of the book mapped to their labels.
+        Map<Long, String> facet(FacetIndex.Facet facet) {
+            return facets.computeIfAbsent(facet, key -> new HashMap<>());
+        }
+    }
+
+    @Autowired
+    public BookIndexService(BookRepository bookRepository, AuthorRepository authorRepository,
+                            CategoryRepository categoryRepository,
+                            SearchProperties searchProperties) {
+        this.bookRepository = bookRepository;
+        this.authorRepository = authorRepository;
+        this.categoryRepository = categoryRepository;
+        this.searchProperties = searchProperties;
+    }
+
+    public List<Long> search(String query, int limit) {
+        return index.search(query, Keyset.checkLimit(limit)).stream()
+                .map(TextIndex.Hit::id)
+                .toList();
+    }
+
+    // Ids of the books whose name is closest to the given one within the
+    // configured edit distance.
+    public List<Long> findSimilarTitles(String name) {
+        return titles.search(name, searchProperties.getFuzzyMaxDistance(), Keyset.MAX_LIMIT);
+    }
+
+    // Ids of the books by the authors whose name is closest to the given one.
+    public List<Long> findSimilarAuthors(String name) {
+        return authorNames.search(name, searchProperties.getFuzzyMaxDistance(),
+                Keyset.MAX_LIMIT);
+    }
+
+    // Ids of the books after the given one that match every facet filter,
+    // with the total and the top values of each facet.
+    public FacetIndex.Result browse(BookFacetDto filter, long after, int limit) {
+        Map<FacetIndex.Facet, List<Long>> filters = new EnumMap<>(FacetIndex.Facet.class);
+        filters.put(FacetIndex.Facet.CATEGORY, valuesOf(filter.getCategoryIds()));
+        filters.put(FacetIndex.Facet.AUTHOR, valuesOf(filter.getAuthorIds()));
+        filters.put(FacetIndex.Facet.DECADE, valuesOf(filter.getDecades()));
+        filters.put(FacetIndex.Facet.RATING, valuesOf(filter.getRatings()));
+        return facets.browse(filters, after, limit, FACET_SIZE);
+    }
+
+    static long decadeOf(int year) {
+        return Math.floorDiv(year, 10) * 10L;
+    }
+
+    // Bucket n holds ratings from n up to n + 1 and 5 holds top ratings;
+    // books without reviews fall into 0.
+    static long ratingBucketOf(Double rating) {
+        return rating == null ? 0 : (long) Math.max(0, Math.min(5, Math.floor(rating)));
+    }
+
+    private static List<Long> valuesOf(List<? extends Number> values) {
+        return values == null ? List.of()
+                : values.stream().filter(Objects::nonNull).map(Number::longValue).toList();
+    }
+
+    @Scheduled(initialDelayString = "${library.search.rebuild-initial-delay:PT0S}")
+    public int rebuild() {
+        long start = System.nanoTime();
+        rebuilding = true;
+        try {
+            IdBatches.forEach(BATCH_SIZE, bookRepository::findRowsAfter, BookRow::id, books -> {
+                Map<Long, Document> documents = documentsOf(books);
+                synchronized (touched) {
+                    documents.keySet().removeAll(touched);
+                    putAll(documents);
+                }
+            });
+        } finally {
+            rebuilding = false;
+            synchronized (touched) {
+                touched.clear();
+            }
+        }
+        logger.info("Indexed {} books in {} ms", index.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return index.size();
+    }
+
+    // Books that no longer exist are dropped from the index.
+    public void reindex(Collection<Long> bookIds) {
+        if (bookIds.isEmpty()) {
+            return;
+        }
+        List<Long> ids = List.copyOf(new LinkedHashSet<>(bookIds));
+        AfterCommit.run(() -> load(ids));
+    }
+
+    private void load(List<Long> ids) {
+        if (rebuilding) {
+            synchronized (touched) {
+                touched.addAll(ids);
+            }
+        }
+        for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+            List<Long> batch = ids.subList(from, Math.min(from + BATCH_SIZE, ids.size()));
+            Map<Long, Document> documents = documentsOf(bookRepository.findRowsByIds(batch));
+            putAll(documents);
+            batch.stream().filter(id -> !documents.containsKey(id)).forEach(this::remove);
+        }
+    }
+
+    private void putAll(Map<Long, Document> documents) {
+        Map<Long, List<TextIndex.Field>> fields = new HashMap<>();
+        documents.forEach((id, document) -> {
+            fields.put(id, document.fields());
+            titles.put(id, textsOf(document.fields(), NAME_WEIGHT));
+            authorNames.put(id, textsOf(document.fields(), AUTHOR_WEIGHT));
+            facets.put(id, document.facets());
+        });
+        index.putAll(fields);
+    }
+
+    private void remove(Long id) {
+        index.remove(id);
+        titles.remove(id);
+        authorNames.remove(id);
+        facets.remove(id);
+    }
+
+    private static List<String> textsOf(List<TextIndex.Field> fields, int weight) {
+        return fields.stream()
+                .filter(field -> field.weight() == weight && field.text() != null)
+                .map(TextIndex.Field::text)
+                .toList();
+    }
+
+    private Map<Long, Document> documentsOf(List<BookRow> books) {
+        Map<Long, Document> documents = new HashMap<>();
+        if (books.isEmpty()) {
+            return documents;
+        }
+        for (BookRow book : books) {
+            Document document = new Document();
+            document.fields().add(new TextIndex.Field(book.name(), NAME_WEIGHT));
+            document.facet(FacetIndex.Facet.DECADE).put(decadeOf(book.year()), null);
+            document.facet(FacetIndex.Facet.RATING).put(ratingBucketOf(book.rating()), null);
+            documents.put(book.id(), document);
+        }
+        List<Long> bookIds = books.stream().map(BookRow::id).toList();
+        for (AuthorRow author : authorRepository.findRowsByBookIds(bookIds)) {
+            Document document = documents.get(author.bookId());
+            document.fields().add(new TextIndex.Field(author.name(), AUTHOR_WEIGHT));
+            document.fields().add(new TextIndex.Field(author.info(), INFO_WEIGHT));
+            document.facet(FacetIndex.Facet.AUTHOR).put(author.id(), author.name());
+        }
+        for (CategoryNameRow category : categoryRepository.findNamesByBookIds(bookIds)) {
+            Document document = documents.get(category.bookId());
+            document.fields().add(new TextIndex.Field(category.name(), CATEGORY_WEIGHT));
+            document.facet(FacetIndex.Facet.CATEGORY).put(category.id(), category.name());
+        }
+        return documents;
+    }
+}
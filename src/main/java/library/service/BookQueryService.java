@@ -0,0 +1,141 @@
+package library.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import library.dto.BookFields;
+import library.dto.BookSearchCriteria;
+import library.dto.get.BookGetDto;
+import library.dto.get.BookPageGetDto;
+import library.dto.get.PageGetDto;
+import library.dto.projection.AuthorRow;
+import library.dto.projection.BookRow;
+import library.exception.BadRequestException;
+import library.mapper.BookRowMapper;
+import library.mapper.PageMapper;
+import library.repository.AuthorRepository;
+import library.repository.BookRepository;
+import library.repository.CategoryRepository;
+import library.repository.ReviewRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+// Read side of the book API. Each lookup selects flat rows for the books
+// and then one query each for their authors, the authors' book names,
+// categories and review counts per rating, instead of hydrating managed entities through
+// fetch joins whose row count is the product of the joined collections.
+@Service
+@Transactional(readOnly = true)
+public class BookQueryService {
+    static final int MAX_SEARCH_OFFSET = 10_000;
+
+    private final BookRepository bookRepository;
+    private final AuthorRepository authorRepository;
+    private final CategoryRepository categoryRepository;
+    private final ReviewRepository reviewRepository;
+
+    @Autowired
+    public BookQueryService(BookRepository bookRepository, AuthorRepository authorRepository,
+                            CategoryRepository categoryRepository,
+                            ReviewRepository reviewRepository) {
+        this.bookRepository = bookRepository;
+        this.authorRepository = authorRepository;
+        this.categoryRepository = categoryRepository;
+        this.reviewRepository = reviewRepository;
+    }
+
+    public Optional<BookGetDto> findById(Long id) {
+        return assemble(bookRepository.findRowsById(id)).stream().findFirst();
+    }
+
+    public List<BookGetDto> findByIds(List<Long> ids) {
+        return findByIds(ids, BookFields.DEFAULT);
+    }
+
+    // Books come back in the order of the ids; ids without a book are skipped.
+    public List<BookGetDto> findByIds(List<Long> ids, BookFields fields) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, BookGetDto> books = assemble(bookRepository.findRowsByIds(ids), fields)
+                .stream()
+                .collect(Collectors.toMap(BookGetDto::getId, Function.identity()));
+        return ids.stream().map(books::get).filter(Objects::nonNull).toList();
+    }
+
+    public List<BookGetDto> findByName(String name) {
+        return assemble(bookRepository.findRowsByName(name));
+    }
+
+    public List<BookGetDto> findByAuthor(String name) {
+        return assemble(bookRepository.findRowsByAuthor(name));
+    }
+
+    public List<BookGetDto> findByCategory(String name) {
+        return assemble(bookRepository.findRowsByCategory(name));
+    }
+
+    public PageGetDto<BookGetDto> findPage(Long after, int limit) {
+        return findPage(after, limit, BookFields.DEFAULT);
+    }
+
+    // Search results can be sorted by any field, so they are paged by offset
+    // rather than by id; the offset is capped to keep deep pages cheap.
+    public BookPageGetDto search(BookSearchCriteria criteria, int offset, int limit) {
+        if (offset < 0 || offset > MAX_SEARCH_OFFSET) {
+            throw new BadRequestException("Offset must be between 0 and " + MAX_SEARCH_OFFSET);
+        }
+        List<BookRow> rows = bookRepository.searchRows(criteria, offset,
+                Keyset.limitOf(limit).max());
+
+        BookPageGetDto page = new BookPageGetDto();
+        page.setItems(assemble(rows.size() > limit ? rows.subList(0, limit) : rows));
+        if (rows.size() > limit) {
+            page.setNextOffset((long) offset + limit);
+        }
+        return page;
+    }
+
+    public PageGetDto<BookGetDto> findPage(Long after, int limit, BookFields fields) {
+        List<BookRow> rows = bookRepository.findRowsAfter(
+                Keyset.afterOf(after), Keyset.limitOf(limit));
+        return PageMapper.toBatchDto(rows, limit, BookRow::id, page -> assemble(page, fields));
+    }
+
+    private List<BookGetDto> assemble(List<BookRow> books) {
+        return assemble(books, BookFields.DEFAULT);
+    }
+
+    // Associations outside the requested fields are not queried at all.
+    private List<BookGetDto> assemble(List<BookRow> books, BookFields fields) {
+        if (books.isEmpty()) {
+            return List.of();
+        }
+        List<Long> bookIds = books.stream().map(BookRow::id).toList();
+        List<AuthorRow> authors = fields.has(BookFields.AUTHORS)
+                ? authorRepository.findRowsByBookIds(bookIds) : List.of();
+        List<Long> authorIds = authors.stream().map(AuthorRow::id).distinct().toList();
+        List<BookGetDto> dtos = BookRowMapper.toDtos(fields, books, authors,
+                authorIds.isEmpty() ? List.of()
+                        : authorRepository.findBookNamesByAuthorIds(authorIds),
+                fields.has(BookFields.CATEGORIES)
+                        ? categoryRepository.findRowsByBookIds(bookIds) : List.of(),
+                fields.has(BookFields.REVIEW_SUMMARY)
+                        ? reviewRepository.findStatsByBookIds(bookIds) : List.of());
+        return fields.has(BookFields.REVIEWS) ? withReviews(dtos) : dtos;
+    }
+
+    // Embeds full reviews for clients still reading the old response shape,
+    // with one query for all the books.
+    public List<BookGetDto> withReviews(List<BookGetDto> books) {
+        if (books.isEmpty()) {
+            return books;
+        }
+        List<Long> bookIds = books.stream().map(BookGetDto::getId).toList();
+        return BookRowMapper.withReviews(books, reviewRepository.findRowsByBookIds(bookIds));
+    }
+}
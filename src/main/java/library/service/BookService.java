@@ -1,22 +1,41 @@
 package library.service;
 
 import jakarta.transaction.Transactional;
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import library.cache.CacheKey;
+import library.cache.CacheTag;
 import library.cache.InMemoryCache;
+import library.dto.BookFacetDto;
+import library.dto.BookFields;
+import library.dto.BookMatch;
+import library.dto.BookSearchCriteria;
+import library.dto.BookSearchDto;
 import library.dto.create.BookCreateDto;
+import library.dto.get.BookFacetsGetDto;
 import library.dto.get.BookGetDto;
+import library.dto.get.BookPageGetDto;
+import library.dto.get.PageGetDto;
 import library.exception.NotFoundException;
 import library.mapper.BookMapper;
+import library.mapper.BookRowMapper;
+import library.mapper.FacetMapper;
+import library.mapper.PageMapper;
 import library.model.Author;
 import library.model.Book;
 import library.model.Category;
 import library.repository.AuthorRepository;
 import library.repository.BookRepository;
 import library.repository.CategoryRepository;
+import library.search.FacetIndex;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -24,6 +43,11 @@ public class BookService {
     private final BookRepository bookRepository;
     private final AuthorRepository authorRepository;
     private final CategoryRepository categoryRepository;
+    private final BookQueryService bookQueryService;
+    private final BookIndexService bookIndexService;
+    private final SuggestService suggestService;
+    private final RecommendationService recommendationService;
+    private final SimilarityService similarityService;
     private final InMemoryCache cache;
     private static final String AUTHOR_NOT_FOUND_MESSAGE = "Author is not found with id: ";
     private static final String BOOK_NOT_FOUND_MESSAGE = "Book is not found with id: ";
@@ -32,98 +56,190 @@ public class BookService {
     @Autowired
     public BookService(BookRepository bookRepository,
                        AuthorRepository authorRepository,
-                       CategoryRepository categoryRepository, InMemoryCache cache) {
+                       CategoryRepository categoryRepository,
+                       BookQueryService bookQueryService,
+                       BookIndexService bookIndexService, SuggestService suggestService,
+                       RecommendationService recommendationService,
+                       SimilarityService similarityService, InMemoryCache cache) {
         this.bookRepository = bookRepository;
         this.authorRepository = authorRepository;
         this.categoryRepository = categoryRepository;
+        this.bookQueryService = bookQueryService;
+        this.bookIndexService = bookIndexService;
+        this.suggestService = suggestService;
+        this.recommendationService = recommendationService;
+        this.similarityService = similarityService;
         this.cache = cache;
     }
 
-    public List<BookGetDto> getAllBooks() {
-        return bookRepository.findAll().stream().map(BookMapper::toDto).toList();
+    public PageGetDto<BookGetDto> getAllBooks(Long after, int limit) {
+        return bookQueryService.findPage(after, limit);
+    }
+
+    public PageGetDto<BookGetDto> getAllBooks(Long after, int limit, BookFields fields) {
+        return bookQueryService.findPage(after, limit, fields);
     }
 
     public BookGetDto getBookById(Long id) {
-        String key = "book_by_id_" + id;
-        if (cache.containsKey(key)) {
-            return (BookGetDto) cache.get(key);
-        }
-        BookGetDto book = BookMapper.toDto(bookRepository.findById(id)
-                .orElseThrow(() -> new NotFoundException(BOOK_NOT_FOUND_MESSAGE + id)));
-        cache.put(key, book);
-        return book;
+        return cache.getOrLoad(CacheKey.bookById(id),
+                () -> bookQueryService.findById(id)
+                        .orElseThrow(() -> new NotFoundException(BOOK_NOT_FOUND_MESSAGE + id)),
+                book -> tagsOf(List.of(book)), Set.of(CacheTag.book(id)));
     }
 
-    public List<BookGetDto> getBookByName(String name)  {
-        String key = "books_by_name_" + name;
-        if (cache.containsKey(key)) {
-            return (List<BookGetDto>) cache.get(key);
-        }
+    public BookGetDto getBookById(Long id, BookFields fields) {
+        return select(List.of(getBookById(id)), fields).get(0);
+    }
 
-        List<BookGetDto> booksDto = bookRepository.findByName(name).stream()
-                .map(BookMapper::toDto).toList();
-        if (booksDto.isEmpty()) {
-            throw new NotFoundException("Book not found with name:" + name);
+    // Only exact matches are cached. A misspelled name falls back to the
+    // closest names in the in-memory index, which is not cached, so a book
+    // added later is found at once; such results are marked approximate.
+    public BookMatch getBookByName(String name)  {
+        CacheKey key = CacheKey.booksByName(name);
+        CacheTag lookup = CacheTag.bookName(name);
+        try {
+            return BookMatch.exact(cache.getOrLoad(key, () -> {
+                List<BookGetDto> booksDto = bookQueryService
+                        .findByName((String) key.argument());
+                if (booksDto.isEmpty()) {
+                    throw new NotFoundException("Book not found with name:" + name);
+                }
+                return booksDto;
+            }, books -> tagsOf(books, lookup), Set.of(lookup)));
+        } catch (NotFoundException exception) {
+            return approximate(bookIndexService.findSimilarTitles(name), exception);
         }
-        cache.put(key, booksDto);
-        return booksDto;
     }
 
-    public List<BookGetDto> getBookByAuthor(String name)  {
-        String key = "books_by_author_" + name;
-        if (cache.containsKey(key)) {
-            return (List<BookGetDto>) cache.get(key);
-        }
+    public BookMatch getBookByName(String name, BookFields fields) {
+        return select(getBookByName(name), fields);
+    }
 
-        List<BookGetDto> booksDto = bookRepository.findByAuthor(name).stream()
-                .map(BookMapper::toDto).toList();
-        if (booksDto.isEmpty()) {
-            throw new NotFoundException("Book not found with author's name: " + name);
+    public BookMatch getBookByAuthor(String name)  {
+        CacheKey key = CacheKey.booksByAuthor(name);
+        CacheTag lookup = CacheTag.authorName(name);
+        try {
+            return BookMatch.exact(cache.getOrLoad(key, () -> {
+                List<BookGetDto> booksDto = bookQueryService
+                        .findByAuthor((String) key.argument());
+                if (booksDto.isEmpty()) {
+                    throw new NotFoundException("Book not found with author's name: " + name);
+                }
+                return booksDto;
+            }, books -> tagsOf(books, lookup), Set.of(lookup)));
+        } catch (NotFoundException exception) {
+            return approximate(bookIndexService.findSimilarAuthors(name), exception);
         }
-        cache.put(key, booksDto);
-        return booksDto;
+    }
+
+    public BookMatch getBookByAuthor(String name, BookFields fields) {
+        return select(getBookByAuthor(name), fields);
     }
 
     public List<BookGetDto> getBookByCategory(String name) {
-        String key = "books_by_category_" + name;
-        if (cache.containsKey(key)) {
-            return (List<BookGetDto>) cache.get(key);
+        CacheKey key = CacheKey.booksByCategory(name);
+        CacheTag lookup = CacheTag.categoryName(name);
+        return cache.getOrLoad(key, () -> {
+            List<BookGetDto> booksDto = bookQueryService
+                    .findByCategory((String) key.argument());
+            if (booksDto.isEmpty()) {
+                throw new NotFoundException("Book not found with category's name: " + name);
+            }
+            return booksDto;
+        }, books -> tagsOf(books, lookup), Set.of(lookup));
+    }
+
+    public List<BookGetDto> getBookByCategory(String name, BookFields fields) {
+        return select(getBookByCategory(name), fields);
+    }
+
+    // Pages are cached per normalized criteria, offset and limit. Any book
+    // write drops every cached search; review writes reach the pages that
+    // hold the reviewed book, and the others catch up on expiry.
+    public BookPageGetDto searchBooks(BookSearchDto search, int offset, int limit,
+                                      BookFields fields) {
+        BookSearchCriteria criteria = BookSearchCriteria.of(search);
+        CacheKey key = CacheKey.booksSearch(
+                criteria.key() + "|offset=" + offset + "|limit=" + limit);
+        BookPageGetDto page = cache.getOrLoad(key,
+                () -> bookQueryService.search(criteria, offset, limit),
+                result -> searchTagsOf(criteria, result));
+        if (fields.isDefault()) {
+            return page;
         }
+        BookPageGetDto selected = new BookPageGetDto();
+        selected.setItems(select(page.getItems(), fields));
+        selected.setNextOffset(page.getNextOffset());
+        return selected;
+    }
 
-        List<BookGetDto> booksDto = bookRepository.findByCategory(name).stream()
-                .map(BookMapper::toDto).toList();
-        if (booksDto.isEmpty()) {
-            throw new NotFoundException("Book not found with category's name: " + name);
+    // Ranked by the full-text index, which already lives in memory, so the
+    // results are not cached; only the matched books are read from the database.
+    public List<BookGetDto> searchBooksByText(String query, int limit, BookFields fields) {
+        return bookQueryService.findByIds(bookIndexService.search(query, limit), fields);
+    }
+
+    // Read from the in-memory co-review model, best match first; books
+    // deleted since the model last saw them are skipped.
+    public List<BookGetDto> getRecommendations(Long id, int limit, BookFields fields) {
+        if (!bookRepository.existsById(id)) {
+            throw new NotFoundException(BOOK_NOT_FOUND_MESSAGE + id);
         }
-        cache.put(key, booksDto);
-        return booksDto;
+        return bookQueryService.findByIds(recommendationService.recommend(id, limit), fields);
+    }
+
+    // Read from the in-memory similarity index, most alike first.
+    public List<BookGetDto> getSimilarBooks(Long id, int limit, BookFields fields) {
+        if (!bookRepository.existsById(id)) {
+            throw new NotFoundException(BOOK_NOT_FOUND_MESSAGE + id);
+        }
+        return bookQueryService.findByIds(similarityService.findSimilar(id, limit), fields);
+    }
+
+    // Filtered and counted in the in-memory facet index, so only the books of
+    // the page are read from the database and nothing is cached.
+    public BookFacetsGetDto browseBooks(BookFacetDto filter, Long after, int limit,
+                                        BookFields fields) {
+        FacetIndex.Result result = bookIndexService.browse(filter, Keyset.afterOf(after),
+                Keyset.checkLimit(limit) + 1);
+        PageGetDto<BookGetDto> books = PageMapper.toBatchDto(result.ids(), limit,
+                Function.identity(), ids -> bookQueryService.findByIds(ids, fields));
+        return FacetMapper.toDto(result, books);
     }
 
     @Transactional
     public BookGetDto createBook(BookCreateDto bookDto) {
-        Book bookEntity = BookMapper.fromDto(bookDto);
+        Map<Long, Author> authors = findAuthors(bookDto.getAuthorIds());
+        Map<Long, Category> categories = findCategories(bookDto.getCategoryIds());
 
-        Set<Author> authors = new HashSet<>();
-        if (bookDto.getAuthorIds() != null && !bookDto.getAuthorIds().isEmpty()) {
-            authors = bookDto.getAuthorIds().stream()
-                    .map(authorId -> authorRepository.findById(authorId)
-                    .orElseThrow(() -> new NotFoundException(AUTHOR_NOT_FOUND_MESSAGE + authorId)))
-                    .collect(Collectors.toSet());
-        }
+        Book savedBook = bookRepository.save(toEntity(bookDto, authors, categories));
+        Set<CacheTag> tags = tagsOf(savedBook);
+        AfterCommit.run(() -> cache.invalidate(tags));
+        bookIndexService.reindex(List.of(savedBook.getId()));
+        suggestService.putBook(savedBook);
+        similarityService.putBook(savedBook);
+        return BookMapper.toDto(savedBook);
+    }
 
-        Set<Category> categories = new HashSet<>();
-        if (bookDto.getCategoryIds() != null && !bookDto.getCategoryIds().isEmpty()) {
-            categories = bookDto.getCategoryIds().stream()
-                    .map(categoryId -> categoryRepository.findById(categoryId)
-                    .orElseThrow(()
-                            -> new NotFoundException(CATEGORY_NOT_FOUND_MESSAGE + categoryId)))
-                    .collect(Collectors.toSet());
-        }
-        bookEntity.setCategories(categories);
-        bookEntity.setAuthors(authors);
-        cache.clear();
+    // Every author and category referenced by the payload is loaded with one
+    // query per type, the books are inserted in JDBC batches and the cache is
+    // invalidated once for all of them.
+    @Transactional
+    public List<BookGetDto> createBooks(List<BookCreateDto> bookDtos) {
+        Map<Long, Author> authors = findAuthors(idsOf(bookDtos, BookCreateDto::getAuthorIds));
+        Map<Long, Category> categories = findCategories(
+                idsOf(bookDtos, BookCreateDto::getCategoryIds));
 
-        return BookMapper.toDto(bookRepository.save(bookEntity));
+        List<Book> savedBooks = bookRepository.saveAll(bookDtos.stream()
+                .map(bookDto -> toEntity(bookDto, authors, categories))
+                .toList());
+        Set<CacheTag> tags = new HashSet<>();
+        savedBooks.forEach(book -> tags.addAll(tagsOf(book)));
+        AfterCommit.run(() -> cache.invalidate(tags));
+        bookIndexService.reindex(savedBooks.stream().map(Book::getId).toList());
+        savedBooks.forEach(suggestService::putBook);
+        savedBooks.forEach(similarityService::putBook);
+        return savedBooks.stream().map(BookMapper::toDto).toList();
     }
 
     @Transactional
@@ -133,38 +249,162 @@ public class BookService {
         bookEntity.setName(bookDto.getName());
         bookEntity.setYear(bookDto.getYear());
         bookEntity.setPageAmount(bookDto.getPageAmount());
+        bookEntity.setAuthors(pick(bookDto.getAuthorIds(),
+                findAuthors(bookDto.getAuthorIds())));
+        bookEntity.setCategories(pick(bookDto.getCategoryIds(),
+                findCategories(bookDto.getCategoryIds())));
 
-        Set<Author> authors = new HashSet<>();
-        Set<Category> categories = new HashSet<>();
-        if (bookDto.getAuthorIds() != null && !bookDto.getAuthorIds().isEmpty()) {
-            bookDto.getAuthorIds().forEach(authorId -> {
-                Author author = authorRepository.findById(authorId)
-                        .orElseThrow(()
-                                -> new NotFoundException(AUTHOR_NOT_FOUND_MESSAGE + authorId));
-                authors.add(author);
-            });
-        }
-        bookEntity.setAuthors(authors);
-
-        if (bookDto.getCategoryIds() != null && !bookDto.getCategoryIds().isEmpty()) {
-            bookDto.getCategoryIds().forEach(categoryId -> {
-                Category category = categoryRepository.findById(categoryId)
-                        .orElseThrow(()
-                                -> new NotFoundException(CATEGORY_NOT_FOUND_MESSAGE + categoryId));
-                categories.add(category);
-            });
-        }
-        bookEntity.setCategories(categories);
-        cache.clear();
-
-        return BookMapper.toDto(bookRepository.save(bookEntity));
+        Book savedBook = bookRepository.save(bookEntity);
+        Set<CacheTag> tags = tagsOf(savedBook);
+        AfterCommit.run(() -> cache.invalidate(tags));
+        bookIndexService.reindex(List.of(id));
+        suggestService.putBook(savedBook);
+        similarityService.putBook(savedBook);
+        return BookMapper.toDto(savedBook);
     }
 
     public void deleteBook(Long id) {
         if (!bookRepository.existsById(id)) {
             throw new NotFoundException(BOOK_NOT_FOUND_MESSAGE + id);
         }
-        cache.clear();
         bookRepository.deleteById(id);
+        Set<CacheTag> tags = Set.of(CacheTag.book(id), CacheTag.bookSearch());
+        AfterCommit.run(() -> cache.invalidate(tags));
+        bookIndexService.reindex(List.of(id));
+        suggestService.removeBook(id);
+        similarityService.removeBook(id);
+    }
+
+    private BookMatch approximate(List<Long> similarIds, NotFoundException notFound) {
+        List<BookGetDto> books = bookQueryService.findByIds(similarIds);
+        if (books.isEmpty()) {
+            throw notFound;
+        }
+        return BookMatch.approximate(books);
+    }
+
+    private BookMatch select(BookMatch match, BookFields fields) {
+        return new BookMatch(select(match.books(), fields), match.approximate());
+    }
+
+    // Lookups are cached in the default shape, so a narrower request costs
+    // nothing extra on a hit. Full reviews are never cached and are loaded
+    // only when asked for.
+    private List<BookGetDto> select(List<BookGetDto> books, BookFields fields) {
+        List<BookGetDto> loaded = fields.has(BookFields.REVIEWS)
+                ? bookQueryService.withReviews(books) : books;
+        return fields.isDefault() ? loaded : BookRowMapper.select(loaded, fields);
+    }
+
+    private static Book toEntity(BookCreateDto bookDto, Map<Long, Author> authors,
+                                 Map<Long, Category> categories) {
+        Book bookEntity = BookMapper.fromDto(bookDto);
+        bookEntity.setAuthors(pick(bookDto.getAuthorIds(), authors));
+        bookEntity.setCategories(pick(bookDto.getCategoryIds(), categories));
+        return bookEntity;
+    }
+
+    private Map<Long, Author> findAuthors(Set<Long> ids) {
+        return findAllById(authorRepository, ids, Author::getId, AUTHOR_NOT_FOUND_MESSAGE);
+    }
+
+    private Map<Long, Category> findCategories(Set<Long> ids) {
+        return findAllById(categoryRepository, ids, Category::getId, CATEGORY_NOT_FOUND_MESSAGE);
+    }
+
+    private static <T> Map<Long, T> findAllById(JpaRepository<T, Long> repository,
+                                                Set<Long> ids, Function<T, Long> idOf,
+                                                String notFoundMessage) {
+        if (ids == null || ids.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, T> found = repository.findAllById(ids).stream()
+                .collect(Collectors.toMap(idOf, Function.identity()));
+        for (Long id : ids) {
+            if (!found.containsKey(id)) {
+                throw new NotFoundException(notFoundMessage + id);
+            }
+        }
+        return found;
+    }
+
+    private static Set<Long> idsOf(List<BookCreateDto> bookDtos,
+                                   Function<BookCreateDto, Set<Long>> getter) {
+        Set<Long> ids = new LinkedHashSet<>();
+        for (BookCreateDto bookDto : bookDtos) {
+            if (getter.apply(bookDto) != null) {
+                ids.addAll(getter.apply(bookDto));
+            }
+        }
+        return ids;
+    }
+
+    private static <T> Set<T> pick(Set<Long> ids, Map<Long, T> entities) {
+        Set<T> picked = new HashSet<>();
+        if (ids != null) {
+            ids.forEach(id -> picked.add(entities.get(id)));
+        }
+        return picked;
+    }
+
+    // Entries built from a book go stale when the book itself changes or when
+    // it joins a name, author or category lookup they were built for.
+    private static Set<CacheTag> tagsOf(Book book) {
+        Set<CacheTag> tags = new HashSet<>();
+        tags.add(CacheTag.bookSearch());
+        if (book.getId() != null) {
+            tags.add(CacheTag.book(book.getId()));
+        }
+        tags.add(CacheTag.bookName(book.getName()));
+        if (book.getAuthors() != null) {
+            for (Author author : book.getAuthors()) {
+                tags.add(CacheTag.author(author.getId()));
+                tags.add(CacheTag.authorName(author.getName()));
+            }
+        }
+        if (book.getCategories() != null) {
+            for (Category category : book.getCategories()) {
+                tags.add(CacheTag.category(category.getId()));
+                tags.add(CacheTag.categoryName(category.getName()));
+            }
+        }
+        return tags;
+    }
+
+    private static Set<CacheTag> searchTagsOf(BookSearchCriteria criteria,
+                                              BookPageGetDto page) {
+        Set<CacheTag> tags = tagsOf(page.getItems());
+        tags.add(CacheTag.bookSearch());
+        if (criteria.name() != null) {
+            tags.add(CacheTag.bookName(criteria.name()));
+        }
+        if (criteria.author() != null) {
+            tags.add(CacheTag.authorName(criteria.author()));
+        }
+        if (criteria.category() != null) {
+            tags.add(CacheTag.categoryName(criteria.category()));
+        }
+        return tags;
+    }
+
+    private static Set<CacheTag> tagsOf(Collection<BookGetDto> books, CacheTag lookup) {
+        Set<CacheTag> tags = tagsOf(books);
+        tags.add(lookup);
+        return tags;
+    }
+
+    private static Set<CacheTag> tagsOf(Collection<BookGetDto> books) {
+        Set<CacheTag> tags = new HashSet<>();
+        for (BookGetDto book : books) {
+            tags.add(CacheTag.book(book.getId()));
+            if (book.getAuthors() != null) {
+                book.getAuthors().forEach(author -> tags.add(CacheTag.author(author.getId())));
+            }
+            if (book.getCategories() != null) {
+                book.getCategories().forEach(category
+                        -> tags.add(CacheTag.category(category.getId())));
+            }
+        }
+        return tags;
     }
 }
@@ -2,11 +2,15 @@ package library.service;
 
 import jakarta.transaction.Transactional;
 import java.util.List;
+import java.util.Set;
+import library.cache.CacheTag;
 import library.cache.InMemoryCache;
 import library.dto.create.CategoryCreateDto;
 import library.dto.get.CategoryGetDto;
+import library.dto.get.PageGetDto;
 import library.exception.NotFoundException;
 import library.mapper.CategoryMapper;
+import library.mapper.PageMapper;
 import library.model.Category;
 import library.repository.BookRepository;
 import library.repository.CategoryRepository;
@@ -16,19 +20,25 @@ import org.springframework.stereotype.Service;
 @Service
 public class CategoryService {
     private final CategoryRepository categoryRepository;
+    private final BookRepository bookRepository;
     private static final String CATEGORY_NOT_FOUND_MESSAGE = "Category is not found with id: ";
     private final InMemoryCache cache;
+    private final BookIndexService bookIndexService;
 
     @Autowired
     public CategoryService(CategoryRepository categoryRepository,
                            BookRepository bookRepository,
-                           InMemoryCache cache) {
+                           InMemoryCache cache, BookIndexService bookIndexService) {
         this.categoryRepository = categoryRepository;
+        this.bookRepository = bookRepository;
         this.cache = cache;
+        this.bookIndexService = bookIndexService;
     }
 
-    public List<CategoryGetDto> getAllCategories() {
-        return categoryRepository.findAll().stream().map(CategoryMapper::toDto).toList();
+    public PageGetDto<CategoryGetDto> getAllCategories(Long after, int limit) {
+        return PageMapper.toDto(categoryRepository.findByIdGreaterThanOrderByIdAsc(
+                Keyset.afterOf(after), Keyset.limitOf(limit)),
+                limit, Category::getId, CategoryMapper::toDto);
     }
 
     public CategoryGetDto getCategoryById(Long id) {
@@ -40,7 +50,6 @@ public class CategoryService {
     @Transactional
     public CategoryGetDto createCategory(CategoryCreateDto categoryDto) {
         Category categoryEntity = CategoryMapper.fromDto(categoryDto);
-        cache.clear();
 
         return CategoryMapper.toDto(categoryRepository.save(categoryEntity));
     }
@@ -51,16 +60,23 @@ public class CategoryService {
                 .orElseThrow(() -> new NotFoundException(CATEGORY_NOT_FOUND_MESSAGE + id));
 
         categoryEntity.setName(categoryDto.getName());
-        cache.clear();
 
-        return CategoryMapper.toDto(categoryRepository.save(categoryEntity));
+        Category savedCategory = categoryRepository.save(categoryEntity);
+        Set<CacheTag> tags = Set.of(CacheTag.category(id),
+                CacheTag.categoryName(savedCategory.getName()));
+        AfterCommit.run(() -> cache.invalidate(tags));
+        bookIndexService.reindex(bookRepository.findIdsByCategoryId(id));
+        return CategoryMapper.toDto(savedCategory);
     }
 
     public void deleteCategory(Long id) {
         if (!categoryRepository.existsById(id)) {
             throw new NotFoundException(CATEGORY_NOT_FOUND_MESSAGE + id);
         }
+        List<Long> bookIds = bookRepository.findIdsByCategoryId(id);
         categoryRepository.deleteById(id);
-        cache.clear();
+        Set<CacheTag> tags = Set.of(CacheTag.category(id));
+        AfterCommit.run(() -> cache.invalidate(tags));
+        bookIndexService.reindex(bookIds);
     }
 }
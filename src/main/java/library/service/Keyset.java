@@ -0,0 +1,27 @@
+package library.service;
+
+import library.exception.BadRequestException;
+import org.springframework.data.domain.Limit;
+
+final class Keyset {
+    static final int MAX_LIMIT = 100;
+
+    private Keyset() {
+    }
+
+    static long afterOf(Long after) {
+        return after == null ? 0L : after;
+    }
+
+    // One row more than requested tells whether another page follows.
+    static Limit limitOf(int limit) {
+        return Limit.of(checkLimit(limit) + 1);
+    }
+
+    static int checkLimit(int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new BadRequestException("Limit must be between 1 and " + MAX_LIMIT);
+        }
+        return limit;
+    }
+}
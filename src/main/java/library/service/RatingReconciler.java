@@ -0,0 +1,78 @@
+package library.service;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import library.cache.CacheTag;
+import library.cache.InMemoryCache;
+import library.repository.BookRepository;
+import library.search.IdBatches;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Review writes keep the rating aggregates up to date on their own; this
+// pass recomputes them from the reviews table in id batches to repair any
+// drift, and on its first run fills them in for books created before the
+// aggregates existed.
+@Service
+public class RatingReconciler {
+    static final int BATCH_SIZE = 1000;
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+    private final BookRepository bookRepository;
+    private final InMemoryCache cache;
+    private final BookIndexService bookIndexService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public RatingReconciler(BookRepository bookRepository, InMemoryCache cache,
+                            BookIndexService bookIndexService,
+                            PlatformTransactionManager transactionManager) {
+        this.bookRepository = bookRepository;
+        this.cache = cache;
+        this.bookIndexService = bookIndexService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(initialDelayString = "${library.rating.reconcile-initial-delay:PT1M}",
+            fixedDelayString = "${library.rating.reconcile-interval:PT24H}")
+    public int reconcile() {
+        // Books filled in and books that drifted.
+        int[] counts = new int[2];
+        IdBatches.forEach(BATCH_SIZE, bookRepository::findIdsAfter, Long::longValue, batch -> {
+            // Each batch commits on its own, so row locks are held briefly.
+            List<List<Long>> updated = transactionTemplate.execute(status -> {
+                bookRepository.lockByIds(batch);
+                return List.of(bookRepository.backfillRatings(batch),
+                        bookRepository.reconcileRatings(batch));
+            });
+            // Only the books whose aggregates changed are invalidated and
+            // reindexed.
+            Set<Long> changed = new LinkedHashSet<>(updated.get(0));
+            changed.addAll(updated.get(1));
+            if (!changed.isEmpty()) {
+                cache.invalidate(changed.stream().map(CacheTag::book).collect(Collectors.toSet()));
+                bookIndexService.reindex(changed);
+                counts[0] += updated.get(0).size();
+                counts[1] += updated.get(1).size();
+            }
+        });
+        int backfilled = counts[0];
+        int drifted = counts[1];
+        // Filling in books that never had aggregates is expected after the
+        // migration; only books that drifted point at a lost update.
+        if (backfilled > 0) {
+            logger.info("Filled in rating of {} books", backfilled);
+        }
+        if (drifted > 0) {
+            logger.warn("Reconciled rating of {} books", drifted);
+        }
+        return backfilled + drifted;
+    }
+}
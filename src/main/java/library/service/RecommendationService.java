@@ -0,0 +1,141 @@
+package library.service;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import library.dto.projection.ReviewPairRow;
+import library.exception.BadRequestException;
+import library.repository.ReviewRepository;
+import library.search.CoReviewModel;
+import library.search.IdBatches;
+import library.search.LongIntMap;
+import library.search.LongObjectMap;
+import library.search.SwappableIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+// Serves "readers who reviewed this also reviewed" from the in-memory
+// co-review model. Review writes update it once their transaction commits.
+// The scheduled rebuild reads all reviews in id batches, builds a new
+// model on the common fork-join pool, replays the writes made meanwhile
+// and swaps it in at once, which also refreshes the scores the
+// incremental updates leave behind.
+@Service
+public class RecommendationService {
+    static final int BATCH_SIZE = 1000;
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+    private final ReviewRepository reviewRepository;
+    private final SwappableIndex<CoReviewModel, Write> model =
+            new SwappableIndex<>(new CoReviewModel(), (target, write) -> write.applyTo(target));
+
+    @Autowired
+    public RecommendationService(ReviewRepository reviewRepository) {
+        this.reviewRepository = reviewRepository;
+    }
+
+    public List<Long> recommend(Long bookId, int limit) {
+        if (limit < 1 || limit > CoReviewModel.TOP_N) {
+            throw new BadRequestException("Limit must be between 1 and " + CoReviewModel.TOP_N);
+        }
+        return model.current().similar(bookId, limit);
+    }
+
+    public void addReview(Long reviewId, Long userId, Long bookId) {
+        Write write = new Write(true, reviewId, userId, bookId);
+        AfterCommit.run(() -> model.write(write));
+    }
+
+    public void removeReview(Long reviewId, Long userId, Long bookId) {
+        Write write = new Write(false, reviewId, userId, bookId);
+        AfterCommit.run(() -> model.write(write));
+    }
+
+    @Scheduled(initialDelayString = "${library.recommend.rebuild-initial-delay:PT0S}",
+            fixedDelayString = "${library.recommend.rebuild-interval:PT6H}")
+    public int rebuild() {
+        long start = System.nanoTime();
+        LoadedReviews loaded = new LoadedReviews();
+        CoReviewModel fresh = model.rebuild(() -> {
+            IdBatches.forEach(BATCH_SIZE, reviewRepository::findPairsAfter, ReviewPairRow::id,
+                    rows -> rows.forEach(loaded::add));
+            return CoReviewModel.build(loaded.booksByUser(), ForkJoinPool.commonPool());
+        }, (built, writes) -> replay(writes, loaded, built));
+        if (fresh == null) {
+            logger.info("Skipped building recommendations, a build is already running");
+            return 0;
+        }
+        logger.info("Built recommendations for {} books in {} ms", fresh.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return fresh.size();
+    }
+
+    // A review write, applied as it commits.
+    private record Write(boolean add, long reviewId, long userId, long bookId) {
+        void applyTo(CoReviewModel target) {
+            if (add) {
+                target.add(userId, bookId);
+            } else {
+                target.remove(userId, bookId);
+            }
+        }
+    }
+
+    // A write that committed while the rebuild read the reviews may already
+    // be in what it read, so each write is replayed only if it changes the
+    // review's (user, book) pair as the fresh model holds it: an add of a
+    // pair already there and a remove of a pair no longer there are skipped.
+    private static void replay(List<Write> writes, LoadedReviews loaded, CoReviewModel fresh) {
+        Map<Long, Write> replayed = new HashMap<>();
+        for (Write write : writes) {
+            Write last = replayed.get(write.reviewId());
+            boolean present = last != null
+                    ? last.add() && last.userId() == write.userId()
+                            && last.bookId() == write.bookId()
+                    : loaded.holds(write.reviewId(), write.userId(), write.bookId());
+            if (write.add() != present) {
+                write.applyTo(fresh);
+                replayed.put(write.reviewId(), write);
+            }
+        }
+    }
+
+    // The reviews a rebuild read, in id order as they come, kept in flat
+    // arrays so writes made meanwhile can be checked against them.
+    private static final class LoadedReviews {
+        private final LongObjectMap<LongIntMap> booksByUser = new LongObjectMap<>();
+        private long[] ids = new long[16];
+        private long[] users = new long[16];
+        private long[] books = new long[16];
+        private int size;
+
+        void add(ReviewPairRow row) {
+            booksByUser.computeIfAbsent(row.userId(), user -> new LongIntMap())
+                    .add(row.bookId(), 1);
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                users = Arrays.copyOf(users, size * 2);
+                books = Arrays.copyOf(books, size * 2);
+            }
+            ids[size] = row.id();
+            users[size] = row.userId();
+            books[size] = row.bookId();
+            size++;
+        }
+
+        boolean holds(long reviewId, long userId, long bookId) {
+            int index = Arrays.binarySearch(ids, 0, size, reviewId);
+            return index >= 0 && users[index] == userId && books[index] == bookId;
+        }
+
+        LongObjectMap<LongIntMap> booksByUser() {
+            return booksByUser;
+        }
+    }
+}
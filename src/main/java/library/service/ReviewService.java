@@ -2,11 +2,16 @@ package library.service;
 
 import jakarta.transaction.Transactional;
 import java.util.List;
+import java.util.Set;
+import library.cache.CacheTag;
 import library.cache.InMemoryCache;
 import library.dto.create.ReviewCreateDto;
+import library.dto.get.PageGetDto;
 import library.dto.get.ReviewGetDto;
+import library.dto.projection.ReviewRow;
 import library.exception.AuthenticationException;
 import library.exception.NotFoundException;
+import library.mapper.PageMapper;
 import library.mapper.ReviewMapper;
 import library.model.Book;
 import library.model.Review;
@@ -23,6 +28,8 @@ public class ReviewService {
     private final BookRepository bookRepository;
     private final UserRepository userRepository;
     private final InMemoryCache cache;
+    private final BookIndexService bookIndexService;
+    private final RecommendationService recommendationService;
     private static final String BOOK_NOT_FOUND_MESSAGE = "Book is not found with id: ";
     private static final String REVIEW_NOT_FOUND_MESSAGE = "Review is not found with id: ";
     private static final String USER_NOT_FOUND_MESSAGE = "User is not found with id: ";
@@ -30,21 +37,26 @@ public class ReviewService {
     @Autowired
     public ReviewService(ReviewRepository reviewRepository,
                          BookRepository bookRepository,
-                         UserRepository userRepository, InMemoryCache cache) {
+                         UserRepository userRepository, InMemoryCache cache,
+                         BookIndexService bookIndexService,
+                         RecommendationService recommendationService) {
         this.reviewRepository = reviewRepository;
         this.bookRepository = bookRepository;
         this.userRepository = userRepository;
         this.cache = cache;
+        this.bookIndexService = bookIndexService;
+        this.recommendationService = recommendationService;
     }
 
-    public List<ReviewGetDto> getAllReviews(Long bookId) {
+    // Reviews come in id order with their users joined in the same query.
+    public PageGetDto<ReviewGetDto> getAllReviews(Long bookId, Long after, int limit) {
         if (!bookRepository.existsById(bookId)) {
             throw new NotFoundException(BOOK_NOT_FOUND_MESSAGE + bookId);
         }
 
-        return reviewRepository.findByBookId(bookId).stream()
-                .map(ReviewMapper::toDto)
-                .toList();
+        List<ReviewRow> rows = reviewRepository.findRowsByBookIdAfter(bookId,
+                Keyset.afterOf(after), Keyset.limitOf(limit));
+        return PageMapper.toDto(rows, limit, ReviewRow::id, ReviewMapper::toDto);
     }
 
     public ReviewGetDto getReviewById(Long id, Long bookId) {
@@ -70,27 +82,27 @@ public class ReviewService {
                         -> new NotFoundException(USER_NOT_FOUND_MESSAGE + reviewDto.getUserId()));
 
         Review review = ReviewMapper.fromDto(reviewDto);
-
-        book.getReviews().add(review);
         review.setBook(book);
-
-        user.getReviews().add(review);
         review.setUser(user);
 
-        recalculateBookRating(book);
+        Review savedReview = reviewRepository.save(review);
+        bookRepository.adjustRating(bookId, savedReview.getRating(), 1);
 
-        cache.clear();
-        return ReviewMapper.toDto(reviewRepository.save(review));
+        Set<CacheTag> tags = Set.of(CacheTag.book(bookId));
+        AfterCommit.run(() -> cache.invalidate(tags));
+        bookIndexService.reindex(List.of(bookId));
+        recommendationService.addReview(savedReview.getId(), user.getId(), bookId);
+        return ReviewMapper.toDto(savedReview);
     }
 
-    @Transactional 
+    @Transactional
     public ReviewGetDto updateReview(Long id, Long bookId, ReviewCreateDto reviewDto) {
-        Review review = reviewRepository.findById(id)
+        if (!bookRepository.existsById(bookId)) {
+            throw new NotFoundException(BOOK_NOT_FOUND_MESSAGE + bookId);
+        }
+        Review review = reviewRepository.findByIdAndBookId(id, bookId)
                 .orElseThrow(() -> new NotFoundException(REVIEW_NOT_FOUND_MESSAGE + id));
 
-        review.setComment(reviewDto.getComment());
-        review.setRating(reviewDto.getRating());
-
         if (reviewDto.getUserId() == null) {
             throw new AuthenticationException("User is not logged in");
         }
@@ -99,40 +111,41 @@ public class ReviewService {
                 .orElseThrow(()
                         -> new NotFoundException(USER_NOT_FOUND_MESSAGE + reviewDto.getUserId()));
 
-        Book book = bookRepository.findById(bookId)
-                .orElseThrow(() -> new NotFoundException(BOOK_NOT_FOUND_MESSAGE + bookId));
-
-        user.getReviews().add(review);
+        int previousRating = review.getRating();
+        Long previousUserId = review.getUser().getId();
+        review.setComment(reviewDto.getComment());
+        review.setRating(reviewDto.getRating());
         review.setUser(user);
 
-        recalculateBookRating(book);
+        Review savedReview = reviewRepository.save(review);
+        if (savedReview.getRating() != previousRating) {
+            bookRepository.adjustRating(bookId, (long) savedReview.getRating() - previousRating, 0);
+            bookIndexService.reindex(List.of(bookId));
+        }
+        if (!previousUserId.equals(user.getId())) {
+            recommendationService.removeReview(id, previousUserId, bookId);
+            recommendationService.addReview(id, user.getId(), bookId);
+        }
 
-        cache.clear();
-        return ReviewMapper.toDto(reviewRepository.save(review));
+        Set<CacheTag> tags = Set.of(CacheTag.book(bookId));
+        AfterCommit.run(() -> cache.invalidate(tags));
+        return ReviewMapper.toDto(savedReview);
     }
 
+    @Transactional
     public void deleteReview(Long id, Long bookId) {
-        Book book = bookRepository.findById(bookId)
-                .orElseThrow(() -> new NotFoundException(BOOK_NOT_FOUND_MESSAGE + bookId));
-
-        if (!reviewRepository.existsById(id)) {
-            throw new NotFoundException(REVIEW_NOT_FOUND_MESSAGE + id);
+        if (!bookRepository.existsById(bookId)) {
+            throw new NotFoundException(BOOK_NOT_FOUND_MESSAGE + bookId);
         }
+        Review review = reviewRepository.findByIdAndBookId(id, bookId)
+                .orElseThrow(() -> new NotFoundException(REVIEW_NOT_FOUND_MESSAGE + id));
 
-        reviewRepository.deleteById(id);
-
-        recalculateBookRating(book);
-
-        cache.clear();
-    }
+        reviewRepository.delete(review);
+        bookRepository.adjustRating(bookId, -review.getRating(), -1);
 
-    private void recalculateBookRating(Book book) {
-        List<Review> reviews = reviewRepository.findByBookId(book.getId());
-        double newRating = reviews.stream()
-                .mapToInt(Review::getRating)
-                .average()
-                .orElse(0.0);
-        book.setRating(newRating);
-        bookRepository.save(book); // Сохраняем обновлённый рейтинг
+        Set<CacheTag> tags = Set.of(CacheTag.book(bookId));
+        AfterCommit.run(() -> cache.invalidate(tags));
+        bookIndexService.reindex(List.of(bookId));
+        recommendationService.removeReview(review.getId(), review.getUser().getId(), bookId);
     }
 }
@@ -0,0 +1,152 @@
+package library.service;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import library.dto.projection.BookLinkRow;
+import library.exception.BadRequestException;
+import library.model.Author;
+import library.model.Book;
+import library.model.Category;
+import library.repository.BookRepository;
+import library.search.IdBatches;
+import library.search.SimilarityIndex;
+import library.search.SwappableIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+// Serves the books most alike a book by authors and categories from the
+// in-memory similarity index. Book writes update it once their transaction
+// commits. The rebuild runs once on the scheduler right after startup and
+// then nightly: it reads the author and category ids of all books in id
+// batches, builds a new index on the common fork-join pool, replays the
+// writes made meanwhile and swaps it in at once. A rebuild due while
+// another still runs is skipped.
+@Service
+public class SimilarityService {
+    static final int BATCH_SIZE = 1000;
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+    private final BookRepository bookRepository;
+    private final SwappableIndex<SimilarityIndex, Write> index =
+            new SwappableIndex<>(new SimilarityIndex(), (target, write) -> write.applyTo(target));
+
+    @Autowired
+    public SimilarityService(BookRepository bookRepository) {
+        this.bookRepository = bookRepository;
+    }
+
+    public List<Long> findSimilar(Long bookId, int limit) {
+        if (limit < 1 || limit > SimilarityIndex.TOP_N) {
+            throw new BadRequestException("Limit must be between 1 and " + SimilarityIndex.TOP_N);
+        }
+        return index.current().similar(bookId, limit);
+    }
+
+    public void putBook(Book book) {
+        long[] authors = book.getAuthors() == null ? new long[0]
+                : book.getAuthors().stream().mapToLong(Author::getId).toArray();
+        long[] categories = book.getCategories() == null ? new long[0]
+                : book.getCategories().stream().mapToLong(Category::getId).toArray();
+        Write write = new Write(book.getId(), authors, categories);
+        AfterCommit.run(() -> index.write(write));
+    }
+
+    public void removeBook(Long bookId) {
+        Write write = new Write(bookId, null, null);
+        AfterCommit.run(() -> index.write(write));
+    }
+
+    @Scheduled(initialDelayString = "${library.similar.rebuild-initial-delay:PT0S}")
+    @Scheduled(cron = "${library.similar.rebuild-cron:0 0 3 * * *}")
+    public int rebuild() {
+        long start = System.nanoTime();
+        SimilarityIndex fresh = index.rebuild(() -> {
+            LoadedBooks loaded = load();
+            return SimilarityIndex.build(loaded.books(), loaded.authors(), loaded.categories(),
+                    ForkJoinPool.commonPool());
+        });
+        if (fresh == null) {
+            logger.info("Skipped building similar books, a build is already running");
+            return 0;
+        }
+        logger.info("Built similar books for {} books in {} ms", fresh.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return fresh.size();
+    }
+
+    // A book write carrying the book's whole signature, or a removal when
+    // it carries none. Replaying one the rebuild already read is harmless.
+    private record Write(long bookId, long[] authors, long[] categories) {
+        void applyTo(SimilarityIndex target) {
+            if (authors == null) {
+                target.remove(bookId);
+            } else {
+                target.put(bookId, authors, categories);
+            }
+        }
+    }
+
+    private LoadedBooks load() {
+        LoadedBooks loaded = new LoadedBooks();
+        IdBatches.forEach(BATCH_SIZE, bookRepository::findIdsAfter, Long::longValue,
+                ids -> loaded.addAll(ids, bookRepository.findAuthorLinksByIds(ids),
+                        bookRepository.findCategoryLinksByIds(ids)));
+        return loaded;
+    }
+
+    // Author and category ids per book as the rebuild read them, one array
+    // of each per book.
+    private static final class LoadedBooks {
+        private long[] books = new long[16];
+        private long[][] authors = new long[16][];
+        private long[][] categories = new long[16][];
+        private int size;
+
+        void addAll(List<Long> ids, List<BookLinkRow> authorLinks,
+                    List<BookLinkRow> categoryLinks) {
+            Map<Long, long[]> authorsByBook = group(authorLinks);
+            Map<Long, long[]> categoriesByBook = group(categoryLinks);
+            for (Long id : ids) {
+                if (size == books.length) {
+                    books = Arrays.copyOf(books, size * 2);
+                    authors = Arrays.copyOf(authors, size * 2);
+                    categories = Arrays.copyOf(categories, size * 2);
+                }
+                books[size] = id;
+                authors[size] = authorsByBook.getOrDefault(id, new long[0]);
+                categories[size] = categoriesByBook.getOrDefault(id, new long[0]);
+                size++;
+            }
+        }
+
+        private static Map<Long, long[]> group(List<BookLinkRow> links) {
+            Map<Long, long[]> grouped = new HashMap<>();
+            for (BookLinkRow link : links) {
+                long[] ids = grouped.get(link.bookId());
+                long[] added = ids == null ? new long[1] : Arrays.copyOf(ids, ids.length + 1);
+                added[added.length - 1] = link.id();
+                grouped.put(link.bookId(), added);
+            }
+            return grouped;
+        }
+
+        long[] books() {
+            return Arrays.copyOf(books, size);
+        }
+
+        long[][] authors() {
+            return Arrays.copyOf(authors, size);
+        }
+
+        long[][] categories() {
+            return Arrays.copyOf(categories, size);
+        }
+    }
+}
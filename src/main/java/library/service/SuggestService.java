@@ -0,0 +1,122 @@
+package library.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import library.dto.get.SuggestionGetDto;
+import library.dto.get.SuggestionsGetDto;
+import library.dto.projection.SuggestRow;
+import library.exception.BadRequestException;
+import library.model.Author;
+import library.model.Book;
+import library.repository.AuthorRepository;
+import library.repository.BookRepository;
+import library.search.IdBatches;
+import library.search.SuggestTrie;
+import library.search.SwappableIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+// Serves autocomplete from two prefix tries, over book names ranked by
+// damped rating and over author names ranked by book count, so a keystroke
+// never reaches the database. Book and author writes update the tries once
+// their transaction commits. The scheduled rebuild loads new tries on the
+// scheduler thread, picking up rating changes on the way, replays the
+// writes made meanwhile and swaps them in at once.
+@Service
+public class SuggestService {
+    static final int BATCH_SIZE = 1000;
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+    private final BookRepository bookRepository;
+    private final AuthorRepository authorRepository;
+    private final SwappableIndex<Tries, Consumer<Tries>> tries = new SwappableIndex<>(
+            new Tries(new SuggestTrie(), new SuggestTrie()),
+            (target, write) -> write.accept(target));
+
+    private record Tries(SuggestTrie books, SuggestTrie authors) {
+    }
+
+    @Autowired
+    public SuggestService(BookRepository bookRepository, AuthorRepository authorRepository) {
+        this.bookRepository = bookRepository;
+        this.authorRepository = authorRepository;
+    }
+
+    public SuggestionsGetDto suggest(String prefix, int limit) {
+        if (limit < 1 || limit > SuggestTrie.TOP_K) {
+            throw new BadRequestException("Limit must be between 1 and " + SuggestTrie.TOP_K);
+        }
+        Tries current = tries.current();
+        SuggestionsGetDto suggestions = new SuggestionsGetDto();
+        suggestions.setBooks(toDtos(current.books().suggest(prefix, limit)));
+        suggestions.setAuthors(toDtos(current.authors().suggest(prefix, limit)));
+        return suggestions;
+    }
+
+    public void putBook(Book book) {
+        Long id = book.getId();
+        String name = book.getName();
+        double score = (double) book.getRatingSum()
+                / (book.getRatingCount() + BookRepository.SUGGEST_PRIOR_REVIEWS);
+        AfterCommit.run(() -> tries.write(current -> current.books().put(id, name, score)));
+    }
+
+    public void removeBook(Long id) {
+        AfterCommit.run(() -> tries.write(current -> current.books().remove(id)));
+    }
+
+    public void putAuthor(Author author) {
+        Long id = author.getId();
+        String name = author.getName();
+        double score = author.getBooks() == null ? 0 : author.getBooks().size();
+        AfterCommit.run(() -> tries.write(current -> current.authors().put(id, name, score)));
+    }
+
+    public void removeAuthor(Long id) {
+        AfterCommit.run(() -> tries.write(current -> current.authors().remove(id)));
+    }
+
+    @Scheduled(initialDelayString = "${library.suggest.rebuild-initial-delay:PT0S}",
+            fixedDelayString = "${library.suggest.rebuild-interval:PT1H}")
+    public int rebuild() {
+        long start = System.nanoTime();
+        Tries fresh = tries.rebuild(() -> {
+            Tries loaded = new Tries(new SuggestTrie(), new SuggestTrie());
+            load(bookRepository::findSuggestRowsAfter, loaded.books());
+            load(authorRepository::findSuggestRowsAfter, loaded.authors());
+            return loaded;
+        });
+        if (fresh == null) {
+            logger.info("Skipped building suggestions, a build is already running");
+            return 0;
+        }
+        logger.info("Built suggestions for {} books and {} authors in {} ms",
+                fresh.books().size(), fresh.authors().size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return fresh.books().size() + fresh.authors().size();
+    }
+
+    private static void load(BiFunction<Long, Limit, List<SuggestRow>> rowsAfter,
+                             SuggestTrie trie) {
+        IdBatches.forEach(BATCH_SIZE, rowsAfter, SuggestRow::id, rows -> rows.forEach(
+                row -> trie.put(row.id(), row.name(), row.score() == null ? 0 : row.score())));
+    }
+
+    private static List<SuggestionGetDto> toDtos(List<SuggestTrie.Suggestion> suggestions) {
+        List<SuggestionGetDto> dtos = new ArrayList<>(suggestions.size());
+        for (SuggestTrie.Suggestion suggestion : suggestions) {
+            SuggestionGetDto dto = new SuggestionGetDto();
+            dto.setId(suggestion.id());
+            dto.setName(suggestion.text());
+            dtos.add(dto);
+        }
+        return dtos;
+    }
+}
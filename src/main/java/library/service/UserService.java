@@ -1,15 +1,16 @@
 package library.service;
 
-import java.util.List;
 import java.util.Objects;
 import library.dto.AuthorizationRequest;
 import library.dto.AuthorizationResponse;
 import library.dto.create.UserCreateDto;
+import library.dto.get.PageGetDto;
 import library.dto.get.UserGetDto;
 import library.exception.AuthenticationException;
 import library.exception.ConflictException;
 import library.exception.NotFoundException;
 import library.exception.PasswordRequiredException;
+import library.mapper.PageMapper;
 import library.mapper.UserMapper;
 import library.model.User;
 import library.repository.UserRepository;
@@ -32,9 +33,10 @@ public class UserService {
         this.userRepository = userRepository;
     }
 
-    public List<UserGetDto> getAllUsers() {
-        return userRepository.findAll().stream().map(UserMapper::toDto)
-                .toList();
+    public PageGetDto<UserGetDto> getAllUsers(Long after, int limit) {
+        return PageMapper.toDto(userRepository.findByIdGreaterThanOrderByIdAsc(
+                Keyset.afterOf(after), Keyset.limitOf(limit)),
+                limit, User::getId, UserMapper::toDto);
     }
 
     public UserGetDto getUserById(Long id) {
@@ -0,0 +1,5 @@
+-- Expression indexes behind the case-insensitive name lookups and search
+-- filters, which compare LOWER(TRIM(name)). JPA cannot declare them.
+CREATE INDEX IF NOT EXISTS idx_books_name_normalized ON books (LOWER(TRIM(name)));
+CREATE INDEX IF NOT EXISTS idx_authors_name_normalized ON authors (LOWER(TRIM(name)));
+CREATE INDEX IF NOT EXISTS idx_categories_name_normalized ON categories (LOWER(TRIM(name)));
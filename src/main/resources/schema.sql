@@ -0,0 +1,18 @@
+-- books.id used to be an IDENTITY column backed by books_id_seq with an
+-- increment of 1. The entity now draws ids from that sequence in blocks of
+-- 50, so an existing sequence has to step by 50 as well or blocks would
+-- overlap ids already handed out. Fresh databases get the sequence from
+-- Hibernate with the right increment.
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_sequences
+               WHERE sequencename = 'books_id_seq' AND increment_by <> 50) THEN
+        IF EXISTS (SELECT 1 FROM information_schema.columns
+                   WHERE table_name = 'books' AND column_name = 'id'
+                     AND is_identity = 'YES') THEN
+            ALTER TABLE books ALTER COLUMN id SET INCREMENT BY 50;
+        ELSE
+            ALTER SEQUENCE books_id_seq INCREMENT BY 50;
+        END IF;
+    END IF;
+END $$;
@@ -0,0 +1,58 @@
+package library.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+import library.dto.get.BookGetDto;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CacheCodecTest {
+    private static boolean untrustedInitialized;
+
+    @Test
+    void decode_ReadsBackEncodedList() throws IOException {
+        BookGetDto book = new BookGetDto();
+        book.setId(1L);
+        book.setName("Test Book");
+
+        Object result = CacheCodec.decode(CacheCodec.encode(List.of(book)));
+
+        assertEquals("Test Book", ((List<?>) result).stream()
+                .map(BookGetDto.class::cast).findFirst().orElseThrow().getName());
+    }
+
+    @Test
+    void decode_WithTypeOutsideDtos_ThrowsWithoutInitializingIt() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeBoolean(false);
+            out.writeUTF(Untrusted.class.getName());
+            out.writeBytes("{}");
+        }
+
+        assertThrows(IOException.class, () -> CacheCodec.decode(bytes.toByteArray()));
+        assertFalse(untrustedInitialized);
+    }
+
+    @Test
+    void decode_WithPackageSharingDtoPrefix_ThrowsException() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeBoolean(false);
+            out.writeUTF("library.dtofake.Value");
+        }
+
+        assertThrows(IOException.class, () -> CacheCodec.decode(bytes.toByteArray()));
+    }
+
+    static class Untrusted {
+        static {
+            untrustedInitialized = true;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package library.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class CacheKeyTest {
+    @Test
+    void booksByAuthor_DifferentSpellings_AreEqual() {
+        CacheKey key = CacheKey.booksByAuthor("Толстой");
+
+        assertEquals(key, CacheKey.booksByAuthor("толстой "));
+        assertEquals(key, CacheKey.booksByAuthor("  ТОЛСТОЙ"));
+        assertEquals(key.hashCode(), CacheKey.booksByAuthor("толстой ").hashCode());
+    }
+
+    @Test
+    void booksByName_DecomposedUnicode_EqualsComposed() {
+        assertEquals(CacheKey.booksByName("\u0401жик в тумане"),
+                CacheKey.booksByName("\u0415\u0308жик в тумане"));
+    }
+
+    @Test
+    void keys_WithSameArgumentAndDifferentType_AreNotEqual() {
+        assertNotEquals(CacheKey.booksByAuthor("Толстой"),
+                CacheKey.booksByCategory("Толстой"));
+        assertNotEquals(CacheKey.bookById(1L), CacheKey.of(CacheKey.Type.BOOK_BY_ID, 2L));
+    }
+
+    @Test
+    void normalize_AlreadyNormalized_ReturnsSameInstance() {
+        String name = "война и мир";
+
+        assertSame(name, CacheKey.normalize(name));
+    }
+
+    @Test
+    void nameTags_AreNormalizedLikeKeys() {
+        assertEquals(CacheTag.authorName("толстой"),
+                CacheTag.authorName(" Толстой "));
+    }
+}
@@ -0,0 +1,64 @@
+package library.cache;
+
+import java.util.List;
+import java.util.Set;
+import library.dto.get.AuthorGetDto;
+import library.dto.get.BookGetDto;
+import library.dto.get.ReviewGetDto;
+import library.dto.get.UserGetDto;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CacheWeigherTest {
+    @Test
+    void weighValue_BookWithReviews_IncludesNestedGraph() {
+        BookGetDto book = book("Test Book");
+        long withoutReviews = CacheWeigher.weighValue(book);
+
+        book.setReviews(List.of(review("Great"), review("Boring")));
+
+        assertTrue(CacheWeigher.weighValue(book) > withoutReviews
+                + 2 * CacheWeigher.weighString("Test User"));
+    }
+
+    @Test
+    void weighValue_ListOfBooks_GrowsWithEachBook() {
+        long one = CacheWeigher.weighValue(List.of(book("Test Book")));
+        long two = CacheWeigher.weighValue(List.of(book("Test Book"), book("Test Book")));
+
+        assertTrue(two - one >= CacheWeigher.weighValue(book("Test Book")));
+    }
+
+    @Test
+    void weighString_NonLatinText_TakesTwoBytesPerChar() {
+        assertEquals(24 + 40, CacheWeigher.weighString("Война и мир"));
+        assertEquals(24 + 32, CacheWeigher.weighString("Vojna i mir"));
+    }
+
+    private static BookGetDto book(String name) {
+        AuthorGetDto author = new AuthorGetDto();
+        author.setId(1L);
+        author.setName("Test Author");
+        author.setBooks(List.of(name));
+
+        BookGetDto book = new BookGetDto();
+        book.setId(1L);
+        book.setName(name);
+        book.setAuthors(Set.of(author));
+        return book;
+    }
+
+    private static ReviewGetDto review(String comment) {
+        UserGetDto user = new UserGetDto();
+        user.setId(1L);
+        user.setName("Test User");
+
+        ReviewGetDto review = new ReviewGetDto();
+        review.setId(1L);
+        review.setUser(user);
+        review.setComment(comment);
+        return review;
+    }
+}
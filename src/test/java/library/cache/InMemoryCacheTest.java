@@ -0,0 +1,620 @@
+package library.cache;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import library.dto.get.BookGetDto;
+import library.exception.NotFoundException;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InMemoryCacheTest {
+    @Test
+    void put_ThenGet_ReturnsValue() {
+        InMemoryCache cache = new InMemoryCache(10);
+
+        cache.put(CacheKey.bookById(1L), "Test Book");
+
+        assertTrue(cache.containsKey(CacheKey.bookById(1L)));
+        assertEquals("Test Book", cache.get(CacheKey.bookById(1L)));
+    }
+
+    @Test
+    void remove_WhenExists_RemovesEntry() {
+        InMemoryCache cache = new InMemoryCache(10);
+        cache.put(CacheKey.bookById(1L), "Test Book");
+
+        cache.remove(CacheKey.bookById(1L));
+
+        assertFalse(cache.containsKey(CacheKey.bookById(1L)));
+        assertNull(cache.get(CacheKey.bookById(1L)));
+    }
+
+    @Test
+    void clear_RemovesAllEntries() {
+        InMemoryCache cache = new InMemoryCache(10);
+        cache.put(CacheKey.bookById(1L), "Test Book");
+        cache.put(CacheKey.bookById(2L), "Another Test Book");
+
+        cache.clear();
+
+        assertEquals(0, cache.size());
+        assertEquals(2, cache.stats().evictions().get(RemovalCause.EXPLICIT).longValue());
+    }
+
+    @Test
+    void invalidate_RemovesOnlyDependentEntries() {
+        InMemoryCache cache = new InMemoryCache(10);
+        cache.put(CacheKey.bookById(1L), "Test Book",
+                Set.of(CacheTag.book(1L), CacheTag.author(1L), CacheTag.category(1L)));
+        cache.put(CacheKey.booksByAuthor("Another Author"), List.of("Another Test Book"),
+                Set.of(CacheTag.book(2L), CacheTag.author(2L), CacheTag.category(1L)));
+        cache.put(CacheKey.booksByCategory("Another Category"), List.of("Third Test Book"),
+                Set.of(CacheTag.book(3L), CacheTag.author(2L), CacheTag.category(2L)));
+
+        cache.invalidate(Set.of(CacheTag.author(1L)));
+
+        assertFalse(cache.containsKey(CacheKey.bookById(1L)));
+        assertTrue(cache.containsKey(CacheKey.booksByAuthor("Another Author")));
+        assertTrue(cache.containsKey(CacheKey.booksByCategory("Another Category")));
+
+        cache.invalidate(Set.of(CacheTag.category(1L)));
+
+        assertFalse(cache.containsKey(CacheKey.booksByAuthor("Another Author")));
+        assertTrue(cache.containsKey(CacheKey.booksByCategory("Another Category")));
+    }
+
+    @Test
+    void put_WhenReplacingEntry_DropsOldDependencies() {
+        InMemoryCache cache = new InMemoryCache(10);
+        cache.put(CacheKey.bookById(1L), "Test Book", Set.of(CacheTag.author(1L)));
+        cache.put(CacheKey.bookById(1L), "Test Book", Set.of(CacheTag.author(2L)));
+
+        cache.invalidate(Set.of(CacheTag.author(1L)));
+
+        assertTrue(cache.containsKey(CacheKey.bookById(1L)));
+    }
+
+    @Test
+    void put_WhenFull_RejectsColdCandidate() {
+        InMemoryCache cache = new InMemoryCache(2);
+        cache.put(CacheKey.bookById(1L), "Test Book");
+        cache.put(CacheKey.bookById(2L), "Another Test Book");
+        cache.get(CacheKey.bookById(1L));
+        cache.get(CacheKey.bookById(2L));
+
+        cache.put(CacheKey.bookById(3L), "One-hit Book");
+
+        assertEquals(2, cache.size());
+        assertFalse(cache.containsKey(CacheKey.bookById(3L)));
+        assertTrue(cache.containsKey(CacheKey.bookById(1L)));
+        assertTrue(cache.containsKey(CacheKey.bookById(2L)));
+    }
+
+    @Test
+    void put_WhenFull_AdmitsFrequentCandidate() {
+        InMemoryCache cache = new InMemoryCache(2);
+        cache.put(CacheKey.bookById(1L), "Test Book");
+        cache.put(CacheKey.bookById(2L), "Another Test Book");
+        for (int i = 0; i < 5; i++) {
+            cache.get(CacheKey.bookById(3L));
+        }
+
+        cache.put(CacheKey.bookById(3L), "Popular Book");
+
+        assertEquals(2, cache.size());
+        assertTrue(cache.containsKey(CacheKey.bookById(3L)));
+    }
+
+    @Test
+    void put_FromManyThreads_NeverExceedsMaximumSize() throws Exception {
+        InMemoryCache cache = new InMemoryCache(100);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int thread = 0; thread < 8; thread++) {
+            int offset = thread;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 5000; i++) {
+                    CacheKey key = CacheKey.booksByName(String.valueOf((i * 8 + offset) % 1000));
+                    cache.get(key);
+                    cache.put(key, key.argument());
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+
+        assertTrue(cache.size() <= 100);
+    }
+
+    @Test
+    void getOrLoad_WhenCached_SkipsLoader() {
+        InMemoryCache cache = new InMemoryCache(10);
+        cache.put(CacheKey.bookById(1L), "Test Book");
+
+        Object result = cache.getOrLoad(CacheKey.bookById(1L), () -> {
+            throw new IllegalStateException("Loader must not run");
+        });
+
+        assertEquals("Test Book", result);
+    }
+
+    @Test
+    void getOrLoad_ConcurrentMisses_LoadOnce() throws Exception {
+        InMemoryCache cache = new InMemoryCache(10);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<Object>> futures = new ArrayList<>();
+
+        for (int i = 0; i < 8; i++) {
+            futures.add(executor.submit(() -> cache.getOrLoad(CacheKey.booksByAuthor("Test Author"),
+                    () -> {
+                        loads.incrementAndGet();
+                        awaitQuietly(release);
+                        return "Test Book";
+                    })));
+        }
+        Thread.sleep(200);
+        release.countDown();
+        for (Future<Object> future : futures) {
+            assertEquals("Test Book", future.get(5, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+
+        assertEquals(1, loads.get());
+        assertTrue(cache.containsKey(CacheKey.booksByAuthor("Test Author")));
+    }
+
+    @Test
+    void getOrLoad_WhenLoaderFails_PropagatesToAllCallers() throws Exception {
+        InMemoryCache cache = new InMemoryCache(10);
+        IllegalStateException failure = new IllegalStateException("Database is down");
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<Object>> futures = new ArrayList<>();
+
+        for (int i = 0; i < 4; i++) {
+            futures.add(executor.submit(() -> cache.getOrLoad(CacheKey.bookById(1L), () -> {
+                awaitQuietly(release);
+                throw failure;
+            })));
+        }
+        Thread.sleep(200);
+        release.countDown();
+        for (Future<Object> future : futures) {
+            ExecutionException exception = assertThrows(ExecutionException.class,
+                    () -> future.get(5, TimeUnit.SECONDS));
+            assertSame(failure, exception.getCause());
+        }
+        executor.shutdown();
+
+        assertFalse(cache.containsKey(CacheKey.bookById(1L)));
+    }
+
+    @Test
+    void getOrLoad_WhenInvalidatedDuringLoad_DoesNotCacheStaleValue() {
+        InMemoryCache cache = new InMemoryCache(10);
+
+        Object result = cache.getOrLoad(CacheKey.bookById(1L), () -> {
+            cache.invalidate(Set.of(CacheTag.book(1L)));
+            return "Stale Book";
+        }, value -> Set.of(CacheTag.book(1L)));
+
+        assertEquals("Stale Book", result);
+        assertFalse(cache.containsKey(CacheKey.bookById(1L)));
+    }
+
+    @Test
+    void getOrLoad_WhenUnrelatedTagInvalidatedDuringLoad_CachesValue() {
+        InMemoryCache cache = new InMemoryCache(10);
+
+        cache.getOrLoad(CacheKey.bookById(1L), () -> {
+            cache.invalidate(Set.of(CacheTag.book(2L)));
+            cache.remove(CacheKey.bookById(3L));
+            return "Test Book";
+        }, value -> Set.of(CacheTag.book(1L)));
+
+        assertTrue(cache.containsKey(CacheKey.bookById(1L)));
+    }
+
+    @Test
+    void getOrLoad_WhenClearedDuringLoad_DoesNotCacheValue() {
+        InMemoryCache cache = new InMemoryCache(10);
+
+        cache.getOrLoad(CacheKey.bookById(1L), () -> {
+            cache.clear();
+            return "Stale Book";
+        }, value -> Set.of(CacheTag.book(1L)));
+
+        assertFalse(cache.containsKey(CacheKey.bookById(1L)));
+    }
+
+    @Test
+    void getOrLoad_WhenNotFound_CachesMissUntilInvalidated() {
+        InMemoryCache cache = new InMemoryCache(10);
+        AtomicInteger loads = new AtomicInteger();
+        CacheKey key = CacheKey.booksByName("Missing");
+
+        for (int i = 0; i < 3; i++) {
+            assertThrows(NotFoundException.class, () -> cache.getOrLoad(key,
+                    () -> {
+                        loads.incrementAndGet();
+                        throw new NotFoundException("Book not found with name:Missing");
+                    }, value -> Set.of(), Set.of(CacheTag.bookName("Missing"))));
+        }
+        assertEquals(1, loads.get());
+        assertFalse(cache.containsKey(CacheKey.booksByName("Missing")));
+        assertNull(cache.get(CacheKey.booksByName("Missing")));
+
+        cache.invalidate(Set.of(CacheTag.bookName("Missing")));
+        Object result = cache.getOrLoad(CacheKey.booksByName("Missing"), () -> "Missing",
+                value -> Set.of(), Set.of(CacheTag.bookName("Missing")));
+
+        assertEquals("Missing", result);
+    }
+
+    @Test
+    void getOrLoad_WhenNegativeEntryExpired_LoadsAgain() {
+        InMemoryCache cache = new InMemoryCache(propertiesWithNegativeTtl(Duration.ofNanos(1)));
+        AtomicInteger loads = new AtomicInteger();
+        CacheKey key = CacheKey.bookById(20L);
+
+        for (int i = 0; i < 2; i++) {
+            assertThrows(NotFoundException.class, () -> cache.getOrLoad(key, () -> {
+                loads.incrementAndGet();
+                throw new NotFoundException("Book is not found with id: 20");
+            }, value -> Set.of(), Set.of(CacheTag.book(20L))));
+        }
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void getOrLoad_WithoutMissTags_DoesNotCacheMiss() {
+        InMemoryCache cache = new InMemoryCache(10);
+        AtomicInteger loads = new AtomicInteger();
+        CacheKey key = CacheKey.bookById(20L);
+
+        for (int i = 0; i < 2; i++) {
+            assertThrows(NotFoundException.class, () -> cache.getOrLoad(key, () -> {
+                loads.incrementAndGet();
+                throw new NotFoundException("Book is not found with id: 20");
+            }));
+        }
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void containsKey_AfterFamilyTtl_ReturnsFalse() throws Exception {
+        InMemoryCache cache = new InMemoryCache(propertiesWithExpiry(Duration.ofMillis(20)));
+        cache.put(CacheKey.bookById(1L), "Test Book");
+        cache.put(CacheKey.booksByName("Test Book"), "Test Book");
+
+        Thread.sleep(50);
+
+        assertFalse(cache.containsKey(CacheKey.bookById(1L)));
+        assertTrue(cache.containsKey(CacheKey.booksByName("Test Book")));
+    }
+
+    @Test
+    void getOrLoad_AfterExpiry_ServesStaleValueWhenReloadFails() throws Exception {
+        InMemoryCache cache = new InMemoryCache(propertiesWithExpiry(Duration.ofMillis(20)));
+        cache.getOrLoad(CacheKey.bookById(1L), () -> "Test Book");
+        Thread.sleep(50);
+
+        Object result = cache.getOrLoad(CacheKey.bookById(1L), () -> {
+            throw new IllegalStateException("Database is down");
+        });
+
+        assertEquals("Test Book", result);
+    }
+
+    @Test
+    void getOrLoad_AfterExpiry_ServesStaleValueWhenReloadIsSlow() throws Exception {
+        InMemoryCache cache = new InMemoryCache(propertiesWithExpiry(Duration.ofMillis(20)));
+        CountDownLatch release = new CountDownLatch(1);
+        cache.getOrLoad(CacheKey.bookById(1L), () -> "Test Book");
+        Thread.sleep(50);
+
+        Object result = cache.getOrLoad(CacheKey.bookById(1L), () -> {
+            awaitQuietly(release);
+            return "Updated Book";
+        });
+        release.countDown();
+
+        assertEquals("Test Book", result);
+        assertEventually(() -> "Updated Book".equals(cache.get(CacheKey.bookById(1L))));
+    }
+
+    @Test
+    void getOrLoad_NearExpiry_RefreshesInBackground() {
+        CacheProperties properties = propertiesWithExpiry(Duration.ofHours(1));
+        properties.setRefreshAhead(0.0);
+        InMemoryCache cache = new InMemoryCache(properties);
+        cache.getOrLoad(CacheKey.bookById(1L), () -> "Test Book");
+
+        Object result = cache.getOrLoad(CacheKey.bookById(1L), () -> "Updated Book");
+
+        assertEquals("Test Book", result);
+        assertEventually(() -> "Updated Book".equals(cache.get(CacheKey.bookById(1L))));
+    }
+
+    @Test
+    void put_WhenOverWeightBudget_EvictsLeastRecentlyUsedEntries() {
+        long entryWeight = CacheWeigher.weigh(CacheKey.bookById(1L), "Test Book", 0);
+        InMemoryCache cache = new InMemoryCache(propertiesWithWeight(3 * entryWeight));
+        cache.put(CacheKey.bookById(1L), "Test Book");
+        cache.put(CacheKey.bookById(2L), "Test Book");
+        cache.put(CacheKey.bookById(3L), "Test Book");
+        String heavy = "Test Book".repeat(10);
+        for (int i = 0; i < 5; i++) {
+            cache.get(CacheKey.booksByName(heavy));
+        }
+
+        cache.put(CacheKey.booksByName(heavy), heavy);
+
+        assertTrue(cache.containsKey(CacheKey.booksByName(heavy)));
+        assertFalse(cache.containsKey(CacheKey.bookById(1L)));
+        assertTrue(cache.stats().estimatedBytes() <= 3 * entryWeight);
+    }
+
+    @Test
+    void put_WhenValueExceedsBudget_DropsPreviousValue() {
+        long entryWeight = CacheWeigher.weigh(CacheKey.bookById(1L), "Test Book", 0);
+        InMemoryCache cache = new InMemoryCache(propertiesWithWeight(2 * entryWeight));
+        cache.put(CacheKey.bookById(1L), "Test Book");
+
+        cache.put(CacheKey.bookById(1L), "Test Book".repeat(100));
+
+        assertFalse(cache.containsKey(CacheKey.bookById(1L)));
+        assertEquals(0, cache.stats().estimatedBytes());
+    }
+
+    @Test
+    void getOrLoad_AfterEvictionToOffHeap_PromotesWithoutLoading() {
+        InMemoryCache cache = new InMemoryCache(propertiesWithOffHeap());
+        cache.put(CacheKey.bookById(1L), book(1L, "Test Book"), Set.of(CacheTag.book(1L)));
+        cache.get(CacheKey.bookById(2L));
+        cache.put(CacheKey.bookById(2L), book(2L, "Another Test Book"));
+        AtomicInteger loads = new AtomicInteger();
+
+        BookGetDto result = cache.getOrLoad(CacheKey.bookById(1L), () -> {
+            loads.incrementAndGet();
+            return book(1L, "Loaded Book");
+        });
+
+        assertEquals(0, loads.get());
+        assertEquals("Test Book", result.getName());
+        assertEquals(1, cache.stats().promotions());
+        assertTrue(cache.containsKey(CacheKey.bookById(2L)));
+    }
+
+    @Test
+    void invalidate_RemovesOffHeapEntries() {
+        InMemoryCache cache = new InMemoryCache(propertiesWithOffHeap());
+        cache.put(CacheKey.bookById(1L), book(1L, "Test Book"), Set.of(CacheTag.book(1L)));
+        cache.get(CacheKey.bookById(2L));
+        cache.put(CacheKey.bookById(2L), book(2L, "Another Test Book"));
+        assertEquals(1, cache.stats().offHeapSize());
+
+        cache.invalidate(Set.of(CacheTag.book(1L)));
+
+        assertFalse(cache.containsKey(CacheKey.bookById(1L)));
+        assertEquals(0, cache.stats().offHeapSize());
+        assertNull(cache.get(CacheKey.bookById(1L)));
+    }
+
+    @Test
+    void restoreSnapshot_AfterSave_ServesEntriesWithoutLoading() throws Exception {
+        Path snapshot = Files.createTempFile("cache", ".snapshot");
+        InMemoryCache cache = new InMemoryCache(propertiesWithExpiry(Duration.ofHours(1)));
+        cache.put(CacheKey.bookById(1L), book(1L, "Test Book"), Set.of(CacheTag.book(1L)));
+        cache.put(CacheKey.booksByAuthor("Test Author"), List.of(book(1L, "Test Book")));
+        cache.put(CacheKey.bookById(2L), "Not a DTO");
+        assertEquals(2, cache.saveSnapshot(snapshot));
+
+        InMemoryCache restarted = new InMemoryCache(propertiesWithExpiry(Duration.ofHours(1)));
+        int restored = restarted.restoreSnapshot(snapshot, Duration.ofSeconds(5));
+
+        assertEquals(2, restored);
+        BookGetDto book = restarted.getOrLoad(CacheKey.bookById(1L), () -> book(1L, "Loaded Book"));
+        assertEquals("Test Book", book.getName());
+        List<BookGetDto> books = restarted.getOrLoad(
+                CacheKey.booksByAuthor("Test Author"), List::of);
+        assertEquals(1, books.size());
+        restarted.invalidate(Set.of(CacheTag.book(1L)));
+        assertFalse(restarted.containsKey(CacheKey.bookById(1L)));
+        Files.delete(snapshot);
+    }
+
+    @Test
+    void restoreSnapshot_WithSearchKey_KeepsItsCase() throws Exception {
+        Path snapshot = Files.createTempFile("cache", ".snapshot");
+        CacheKey key = CacheKey.booksSearch("sort=pageAmount");
+        InMemoryCache cache = new InMemoryCache(propertiesWithExpiry(Duration.ofHours(1)));
+        cache.put(key, List.of(book(1L, "Test Book")));
+        assertEquals(1, cache.saveSnapshot(snapshot));
+
+        InMemoryCache restarted = new InMemoryCache(propertiesWithExpiry(Duration.ofHours(1)));
+
+        assertEquals(1, restarted.restoreSnapshot(snapshot, Duration.ofSeconds(5)));
+        assertTrue(restarted.containsKey(key));
+        Files.delete(snapshot);
+    }
+
+    @Test
+    void restoreSnapshot_WhenTooOld_RestoresNothing() throws Exception {
+        Path snapshot = Files.createTempFile("cache", ".snapshot");
+        CacheSnapshot.write(snapshot, System.currentTimeMillis() - Duration.ofHours(2).toMillis(),
+                List.of(new CacheSnapshot.Entry(CacheKey.bookById(1L), Set.of(), 1, 0L,
+                        CacheCodec.encode(book(1L, "Test Book")))));
+        InMemoryCache cache = new InMemoryCache(10);
+
+        assertEquals(0, cache.restoreSnapshot(snapshot, Duration.ofSeconds(5)));
+        assertFalse(cache.containsKey(CacheKey.bookById(1L)));
+        Files.delete(snapshot);
+    }
+
+    @Test
+    void restoreSnapshot_WhenTtlRanOutWhileDown_SkipsEntry() throws Exception {
+        Path snapshot = Files.createTempFile("cache", ".snapshot");
+        CacheSnapshot.write(snapshot, System.currentTimeMillis() - 1000,
+                List.of(new CacheSnapshot.Entry(CacheKey.bookById(1L), Set.of(), 1,
+                        TimeUnit.MILLISECONDS.toNanos(10),
+                        CacheCodec.encode(book(1L, "Test Book")))));
+        InMemoryCache cache = new InMemoryCache(propertiesWithExpiry(Duration.ofHours(1)));
+
+        assertEquals(0, cache.restoreSnapshot(snapshot, Duration.ofSeconds(5)));
+        Files.delete(snapshot);
+    }
+
+    @Test
+    void stats_CountsHitsMissesAndLoads() {
+        InMemoryCache cache = new InMemoryCache(10);
+
+        cache.getOrLoad(CacheKey.bookById(1L), () -> "Test Book");
+        cache.getOrLoad(CacheKey.bookById(1L), () -> "Test Book");
+        cache.get(CacheKey.bookById(2L));
+        assertThrows(NotFoundException.class, () -> cache.getOrLoad(CacheKey.bookById(3L), () -> {
+            throw new NotFoundException("Book is not found with id: 3");
+        }));
+
+        CacheStats stats = cache.stats();
+        assertEquals(1, stats.hits());
+        assertEquals(3, stats.misses());
+        assertEquals(1, stats.loadSuccesses());
+        assertEquals(1, stats.loadFailures());
+        assertEquals(0.25, stats.hitRate());
+    }
+
+    @Test
+    void stats_CountsEvictionsByCause() {
+        InMemoryCache cache = new InMemoryCache(1);
+        cache.put(CacheKey.bookById(1L), "Test Book", Set.of(CacheTag.book(1L)));
+        cache.put(CacheKey.bookById(1L), "Updated Book", Set.of(CacheTag.book(1L)));
+        cache.invalidate(Set.of(CacheTag.book(1L)));
+        cache.put(CacheKey.bookById(2L), "Test Book 2");
+        cache.remove(CacheKey.bookById(2L));
+        cache.put(CacheKey.bookById(3L), "Test Book 3");
+        cache.put(CacheKey.bookById(4L), "Test Book 4");
+        cache.put(CacheKey.bookById(4L), "Test Book 4");
+
+        Map<RemovalCause, Long> evictions = cache.stats().evictions();
+        assertEquals(1, evictions.get(RemovalCause.REPLACED).longValue());
+        assertEquals(1, evictions.get(RemovalCause.INVALIDATED).longValue());
+        assertEquals(1, evictions.get(RemovalCause.EXPLICIT).longValue());
+        assertEquals(1, evictions.get(RemovalCause.SIZE).longValue());
+        assertEquals(1, cache.stats().admissionRejections());
+    }
+
+    @Test
+    void stats_GroupsSizeAndBytesByKeyFamily() {
+        InMemoryCache cache = new InMemoryCache(10);
+        cache.put(CacheKey.bookById(1L), "Test Book");
+        cache.put(CacheKey.bookById(2L), "Another Test Book");
+        cache.put(CacheKey.booksByAuthor("Test Author"), List.of("Test Book"));
+
+        CacheStats stats = cache.stats();
+
+        assertEquals(3, stats.size());
+        assertEquals(Map.of("book_by_id_", 2, "books_by_author_", 1), stats.sizeByFamily());
+        assertTrue(stats.estimatedBytesByFamily().get("book_by_id_") > 0);
+        assertEquals(stats.estimatedBytesByFamily().values().stream()
+                .mapToLong(Long::longValue).sum(), stats.estimatedBytes());
+    }
+
+    @Test
+    void resetStats_ClearsCounters() {
+        InMemoryCache cache = new InMemoryCache(10);
+        cache.getOrLoad(CacheKey.bookById(1L), () -> "Test Book");
+
+        cache.resetStats();
+
+        assertEquals(0, cache.stats().misses());
+        assertEquals(0, cache.stats().loadSuccesses());
+        assertEquals(1, cache.stats().size());
+    }
+
+    @Test
+    void constructor_WithNonPositiveSize_ThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> new InMemoryCache(0));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static CacheProperties propertiesWithNegativeTtl(Duration negativeTtl) {
+        CacheProperties properties = new CacheProperties();
+        properties.setMaximumSize(10);
+        properties.setNegativeTtl(negativeTtl);
+        return properties;
+    }
+
+    private static CacheProperties propertiesWithOffHeap() {
+        CacheProperties properties = new CacheProperties();
+        properties.setMaximumSize(1);
+        properties.setOffHeapCapacity(DataSize.ofKilobytes(64));
+        properties.setOffHeapSlabSize(DataSize.ofKilobytes(16));
+        return properties;
+    }
+
+    private static BookGetDto book(Long id, String name) {
+        BookGetDto book = new BookGetDto();
+        book.setId(id);
+        book.setName(name);
+        return book;
+    }
+
+    private static CacheProperties propertiesWithWeight(long maximumWeight) {
+        CacheProperties properties = new CacheProperties();
+        properties.setMaximumSize(10);
+        properties.setMaximumWeight(DataSize.ofBytes(maximumWeight));
+        return properties;
+    }
+
+    private static CacheProperties propertiesWithExpiry(Duration bookByIdTtl) {
+        CacheProperties properties = new CacheProperties();
+        properties.setMaximumSize(10);
+        properties.setExpiry(Map.of("book_by_id_", bookByIdTtl));
+        properties.setLoadTimeout(Duration.ofMillis(50));
+        return properties;
+    }
+
+    private static void assertEventually(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline);
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package library.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OffHeapTierTest {
+    @Test
+    void take_ReturnsStoredBytesOnce() {
+        OffHeapTier tier = new OffHeapTier(1024, 256);
+        byte[] data = "Test Book".getBytes(StandardCharsets.UTF_8);
+        tier.put(CacheKey.bookById(1L), data, Set.of(CacheTag.book(1L)), 0L, 0L, 0L);
+
+        OffHeapTier.Stored stored = tier.take(CacheKey.bookById(1L));
+
+        assertArrayEquals(data, stored.data());
+        assertEquals(Set.of(CacheTag.book(1L)), stored.tags());
+        assertNull(tier.take(CacheKey.bookById(1L)));
+        assertEquals(0, tier.storedBytes());
+    }
+
+    @Test
+    void put_WhenRingWrapsAround_DropsOldestSlab() {
+        OffHeapTier tier = new OffHeapTier(2 * 100, 100);
+        byte[] data = new byte[60];
+
+        tier.put(CacheKey.bookById(1L), data, Set.of(), 0L, 0L, 0L);
+        tier.put(CacheKey.bookById(2L), data, Set.of(), 0L, 0L, 0L);
+        tier.put(CacheKey.bookById(3L), data, Set.of(), 0L, 0L, 0L);
+
+        assertFalse(tier.containsKey(CacheKey.bookById(1L)));
+        assertTrue(tier.containsKey(CacheKey.bookById(2L)));
+        assertTrue(tier.containsKey(CacheKey.bookById(3L)));
+        assertEquals(2, tier.size());
+    }
+
+    @Test
+    void put_LargerThanSlab_IsRejected() {
+        OffHeapTier tier = new OffHeapTier(1024, 256);
+
+        assertFalse(tier.put(CacheKey.booksByName("Test"), new byte[512], Set.of(), 0L, 0L, 0L));
+        assertEquals(0, tier.size());
+    }
+
+    @Test
+    void put_WhenCapacityBelowSlabSize_StaysWithinCapacity() {
+        OffHeapTier tier = new OffHeapTier(100, 256);
+
+        assertFalse(tier.put(CacheKey.bookById(1L), new byte[200], Set.of(), 0L, 0L, 0L));
+        assertTrue(tier.put(CacheKey.bookById(2L), new byte[100], Set.of(), 0L, 0L, 0L));
+        assertEquals(100, tier.storedBytes());
+    }
+}
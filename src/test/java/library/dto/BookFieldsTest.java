@@ -0,0 +1,42 @@
+package library.dto;
+
+import library.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BookFieldsTest {
+    @Test
+    void of_WithoutParameters_ReturnsDefault() {
+        assertSame(BookFields.DEFAULT, BookFields.of(null, " "));
+        assertFalse(BookFields.DEFAULT.has(BookFields.REVIEWS));
+    }
+
+    @Test
+    void of_WithFields_KeepsIdAndListedFieldsOnly() {
+        BookFields fields = BookFields.of("name, year", null);
+
+        assertTrue(fields.has(BookFields.ID));
+        assertTrue(fields.has(BookFields.YEAR));
+        assertFalse(fields.has(BookFields.AUTHORS));
+        assertFalse(fields.isDefault());
+    }
+
+    @Test
+    void of_WithExpand_AddsAssociationsToDefault() {
+        BookFields fields = BookFields.of(null, "reviews");
+
+        assertTrue(fields.has(BookFields.AUTHORS));
+        assertTrue(fields.has(BookFields.REVIEWS));
+        assertTrue(BookFields.DEFAULT.withReviews().equals(fields));
+    }
+
+    @Test
+    void of_WithUnknownField_ThrowsBadRequestException() {
+        assertThrows(BadRequestException.class, () -> BookFields.of("name,isbn", null));
+        assertThrows(BadRequestException.class, () -> BookFields.of(null, "year"));
+    }
+}
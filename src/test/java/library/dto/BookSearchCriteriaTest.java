@@ -0,0 +1,62 @@
+package library.dto;
+
+import library.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BookSearchCriteriaTest {
+    @Test
+    void of_WithEquivalentSearches_ProducesSameKey() {
+        BookSearchDto search = new BookSearchDto();
+        search.setAuthor("Test Author");
+        search.setName(" ");
+        BookSearchDto sameSearch = new BookSearchDto();
+        sameSearch.setAuthor("  test AUTHOR ");
+        sameSearch.setSort("id");
+
+        BookSearchCriteria criteria = BookSearchCriteria.of(search);
+
+        assertNull(criteria.name());
+        assertEquals(criteria, BookSearchCriteria.of(sameSearch));
+        assertEquals(criteria.key(), BookSearchCriteria.of(sameSearch).key());
+    }
+
+    @Test
+    void of_WithDescendingSort_SplitsDirection() {
+        BookSearchDto search = new BookSearchDto();
+        search.setSort("-rating");
+
+        BookSearchCriteria criteria = BookSearchCriteria.of(search);
+
+        assertEquals(BookFields.RATING, criteria.sortField());
+        assertTrue(criteria.descending());
+    }
+
+    @Test
+    void key_WithSeparatorInName_DoesNotCollide() {
+        BookSearchDto search = new BookSearchDto();
+        search.setName("a|author=b");
+        BookSearchDto other = new BookSearchDto();
+        other.setName("a");
+        other.setAuthor("b");
+
+        assertNotEquals(BookSearchCriteria.of(search).key(), BookSearchCriteria.of(other).key());
+    }
+
+    @Test
+    void of_WithInvalidRangeOrSort_ThrowsBadRequestException() {
+        BookSearchDto years = new BookSearchDto();
+        years.setYearFrom(2000);
+        years.setYearTo(1999);
+        BookSearchDto sort = new BookSearchDto();
+        sort.setSort("-reviews");
+
+        assertThrows(BadRequestException.class, () -> BookSearchCriteria.of(years));
+        assertThrows(BadRequestException.class, () -> BookSearchCriteria.of(sort));
+    }
+}
@@ -0,0 +1,73 @@
+package library.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BitmapTest {
+    private static Bitmap of(int... values) {
+        Bitmap bitmap = new Bitmap();
+        for (int value : values) {
+            bitmap.add(value);
+        }
+        return bitmap;
+    }
+
+    @Test
+    void add_KeepsValuesSortedAndDistinct() {
+        Bitmap bitmap = of(70000, 3, 1, 3, 65536);
+
+        assertEquals(4, bitmap.cardinality());
+        assertArrayEquals(new int[] {1, 3, 65536, 70000}, bitmap.toArray(-1, 10));
+        assertTrue(bitmap.contains(65536));
+        assertFalse(bitmap.contains(2));
+        assertThrows(IllegalArgumentException.class, () -> bitmap.add(-1));
+    }
+
+    @Test
+    void andOr_CombineSparseAndDenseGroups() {
+        Bitmap dense = new Bitmap();
+        for (int value = 0; value < 10000; value++) {
+            dense.add(value * 2);
+        }
+        Bitmap sparse = of(1, 2, 4, 19998, 20000, 200000);
+
+        assertArrayEquals(new int[] {2, 4, 19998}, Bitmap.and(dense, sparse).toArray(-1, 10));
+        assertEquals(3, Bitmap.andCardinality(dense, sparse));
+        assertEquals(10003, Bitmap.or(dense, sparse).cardinality());
+        assertTrue(Bitmap.or(dense, sparse).contains(200000));
+    }
+
+    @Test
+    void remove_ShrinksDenseGroupsBack() {
+        Bitmap bitmap = new Bitmap();
+        for (int value = 0; value < 5000; value++) {
+            bitmap.add(value);
+        }
+
+        for (int value = 0; value < 4990; value++) {
+            bitmap.remove(value);
+        }
+
+        assertEquals(10, bitmap.cardinality());
+        assertArrayEquals(new int[] {4990, 4991}, bitmap.toArray(-1, 2));
+        for (int value = 4990; value < 5000; value++) {
+            bitmap.remove(value);
+        }
+        assertTrue(bitmap.isEmpty());
+    }
+
+    @Test
+    void toArray_PagesAfterValue() {
+        Bitmap bitmap = of(5, 10, 65540, 131072);
+
+        assertArrayEquals(new int[] {10, 65540}, bitmap.toArray(5, 2));
+        assertArrayEquals(new int[] {131072}, bitmap.toArray(65540, 2));
+        assertArrayEquals(new int[0], bitmap.toArray(131072, 2));
+        assertArrayEquals(new int[0], bitmap.toArray(Long.MAX_VALUE - 1, 2));
+    }
+}
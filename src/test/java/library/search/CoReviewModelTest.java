@@ -0,0 +1,83 @@
+package library.search;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CoReviewModelTest {
+    private static LongObjectMap<LongIntMap> booksByUser(long[]... books) {
+        LongObjectMap<LongIntMap> booksByUser = new LongObjectMap<>();
+        for (int user = 0; user < books.length; user++) {
+            LongIntMap userBooks = new LongIntMap();
+            for (long book : books[user]) {
+                userBooks.add(book, 1);
+            }
+            booksByUser.put(user + 1, userBooks);
+        }
+        return booksByUser;
+    }
+
+    @Test
+    void build_RanksByCoReviewsAgainstPopularity() {
+        CoReviewModel model = CoReviewModel.build(booksByUser(
+                new long[] {1, 2, 3},
+                new long[] {1, 2},
+                new long[] {1, 3},
+                new long[] {3, 4},
+                new long[] {3, 5}), ForkJoinPool.commonPool());
+
+        // Book 2 shares both of its readers with book 1, book 3 two of its
+        // four.
+        assertEquals(List.of(2L, 3L), model.similar(1L, 10));
+        assertEquals(List.of(1L, 4L, 5L, 2L), model.similar(3L, 10));
+        assertEquals(List.of(1L), model.similar(3L, 1));
+        assertEquals(5, model.size());
+    }
+
+    @Test
+    void add_UpdatesRowsOfReadersBooks() {
+        CoReviewModel model = new CoReviewModel();
+
+        model.add(1L, 10L);
+        model.add(1L, 20L);
+        model.add(1L, 20L);
+        model.add(2L, 10L);
+        model.add(2L, 30L);
+
+        assertEquals(List.of(20L, 30L), model.similar(10L, 10));
+        assertEquals(List.of(10L), model.similar(30L, 10));
+
+        model.remove(1L, 20L);
+
+        assertEquals(List.of(20L, 30L), model.similar(10L, 10));
+
+        model.remove(1L, 20L);
+
+        assertEquals(List.of(30L), model.similar(10L, 10));
+        assertTrue(model.similar(20L, 10).isEmpty());
+    }
+
+    @Test
+    void add_ReaderOverCap_IsLeftOut() {
+        CoReviewModel model = new CoReviewModel();
+        for (long book = 1; book <= CoReviewModel.MAX_USER_BOOKS; book++) {
+            model.add(1L, book);
+        }
+        model.add(2L, 1L);
+        model.add(2L, 1000L);
+
+        assertEquals(CoReviewModel.MAX_USER_BOOKS + 1, model.size());
+
+        model.add(1L, 999L);
+
+        assertEquals(List.of(1000L), model.similar(1L, 10));
+        assertTrue(model.similar(2L, 10).isEmpty());
+
+        model.remove(1L, 999L);
+
+        assertEquals(CoReviewModel.TOP_N, model.similar(2L, CoReviewModel.TOP_N).size());
+    }
+}
@@ -0,0 +1,76 @@
+package library.search;
+
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FacetIndexTest {
+    private static Map<FacetIndex.Facet, Map<Long, String>> facets(long category, long author,
+                                                                   long decade) {
+        return Map.of(
+                FacetIndex.Facet.CATEGORY, Map.of(category, "Category " + category),
+                FacetIndex.Facet.AUTHOR, Map.of(author, "Author " + author),
+                FacetIndex.Facet.DECADE, Map.of(decade, ""));
+    }
+
+    private static FacetIndex index() {
+        FacetIndex index = new FacetIndex();
+        index.put(1L, facets(1, 10, 1860));
+        index.put(2L, facets(1, 20, 1860));
+        index.put(3L, facets(2, 10, 1900));
+        index.put(4L, facets(1, 10, 1900));
+        return index;
+    }
+
+    @Test
+    void browse_AndsFacetsAndOrsValues() {
+        FacetIndex.Result result = index().browse(Map.of(
+                FacetIndex.Facet.CATEGORY, List.of(1L, 2L),
+                FacetIndex.Facet.AUTHOR, List.of(10L)), 0, 10, 10);
+
+        assertEquals(List.of(1L, 3L, 4L), result.ids());
+        assertEquals(3, result.total());
+    }
+
+    @Test
+    void browse_CountsEachFacetWithoutItsOwnFilter() {
+        FacetIndex.Result result = index().browse(Map.of(
+                FacetIndex.Facet.CATEGORY, List.of(1L)), 0, 10, 10);
+
+        assertEquals(List.of(new FacetIndex.Count(1, "Category 1", 3),
+                        new FacetIndex.Count(2, "Category 2", 1)),
+                result.counts().get(FacetIndex.Facet.CATEGORY));
+        assertEquals(List.of(new FacetIndex.Count(10, "Author 10", 2),
+                        new FacetIndex.Count(20, "Author 20", 1)),
+                result.counts().get(FacetIndex.Facet.AUTHOR));
+        assertTrue(result.counts().get(FacetIndex.Facet.RATING).isEmpty());
+    }
+
+    @Test
+    void browse_PagesAfterIdAndKeepsTopValues() {
+        FacetIndex.Result result = index().browse(Map.of(), 2, 1, 1);
+
+        assertEquals(List.of(3L), result.ids());
+        assertEquals(4, result.total());
+        assertEquals(List.of(new FacetIndex.Count(10, "Author 10", 3)),
+                result.counts().get(FacetIndex.Facet.AUTHOR));
+    }
+
+    @Test
+    void put_ReplacesAndRemoveDropsValues() {
+        FacetIndex index = index();
+
+        index.put(2L, facets(2, 10, 1860));
+        index.remove(3L);
+        FacetIndex.Result result = index.browse(Map.of(
+                FacetIndex.Facet.AUTHOR, List.of(20L)), 0, 10, 10);
+
+        assertTrue(result.ids().isEmpty());
+        assertEquals(List.of(new FacetIndex.Count(10, "Author 10", 3)),
+                result.counts().get(FacetIndex.Facet.AUTHOR));
+        assertEquals(3, index.size());
+    }
+}
@@ -0,0 +1,95 @@
+package library.search;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FuzzyIndexTest {
+    @Test
+    void search_FindsNamesWithTypos() {
+        FuzzyIndex index = new FuzzyIndex();
+        index.put(1L, List.of("Война и мир"));
+        index.put(2L, List.of("Анна Каренина"));
+        index.put(3L, List.of("Мастер и Маргарита"));
+
+        assertEquals(List.of(1L), index.search("Вайна и мир", 2, 10));
+        assertEquals(List.of(2L), index.search("анна корениа", 2, 10));
+        assertEquals(List.of(3L), index.search("МАСТЕР И МАРГОРИТА", 2, 10));
+        assertTrue(index.search("Вайна и мор", 1, 10).isEmpty());
+        assertTrue(index.search("Преступление и наказание", 2, 10).isEmpty());
+    }
+
+    @Test
+    void search_LongName_HonoursMaxDistanceAboveTwo() {
+        FuzzyIndex index = new FuzzyIndex();
+        index.put(1L, List.of("Преступление и наказание"));
+
+        assertTrue(index.search("Праступлене и наказанье", 2, 10).isEmpty());
+        assertEquals(List.of(1L), index.search("Праступлене и наказанье", 3, 10));
+    }
+
+    @Test
+    void search_ReturnsOnlyTheClosestNames() {
+        FuzzyIndex index = new FuzzyIndex();
+        index.put(1L, List.of("Детство"));
+        index.put(2L, List.of("Отрочество"));
+        index.put(3L, List.of("Детсво"));
+        index.put(4L, List.of("Детство"));
+
+        assertEquals(List.of(1L, 4L), index.search("Детства", 2, 10));
+        assertEquals(List.of(1L), index.search("Детства", 2, 1));
+    }
+
+    @Test
+    void search_KeepsShortQueriesExact() {
+        FuzzyIndex index = new FuzzyIndex();
+        index.put(1L, List.of("Мы"));
+        index.put(2L, List.of("Мир"));
+        index.put(3L, List.of("Миры"));
+
+        assertEquals(List.of(1L), index.search("мы", 2, 10));
+        assertTrue(index.search("мя", 2, 10).isEmpty());
+        assertEquals(List.of(2L), index.search("мор", 2, 10));
+    }
+
+    @Test
+    void put_ReplacesAndRemoveDropsNames() {
+        FuzzyIndex index = new FuzzyIndex();
+        index.put(1L, List.of("Лев Толстой", "Николай Некрасов"));
+        index.put(2L, List.of("Лев Толстой"));
+
+        index.put(1L, List.of("Николай Некрасов"));
+        assertEquals(List.of(2L), index.search("Лев Толстй", 2, 10));
+
+        index.remove(2L);
+        assertTrue(index.search("Лев Толстй", 2, 10).isEmpty());
+        assertEquals(List.of(1L), index.search("Николай Некрасв", 2, 10));
+    }
+
+    @Test
+    void levenshtein_StopsPastMax() {
+        assertEquals(0, FuzzyIndex.levenshtein("мир", "мир", 2));
+        assertEquals(1, FuzzyIndex.levenshtein("мир", "мор", 2));
+        assertEquals(2, FuzzyIndex.levenshtein("детство", "детсва", 2));
+        assertEquals(3, FuzzyIndex.levenshtein("война", "анна", 2));
+    }
+
+    @Test
+    void put_WhenReindexedRepeatedly_KeepsNameSlots() {
+        FuzzyIndex index = new FuzzyIndex();
+        index.put(1L, List.of("Война и мир"));
+        index.put(2L, List.of("Анна Каренина"));
+        int slots = index.nameSlots();
+
+        for (int i = 0; i < 100; i++) {
+            index.put(1L, List.of("Война и мир"));
+            index.put(2L, List.of(i % 2 == 0 ? "Анна Каренина" : "Мастер и Маргарита"));
+        }
+
+        assertEquals(slots, index.nameSlots());
+        assertEquals(List.of(1L), index.search("Вайна и мир", 2, 10));
+        assertEquals(List.of(2L), index.search("Мастер и Маргорита", 2, 10));
+    }
+}
@@ -0,0 +1,41 @@
+package library.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class IdBatchesTest {
+    private static final List<Long> IDS = LongStream.rangeClosed(1, 7).boxed().toList();
+
+    @Test
+    void forEach_ReadsEachBatchAfterTheLastId() {
+        List<Long> afters = new ArrayList<>();
+        List<List<Long>> batches = new ArrayList<>();
+
+        IdBatches.forEach(3, (after, limit) -> {
+            afters.add(after);
+            return idsAfter(after, limit);
+        }, Long::longValue, batches::add);
+
+        assertEquals(List.of(0L, 3L, 6L), afters);
+        assertEquals(List.of(List.of(1L, 2L, 3L), List.of(4L, 5L, 6L), List.of(7L)), batches);
+    }
+
+    @Test
+    void forEach_FullLastBatch_StopsAtEmptyBatch() {
+        List<List<Long>> batches = new ArrayList<>();
+
+        IdBatches.forEach(7, IdBatchesTest::idsAfter, Long::longValue, batches::add);
+        IdBatches.forEach(3, (after, limit) -> List.<Long>of(), Long::longValue, batches::add);
+
+        assertEquals(List.of(IDS), batches);
+    }
+
+    private static List<Long> idsAfter(long after, Limit limit) {
+        return IDS.stream().filter(id -> id > after).limit(limit.max()).toList();
+    }
+}
@@ -0,0 +1,69 @@
+package library.search;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LongIntMapTest {
+    @Test
+    void add_CountsAndRemovesKeysDroppingToZero() {
+        LongIntMap map = new LongIntMap();
+
+        assertEquals(1, map.add(7L, 1));
+        assertEquals(3, map.add(7L, 2));
+        assertEquals(0, map.add(7L, -3));
+
+        assertFalse(map.containsKey(7L));
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    void add_ReservedKey_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> new LongIntMap().add(0L, 1));
+    }
+
+    @Test
+    void add_ManyKeys_MatchesHashMap() {
+        LongIntMap map = new LongIntMap();
+        Map<Long, Integer> expected = new HashMap<>();
+        Random random = new Random(1);
+        for (int i = 0; i < 20_000; i++) {
+            long key = 1 + random.nextInt(500);
+            int delta = random.nextBoolean() ? 1 : -1;
+            if (delta < 0 && !expected.containsKey(key)) {
+                continue;
+            }
+            map.add(key, delta);
+            if (expected.merge(key, delta, Integer::sum) == 0) {
+                expected.remove(key);
+            }
+        }
+
+        Map<Long, Integer> actual = new HashMap<>();
+        map.forEach(actual::put);
+        assertEquals(expected, actual);
+        assertEquals(expected.size(), map.size());
+        assertEquals(expected.size(), map.keys().length);
+    }
+
+    @Test
+    void keys_WithLimit_ReturnsThatManyDistinctKeys() {
+        LongIntMap map = new LongIntMap();
+        for (long key = 1; key <= 100; key++) {
+            map.add(key, 1);
+        }
+
+        long[] keys = map.keys(10);
+
+        assertEquals(10, keys.length);
+        assertEquals(10, Arrays.stream(keys).distinct().count());
+        assertEquals(100, map.keys(1000).length);
+    }
+}
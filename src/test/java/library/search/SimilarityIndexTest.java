@@ -0,0 +1,74 @@
+package library.search;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SimilarityIndexTest {
+    private static long[] ids(long... ids) {
+        return ids;
+    }
+
+    @Test
+    void build_RanksByWeightedJaccard() {
+        SimilarityIndex index = SimilarityIndex.build(
+                ids(1, 2, 3, 4, 5),
+                new long[][] {ids(10), ids(10), ids(11), ids(10), ids()},
+                new long[][] {ids(20, 21), ids(20, 21), ids(20, 21), ids(22), ids()},
+                ForkJoinPool.commonPool());
+
+        // Book 2 matches book 1 whole, book 4 shares its author worth two
+        // categories and book 3 its two categories.
+        assertEquals(2L, index.similar(1L, 10).get(0));
+        assertEquals(List.of(2L), index.similar(1L, 1));
+        assertTrue(index.similar(5L, 10).isEmpty());
+        assertEquals(4, index.size());
+    }
+
+    @Test
+    void put_IdenticalSignatures_AreFoundBothWays() {
+        SimilarityIndex index = new SimilarityIndex();
+
+        index.put(1L, ids(10, 11), ids(20));
+        index.put(2L, ids(11, 10), ids(20));
+
+        assertEquals(List.of(2L), index.similar(1L, 10));
+        assertEquals(List.of(1L), index.similar(2L, 10));
+    }
+
+    @Test
+    void put_ChangedSignature_RefreshesNeighbors() {
+        SimilarityIndex index = new SimilarityIndex();
+        index.put(1L, ids(10), ids(20));
+        index.put(2L, ids(10), ids(20));
+        index.put(3L, ids(30), ids(40));
+
+        index.put(2L, ids(30), ids(40));
+
+        assertEquals(List.of(3L), index.similar(2L, 10));
+        assertEquals(List.of(2L), index.similar(3L, 10));
+        assertTrue(index.similar(1L, 10).isEmpty());
+
+        index.remove(3L);
+
+        assertTrue(index.similar(2L, 10).isEmpty());
+        assertTrue(index.similar(3L, 10).isEmpty());
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void put_CrowdedCategory_KeepsSameAuthorBooks() {
+        SimilarityIndex index = new SimilarityIndex();
+        for (long book = 100; book < 100 + 2L * SimilarityIndex.MAX_CANDIDATES; book++) {
+            index.put(book, ids(), ids(20));
+        }
+
+        index.put(1L, ids(10), ids(20));
+        index.put(2L, ids(10), ids(20));
+
+        assertEquals(2L, index.similar(1L, 10).get(0));
+    }
+}
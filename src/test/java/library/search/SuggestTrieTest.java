@@ -0,0 +1,70 @@
+package library.search;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SuggestTrieTest {
+    private static List<Long> ids(List<SuggestTrie.Suggestion> suggestions) {
+        return suggestions.stream().map(SuggestTrie.Suggestion::id).toList();
+    }
+
+    @Test
+    void suggest_MatchesNamePrefixesAndLaterWords() {
+        SuggestTrie trie = new SuggestTrie();
+        trie.put(1L, "Война и мир", 4.0);
+        trie.put(2L, "Войны клонов", 3.0);
+        trie.put(3L, "Мир Полудня", 4.5);
+
+        assertEquals(List.of(1L, 2L), ids(trie.suggest("Войн", 10)));
+        assertEquals(List.of(1L), ids(trie.suggest("война и", 10)));
+        assertEquals(List.of(3L, 1L), ids(trie.suggest("МИР", 10)));
+        assertTrue(trie.suggest("войнам", 10).isEmpty());
+        assertTrue(trie.suggest(" ", 10).isEmpty());
+    }
+
+    @Test
+    void suggest_KeepsBestEntriesWithinLimit() {
+        SuggestTrie trie = new SuggestTrie();
+        for (long id = 1; id <= 30; id++) {
+            trie.put(id, "Книга " + id, id % 7);
+        }
+
+        List<SuggestTrie.Suggestion> suggestions = trie.suggest("кн", 3);
+
+        assertEquals(List.of(6L, 13L, 20L), ids(suggestions));
+        assertEquals(SuggestTrie.TOP_K, trie.suggest("книга", 20).size());
+    }
+
+    @Test
+    void put_ReplacesAndRemoveRestoresNextBest() {
+        SuggestTrie trie = new SuggestTrie();
+        trie.put(1L, "Старик и море", 5.0);
+        trie.put(2L, "Старосветские помещики", 1.0);
+        trie.put(1L, "Фиеста", 5.0);
+
+        assertEquals(List.of(2L), ids(trie.suggest("стар", 10)));
+        assertEquals(List.of(1L), ids(trie.suggest("фи", 10)));
+
+        trie.remove(1L);
+
+        assertTrue(trie.suggest("фи", 10).isEmpty());
+        assertEquals(List.of(2L), ids(trie.suggest("с", 10)));
+        assertEquals(1, trie.size());
+    }
+
+    @Test
+    void suggest_AfterRemovingOneOfManyFillsTopFromSubtree() {
+        SuggestTrie trie = new SuggestTrie();
+        for (long id = 1; id <= SuggestTrie.TOP_K + 1; id++) {
+            trie.put(id, "Том " + id, id);
+        }
+
+        trie.remove(SuggestTrie.TOP_K + 1);
+
+        assertEquals(SuggestTrie.TOP_K, trie.suggest("том", 20).size());
+        assertEquals(SuggestTrie.TOP_K, ids(trie.suggest("т", 20)).get(0).longValue());
+    }
+}
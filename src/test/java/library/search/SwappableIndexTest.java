@@ -0,0 +1,86 @@
+package library.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SwappableIndexTest {
+    @Test
+    void write_AppliesToCurrent() {
+        SwappableIndex<List<String>, String> index = new SwappableIndex<>(new ArrayList<>(),
+                List::add);
+
+        index.write("a");
+
+        assertEquals(List.of("a"), index.current());
+    }
+
+    @Test
+    void rebuild_ReplaysWritesMadeMeanwhile() {
+        SwappableIndex<List<String>, String> index = new SwappableIndex<>(new ArrayList<>(),
+                List::add);
+
+        List<String> fresh = index.rebuild(() -> {
+            index.write("during");
+            return new ArrayList<>(List.of("loaded"));
+        });
+        index.write("after");
+
+        assertSame(fresh, index.current());
+        assertEquals(List.of("loaded", "during", "after"), index.current());
+    }
+
+    @Test
+    void rebuild_WithReplay_PassesWritesMadeMeanwhile() {
+        SwappableIndex<List<String>, String> index = new SwappableIndex<>(new ArrayList<>(),
+                List::add);
+        List<String> replayed = new ArrayList<>();
+
+        index.write("before");
+        index.rebuild(() -> {
+            index.write("during");
+            return new ArrayList<>();
+        }, (fresh, writes) -> replayed.addAll(writes));
+
+        assertEquals(List.of("during"), replayed);
+        assertEquals(List.of(), index.current());
+    }
+
+    @Test
+    void rebuild_WhileRebuilding_IsSkipped() {
+        SwappableIndex<List<String>, String> index = new SwappableIndex<>(new ArrayList<>(),
+                List::add);
+        List<List<String>> nested = new ArrayList<>();
+
+        List<String> fresh = index.rebuild(() -> {
+            nested.add(index.rebuild(ArrayList::new));
+            return new ArrayList<>(List.of("outer"));
+        });
+
+        assertNull(nested.get(0));
+        assertEquals(List.of("outer"), fresh);
+        assertSame(fresh, index.current());
+    }
+
+    @Test
+    void rebuild_WhenLoadFails_KeepsCurrentAndAllowsNextRebuild() {
+        List<String> initial = new ArrayList<>();
+        SwappableIndex<List<String>, String> index = new SwappableIndex<>(initial, List::add);
+
+        assertThrows(IllegalStateException.class, () -> index.rebuild(() -> {
+            index.write("during");
+            throw new IllegalStateException();
+        }));
+        index.write("after");
+
+        assertSame(initial, index.current());
+        assertEquals(List.of("during", "after"), initial);
+        assertNotNull(index.rebuild(ArrayList::new));
+    }
+}
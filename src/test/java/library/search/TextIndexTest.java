@@ -0,0 +1,74 @@
+package library.search;
+
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TextIndexTest {
+    private static List<TextIndex.Field> fields(String name, String author) {
+        return List.of(new TextIndex.Field(name, 4), new TextIndex.Field(author, 3));
+    }
+
+    private static List<Long> ids(List<TextIndex.Hit> hits) {
+        return hits.stream().map(TextIndex.Hit::id).toList();
+    }
+
+    @Test
+    void search_ReturnsOnlyBooksWithEveryTerm() {
+        TextIndex index = new TextIndex();
+        index.putAll(Map.of(
+                1L, fields("Война и мир", "Лев Толстой"),
+                2L, fields("Анна Каренина", "Лев Толстой"),
+                3L, fields("Мир Полудня", "Аркадий Стругацкий")));
+
+        assertEquals(List.of(1L), ids(index.search("толстой МИР", 10)));
+        // The shorter document ranks first on an equal match.
+        assertEquals(List.of(2L, 1L), ids(index.search("лев", 10)));
+        assertTrue(index.search("толстой полудня", 10).isEmpty());
+        assertTrue(index.search("чехов", 10).isEmpty());
+    }
+
+    @Test
+    void search_RanksHeavierFieldsFirstAndKeepsLimit() {
+        TextIndex index = new TextIndex();
+        index.put(1L, fields("Повести", "Иван Бунин"));
+        index.put(2L, fields("Бунин", "Иван Бунин"));
+        index.put(3L, fields("Стихи", "Иван Бунин"));
+
+        List<TextIndex.Hit> hits = index.search("бунин", 2);
+
+        assertEquals(List.of(2L, 1L), ids(hits));
+        assertTrue(hits.get(0).score() > hits.get(1).score());
+    }
+
+    @Test
+    void put_ReplacesAndRemoveDropsPostings() {
+        TextIndex index = new TextIndex();
+        index.put(1L, fields("Старое название", "Автор"));
+        index.put(1L, fields("Новое название", "Автор"));
+
+        assertTrue(index.search("старое", 10).isEmpty());
+        assertEquals(List.of(1L), ids(index.search("новое", 10)));
+
+        index.remove(1L);
+
+        assertTrue(index.search("название", 10).isEmpty());
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void search_IntersectsLongPostings() {
+        TextIndex index = new TextIndex();
+        for (long id = 1; id <= 5000; id++) {
+            index.put(id, fields(id % 1000 == 0 ? "общий редкий" : "общий", "автор " + id));
+        }
+        index.put(500L, fields("общий редкий", "автор 500"));
+
+        assertEquals(List.of(500L, 1000L, 2000L, 3000L, 4000L, 5000L),
+                ids(index.search("редкий общий", 10)));
+        assertEquals(List.of(4321L), ids(index.search("общий 4321", 10)));
+    }
+}
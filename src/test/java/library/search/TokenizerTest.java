@@ -0,0 +1,32 @@
+package library.search;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenizerTest {
+    @Test
+    void tokenize_FoldsCaseAndYo() {
+        assertEquals(List.of("ежик", "в", "тумане"), Tokenizer.tokenize("Ёжик в ТУМАНЕ"));
+    }
+
+    @Test
+    void tokenize_KeepsApostrophesAndAccentsInsideWords() {
+        assertEquals(List.of("сямя", "замок"), Tokenizer.tokenize("Сям’я, за́мок"));
+        assertEquals(List.of("dartagnan"), Tokenizer.tokenize("d'Artagnan"));
+    }
+
+    @Test
+    void tokenize_SplitsOnPunctuationAndNormalizesWidth() {
+        assertEquals(List.of("война", "и", "мир", "1869"),
+                Tokenizer.tokenize("«Война и мир» (１８６９)"));
+    }
+
+    @Test
+    void tokenize_WithBlankText_ReturnsNoTerms() {
+        assertTrue(Tokenizer.tokenize(null).isEmpty());
+        assertTrue(Tokenizer.tokenize(" - ").isEmpty());
+    }
+}
@@ -0,0 +1,50 @@
+package library.search;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TopNTest {
+    @Test
+    void offer_KeepsBestScoresFirst() {
+        TopN top = new TopN(3);
+
+        top.offer(1, 0.2);
+        top.offer(2, 0.9);
+        top.offer(3, 0.5);
+        top.offer(4, 0.1);
+        top.offer(5, 0.7);
+
+        assertArrayEquals(new long[] {2, 5, 3}, top.ids());
+    }
+
+    @Test
+    void offer_EqualScores_PrefersHigherTieThenLowerId() {
+        TopN top = new TopN(4);
+
+        top.offer(9, 0.5, 1);
+        top.offer(4, 0.5, 1);
+        top.offer(7, 0.5, 2);
+        top.offer(2, 0.5, 0);
+
+        assertArrayEquals(new long[] {7, 4, 9, 2}, top.ids());
+    }
+
+    @Test
+    void ids_FewerOffersThanN_ReturnsOnlyThose() {
+        TopN top = new TopN(5);
+
+        top.offer(3, 1.0);
+
+        assertArrayEquals(new long[] {3}, top.ids());
+    }
+
+    @Test
+    void head_CutsToLimit() {
+        assertEquals(List.of(5L, 6L), TopN.head(new long[] {5, 6, 7}, 2));
+        assertEquals(List.of(5L), TopN.head(new long[] {5}, 3));
+        assertEquals(List.of(), TopN.head(null, 3));
+    }
+}
@@ -6,9 +6,12 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import library.cache.CacheTag;
 import library.cache.InMemoryCache;
 import library.dto.create.AuthorCreateDto;
 import library.dto.get.AuthorGetDto;
+import library.dto.get.PageGetDto;
+import library.exception.BadRequestException;
 import library.exception.NotFoundException;
 import library.model.Author;
 import library.model.Book;
@@ -19,11 +22,14 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.anyCollection;
 import static org.mockito.Mockito.anyLong;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
@@ -38,12 +44,16 @@ class AuthorServiceTest {
     private BookRepository bookRepository;
     @Mock
     private InMemoryCache cache;
+    @Mock
+    private BookIndexService bookIndexService;
+    @Mock
+    private SuggestService suggestService;
 
     @InjectMocks
     private AuthorService authorService;
 
     private final Book bookTest = new Book(1L, "Test Book",
-            null, null, 0, null, 0, null, null);
+            null, null, 0, null, 0, null, 0L, 0);
     private final Author authorTest = new Author(1L, "Test Author",
             "Info", Set.of(bookTest));
 
@@ -52,15 +62,37 @@ class AuthorServiceTest {
         Author anotherAuthorTest = new Author(2L, "Another Test Author",
                 "Info", Set.of(bookTest));
 
-        when(authorRepository.findAll()).thenReturn(List.of(authorTest, anotherAuthorTest));
+        when(authorRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(3)))
+                .thenReturn(List.of(authorTest, anotherAuthorTest));
 
-        List<AuthorGetDto> result = authorService.getAllAuthors();
+        PageGetDto<AuthorGetDto> result = authorService.getAllAuthors(null, 2);
 
         assertNotNull(result);
-        assertEquals(2, result.size());
-        assertEquals("Test Author", result.get(0).getName());
-        assertEquals("Another Test Author", result.get(1).getName());
-        verify(authorRepository).findAll();
+        assertEquals(2, result.getItems().size());
+        assertEquals("Test Author", result.getItems().get(0).getName());
+        assertEquals("Another Test Author", result.getItems().get(1).getName());
+        assertNull(result.getNextCursor());
+    }
+
+    @Test
+    void getAllAuthors_WhenMoreRemain_ReturnsNextCursor() {
+        Author anotherAuthorTest = new Author(2L, "Another Test Author",
+                "Info", Set.of(bookTest));
+
+        when(authorRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(2)))
+                .thenReturn(List.of(authorTest, anotherAuthorTest));
+
+        PageGetDto<AuthorGetDto> result = authorService.getAllAuthors(null, 1);
+
+        assertEquals(1, result.getItems().size());
+        assertEquals("Test Author", result.getItems().get(0).getName());
+        assertEquals(1L, result.getNextCursor().longValue());
+    }
+
+    @Test
+    void getAllAuthors_WhenLimitOutOfRange_ThrowsBadRequestException() {
+        assertThrows(BadRequestException.class, () -> authorService.getAllAuthors(null, 0));
+        assertThrows(BadRequestException.class, () -> authorService.getAllAuthors(5L, 101));
     }
 
     @Test
@@ -88,9 +120,9 @@ class AuthorServiceTest {
     @Test
     void createAuthor_WithValidData_CreatesAuthor() {
         Book book1 = new Book(1L, "Test Book 1", new HashSet<>(),
-                null, 0, null, 0, null, null);
+                null, 0, null, 0, null, 0L, 0);
         Book book2 = new Book(2L, "Test Book 2", new HashSet<>(),
-                null, 0, null, 0, null, null);
+                null, 0, null, 0, null, 0L, 0);
 
         AuthorCreateDto authorDto = new AuthorCreateDto("New Test Author",
                 "Info", List.of(book1.getId(), book2.getId()));
@@ -107,7 +139,8 @@ class AuthorServiceTest {
         assertEquals("Info", result.getInfo());
         verify(bookRepository, times(2)).findById(anyLong());
         verify(authorRepository).save(any(Author.class));
-        verify(cache).clear();
+        verify(cache).invalidate(Set.of(CacheTag.author(2L),
+                CacheTag.authorName("New Test Author"), CacheTag.book(1L), CacheTag.book(2L)));
     }
 
     @Test
@@ -126,7 +159,8 @@ class AuthorServiceTest {
         assertEquals("Info", result.getInfo());
         verify(bookRepository, times(0)).findById(anyLong());
         verify(authorRepository).save(any(Author.class));
-        verify(cache).clear();
+        verify(cache).invalidate(Set.of(CacheTag.author(2L),
+                CacheTag.authorName("New Test Author")));
     }
 
     @Test
@@ -145,7 +179,8 @@ class AuthorServiceTest {
         assertEquals("Info", result.getInfo());
         verify(bookRepository, times(0)).findById(anyLong());
         verify(authorRepository).save(any(Author.class));
-        verify(cache).clear();
+        verify(cache).invalidate(Set.of(CacheTag.author(2L),
+                CacheTag.authorName("New Test Author")));
     }
 
     @Test
@@ -159,19 +194,20 @@ class AuthorServiceTest {
                 () -> authorService.createAuthor(authorDto));
         assertEquals("Book is not found with id: " + 1L, exception.getMessage());
         verify(bookRepository).findById(1L);
-        verify(cache, never()).clear();
+        verify(cache, never()).invalidate(anyCollection());
     }
 
     @Test
     void updateAuthor_WithValidAuthor_UpdatesAuthor() {
         Book book = new Book(2L, "Different Test Book", new HashSet<>(),
-                null, 0, null, 0, null, null);
+                null, 0, null, 0, null, 0L, 0);
 
         AuthorCreateDto authorDto = new AuthorCreateDto("Updated Author",
                 "Info", List.of(2L));
 
 
         when(authorRepository.findById(1L)).thenReturn(Optional.of(authorTest));
+        when(bookRepository.findIdsByAuthorId(1L)).thenReturn(List.of(1L));
         when(bookRepository.findById(2L)).thenReturn(Optional.of(book));
         when(authorRepository.save(any(Author.class))).thenReturn(authorTest);
 
@@ -182,7 +218,10 @@ class AuthorServiceTest {
         verify(authorRepository).findById(1L);
         verify(bookRepository).findById(2L);
         verify(authorRepository).save(any(Author.class));
-        verify(cache).clear();
+        verify(cache).invalidate(Set.of(CacheTag.author(1L),
+                CacheTag.authorName("Updated Author"), CacheTag.book(2L)));
+        verify(bookIndexService).reindex(Set.of(1L, 2L));
+        verify(suggestService).putAuthor(authorTest);
     }
 
     @Test
@@ -217,12 +256,15 @@ class AuthorServiceTest {
     @Test
     void deleteAuthor_WhenExisting_DeletesAuthor() {
         when(authorRepository.existsById(1L)).thenReturn(true);
+        when(bookRepository.findIdsByAuthorId(1L)).thenReturn(List.of(1L));
 
         authorService.deleteAuthor(1L);
 
         verify(authorRepository).existsById(1L);
         verify(authorRepository).deleteById(1L);
-        verify(cache).clear();
+        verify(cache).invalidate(Set.of(CacheTag.author(1L)));
+        verify(bookIndexService).reindex(List.of(1L));
+        verify(suggestService).removeAuthor(1L);
     }
 
     @Test
@@ -0,0 +1,104 @@
+package library.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import library.exception.BadRequestException;
+import library.model.Author;
+import library.model.Book;
+import library.model.Category;
+import library.repository.BookRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BookExportServiceTest {
+    @Mock
+    private BookRepository bookRepository;
+    @Mock
+    private EntityManager entityManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private BookExportService bookExportService;
+
+    private final Author authorTest = new Author(1L, "Test Author", "Info", null);
+    private final Category categoryTest = new Category(1L, "Test, Category", null);
+
+    @BeforeEach
+    void setUp() {
+        bookExportService = new BookExportService(bookRepository, entityManager, objectMapper);
+    }
+
+    @Test
+    void exportBooks_AsCsv_WritesHeaderAndQuotedRows() throws IOException {
+        when(bookRepository.streamAllOrderById()).thenReturn(Stream.of(
+                book(1L, "Test Book"), book(2L, "Say \"Hi\"")));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long written = bookExportService.exportBooks(FileFormat.CSV, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, written);
+        assertEquals(3, lines.length);
+        assertEquals(BookExportService.CSV_HEADER, lines[0]);
+        assertEquals("1,Test Book,2000,100,4.5,Test Author,\"Test, Category\"", lines[1]);
+        assertEquals("2,\"Say \"\"Hi\"\"\",2000,100,4.5,Test Author,\"Test, Category\"",
+                lines[2]);
+    }
+
+    @Test
+    void exportBooks_AsNdjson_WritesOneObjectPerLine() throws IOException {
+        when(bookRepository.streamAllOrderById()).thenReturn(Stream.of(
+                book(1L, "Test Book"), book(2L, "Another Test Book")));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        bookExportService.exportBooks(FileFormat.NDJSON, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertEquals("Test Book", first.get("name").asText());
+        assertEquals("Test Author", first.get("authors").get(0).asText());
+        assertEquals(2L, objectMapper.readTree(lines[1]).get("id").asLong());
+    }
+
+    @Test
+    void exportBooks_ClearsPersistenceContextAfterEachFullChunk() throws IOException {
+        int total = BookRepository.EXPORT_FETCH_SIZE * 2 + 1;
+        when(bookRepository.streamAllOrderById()).thenReturn(LongStream.rangeClosed(1, total)
+                .mapToObj(id -> book(id, "Book " + id)));
+
+        long written = bookExportService.exportBooks(FileFormat.NDJSON,
+                new ByteArrayOutputStream());
+
+        assertEquals(total, written);
+        verify(entityManager, times(2)).clear();
+    }
+
+    @Test
+    void fileFormat_WhenUnknown_ThrowsBadRequestException() {
+        assertEquals(FileFormat.CSV, FileFormat.of("csv"));
+        assertThrows(BadRequestException.class, () -> FileFormat.of("xml"));
+    }
+
+    private Book book(Long id, String name) {
+        return new Book(id, name, Set.of(authorTest), Set.of(categoryTest), 100,
+                List.of(), 2000, 4.5, 0L, 0);
+    }
+}
@@ -0,0 +1,215 @@
+package library.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import library.dto.create.BookCreateDto;
+import library.dto.get.ImportJobGetDto;
+import library.exception.InsufficientStorageException;
+import library.exception.NotFoundException;
+import library.exception.PayloadTooLargeException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.util.unit.DataSize;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BookImportServiceTest {
+    @Mock
+    private BookService bookService;
+
+    private final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private BookImportService bookImportService;
+
+    @BeforeEach
+    void setUp() {
+        bookImportService = new BookImportService(bookService, validator,
+                new ObjectMapper(), executor);
+    }
+
+    @Test
+    void startImport_WithNdjson_ImportsValidRecordsAndReportsInvalidOnes()
+            throws IOException, InterruptedException {
+        String upload = """
+                {"name":"Test Book","pageAmount":100,"year":2000,"authorIds":[1]}
+                {"name":"","pageAmount":100,"year":2000}
+
+                not json
+                {"name":"Another Test Book","pageAmount":200,"year":2001}
+                """;
+
+        ImportJobGetDto job = bookImportService.startImport(FileFormat.NDJSON, stream(upload));
+        ImportJobGetDto result = await(job.getId());
+
+        assertEquals("COMPLETED", result.getStatus());
+        assertEquals(4, result.getProcessed());
+        assertEquals(2, result.getImported());
+        assertEquals(2, result.getFailed());
+        assertEquals(2, result.getErrors().get(0).getLine());
+        assertEquals("Book's name can't be blank", result.getErrors().get(0).getMessage());
+        assertEquals(4, result.getErrors().get(1).getLine());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<BookCreateDto>> batch = ArgumentCaptor.forClass(List.class);
+        verify(bookService).createBooks(batch.capture());
+        assertEquals(Set.of(1L), batch.getValue().get(0).getAuthorIds());
+    }
+
+    @Test
+    void startImport_WithCsv_ParsesQuotedFieldsAndIdLists()
+            throws IOException, InterruptedException {
+        String upload = BookImportService.CSV_HEADER + "\n"
+                + "\"Say \"\"Hi\"\", World\",100,2000,1;2,3\n";
+
+        ImportJobGetDto result = await(bookImportService
+                .startImport(FileFormat.CSV, stream(upload)).getId());
+
+        assertEquals(1, result.getImported());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<BookCreateDto>> batch = ArgumentCaptor.forClass(List.class);
+        verify(bookService).createBooks(batch.capture());
+        BookCreateDto book = batch.getValue().get(0);
+        assertEquals("Say \"Hi\", World", book.getName());
+        assertEquals(Set.of(1L, 2L), book.getAuthorIds());
+        assertEquals(Set.of(3L), book.getCategoryIds());
+    }
+
+    @Test
+    void startImport_WhenBatchFails_BisectsItToFindBadRecords()
+            throws IOException, InterruptedException {
+        String upload = """
+                {"name":"Book 1","pageAmount":100,"year":2000,"authorIds":[1]}
+                {"name":"Book 2","pageAmount":100,"year":2000,"authorIds":[1]}
+                {"name":"Book 3","pageAmount":200,"year":2001,"authorIds":[20]}
+                {"name":"Book 4","pageAmount":100,"year":2000,"authorIds":[1]}
+                """;
+        when(bookService.createBooks(anyList())).thenAnswer(invocation -> {
+            List<BookCreateDto> books = invocation.getArgument(0);
+            if (books.stream().anyMatch(book -> book.getAuthorIds().contains(20L))) {
+                throw new NotFoundException("Author is not found with id: 20");
+            }
+            return List.of();
+        });
+
+        ImportJobGetDto result = await(bookImportService
+                .startImport(FileFormat.NDJSON, stream(upload)).getId());
+
+        assertEquals(3, result.getImported());
+        assertEquals(1, result.getFailed());
+        assertEquals(3, result.getErrors().get(0).getLine());
+        assertEquals("Author is not found with id: 20", result.getErrors().get(0).getMessage());
+        // The whole batch, both halves, then both quarters of the bad half.
+        verify(bookService, times(5)).createBooks(anyList());
+        verify(bookService, never()).createBook(any(BookCreateDto.class));
+    }
+
+    @Test
+    void startImport_WhenUploadTooLarge_ThrowsAndRemovesSpool() {
+        bookImportService = new BookImportService(bookService, validator,
+                new ObjectMapper(), executor, System::nanoTime, DataSize.ofBytes(8));
+
+        assertThrows(PayloadTooLargeException.class, () -> bookImportService
+                .startImport(FileFormat.NDJSON, stream("{\"name\":\"Test Book\"}")));
+        assertThrows(PayloadTooLargeException.class, () -> bookImportService
+                .startImport(FileFormat.NDJSON, stream(""), 9));
+        verifyNoInteractions(bookService);
+    }
+
+    @Test
+    void startImport_WithUnknownSize_DoesNotRequireMaxSizeOfFreeSpace()
+            throws IOException, InterruptedException {
+        bookImportService = new BookImportService(bookService, validator,
+                new ObjectMapper(), executor, System::nanoTime, DataSize.ofTerabytes(1_000_000));
+
+        ImportJobGetDto result = await(bookImportService
+                .startImport(FileFormat.NDJSON, stream(""), -1).getId());
+
+        assertEquals("COMPLETED", result.getStatus());
+    }
+
+    @Test
+    void startImport_WhenDeclaredSizeExceedsFreeSpace_ThrowsInsufficientStorage() {
+        bookImportService = new BookImportService(bookService, validator,
+                new ObjectMapper(), executor, System::nanoTime, DataSize.ofTerabytes(1_000_000));
+
+        assertThrows(InsufficientStorageException.class, () -> bookImportService
+                .startImport(FileFormat.NDJSON, stream(""),
+                        DataSize.ofTerabytes(100_000).toBytes()));
+        verifyNoInteractions(bookService);
+    }
+
+    @Test
+    void startImport_WritesInFixedSizeBatches() throws IOException, InterruptedException {
+        StringBuilder upload = new StringBuilder(BookImportService.CSV_HEADER).append('\n');
+        for (int i = 0; i < BookImportService.BATCH_SIZE * 2 + 1; i++) {
+            upload.append("Book ").append(i).append(",100,2000,,\n");
+        }
+
+        ImportJobGetDto result = await(bookImportService
+                .startImport(FileFormat.CSV, stream(upload.toString())).getId());
+
+        assertEquals(BookImportService.BATCH_SIZE * 2 + 1, result.getImported());
+        verify(bookService, times(3)).createBooks(anyList());
+    }
+
+    @Test
+    void startImport_WithWrongCsvHeader_FailsJob() throws IOException, InterruptedException {
+        ImportJobGetDto result = await(bookImportService
+                .startImport(FileFormat.CSV, stream("title,pages\n")).getId());
+
+        assertTrue(result.getStatus().startsWith("FAILED"));
+    }
+
+    @Test
+    void startImport_EvictsJobsFinishedLongerThanRetentionAgo() throws Exception {
+        AtomicLong now = new AtomicLong();
+        bookImportService = new BookImportService(bookService, validator,
+                new ObjectMapper(), executor, now::get, BookImportService.DEFAULT_MAX_SIZE);
+
+        String first = bookImportService.startImport(FileFormat.NDJSON, stream("")).getId();
+        executor.submit(() -> { }).get();
+        now.addAndGet(BookImportService.JOB_RETENTION.toNanos());
+        String second = bookImportService.startImport(FileFormat.NDJSON, stream("")).getId();
+
+        assertThrows(NotFoundException.class, () -> bookImportService.getImportJob(first));
+        assertEquals("COMPLETED", await(second).getStatus());
+    }
+
+    @Test
+    void getImportJob_WhenUnknown_ThrowsNotFoundException() {
+        assertThrows(NotFoundException.class, () -> bookImportService.getImportJob("missing"));
+    }
+
+    private ImportJobGetDto await(String jobId) throws InterruptedException {
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        return bookImportService.getImportJob(jobId);
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,131 @@
+package library.service;
+
+import java.util.List;
+import library.dto.BookFacetDto;
+import library.dto.projection.AuthorRow;
+import library.dto.projection.BookRow;
+import library.dto.projection.CategoryNameRow;
+import library.exception.BadRequestException;
+import library.repository.AuthorRepository;
+import library.repository.BookRepository;
+import library.repository.CategoryRepository;
+import library.search.FacetIndex;
+import library.search.SearchProperties;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BookIndexServiceTest {
+    @Mock
+    private BookRepository bookRepository;
+    @Mock
+    private AuthorRepository authorRepository;
+    @Mock
+    private CategoryRepository categoryRepository;
+    @Spy
+    private SearchProperties searchProperties = new SearchProperties();
+
+    @InjectMocks
+    private BookIndexService bookIndexService;
+
+    private final BookRow bookTest = new BookRow(1L, "Война и мир", 1300, 1869, 4.5);
+    private final BookRow anotherBookTest = new BookRow(2L, "Детство", 100, 1852, null);
+
+    @Test
+    void rebuild_IndexesBookNamesAuthorsAndCategories() {
+        when(bookRepository.findRowsAfter(0L, Limit.of(BookIndexService.BATCH_SIZE)))
+                .thenReturn(List.of(bookTest, anotherBookTest));
+        when(authorRepository.findRowsByBookIds(List.of(1L, 2L))).thenReturn(List.of(
+                new AuthorRow(1L, 1L, "Лев Толстой", "Русский писатель"),
+                new AuthorRow(2L, 1L, "Лев Толстой", "Русский писатель")));
+        when(categoryRepository.findNamesByBookIds(List.of(1L, 2L))).thenReturn(List.of(
+                new CategoryNameRow(1L, 1L, "Роман-эпопея")));
+
+        int indexed = bookIndexService.rebuild();
+
+        assertEquals(2, indexed);
+        assertEquals(List.of(2L, 1L), bookIndexService.search("толстой", 10));
+        assertEquals(List.of(1L), bookIndexService.search("эпопея мир", 10));
+        assertEquals(List.of(2L), bookIndexService.search("писатель детство", 10));
+    }
+
+    @Test
+    void reindex_WhenBookIsGone_RemovesIt() {
+        when(bookRepository.findRowsByIds(List.of(1L)))
+                .thenReturn(List.of(bookTest), List.of());
+
+        bookIndexService.reindex(List.of(1L));
+        assertEquals(List.of(1L), bookIndexService.search("война", 10));
+
+        bookIndexService.reindex(List.of(1L));
+        assertTrue(bookIndexService.search("война", 10).isEmpty());
+    }
+
+    @Test
+    void search_WhenLimitOutOfRange_ThrowsBadRequestException() {
+        assertThrows(BadRequestException.class, () -> bookIndexService.search("мир", 0));
+        assertThrows(BadRequestException.class,
+                () -> bookIndexService.search("мир", Keyset.MAX_LIMIT + 1));
+    }
+
+    @Test
+    void findSimilar_MatchesMisspelledTitlesAndAuthors() {
+        when(bookRepository.findRowsByIds(List.of(1L, 2L)))
+                .thenReturn(List.of(bookTest, anotherBookTest));
+        when(authorRepository.findRowsByBookIds(List.of(1L, 2L))).thenReturn(List.of(
+                new AuthorRow(1L, 1L, "Лев Толстой", "Русский писатель"),
+                new AuthorRow(2L, 2L, "Максим Горький", "Русский писатель")));
+
+        bookIndexService.reindex(List.of(1L, 2L));
+
+        assertEquals(List.of(1L), bookIndexService.findSimilarTitles("Вайна и мир"));
+        assertEquals(List.of(2L), bookIndexService.findSimilarAuthors("Максим Горкий"));
+        assertTrue(bookIndexService.findSimilarTitles("Детство и отрочество").isEmpty());
+
+        searchProperties.setFuzzyMaxDistance(0);
+        assertTrue(bookIndexService.findSimilarTitles("Вайна и мир").isEmpty());
+    }
+
+    @Test
+    void browse_FiltersAndCountsByFacets() {
+        when(bookRepository.findRowsByIds(List.of(1L, 2L)))
+                .thenReturn(List.of(bookTest, anotherBookTest));
+        when(authorRepository.findRowsByBookIds(List.of(1L, 2L))).thenReturn(List.of(
+                new AuthorRow(1L, 1L, "Лев Толстой", "Русский писатель"),
+                new AuthorRow(2L, 1L, "Лев Толстой", "Русский писатель")));
+        when(categoryRepository.findNamesByBookIds(List.of(1L, 2L))).thenReturn(List.of(
+                new CategoryNameRow(1L, 3L, "Роман-эпопея")));
+        BookFacetDto filter = new BookFacetDto();
+        filter.setDecades(List.of(1860));
+
+        bookIndexService.reindex(List.of(1L, 2L));
+        FacetIndex.Result result = bookIndexService.browse(filter, 0, 10);
+
+        assertEquals(List.of(1L), result.ids());
+        assertEquals(List.of(new FacetIndex.Count(1850, null, 1),
+                        new FacetIndex.Count(1860, null, 1)),
+                result.counts().get(FacetIndex.Facet.DECADE));
+        assertEquals(List.of(new FacetIndex.Count(3, "Роман-эпопея", 1)),
+                result.counts().get(FacetIndex.Facet.CATEGORY));
+        assertEquals(List.of(new FacetIndex.Count(4, null, 1)),
+                result.counts().get(FacetIndex.Facet.RATING));
+    }
+
+    @Test
+    void ratingBucketOf_TreatsUnratedAsZero() {
+        assertEquals(0, BookIndexService.ratingBucketOf(null));
+        assertEquals(3, BookIndexService.ratingBucketOf(3.99));
+        assertEquals(5, BookIndexService.ratingBucketOf(5.0));
+        assertEquals(1860, BookIndexService.decadeOf(1869));
+    }
+}
@@ -0,0 +1,266 @@
+package library.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import library.dto.BookFields;
+import library.dto.BookSearchCriteria;
+import library.dto.BookSearchDto;
+import library.dto.create.BookCreateDto;
+import library.dto.get.AuthorGetDto;
+import library.dto.get.BookGetDto;
+import library.dto.get.BookPageGetDto;
+import library.dto.get.PageGetDto;
+import library.dto.get.ReviewGetDto;
+import library.dto.get.ReviewSummaryGetDto;
+import library.dto.projection.AuthorBookRow;
+import library.dto.projection.AuthorRow;
+import library.dto.projection.BookRow;
+import library.dto.projection.CategoryRow;
+import library.dto.projection.ReviewRow;
+import library.dto.projection.ReviewStatsRow;
+import library.exception.BadRequestException;
+import library.mapper.BookMapper;
+import library.model.Book;
+import library.repository.AuthorRepository;
+import library.repository.BookRepository;
+import library.repository.CategoryRepository;
+import library.repository.ReviewRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BookQueryServiceTest {
+    @Mock
+    private BookRepository bookRepository;
+    @Mock
+    private AuthorRepository authorRepository;
+    @Mock
+    private CategoryRepository categoryRepository;
+    @Mock
+    private ReviewRepository reviewRepository;
+
+    @InjectMocks
+    private BookQueryService bookQueryService;
+
+    private final BookRow bookTest = new BookRow(1L, "Test Book", 100, 1000, 4.5);
+    private final BookRow anotherBookTest = new BookRow(2L, "Another Test Book", 200, 2000, null);
+
+    @Test
+    void findById_AssemblesBookFromRows() {
+        when(bookRepository.findRowsById(1L)).thenReturn(List.of(bookTest));
+        when(authorRepository.findRowsByBookIds(List.of(1L))).thenReturn(List.of(
+                new AuthorRow(1L, 1L, "Test Author", "Info")));
+        when(authorRepository.findBookNamesByAuthorIds(List.of(1L))).thenReturn(List.of(
+                new AuthorBookRow(1L, "Test Book"), new AuthorBookRow(1L, "Another Test Book")));
+        when(categoryRepository.findRowsByBookIds(List.of(1L))).thenReturn(List.of(
+                new CategoryRow(1L, 1L, "Test Category", 3)));
+        when(reviewRepository.findStatsByBookIds(List.of(1L))).thenReturn(List.of(
+                new ReviewStatsRow(1L, 5, 3L), new ReviewStatsRow(1L, 2, 1L)));
+
+        BookGetDto result = bookQueryService.findById(1L).orElseThrow();
+
+        assertEquals("Test Book", result.getName());
+        assertEquals(4.5, result.getRating());
+        AuthorGetDto author = result.getAuthors().iterator().next();
+        assertEquals("Test Author", author.getName());
+        assertEquals(List.of("Test Book", "Another Test Book"), author.getBooks());
+        assertEquals(3, result.getCategories().iterator().next().getCount());
+        ReviewSummaryGetDto summary = result.getReviewSummary();
+        assertEquals(4, summary.getCount());
+        assertEquals(4.25, summary.getAverage());
+        assertEquals(Map.of(1, 0L, 2, 1L, 3, 0L, 4, 0L, 5, 3L), summary.getHistogram());
+        assertNull(result.getReviews());
+    }
+
+    @Test
+    void findById_WhenMissing_SkipsAssociationQueries() {
+        when(bookRepository.findRowsById(20L)).thenReturn(List.of());
+
+        Optional<BookGetDto> result = bookQueryService.findById(20L);
+
+        assertTrue(result.isEmpty());
+        verifyNoInteractions(authorRepository, categoryRepository, reviewRepository);
+    }
+
+    @Test
+    void findByAuthor_SharesAuthorBetweenBooks() {
+        List<Long> ids = List.of(1L, 2L);
+        when(bookRepository.findRowsByAuthor("test author"))
+                .thenReturn(List.of(bookTest, anotherBookTest));
+        when(authorRepository.findRowsByBookIds(ids)).thenReturn(List.of(
+                new AuthorRow(1L, 1L, "Test Author", "Info"),
+                new AuthorRow(2L, 1L, "Test Author", "Info")));
+        when(authorRepository.findBookNamesByAuthorIds(List.of(1L))).thenReturn(List.of());
+        when(categoryRepository.findRowsByBookIds(ids)).thenReturn(List.of());
+        when(reviewRepository.findStatsByBookIds(ids)).thenReturn(List.of());
+
+        List<BookGetDto> result = bookQueryService.findByAuthor("test author");
+
+        assertEquals(2, result.size());
+        assertSame(result.get(0).getAuthors().iterator().next(),
+                result.get(1).getAuthors().iterator().next());
+        assertTrue(result.get(1).getCategories().isEmpty());
+        assertEquals(0, result.get(1).getReviewSummary().getCount());
+        assertNull(result.get(1).getReviewSummary().getAverage());
+    }
+
+    @Test
+    void findPage_WhenMoreRemain_LoadsAssociationsOnlyForReturnedBooks() {
+        when(bookRepository.findRowsAfter(0L, Limit.of(2)))
+                .thenReturn(List.of(bookTest, anotherBookTest));
+        when(authorRepository.findRowsByBookIds(List.of(1L))).thenReturn(List.of());
+        when(categoryRepository.findRowsByBookIds(List.of(1L))).thenReturn(List.of());
+        when(reviewRepository.findStatsByBookIds(List.of(1L))).thenReturn(List.of());
+
+        PageGetDto<BookGetDto> result = bookQueryService.findPage(null, 1);
+
+        assertEquals(1, result.getItems().size());
+        assertEquals("Test Book", result.getItems().get(0).getName());
+        assertEquals(1L, result.getNextCursor().longValue());
+        verify(authorRepository).findRowsByBookIds(List.of(1L));
+    }
+
+    @Test
+    void findPage_OnLastPage_ReturnsNoCursor() {
+        when(bookRepository.findRowsAfter(1L, Limit.of(3))).thenReturn(List.of(anotherBookTest));
+        when(authorRepository.findRowsByBookIds(List.of(2L))).thenReturn(List.of());
+        when(categoryRepository.findRowsByBookIds(List.of(2L))).thenReturn(List.of());
+        when(reviewRepository.findStatsByBookIds(List.of(2L))).thenReturn(List.of());
+
+        PageGetDto<BookGetDto> result = bookQueryService.findPage(1L, 2);
+
+        assertEquals(1, result.getItems().size());
+        assertNull(result.getNextCursor());
+    }
+
+    @Test
+    void withReviews_EmbedsReviewsIntoCopies() {
+        BookGetDto book = new BookGetDto();
+        book.setId(1L);
+        book.setName("Test Book");
+        when(reviewRepository.findRowsByBookIds(List.of(1L))).thenReturn(List.of(
+                new ReviewRow(1L, 1L, 5, "Comment", 1L, "Test User", "email@gmail.com")));
+
+        List<BookGetDto> result = bookQueryService.withReviews(List.of(book));
+
+        ReviewGetDto review = result.get(0).getReviews().get(0);
+        assertEquals("Comment", review.getComment());
+        assertEquals("Test User", review.getUser().getName());
+        assertEquals("Test Book", result.get(0).getName());
+        assertNull(book.getReviews());
+    }
+
+    @Test
+    void findPage_WithSparseFields_SkipsUnrequestedAssociations() {
+        when(bookRepository.findRowsAfter(0L, Limit.of(3)))
+                .thenReturn(List.of(bookTest, anotherBookTest));
+
+        PageGetDto<BookGetDto> result = bookQueryService.findPage(null, 2,
+                BookFields.of("id,name,year,rating", null));
+
+        BookGetDto book = result.getItems().get(0);
+        assertEquals("Test Book", book.getName());
+        assertEquals(1000, book.getYear());
+        assertNull(book.getPageAmount());
+        assertNull(book.getAuthors());
+        assertNull(book.getReviewSummary());
+        verifyNoInteractions(authorRepository, categoryRepository, reviewRepository);
+    }
+
+    @Test
+    void findByIds_WithSparseFields_KeepsIdOrderAndSkipsAssociations() {
+        when(bookRepository.findRowsByIds(List.of(2L, 1L)))
+                .thenReturn(List.of(bookTest, anotherBookTest));
+
+        List<BookGetDto> result = bookQueryService.findByIds(List.of(2L, 1L),
+                BookFields.of("name", null));
+
+        assertEquals(List.of(2L, 1L), result.stream().map(BookGetDto::getId).toList());
+        assertEquals("Another Test Book", result.get(0).getName());
+        assertNull(result.get(0).getYear());
+        assertNull(result.get(0).getAuthors());
+        verifyNoInteractions(authorRepository, categoryRepository, reviewRepository);
+    }
+
+    @Test
+    void findPage_WithExpandedReviews_LoadsThemForPage() {
+        when(bookRepository.findRowsAfter(0L, Limit.of(2))).thenReturn(List.of(bookTest));
+        when(reviewRepository.findRowsByBookIds(List.of(1L))).thenReturn(List.of(
+                new ReviewRow(1L, 1L, 5, "Comment", 1L, "Test User", "email@gmail.com")));
+
+        PageGetDto<BookGetDto> result = bookQueryService.findPage(null, 1,
+                BookFields.of("name", "reviews"));
+
+        assertEquals("Comment", result.getItems().get(0).getReviews().get(0).getComment());
+        verifyNoInteractions(authorRepository, categoryRepository);
+    }
+
+    @Test
+    void search_WhenMoreRemain_ReturnsNextOffset() {
+        BookSearchCriteria criteria = BookSearchCriteria.of(new BookSearchDto());
+        when(bookRepository.searchRows(criteria, 20, 2))
+                .thenReturn(List.of(bookTest, anotherBookTest));
+        when(authorRepository.findRowsByBookIds(List.of(1L))).thenReturn(List.of());
+        when(categoryRepository.findRowsByBookIds(List.of(1L))).thenReturn(List.of());
+        when(reviewRepository.findStatsByBookIds(List.of(1L))).thenReturn(List.of());
+
+        BookPageGetDto result = bookQueryService.search(criteria, 20, 1);
+
+        assertEquals(1, result.getItems().size());
+        assertEquals(21L, result.getNextOffset().longValue());
+    }
+
+    @Test
+    void search_WithMinRatingZero_ReturnsUnreviewedBook() {
+        Book created = BookMapper.fromDto(new BookCreateDto("New Book", Set.of(), Set.of(),
+                100, 2020));
+        BookSearchDto search = new BookSearchDto();
+        search.setMinRating(0.0);
+        BookSearchCriteria criteria = BookSearchCriteria.of(search);
+        BookRow row = new BookRow(3L, created.getName(), created.getPageAmount(),
+                created.getYear(), created.getRating());
+        when(bookRepository.searchRows(criteria, 0, 21)).thenReturn(List.of(row));
+        when(authorRepository.findRowsByBookIds(List.of(3L))).thenReturn(List.of());
+        when(categoryRepository.findRowsByBookIds(List.of(3L))).thenReturn(List.of());
+        when(reviewRepository.findStatsByBookIds(List.of(3L))).thenReturn(List.of());
+
+        BookPageGetDto result = bookQueryService.search(criteria, 0, 20);
+
+        // A new book is stored rated 0 rather than null, so "rating >= 0"
+        // holds for it before its first review.
+        assertTrue(created.getRating() >= criteria.minRating());
+        assertEquals(List.of(3L), result.getItems().stream().map(BookGetDto::getId).toList());
+        assertEquals(0.0, result.getItems().get(0).getRating());
+    }
+
+    @Test
+    void search_WhenOffsetOutOfRange_ThrowsBadRequestException() {
+        BookSearchCriteria criteria = BookSearchCriteria.of(new BookSearchDto());
+
+        assertThrows(BadRequestException.class, () -> bookQueryService.search(criteria, -1, 20));
+        assertThrows(BadRequestException.class, () -> bookQueryService.search(criteria,
+                BookQueryService.MAX_SEARCH_OFFSET + 1, 20));
+        verifyNoInteractions(bookRepository);
+    }
+
+    @Test
+    void findPage_WhenLimitOutOfRange_ThrowsBadRequestException() {
+        assertThrows(BadRequestException.class, () -> bookQueryService.findPage(null, 0));
+        assertThrows(BadRequestException.class, () -> bookQueryService.findPage(5L, 101));
+    }
+}
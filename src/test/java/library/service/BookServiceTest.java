@@ -2,11 +2,22 @@ package library.service;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import library.cache.CacheKey;
+import library.cache.CacheTag;
 import library.cache.InMemoryCache;
+import library.dto.BookFacetDto;
+import library.dto.BookFields;
+import library.dto.BookMatch;
+import library.dto.BookSearchCriteria;
+import library.dto.BookSearchDto;
 import library.dto.create.BookCreateDto;
+import library.dto.get.BookFacetsGetDto;
 import library.dto.get.BookGetDto;
+import library.dto.get.BookPageGetDto;
+import library.dto.get.PageGetDto;
 import library.exception.NotFoundException;
 import library.mapper.BookMapper;
 import library.model.Author;
@@ -15,19 +26,32 @@ import library.model.Category;
 import library.repository.AuthorRepository;
 import library.repository.BookRepository;
 import library.repository.CategoryRepository;
+import library.search.FacetIndex;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.anyCollection;
+import static org.mockito.Mockito.anyInt;
+import static org.mockito.Mockito.anyList;
 import static org.mockito.Mockito.anyLong;
+import static org.mockito.Mockito.anyString;
+import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -40,7 +64,17 @@ class BookServiceTest {
     @Mock
     private CategoryRepository categoryRepository;
     @Mock
-    private InMemoryCache cache;
+    private BookQueryService bookQueryService;
+    @Mock
+    private BookIndexService bookIndexService;
+    @Mock
+    private SuggestService suggestService;
+    @Mock
+    private RecommendationService recommendationService;
+    @Mock
+    private SimilarityService similarityService;
+    @Spy
+    private InMemoryCache cache = new InMemoryCache(100);
 
     @InjectMocks
     private BookService bookService;
@@ -50,207 +84,382 @@ class BookServiceTest {
     private final Category categoryTest = new Category(1L,
             "Test Category", null);
     private final Book bookTest = new Book(1L, "Test Book",
-            Set.of(authorTest), Set.of(categoryTest), 100, null, 1000, null, null);
+            Set.of(authorTest), Set.of(categoryTest), 100, null, 1000, null, 0L, 0);
 
     @Test
-    void getAllBooks_ReturnsAllBooks() {
-        Book anotherBookTest = new Book(2L, "Another Test Book",
-                Set.of(authorTest), Set.of(categoryTest), 100,
-                null, 1000, null, null);
+    void getAllBooks_ReturnsPageFromQueryService() {
+        PageGetDto<BookGetDto> page = new PageGetDto<>();
+        page.setItems(List.of(BookMapper.toDto(bookTest)));
+        page.setNextCursor(1L);
 
-        when(bookRepository.findAll()).thenReturn(List.of(bookTest, anotherBookTest));
+        when(bookQueryService.findPage(null, 1)).thenReturn(page);
 
-        List<BookGetDto> result = bookService.getAllBooks();
+        PageGetDto<BookGetDto> result = bookService.getAllBooks(null, 1);
 
-        assertNotNull(result);
-        assertEquals(2, result.size());
-        assertEquals("Test Book", result.get(0).getName());
-        assertEquals("Another Test Book", result.get(1).getName());
-        verify(bookRepository).findAll();
+        assertSame(page, result);
+        verify(bookQueryService).findPage(null, 1);
     }
 
     @Test
     void getBookById_WhenNotCached_ReturnsBook() {
-        String key = "book_by_id_1";
+        CacheKey key = CacheKey.bookById(1L);
 
-        when(cache.containsKey(key)).thenReturn(false);
-        when(bookRepository.findById(1L)).thenReturn(Optional.of(bookTest));
+        when(bookQueryService.findById(1L)).thenReturn(Optional.of(BookMapper.toDto(bookTest)));
 
         BookGetDto result = bookService.getBookById(1L);
 
         assertNotNull(result);
         assertEquals(1L, result.getId());
         assertEquals("Test Book", result.getName());
-        verify(bookRepository).findById(1L);
-        verify(cache).put(key, result);
+        verify(bookQueryService).findById(1L);
+        assertTrue(cache.containsKey(key));
     }
 
     @Test
     void getBookById_WhenCached_ReturnsBook() {
-        String key = "book_by_id_1";
+        CacheKey key = CacheKey.bookById(1L);
 
-        when(cache.containsKey(key)).thenReturn(true);
-        when(cache.get(key)).thenReturn(BookMapper.toDto(bookTest));
+        cache.put(key, BookMapper.toDto(bookTest));
 
         BookGetDto result = bookService.getBookById(1L);
 
         assertNotNull(result);
         assertEquals(1L, result.getId());
         assertEquals("Test Book", result.getName());
-        verify(bookRepository, never()).findById(anyLong());
-        verify(cache).get(key);
+        verify(bookQueryService, never()).findById(anyLong());
+        verify(cache).getOrLoad(eq(key), any(), any(), any());
+    }
+
+    @Test
+    void getBookById_WithReviewsExpanded_EmbedsThemOutsideCache() {
+        CacheKey key = CacheKey.bookById(1L);
+        BookGetDto cached = BookMapper.toDto(bookTest);
+        BookGetDto withReviews = BookMapper.toDto(bookTest);
+        withReviews.setReviews(List.of());
+
+        cache.put(key, cached);
+        when(bookQueryService.withReviews(List.of(cached))).thenReturn(List.of(withReviews));
+
+        BookGetDto result = bookService.getBookById(1L, BookFields.of(null, "reviews"));
+
+        assertSame(withReviews.getReviews(), result.getReviews());
+        assertEquals("Test Book", result.getName());
+        assertSame(cached, cache.get(key));
+        assertNull(cached.getReviews());
+    }
+
+    @Test
+    void getBookById_WithDefaultFields_ReturnsCachedBook() {
+        BookGetDto cached = BookMapper.toDto(bookTest);
+        cache.put(CacheKey.bookById(1L), cached);
+
+        BookGetDto result = bookService.getBookById(1L, BookFields.DEFAULT);
+
+        assertSame(cached, result);
+        verify(bookQueryService, never()).withReviews(any());
+    }
+
+    @Test
+    void getBookById_WithSparseFields_ReturnsOnlyThoseFields() {
+        BookGetDto cached = BookMapper.toDto(bookTest);
+        cache.put(CacheKey.bookById(1L), cached);
+
+        BookGetDto result = bookService.getBookById(1L, BookFields.of("name,year", null));
+
+        assertEquals(1L, result.getId());
+        assertEquals("Test Book", result.getName());
+        assertEquals(1000, result.getYear());
+        assertNull(result.getAuthors());
+        assertNull(result.getPageAmount());
+        assertNotNull(cached.getAuthors());
+        verify(bookQueryService, never()).withReviews(any());
+    }
+
+    @Test
+    void searchBooks_WithEquivalentCriteria_SharesCachedPage() {
+        BookSearchDto search = new BookSearchDto();
+        search.setAuthor("Test Author");
+        search.setYearFrom(1000);
+        BookSearchDto sameSearch = new BookSearchDto();
+        sameSearch.setAuthor(" test AUTHOR ");
+        sameSearch.setYearFrom(1000);
+        sameSearch.setName(" ");
+        BookPageGetDto page = new BookPageGetDto();
+        page.setItems(List.of(BookMapper.toDto(bookTest)));
+
+        when(bookQueryService.search(BookSearchCriteria.of(search), 0, 20)).thenReturn(page);
+
+        bookService.searchBooks(search, 0, 20, BookFields.DEFAULT);
+        BookPageGetDto result = bookService.searchBooks(sameSearch, 0, 20, BookFields.DEFAULT);
+
+        assertSame(page, result);
+        verify(bookQueryService, times(1)).search(any(), anyInt(), anyInt());
+    }
+
+    @Test
+    void searchBooks_AfterBookWrite_ReloadsPage() {
+        BookSearchDto search = new BookSearchDto();
+        BookPageGetDto page = new BookPageGetDto();
+        page.setItems(List.of());
+
+        when(bookQueryService.search(any(), anyInt(), anyInt())).thenReturn(page);
+
+        bookService.searchBooks(search, 0, 20, BookFields.DEFAULT);
+        cache.invalidate(Set.of(CacheTag.bookSearch()));
+        bookService.searchBooks(search, 0, 20, BookFields.DEFAULT);
+
+        verify(bookQueryService, times(2)).search(any(), anyInt(), anyInt());
     }
 
     @Test
     void getBookById_WhenNotFound_ThrowsException() {
-        String key = "book_by_id_20";
+        CacheKey key = CacheKey.bookById(20L);
 
-        when(bookRepository.findById(20L)).thenReturn(Optional.empty());
+        when(bookQueryService.findById(20L)).thenReturn(Optional.empty());
 
         NotFoundException exception = assertThrows(NotFoundException.class,
                 () -> bookService.getBookById(20L));
 
         assertEquals("Book is not found with id: " + 20L, exception.getMessage());
-        verify(bookRepository).findById(20L);
-        verify(cache, never()).get(key);
+        verify(bookQueryService).findById(20L);
+        assertFalse(cache.containsKey(key));
     }
 
     @Test
     void getBookByName_WhenNotCached_ReturnsBooks() {
-        String key = "books_by_name_Test Book";
+        CacheKey key = CacheKey.booksByName("Test Book");
 
-        when(cache.containsKey(key)).thenReturn(false);
-        when(bookRepository.findByName("Test Book")).thenReturn(List.of(bookTest));
+        when(bookQueryService.findByName("test book"))
+                .thenReturn(List.of(BookMapper.toDto(bookTest)));
 
-        List<BookGetDto> result = bookService.getBookByName("Test Book");
+        List<BookGetDto> result = bookService.getBookByName("Test Book").books();
 
         assertNotNull(result);
         assertEquals(1, result.size());
         assertEquals("Test Book", result.get(0).getName());
-        verify(bookRepository).findByName("Test Book");
-        verify(cache).put(key, result);
+        verify(bookQueryService).findByName("test book");
+        assertTrue(cache.containsKey(key));
     }
 
     @Test
     void getBookByName_WhenCached_ReturnsBooks() {
-        String key = "books_by_name_Test Book";
+        CacheKey key = CacheKey.booksByName("Test Book");
 
-        when(cache.containsKey(key)).thenReturn(true);
-        when(cache.get(key)).thenReturn(List.of(BookMapper.toDto(bookTest)));
+        cache.put(key, List.of(BookMapper.toDto(bookTest)));
 
-        List<BookGetDto> result = bookService.getBookByName("Test Book");
+        List<BookGetDto> result = bookService.getBookByName("Test Book").books();
 
         assertNotNull(result);
         assertEquals(1, result.size());
         assertEquals("Test Book", result.get(0).getName());
-        verify(bookRepository, never()).findByName("Test Book");
-        verify(cache).get(key);
+        verify(bookQueryService, never()).findByName("test book");
+        verify(cache).getOrLoad(eq(key), any(), any(), any());
     }
 
     @Test
     void getBookByName_WhenNotFound_ThrowsException() {
-        String key = "books_by_name_Nonexistent Book";
+        CacheKey key = CacheKey.booksByName("Nonexistent Book");
 
-        when(bookRepository.findByName("Nonexistent Book")).thenReturn(Collections.emptyList());
+        when(bookQueryService.findByName("nonexistent book")).thenReturn(Collections.emptyList());
 
         NotFoundException exception = assertThrows(NotFoundException.class,
                 () -> bookService.getBookByName("Nonexistent Book"));
 
         assertEquals("Book not found with name:" + "Nonexistent Book", exception.getMessage());
-        verify(bookRepository).findByName("Nonexistent Book");
-        verify(cache, never()).get(key);
+        verify(bookQueryService).findByName("nonexistent book");
+        assertFalse(cache.containsKey(key));
+    }
+
+    @Test
+    void getBookByName_WhenMisspelled_ReturnsSimilarBooks() {
+        when(bookQueryService.findByName("tset book")).thenReturn(Collections.emptyList());
+        when(bookIndexService.findSimilarTitles("Tset Book")).thenReturn(List.of(1L));
+        when(bookQueryService.findByIds(List.of(1L)))
+                .thenReturn(List.of(BookMapper.toDto(bookTest)));
+
+        BookMatch result = bookService.getBookByName("Tset Book");
+
+        assertTrue(result.approximate());
+        assertEquals(1, result.books().size());
+        assertEquals("Test Book", result.books().get(0).getName());
+    }
+
+    @Test
+    void getBookByName_WhenMisspelled_DoesNotCacheSimilarBooks() {
+        when(bookQueryService.findByName("tset book")).thenReturn(Collections.emptyList());
+        when(bookIndexService.findSimilarTitles("Tset Book"))
+                .thenReturn(List.of(), List.of(1L));
+        when(bookQueryService.findByIds(List.of())).thenReturn(List.of());
+        when(bookQueryService.findByIds(List.of(1L)))
+                .thenReturn(List.of(BookMapper.toDto(bookTest)));
+
+        assertThrows(NotFoundException.class, () -> bookService.getBookByName("Tset Book"));
+        BookMatch result = bookService.getBookByName("Tset Book");
+
+        // The exact miss stays cached; the fallback is asked again.
+        verify(bookQueryService, times(1)).findByName("tset book");
+        assertEquals(List.of(1L), result.books().stream().map(BookGetDto::getId).toList());
+    }
+
+    @Test
+    void getBookByName_WhenExact_IsNotApproximate() {
+        when(bookQueryService.findByName("test book"))
+                .thenReturn(List.of(BookMapper.toDto(bookTest)));
+
+        assertFalse(bookService.getBookByName("Test Book").approximate());
+        verify(bookIndexService, never()).findSimilarTitles(anyString());
+    }
+
+    @Test
+    void getBookByName_WhenNotFoundRepeatedly_QueriesOnce() {
+        when(bookQueryService.findByName("nonexistent book")).thenReturn(Collections.emptyList());
+
+        NotFoundException first = assertThrows(NotFoundException.class,
+                () -> bookService.getBookByName("Nonexistent Book"));
+        NotFoundException second = assertThrows(NotFoundException.class,
+                () -> bookService.getBookByName("Nonexistent Book"));
+
+        assertSame(first, second);
+        assertEquals(0, first.getStackTrace().length);
+        verify(bookQueryService).findByName("nonexistent book");
+    }
+
+    @Test
+    void createBook_WithCachedMissForName_LoadsNewBook() {
+        BookCreateDto bookDto = new BookCreateDto("New Book",
+                null, null, 20, 2021);
+        Book savedBook = new Book(2L, "New Book", Collections.emptySet(),
+                Collections.emptySet(), 20, null, 2021, null, 0L, 0);
+
+        when(bookQueryService.findByName("new book"))
+                .thenReturn(Collections.emptyList(), List.of(BookMapper.toDto(savedBook)));
+        when(bookRepository.save(any(Book.class))).thenReturn(savedBook);
+
+        assertThrows(NotFoundException.class, () -> bookService.getBookByName("New Book"));
+        bookService.createBook(bookDto);
+        List<BookGetDto> result = bookService.getBookByName("New Book").books();
+
+        assertEquals(1, result.size());
+        assertEquals(2L, result.get(0).getId());
     }
 
     @Test
     void getBookByAuthor_WhenNotCached_ReturnsBooks() {
-        String key = "books_by_author_Test Author";
+        CacheKey key = CacheKey.booksByAuthor("Test Author");
 
-        when(bookRepository.findByAuthor("Test Author")).thenReturn(List.of(bookTest));
-        when(cache.containsKey(key)).thenReturn(false);
+        when(bookQueryService.findByAuthor("test author"))
+                .thenReturn(List.of(BookMapper.toDto(bookTest)));
 
-        List<BookGetDto> result = bookService.getBookByAuthor("Test Author");
+        List<BookGetDto> result = bookService.getBookByAuthor("Test Author").books();
 
         assertNotNull(result);
         assertEquals(1, result.size());
         assertEquals("Test Author", result.get(0).getAuthors().iterator().next().getName());
-        verify(bookRepository).findByAuthor("Test Author");
-        verify(cache).put(key, result);
+        verify(bookQueryService).findByAuthor("test author");
+        assertTrue(cache.containsKey(key));
     }
 
     @Test
     void getBookByAuthor_WhenCached_ReturnsBooks() {
-        String key = "books_by_author_Test Author";
+        CacheKey key = CacheKey.booksByAuthor("Test Author");
 
-        when(cache.containsKey(key)).thenReturn(true);
-        when(cache.get(key)).thenReturn(List.of(BookMapper.toDto(bookTest)));
+        cache.put(key, List.of(BookMapper.toDto(bookTest)));
 
-        List<BookGetDto> result = bookService.getBookByAuthor("Test Author");
+        List<BookGetDto> result = bookService.getBookByAuthor("Test Author").books();
 
         assertNotNull(result);
         assertEquals(1, result.size());
         assertEquals("Test Author", result.get(0).getAuthors().iterator().next().getName());
-        verify(bookRepository, never()).findByAuthor("Test Author");
-        verify(cache).get(key);
+        verify(bookQueryService, never()).findByAuthor("test author");
+        verify(cache).getOrLoad(eq(key), any(), any(), any());
+    }
+
+    @Test
+    void getBookByAuthor_WhenMisspelled_ReturnsBooksOfSimilarAuthors() {
+        when(bookQueryService.findByAuthor("test autor")).thenReturn(Collections.emptyList());
+        when(bookIndexService.findSimilarAuthors("Test Autor")).thenReturn(List.of(1L));
+        when(bookQueryService.findByIds(List.of(1L)))
+                .thenReturn(List.of(BookMapper.toDto(bookTest)));
+
+        BookMatch result = bookService.getBookByAuthor("Test Autor");
+
+        assertTrue(result.approximate());
+        assertEquals(1, result.books().size());
+        assertEquals(1L, result.books().get(0).getId());
+    }
+
+    @Test
+    void getBookByAuthor_WithDifferentSpelling_SharesCachedEntry() {
+        when(bookQueryService.findByAuthor("test author"))
+                .thenReturn(List.of(BookMapper.toDto(bookTest)));
+
+        bookService.getBookByAuthor("Test Author");
+        List<BookGetDto> result = bookService.getBookByAuthor(" test AUTHOR ").books();
+
+        assertEquals(1, result.size());
+        verify(bookQueryService, times(1)).findByAuthor("test author");
+        assertEquals(1, cache.size());
     }
 
     @Test
     void getBookByAuthor_WhenNotFound_ThrowsException() {
-        String key = "books_by_author_Nonexistent Author";
+        CacheKey key = CacheKey.booksByAuthor("Nonexistent Author");
 
-        when(bookRepository.findByAuthor("Nonexistent Author")).thenReturn(Collections.emptyList());
+        when(bookQueryService.findByAuthor("nonexistent author"))
+                .thenReturn(Collections.emptyList());
 
         NotFoundException exception = assertThrows(NotFoundException.class,
                 () -> bookService.getBookByAuthor("Nonexistent Author"));
 
         assertEquals("Book not found with author's name: " + "Nonexistent Author", exception.getMessage());
-        verify(bookRepository).findByAuthor("Nonexistent Author");
-        verify(cache, never()).get(key);
+        verify(bookQueryService).findByAuthor("nonexistent author");
+        assertFalse(cache.containsKey(key));
     }
 
     @Test
     void getBookByCategory_WhenNotCached_ReturnsBooks() {
-        String key = "books_by_category_Test Category";
+        CacheKey key = CacheKey.booksByCategory("Test Category");
 
-        when(cache.containsKey(key)).thenReturn(false);
-        when(bookRepository.findByCategory("Test Category")).thenReturn(List.of(bookTest));
+        when(bookQueryService.findByCategory("test category"))
+                .thenReturn(List.of(BookMapper.toDto(bookTest)));
 
         List<BookGetDto> result = bookService.getBookByCategory("Test Category");
 
         assertNotNull(result);
         assertEquals(1, result.size());
         assertEquals("Test Category", result.get(0).getCategories().iterator().next().getName());
-        verify(bookRepository).findByCategory("Test Category");
-        verify(cache).put(key, result);
+        verify(bookQueryService).findByCategory("test category");
+        assertTrue(cache.containsKey(key));
     }
 
     @Test
     void getBookByCategory_WhenCached_ReturnsBooks() {
-        String key = "books_by_category_Test Category";
+        CacheKey key = CacheKey.booksByCategory("Test Category");
 
-        when(cache.containsKey(key)).thenReturn(true);
-        when(cache.get(key)).thenReturn(List.of(BookMapper.toDto(bookTest)));
+        cache.put(key, List.of(BookMapper.toDto(bookTest)));
 
         List<BookGetDto> result = bookService.getBookByCategory("Test Category");
 
         assertNotNull(result);
         assertEquals(1, result.size());
         assertEquals("Test Category", result.get(0).getCategories().iterator().next().getName());
-        verify(bookRepository, never()).findByCategory("Test Category");
-        verify(cache).get(key);
+        verify(bookQueryService, never()).findByCategory("test category");
+        verify(cache).getOrLoad(eq(key), any(), any(), any());
     }
 
     @Test
     void getBookByCategory_WhenNotFound_ThrowsException() {
-        String key = "books_by_category_Nonexistent Category";
+        CacheKey key = CacheKey.booksByCategory("Nonexistent Category");
 
-        when(bookRepository.findByCategory("Nonexistent Category")).thenReturn(Collections.emptyList());
+        when(bookQueryService.findByCategory("nonexistent category"))
+                .thenReturn(Collections.emptyList());
 
         NotFoundException exception = assertThrows(NotFoundException.class,
                 () -> bookService.getBookByCategory("Nonexistent Category"));
         assertEquals("Book not found with category's name: "
                 + "Nonexistent Category", exception.getMessage());
-        verify(bookRepository).findByCategory("Nonexistent Category");
-        verify(cache, never()).get(key);
+        verify(bookQueryService).findByCategory("nonexistent category");
+        assertFalse(cache.containsKey(key));
     }
 
     @Test
@@ -258,10 +467,10 @@ class BookServiceTest {
         BookCreateDto bookDto = new BookCreateDto("New Book", Set.of(1L),
                 Set.of(1L), 20, 2021);
         Book savedBook = new Book(2L, "New Book", Set.of(authorTest),
-                Set.of(categoryTest), 20, null, 2021, null, null);
+                Set.of(categoryTest), 20, null, 2021, null, 0L, 0);
 
-        when(authorRepository.findById(1L)).thenReturn(Optional.of(authorTest));
-        when(categoryRepository.findById(1L)).thenReturn(Optional.of(categoryTest));
+        when(authorRepository.findAllById(Set.of(1L))).thenReturn(List.of(authorTest));
+        when(categoryRepository.findAllById(Set.of(1L))).thenReturn(List.of(categoryTest));
         when(bookRepository.save(any(Book.class))).thenReturn(savedBook);
 
         BookGetDto result = bookService.createBook(bookDto);
@@ -272,10 +481,14 @@ class BookServiceTest {
         assertEquals(2021, result.getYear());
         assertEquals(1, result.getCategories().size());
         assertEquals(1, result.getAuthors().size());
-        verify(authorRepository).findById(1L);
-        verify(categoryRepository).findById(1L);
+        verify(authorRepository).findAllById(Set.of(1L));
+        verify(categoryRepository).findAllById(Set.of(1L));
         verify(bookRepository).save(any(Book.class));
-        verify(cache).clear();
+        verify(cache).invalidate(Set.of(CacheTag.book(2L), CacheTag.bookName("New Book"),
+                CacheTag.bookSearch(), CacheTag.author(1L), CacheTag.authorName("Test Author"),
+                CacheTag.category(1L), CacheTag.categoryName("Test Category")));
+        verify(bookIndexService).reindex(List.of(2L));
+        verify(suggestService).putBook(savedBook);
     }
 
     @Test
@@ -284,7 +497,7 @@ class BookServiceTest {
                 Collections.emptySet(), Collections.emptySet(), 20, 2021);
         Book savedBook = new Book(2L, "New Book",
                 Collections.emptySet(), Collections.emptySet(), 20,
-                null, 2021, null, null);
+                null, 2021, null, 0L, 0);
 
         when(bookRepository.save(any(Book.class))).thenReturn(savedBook);
 
@@ -296,10 +509,11 @@ class BookServiceTest {
         assertEquals(2021, result.getYear());
         assertTrue(result.getCategories().isEmpty());
         assertTrue(result.getAuthors().isEmpty());
-        verify(authorRepository, never()).findById(anyLong());
-        verify(categoryRepository, never()).findById(anyLong());
+        verify(authorRepository, never()).findAllById(any());
+        verify(categoryRepository, never()).findAllById(any());
         verify(bookRepository).save(any(Book.class));
-        verify(cache).clear();
+        verify(cache).invalidate(Set.of(CacheTag.book(2L), CacheTag.bookName("New Book"),
+                CacheTag.bookSearch()));
     }
 
     @Test
@@ -307,7 +521,7 @@ class BookServiceTest {
         BookCreateDto bookDto = new BookCreateDto("New Book",
                 null, null, 20, 2021);
         Book savedBook = new Book(2L, "New Book", Collections.emptySet(),
-                Collections.emptySet(), 20, null, 2021, null, null);
+                Collections.emptySet(), 20, null, 2021, null, 0L, 0);
 
         when(bookRepository.save(any(Book.class))).thenReturn(savedBook);
 
@@ -319,10 +533,11 @@ class BookServiceTest {
         assertEquals(2021, result.getYear());
         assertTrue(result.getCategories().isEmpty());
         assertTrue(result.getAuthors().isEmpty());
-        verify(authorRepository, never()).findById(anyLong());
-        verify(categoryRepository, never()).findById(anyLong());
+        verify(authorRepository, never()).findAllById(any());
+        verify(categoryRepository, never()).findAllById(any());
         verify(bookRepository).save(any(Book.class));
-        verify(cache).clear();
+        verify(cache).invalidate(Set.of(CacheTag.book(2L), CacheTag.bookName("New Book"),
+                CacheTag.bookSearch()));
     }
 
     @Test
@@ -330,13 +545,13 @@ class BookServiceTest {
         BookCreateDto bookDto = new BookCreateDto("New Book", Set.of(20L),
                 Set.of(1L), 20, 2021);
 
-        when(authorRepository.findById(20L)).thenReturn(Optional.empty());
+        when(authorRepository.findAllById(Set.of(20L))).thenReturn(List.of());
 
         NotFoundException exception = assertThrows(NotFoundException.class,
                 () -> bookService.createBook(bookDto));
         assertEquals("Author is not found with id: " + 20L, exception.getMessage());
-        verify(authorRepository).findById(20L);
-        verify(cache, never()).clear();
+        verify(authorRepository).findAllById(Set.of(20L));
+        verify(cache, never()).invalidate(anyCollection());
     }
 
     @Test
@@ -344,15 +559,15 @@ class BookServiceTest {
         BookCreateDto bookDto = new BookCreateDto("New Book", Set.of(1L),
                 Set.of(20L), 20, 2021);
 
-        when(authorRepository.findById(1L)).thenReturn(Optional.of(authorTest));
-        when(categoryRepository.findById(20L)).thenReturn(Optional.empty());
+        when(authorRepository.findAllById(Set.of(1L))).thenReturn(List.of(authorTest));
+        when(categoryRepository.findAllById(Set.of(20L))).thenReturn(List.of());
 
         NotFoundException exception = assertThrows(NotFoundException.class,
                 () -> bookService.createBook(bookDto));
         assertEquals("Category is not found with id: " + 20L, exception.getMessage());
-        verify(authorRepository).findById(1L);
-        verify(categoryRepository).findById(20L);
-        verify(cache, never()).clear();
+        verify(authorRepository).findAllById(Set.of(1L));
+        verify(categoryRepository).findAllById(Set.of(20L));
+        verify(cache, never()).invalidate(anyCollection());
     }
 
     @Test
@@ -361,8 +576,8 @@ class BookServiceTest {
                 Set.of(1L), 20, 2021);
 
         when(bookRepository.findById(1L)).thenReturn(Optional.of(bookTest));
-        when(authorRepository.findById(1L)).thenReturn(Optional.of(authorTest));
-        when(categoryRepository.findById(1L)).thenReturn(Optional.of(categoryTest));
+        when(authorRepository.findAllById(Set.of(1L))).thenReturn(List.of(authorTest));
+        when(categoryRepository.findAllById(Set.of(1L))).thenReturn(List.of(categoryTest));
         when(bookRepository.save(any(Book.class))).thenReturn(bookTest);
 
         BookGetDto result = bookService.updateBook(1L, bookDto);
@@ -371,10 +586,13 @@ class BookServiceTest {
         assertEquals("Updated Book", result.getName());
         assertEquals(20, result.getPageAmount());
         verify(bookRepository).findById(1L);
-        verify(authorRepository).findById(1L);
-        verify(categoryRepository).findById(1L);
+        verify(authorRepository).findAllById(Set.of(1L));
+        verify(categoryRepository).findAllById(Set.of(1L));
         verify(bookRepository).save(any(Book.class));
-        verify(cache).clear();
+        verify(cache).invalidate(Set.of(CacheTag.book(1L), CacheTag.bookName("Updated Book"),
+                CacheTag.bookSearch(), CacheTag.author(1L), CacheTag.authorName("Test Author"),
+                CacheTag.category(1L), CacheTag.categoryName("Test Category")));
+        verify(similarityService).putBook(bookTest);
     }
 
     @Test
@@ -396,13 +614,13 @@ class BookServiceTest {
                 Set.of(1L), 20, 2021);
 
         when(bookRepository.findById(1L)).thenReturn(Optional.of(bookTest));
-        when(authorRepository.findById(20L)).thenReturn(Optional.empty());
+        when(authorRepository.findAllById(Set.of(20L))).thenReturn(List.of());
 
         NotFoundException exception = assertThrows(NotFoundException.class,
                 () -> bookService.updateBook(1L, bookDto));
         assertEquals("Author is not found with id: " + 20L, exception.getMessage());
         verify(bookRepository).findById(1L);
-        verify(authorRepository).findById(20L);
+        verify(authorRepository).findAllById(Set.of(20L));
     }
 
     @Test
@@ -411,15 +629,56 @@ class BookServiceTest {
                 Set.of(20L), 20, 2021);
 
         when(bookRepository.findById(1L)).thenReturn(Optional.of(bookTest));
-        when(authorRepository.findById(1L)).thenReturn(Optional.of(authorTest));
-        when(categoryRepository.findById(20L)).thenReturn(Optional.empty());
+        when(authorRepository.findAllById(Set.of(1L))).thenReturn(List.of(authorTest));
+        when(categoryRepository.findAllById(Set.of(20L))).thenReturn(List.of());
 
         NotFoundException exception = assertThrows(NotFoundException.class,
                 () -> bookService.updateBook(1L, bookDto));
         assertEquals("Category is not found with id: " + 20L, exception.getMessage());
         verify(bookRepository).findById(1L);
-        verify(authorRepository).findById(1L);
-        verify(categoryRepository).findById(20L);
+        verify(authorRepository).findAllById(Set.of(1L));
+        verify(categoryRepository).findAllById(Set.of(20L));
+    }
+
+    @Test
+    void createBooks_ResolvesReferencesOncePerType() {
+        Author anotherAuthor = new Author(2L, "Another Author", "Info", null);
+        List<BookCreateDto> bookDtos = List.of(
+                new BookCreateDto("New Book", Set.of(1L), Set.of(1L), 20, 2021),
+                new BookCreateDto("Another New Book", Set.of(1L, 2L), Set.of(1L), 30, 2022));
+        Book savedBook = new Book(2L, "New Book", Set.of(authorTest),
+                Set.of(categoryTest), 20, null, 2021, null, 0L, 0);
+        Book anotherSavedBook = new Book(3L, "Another New Book", Set.of(authorTest, anotherAuthor),
+                Set.of(categoryTest), 30, null, 2022, null, 0L, 0);
+
+        when(authorRepository.findAllById(Set.of(1L, 2L)))
+                .thenReturn(List.of(authorTest, anotherAuthor));
+        when(categoryRepository.findAllById(Set.of(1L))).thenReturn(List.of(categoryTest));
+        when(bookRepository.saveAll(anyList())).thenReturn(List.of(savedBook, anotherSavedBook));
+
+        List<BookGetDto> result = bookService.createBooks(bookDtos);
+
+        assertEquals(2, result.size());
+        assertEquals(2, result.get(1).getAuthors().size());
+        verify(authorRepository).findAllById(Set.of(1L, 2L));
+        verify(categoryRepository).findAllById(Set.of(1L));
+        verify(bookRepository, never()).save(any(Book.class));
+        verify(cache, times(1)).invalidate(anyCollection());
+    }
+
+    @Test
+    void createBooks_WhenAuthorNotFound_SavesNothing() {
+        List<BookCreateDto> bookDtos = List.of(
+                new BookCreateDto("New Book", Set.of(1L), null, 20, 2021),
+                new BookCreateDto("Another New Book", Set.of(20L), null, 30, 2022));
+
+        when(authorRepository.findAllById(Set.of(1L, 20L))).thenReturn(List.of(authorTest));
+
+        NotFoundException exception = assertThrows(NotFoundException.class,
+                () -> bookService.createBooks(bookDtos));
+        assertEquals("Author is not found with id: " + 20L, exception.getMessage());
+        verify(bookRepository, never()).saveAll(anyList());
+        verify(cache, never()).invalidate(anyCollection());
     }
 
     @Test
@@ -430,7 +689,142 @@ class BookServiceTest {
 
         verify(bookRepository).existsById(1L);
         verify(bookRepository).deleteById(1L);
-        verify(cache).clear();
+        verify(cache).invalidate(Set.of(CacheTag.book(1L), CacheTag.bookSearch()));
+        verify(bookIndexService).reindex(List.of(1L));
+        verify(suggestService).removeBook(1L);
+        verify(similarityService).removeBook(1L);
+    }
+
+    @Test
+    void searchBooksByText_ReturnsBooksInRankOrder() {
+        Book anotherBook = new Book(2L, "Another Test Book", Set.of(authorTest),
+                Set.of(categoryTest), 100, null, 1000, null, 0L, 0);
+        List<BookGetDto> books = List.of(BookMapper.toDto(anotherBook),
+                BookMapper.toDto(bookTest));
+
+        when(bookIndexService.search("test book", 20)).thenReturn(List.of(2L, 1L));
+        when(bookQueryService.findByIds(List.of(2L, 1L), BookFields.DEFAULT)).thenReturn(books);
+
+        List<BookGetDto> result = bookService.searchBooksByText("test book", 20,
+                BookFields.DEFAULT);
+
+        assertSame(books, result);
+    }
+
+    @Test
+    void deleteBook_InTransaction_InvalidatesCacheOnlyAfterCommit() {
+        when(bookRepository.existsById(1L)).thenReturn(true);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            bookService.deleteBook(1L);
+
+            verify(cache, never()).invalidate(anyCollection());
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        verify(cache).invalidate(Set.of(CacheTag.book(1L), CacheTag.bookSearch()));
+    }
+
+    @Test
+    void browseBooks_ReturnsPageWithFacetCounts() {
+        BookFacetDto filter = new BookFacetDto();
+        FacetIndex.Count category = new FacetIndex.Count(1L, "Test Category", 2);
+        FacetIndex.Result facets = new FacetIndex.Result(List.of(1L, 2L), 2, Map.of(
+                FacetIndex.Facet.CATEGORY, List.of(category),
+                FacetIndex.Facet.AUTHOR, List.of(),
+                FacetIndex.Facet.DECADE, List.of(),
+                FacetIndex.Facet.RATING, List.of()));
+
+        when(bookIndexService.browse(filter, 0L, 2)).thenReturn(facets);
+        when(bookQueryService.findByIds(List.of(1L), BookFields.DEFAULT))
+                .thenReturn(List.of(BookMapper.toDto(bookTest)));
+
+        BookFacetsGetDto result = bookService.browseBooks(filter, null, 1, BookFields.DEFAULT);
+
+        assertEquals(1, result.getBooks().getItems().size());
+        assertEquals(1L, result.getBooks().getNextCursor());
+        assertEquals(2, result.getTotal());
+        assertEquals("Test Category", result.getCategories().get(0).getName());
+        assertEquals(2, result.getCategories().get(0).getCount());
+    }
+
+    @Test
+    void getRecommendations_ReturnsBooksInModelOrder() {
+        List<BookGetDto> books = List.of(BookMapper.toDto(bookTest));
+
+        when(bookRepository.existsById(2L)).thenReturn(true);
+        when(recommendationService.recommend(2L, 10)).thenReturn(List.of(1L));
+        when(bookQueryService.findByIds(List.of(1L), BookFields.DEFAULT)).thenReturn(books);
+
+        List<BookGetDto> result = bookService.getRecommendations(2L, 10, BookFields.DEFAULT);
+
+        assertSame(books, result);
+    }
+
+    @Test
+    void getRecommendations_WhenBookNotFound_ThrowsException() {
+        when(bookRepository.existsById(20L)).thenReturn(false);
+
+        NotFoundException exception = assertThrows(NotFoundException.class,
+                () -> bookService.getRecommendations(20L, 10, BookFields.DEFAULT));
+
+        assertEquals("Book is not found with id: 20", exception.getMessage());
+        verify(recommendationService, never()).recommend(anyLong(), anyInt());
+    }
+
+    @Test
+    void getSimilarBooks_ReturnsBooksInIndexOrder() {
+        List<BookGetDto> books = List.of(BookMapper.toDto(bookTest));
+
+        when(bookRepository.existsById(2L)).thenReturn(true);
+        when(similarityService.findSimilar(2L, 10)).thenReturn(List.of(1L));
+        when(bookQueryService.findByIds(List.of(1L), BookFields.DEFAULT)).thenReturn(books);
+
+        List<BookGetDto> result = bookService.getSimilarBooks(2L, 10, BookFields.DEFAULT);
+
+        assertSame(books, result);
+    }
+
+    @Test
+    void getSimilarBooks_WhenBookNotFound_ThrowsException() {
+        when(bookRepository.existsById(20L)).thenReturn(false);
+
+        NotFoundException exception = assertThrows(NotFoundException.class,
+                () -> bookService.getSimilarBooks(20L, 10, BookFields.DEFAULT));
+
+        assertEquals("Book is not found with id: 20", exception.getMessage());
+        verify(similarityService, never()).findSimilar(anyLong(), anyInt());
+    }
+
+    @Test
+    void updateBook_KeepsUnrelatedCachedEntries() {
+        Author anotherAuthor = new Author(2L, "Another Author", "Info", null);
+        Category anotherCategory = new Category(2L, "Another Category", null);
+        Book anotherBook = new Book(2L, "Another Test Book", Set.of(anotherAuthor),
+                Set.of(anotherCategory), 100, null, 1000, null, 0L, 0);
+        BookCreateDto bookDto = new BookCreateDto("Updated Book", Set.of(1L),
+                Set.of(1L), 20, 2021);
+
+        when(bookQueryService.findById(1L)).thenReturn(Optional.of(BookMapper.toDto(bookTest)));
+        when(bookQueryService.findById(2L)).thenReturn(Optional.of(BookMapper.toDto(anotherBook)));
+        when(bookQueryService.findByAuthor("another author"))
+                .thenReturn(List.of(BookMapper.toDto(anotherBook)));
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(bookTest));
+        when(authorRepository.findAllById(Set.of(1L))).thenReturn(List.of(authorTest));
+        when(categoryRepository.findAllById(Set.of(1L))).thenReturn(List.of(categoryTest));
+        when(bookRepository.save(any(Book.class))).thenReturn(bookTest);
+
+        bookService.getBookById(1L);
+        bookService.getBookById(2L);
+        bookService.getBookByAuthor("Another Author");
+        bookService.updateBook(1L, bookDto);
+
+        assertFalse(cache.containsKey(CacheKey.bookById(1L)));
+        assertTrue(cache.containsKey(CacheKey.bookById(2L)));
+        assertTrue(cache.containsKey(CacheKey.booksByAuthor("Another Author")));
     }
 
     @Test
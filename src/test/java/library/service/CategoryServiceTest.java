@@ -3,11 +3,13 @@ package library.service;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
-import java.util.HashSet;
 import java.util.Set;
+import library.cache.CacheTag;
 import library.cache.InMemoryCache;
 import library.dto.create.CategoryCreateDto;
 import library.dto.get.CategoryGetDto;
+import library.dto.get.PageGetDto;
+import library.exception.BadRequestException;
 import library.exception.NotFoundException;
 import library.model.Book;
 import library.model.Category;
@@ -18,15 +20,16 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.any;
-import static org.mockito.Mockito.anyLong;
 import static org.mockito.Mockito.never;
-import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -37,12 +40,14 @@ class CategoryServiceTest {
     private BookRepository bookRepository;
     @Mock
     private InMemoryCache cache;
+    @Mock
+    private BookIndexService bookIndexService;
 
     @InjectMocks
     private CategoryService categoryService;
 
     private final Book bookTest = new Book(1L, "Test Book",
-            null, null, 0, null, 0, null, null);
+            null, null, 0, null, 0, null, 0L, 0);
     private final Category categoryTest = new Category(1L,
             "Test Category", Set.of(bookTest));
 
@@ -50,15 +55,36 @@ class CategoryServiceTest {
     void getAllCategories_shouldReturnAllCategories() {
         Category anotherCategoryTest = new Category(2L, "Another Category", null);
 
-        when(categoryRepository.findAll()).thenReturn(List.of(categoryTest, anotherCategoryTest));
+        when(categoryRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(3)))
+                .thenReturn(List.of(categoryTest, anotherCategoryTest));
 
-        List<CategoryGetDto> result = categoryService.getAllCategories();
+        PageGetDto<CategoryGetDto> result = categoryService.getAllCategories(null, 2);
 
         assertNotNull(result);
-        assertEquals(2, result.size());
-        assertEquals("Test Category", result.get(0).getName());
-        assertEquals("Another Category", result.get(1).getName());
-        verify(categoryRepository).findAll();
+        assertEquals(2, result.getItems().size());
+        assertEquals("Test Category", result.getItems().get(0).getName());
+        assertEquals("Another Category", result.getItems().get(1).getName());
+        assertNull(result.getNextCursor());
+    }
+
+    @Test
+    void getAllCategories_WhenMoreRemain_ReturnsNextCursor() {
+        Category anotherCategoryTest = new Category(2L, "Another Category", null);
+
+        when(categoryRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(2)))
+                .thenReturn(List.of(categoryTest, anotherCategoryTest));
+
+        PageGetDto<CategoryGetDto> result = categoryService.getAllCategories(null, 1);
+
+        assertEquals(1, result.getItems().size());
+        assertEquals("Test Category", result.getItems().get(0).getName());
+        assertEquals(1L, result.getNextCursor().longValue());
+    }
+
+    @Test
+    void getAllCategories_WhenLimitOutOfRange_ThrowsBadRequestException() {
+        assertThrows(BadRequestException.class, () -> categoryService.getAllCategories(null, 0));
+        assertThrows(BadRequestException.class, () -> categoryService.getAllCategories(5L, 101));
     }
 
     @Test
@@ -85,31 +111,7 @@ class CategoryServiceTest {
 
     @Test
     void createCategory_WithValidInput_CreatesCategory() {
-        CategoryCreateDto categoryDto = new CategoryCreateDto("New Category", List.of(1L, 2L));
-        Book book1 = new Book(1L, "Test Book 1", null,
-                new HashSet<>(), 0, null, 0, null, null);
-        Book book2 = new Book(1L, "Test Book 2", null,
-                new HashSet<>(), 0, null, 0, null, null);
-
-        Category savedCategory = new Category(2L, categoryDto.getName(), Set.of(book1, book2));
-
-        when(bookRepository.findById(1L)).thenReturn(Optional.of(book1));
-        when(bookRepository.findById(2L)).thenReturn(Optional.of(book2));
-        when(categoryRepository.save(any(Category.class))).thenReturn(savedCategory);
-
-        CategoryGetDto result = categoryService.createCategory(categoryDto);
-
-        assertNotNull(result);
-        assertEquals("New Category", result.getName());
-        verify(bookRepository, times(2)).findById(anyLong());
-        verify(categoryRepository).save(any(Category.class));
-        verify(cache).clear();
-    }
-
-    @Test
-    void createCategory_WithEmptyList_CreatesCategory() {
-        CategoryCreateDto categoryDto = new CategoryCreateDto("New Category", Collections.emptyList());
-
+        CategoryCreateDto categoryDto = new CategoryCreateDto("New Category");
         Category savedCategory = new Category(2L, categoryDto.getName(), Collections.emptySet());
 
         when(categoryRepository.save(any(Category.class))).thenReturn(savedCategory);
@@ -118,55 +120,16 @@ class CategoryServiceTest {
 
         assertNotNull(result);
         assertEquals("New Category", result.getName());
-        verify(bookRepository, never()).findById(anyLong());
         verify(categoryRepository).save(any(Category.class));
-        verify(cache).clear();
-    }
-
-    @Test
-    void createCategory_WithoutList_CreatesCategory() {
-        CategoryCreateDto categoryDto = new CategoryCreateDto("New Category", null);
-
-        Category savedCategory = new Category(2L, categoryDto.getName(), Collections.emptySet());
-
-        when(categoryRepository.save(any(Category.class))).thenReturn(savedCategory);
-
-        CategoryGetDto result = categoryService.createCategory(categoryDto);
-
-        assertNotNull(result);
-        assertEquals("New Category", result.getName());
-        verify(bookRepository, never()).findById(anyLong());
-        verify(categoryRepository).save(any(Category.class));
-        verify(cache).clear();
-    }
-
-    @Test
-    void createCategory_WhenBookNotFound_ThrowsException() {
-        CategoryCreateDto categoryDto = new CategoryCreateDto();
-        categoryDto.setName("New Category");
-        categoryDto.setBookIds(List.of(1L));
-
-        when(bookRepository.findById(1L)).thenReturn(Optional.empty());
-
-        NotFoundException exception = assertThrows(NotFoundException.class,
-                () -> categoryService.createCategory(categoryDto));
-        assertEquals("Book is not found with id: " + 1L, exception.getMessage());
-        verify(bookRepository).findById(1L);
-        verify(cache, never()).clear();
+        verifyNoInteractions(bookRepository);
+        verifyNoInteractions(cache);
     }
 
     @Test
     void updateCategory_WhenExists_UpdatesCategory() {
-        CategoryCreateDto categoryDto = new CategoryCreateDto();
-        categoryDto.setName("Updated Category");
-        categoryDto.setBookIds(List.of(1L));
-
-        Book book1 = new Book();
-        book1.setId(1L);
-        book1.setCategories(new HashSet<>());
+        CategoryCreateDto categoryDto = new CategoryCreateDto("Updated Category");
 
         when(categoryRepository.findById(1L)).thenReturn(Optional.of(categoryTest));
-        when(bookRepository.findById(1L)).thenReturn(Optional.of(book1));
         when(categoryRepository.save(any(Category.class))).thenReturn(categoryTest);
 
         CategoryGetDto result = categoryService.updateCategory(1L, categoryDto);
@@ -174,9 +137,9 @@ class CategoryServiceTest {
         assertNotNull(result);
         assertEquals("Updated Category", result.getName());
         verify(categoryRepository).findById(1L);
-        verify(bookRepository).findById(1L);
         verify(categoryRepository).save(any(Category.class));
-        verify(cache).clear();
+        verify(cache).invalidate(Set.of(CacheTag.category(1L),
+                CacheTag.categoryName("Updated Category")));
     }
 
     @Test
@@ -195,12 +158,14 @@ class CategoryServiceTest {
     @Test
     void deleteCategory_WhenExists_DeletesCategory() {
         when(categoryRepository.existsById(1L)).thenReturn(true);
+        when(bookRepository.findIdsByCategoryId(1L)).thenReturn(List.of(1L));
 
         categoryService.deleteCategory(1L);
 
         verify(categoryRepository).existsById(1L);
         verify(categoryRepository).deleteById(1L);
-        verify(cache).clear();
+        verify(cache).invalidate(Set.of(CacheTag.category(1L)));
+        verify(bookIndexService).reindex(List.of(1L));
     }
 
     @Test
@@ -0,0 +1,102 @@
+package library.service;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.LongStream;
+import library.cache.CacheTag;
+import library.cache.InMemoryCache;
+import library.repository.BookRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.anyLong;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RatingReconcilerTest {
+    @Mock
+    private BookRepository bookRepository;
+    @Mock
+    private InMemoryCache cache;
+    @Mock
+    private BookIndexService bookIndexService;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private RatingReconciler ratingReconciler;
+
+    @Test
+    void reconcile_WalksBooksInBatches() {
+        List<Long> firstBatch = LongStream.rangeClosed(1, RatingReconciler.BATCH_SIZE)
+                .boxed()
+                .toList();
+        long lastId = RatingReconciler.BATCH_SIZE;
+        Limit limit = Limit.of(RatingReconciler.BATCH_SIZE);
+
+        when(bookRepository.findIdsAfter(0L, limit)).thenReturn(firstBatch);
+        when(bookRepository.findIdsAfter(lastId, limit)).thenReturn(List.of(lastId + 1));
+        when(bookRepository.backfillRatings(firstBatch)).thenReturn(List.of());
+        when(bookRepository.reconcileRatings(firstBatch)).thenReturn(List.of());
+        when(bookRepository.backfillRatings(List.of(lastId + 1)))
+                .thenReturn(List.of(lastId + 1));
+        when(bookRepository.reconcileRatings(List.of(lastId + 1)))
+                .thenReturn(List.of(lastId + 1));
+
+        int result = ratingReconciler.reconcile();
+
+        assertEquals(2, result);
+        InOrder inOrder = inOrder(bookRepository);
+        inOrder.verify(bookRepository).lockByIds(firstBatch);
+        inOrder.verify(bookRepository).reconcileRatings(firstBatch);
+        inOrder.verify(bookRepository).lockByIds(List.of(lastId + 1));
+        inOrder.verify(bookRepository).backfillRatings(List.of(lastId + 1));
+        verify(transactionManager, times(2)).commit(any());
+        verify(bookRepository).reconcileRatings(List.of(lastId + 1));
+        verify(cache).invalidate(Set.of(CacheTag.book(lastId + 1)));
+        verify(bookIndexService).reindex(Set.of(lastId + 1));
+    }
+
+    @Test
+    void reconcile_WhenOneBookDrifted_InvalidatesOnlyThatBook() {
+        List<Long> batch = LongStream.rangeClosed(1, RatingReconciler.BATCH_SIZE)
+                .boxed()
+                .toList();
+        Limit limit = Limit.of(RatingReconciler.BATCH_SIZE);
+
+        when(bookRepository.findIdsAfter(0L, limit)).thenReturn(batch);
+        when(bookRepository.findIdsAfter((long) RatingReconciler.BATCH_SIZE, limit))
+                .thenReturn(List.of());
+        when(bookRepository.backfillRatings(batch)).thenReturn(List.of());
+        when(bookRepository.reconcileRatings(batch)).thenReturn(List.of(7L));
+
+        int result = ratingReconciler.reconcile();
+
+        assertEquals(1, result);
+        verify(cache).invalidate(Set.of(CacheTag.book(7L)));
+        verify(bookIndexService).reindex(Set.of(7L));
+    }
+
+    @Test
+    void reconcile_WhenNoBooks_DoesNothing() {
+        when(bookRepository.findIdsAfter(anyLong(), any(Limit.class))).thenReturn(List.of());
+
+        int result = ratingReconciler.reconcile();
+
+        assertEquals(0, result);
+        verify(bookRepository, never()).reconcileRatings(any());
+        verify(cache, never()).invalidate(any());
+    }
+}
@@ -0,0 +1,92 @@
+package library.service;
+
+import java.util.List;
+import library.dto.projection.ReviewPairRow;
+import library.exception.BadRequestException;
+import library.repository.ReviewRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RecommendationServiceTest {
+    @Mock
+    private ReviewRepository reviewRepository;
+
+    @InjectMocks
+    private RecommendationService recommendationService;
+
+    @Test
+    void rebuild_LoadsReviewsAndRanksCoReviewedBooks() {
+        when(reviewRepository.findPairsAfter(0L, Limit.of(RecommendationService.BATCH_SIZE)))
+                .thenReturn(List.of(
+                        new ReviewPairRow(1L, 1L, 10L),
+                        new ReviewPairRow(2L, 1L, 20L),
+                        new ReviewPairRow(3L, 2L, 10L),
+                        new ReviewPairRow(4L, 2L, 20L),
+                        new ReviewPairRow(5L, 2L, 30L)));
+
+        int loaded = recommendationService.rebuild();
+
+        assertEquals(3, loaded);
+        assertEquals(List.of(20L, 30L), recommendationService.recommend(10L, 10));
+        assertEquals(List.of(10L, 20L), recommendationService.recommend(30L, 10));
+    }
+
+    @Test
+    void addReview_OutsideTransaction_IsRecommendedAtOnce() {
+        recommendationService.addReview(1L, 1L, 10L);
+        recommendationService.addReview(2L, 1L, 20L);
+
+        assertEquals(List.of(20L), recommendationService.recommend(10L, 10));
+
+        recommendationService.removeReview(2L, 1L, 20L);
+
+        assertTrue(recommendationService.recommend(10L, 10).isEmpty());
+    }
+
+    @Test
+    void rebuild_WhenReviewCommitsWhileLoading_CountsItOnce() {
+        when(reviewRepository.findPairsAfter(0L, Limit.of(RecommendationService.BATCH_SIZE)))
+                .thenAnswer(invocation -> {
+                    recommendationService.addReview(2L, 1L, 20L);
+                    return List.of(new ReviewPairRow(1L, 1L, 10L),
+                            new ReviewPairRow(2L, 1L, 20L));
+                });
+
+        recommendationService.rebuild();
+
+        assertEquals(List.of(20L), recommendationService.recommend(10L, 10));
+
+        recommendationService.removeReview(2L, 1L, 20L);
+
+        assertTrue(recommendationService.recommend(10L, 10).isEmpty());
+    }
+
+    @Test
+    void rebuild_WhenReviewCommitsAfterLoading_ReplaysIt() {
+        when(reviewRepository.findPairsAfter(0L, Limit.of(RecommendationService.BATCH_SIZE)))
+                .thenAnswer(invocation -> {
+                    recommendationService.addReview(2L, 1L, 20L);
+                    return List.of(new ReviewPairRow(1L, 1L, 10L));
+                });
+
+        recommendationService.rebuild();
+
+        assertEquals(List.of(20L), recommendationService.recommend(10L, 10));
+    }
+
+    @Test
+    void recommend_WithLimitOutOfRange_ThrowsException() {
+        assertThrows(BadRequestException.class, () -> recommendationService.recommend(1L, 0));
+        assertThrows(BadRequestException.class, () -> recommendationService.recommend(1L, 21));
+    }
+}
@@ -1,9 +1,15 @@
 package library.service;
 
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import library.cache.CacheTag;
+import library.cache.InMemoryCache;
 import library.dto.create.ReviewCreateDto;
+import library.dto.get.PageGetDto;
 import library.dto.get.ReviewGetDto;
+import library.dto.projection.ReviewRow;
 import library.exception.NotFoundException;
 import library.model.Book;
 import library.model.Review;
@@ -16,14 +22,17 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.anyInt;
 import static org.mockito.Mockito.anyLong;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -34,17 +43,48 @@ class ReviewServiceTest {
     private BookRepository bookRepository;
     @Mock
     private UserRepository userRepository;
+    @Mock
+    private InMemoryCache cache;
+    @Mock
+    private BookIndexService bookIndexService;
+    @Mock
+    private RecommendationService recommendationService;
 
     @InjectMocks
     private ReviewService reviewService;
 
     private final User userTest = new User(1L, "Test User",
-            "Password", "email@gmail.com", new ArrayList<>(), null);
+            "Password", "email@gmail.com", new ArrayList<>());
     private final Book bookTest = new Book(1L, "Test Book",
-            null, null, 100, new ArrayList<>(), 1000, null, null);
+            null, null, 100, new ArrayList<>(), 1000, null, 0L, 0);
     private final Review reviewTest = new Review(1L, bookTest,
             userTest, 2, "Comment");
 
+    @Test
+    void getAllReviews_ReturnsPageWithCursor() {
+        when(bookRepository.existsById(1L)).thenReturn(true);
+        when(reviewRepository.findRowsByBookIdAfter(1L, 0L, Limit.of(2))).thenReturn(List.of(
+                new ReviewRow(1L, 3L, 5, "Great", 1L, "Test User", "email@gmail.com"),
+                new ReviewRow(1L, 7L, 2, "Boring", 1L, "Test User", "email@gmail.com")));
+
+        PageGetDto<ReviewGetDto> result = reviewService.getAllReviews(1L, null, 1);
+
+        assertEquals(1, result.getItems().size());
+        assertEquals("Great", result.getItems().get(0).getComment());
+        assertEquals("Test User", result.getItems().get(0).getUser().getName());
+        assertEquals(3L, result.getNextCursor().longValue());
+    }
+
+    @Test
+    void getAllReviews_WhenBookNotFound_ThrowsException() {
+        when(bookRepository.existsById(20L)).thenReturn(false);
+
+        NotFoundException exception = assertThrows(NotFoundException.class,
+                () -> reviewService.getAllReviews(20L, null, 20));
+        assertEquals("Book is not found with id: " + 20L, exception.getMessage());
+        verify(reviewRepository, never()).findRowsByBookIdAfter(anyLong(), anyLong(), any());
+    }
+
     @Test
     void getReviewById_WhenExists_ReturnsReview() {
         when(bookRepository.existsById(1L)).thenReturn(true);
@@ -100,6 +140,10 @@ class ReviewServiceTest {
         verify(bookRepository).findById(1L);
         verify(userRepository).findById(1L);
         verify(reviewRepository).save(any(Review.class));
+        verify(bookRepository).adjustRating(1L, 4, 1);
+        verify(bookIndexService).reindex(List.of(1L));
+        verify(recommendationService).addReview(2L, 1L, 1L);
+        verify(cache).invalidate(Set.of(CacheTag.book(1L)));
     }
 
     @Test
@@ -114,6 +158,7 @@ class ReviewServiceTest {
         verify(bookRepository).findById(20L);
         verify(userRepository, never()).findById(anyLong());
         verify(reviewRepository, never()).save(any());
+        verify(bookRepository, never()).adjustRating(anyLong(), anyLong(), anyInt());
     }
 
     @Test
@@ -134,11 +179,12 @@ class ReviewServiceTest {
     @Test
     void updateReview_WithValidInput_UpdatesReview() {
         ReviewCreateDto reviewDto = new ReviewCreateDto(1L, 4, "Updated Comment");
+        Review review = new Review(1L, bookTest, userTest, 2, "Comment");
 
         when(bookRepository.existsById(1L)).thenReturn(true);
-        when(reviewRepository.findById(1L)).thenReturn(Optional.of(reviewTest));
+        when(reviewRepository.findByIdAndBookId(1L, 1L)).thenReturn(Optional.of(review));
         when(userRepository.findById(1L)).thenReturn(Optional.of(userTest));
-        when(reviewRepository.save(any(Review.class))).thenReturn(reviewTest);
+        when(reviewRepository.save(any(Review.class))).thenReturn(review);
 
         ReviewGetDto result = reviewService.updateReview(1L, 1L, reviewDto);
 
@@ -146,9 +192,47 @@ class ReviewServiceTest {
         assertEquals("Updated Comment", result.getComment());
         assertEquals(4, result.getRating());
         verify(bookRepository).existsById(1L);
-        verify(reviewRepository).findById(1L);
+        verify(reviewRepository).findByIdAndBookId(1L, 1L);
         verify(userRepository).findById(1L);
         verify(reviewRepository).save(any(Review.class));
+        verify(bookRepository).adjustRating(1L, 2L, 0);
+        verify(bookIndexService).reindex(List.of(1L));
+        verify(cache).invalidate(Set.of(CacheTag.book(1L)));
+        verifyNoInteractions(recommendationService);
+    }
+
+    @Test
+    void updateReview_WhenUserChanges_MovesReviewInRecommendations() {
+        ReviewCreateDto reviewDto = new ReviewCreateDto(2L, 2, "Comment");
+        User anotherUser = new User(2L, "Another User", "Password", "another@gmail.com",
+                new ArrayList<>());
+        Review review = new Review(1L, bookTest, userTest, 2, "Comment");
+
+        when(bookRepository.existsById(1L)).thenReturn(true);
+        when(reviewRepository.findByIdAndBookId(1L, 1L)).thenReturn(Optional.of(review));
+        when(userRepository.findById(2L)).thenReturn(Optional.of(anotherUser));
+        when(reviewRepository.save(any(Review.class))).thenReturn(review);
+
+        reviewService.updateReview(1L, 1L, reviewDto);
+
+        verify(recommendationService).removeReview(1L, 1L, 1L);
+        verify(recommendationService).addReview(1L, 2L, 1L);
+    }
+
+    @Test
+    void updateReview_WhenRatingUnchanged_SkipsAdjustment() {
+        ReviewCreateDto reviewDto = new ReviewCreateDto(1L, 2, "Updated Comment");
+        Review review = new Review(1L, bookTest, userTest, 2, "Comment");
+
+        when(bookRepository.existsById(1L)).thenReturn(true);
+        when(reviewRepository.findByIdAndBookId(1L, 1L)).thenReturn(Optional.of(review));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(userTest));
+        when(reviewRepository.save(any(Review.class))).thenReturn(review);
+
+        reviewService.updateReview(1L, 1L, reviewDto);
+
+        verify(bookRepository, never()).adjustRating(anyLong(), anyLong(), anyInt());
+        verify(bookIndexService, never()).reindex(any());
     }
 
     @Test
@@ -161,7 +245,7 @@ class ReviewServiceTest {
                 () -> reviewService.updateReview(1L, 20L, reviewDto));
         assertEquals("Book is not found with id: " + 20L, exception.getMessage());
         verify(bookRepository).existsById(20L);
-        verify(reviewRepository, never()).findById(anyLong());
+        verify(reviewRepository, never()).findByIdAndBookId(anyLong(), anyLong());
         verify(userRepository, never()).findById(anyLong());
     }
 
@@ -170,15 +254,16 @@ class ReviewServiceTest {
         ReviewCreateDto reviewDto = new ReviewCreateDto(20L, 4, "Updated Comment");
 
         when(bookRepository.existsById(1L)).thenReturn(true);
-        when(reviewRepository.findById(1L)).thenReturn(Optional.of(reviewTest));
+        when(reviewRepository.findByIdAndBookId(1L, 1L)).thenReturn(Optional.of(reviewTest));
         when(userRepository.findById(20L)).thenReturn(Optional.empty());
 
         NotFoundException exception = assertThrows(NotFoundException.class,
                 () -> reviewService.updateReview(1L, 1L, reviewDto));
         assertEquals("User is not found with id: " + 20L, exception.getMessage());
         verify(bookRepository).existsById(1L);
-        verify(reviewRepository).findById(1L);
+        verify(reviewRepository).findByIdAndBookId(1L, 1L);
         verify(userRepository).findById(20L);
+        verify(bookRepository, never()).adjustRating(anyLong(), anyLong(), anyInt());
     }
 
     @Test
@@ -186,26 +271,30 @@ class ReviewServiceTest {
         ReviewCreateDto reviewDto = new ReviewCreateDto(1L, 4, "Updated Comment");
 
         when(bookRepository.existsById(1L)).thenReturn(true);
-        when(reviewRepository.findById(20L)).thenReturn(Optional.empty());
+        when(reviewRepository.findByIdAndBookId(20L, 1L)).thenReturn(Optional.empty());
 
         NotFoundException exception = assertThrows(NotFoundException.class,
                 () -> reviewService.updateReview(20L, 1L, reviewDto));
         assertEquals("Review is not found with id: " + 20L, exception.getMessage());
         verify(bookRepository).existsById(1L);
-        verify(reviewRepository).findById(20L);
+        verify(reviewRepository).findByIdAndBookId(20L, 1L);
         verify(userRepository, never()).findById(anyLong());
     }
 
     @Test
     void deleteReview_WhenReviewExists_DeletesReview() {
         when(bookRepository.existsById(1L)).thenReturn(true);
-        when(reviewRepository.existsById(1L)).thenReturn(true);
+        when(reviewRepository.findByIdAndBookId(1L, 1L)).thenReturn(Optional.of(reviewTest));
 
         reviewService.deleteReview(1L, 1L);
 
         verify(bookRepository).existsById(1L);
-        verify(reviewRepository).existsById(1L);
-        verify(reviewRepository).deleteById(1L);
+        verify(reviewRepository).findByIdAndBookId(1L, 1L);
+        verify(reviewRepository).delete(reviewTest);
+        verify(bookRepository).adjustRating(1L, -2L, -1);
+        verify(bookIndexService).reindex(List.of(1L));
+        verify(recommendationService).removeReview(1L, 1L, 1L);
+        verify(cache).invalidate(Set.of(CacheTag.book(1L)));
     }
 
     @Test
@@ -216,19 +305,20 @@ class ReviewServiceTest {
                 () -> reviewService.deleteReview(1L, 20L));
         assertEquals("Book is not found with id: " + 20L, exception.getMessage());
         verify(bookRepository).existsById(20L);
-        verify(reviewRepository, never()).existsById(anyLong());
+        verify(reviewRepository, never()).findByIdAndBookId(anyLong(), anyLong());
     }
 
     @Test
     void deleteReview_WhenReviewNotFound_ThrowsException() {
         when(bookRepository.existsById(1L)).thenReturn(true);
-        when(reviewRepository.existsById(20L)).thenReturn(false);
+        when(reviewRepository.findByIdAndBookId(20L, 1L)).thenReturn(Optional.empty());
 
         NotFoundException exception = assertThrows(NotFoundException.class,
                 () -> reviewService.deleteReview(20L, 1L));
         assertEquals("Review is not found with id: " + 20L, exception.getMessage());
         verify(bookRepository).existsById(1L);
-        verify(reviewRepository).existsById(20L);
-        verify(reviewRepository, never()).deleteById(anyLong());
+        verify(reviewRepository).findByIdAndBookId(20L, 1L);
+        verify(reviewRepository, never()).delete(any());
+        verify(bookRepository, never()).adjustRating(anyLong(), anyLong(), anyInt());
     }
-}
\ No newline at end of file
+}
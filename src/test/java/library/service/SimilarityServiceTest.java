@@ -0,0 +1,114 @@
+package library.service;
+
+import java.util.List;
+import java.util.Set;
+import library.dto.projection.BookLinkRow;
+import library.exception.BadRequestException;
+import library.model.Author;
+import library.model.Book;
+import library.model.Category;
+import library.repository.BookRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SimilarityServiceTest {
+    @Mock
+    private BookRepository bookRepository;
+
+    @InjectMocks
+    private SimilarityService similarityService;
+
+    private static Book book(Long id, Long authorId, Long categoryId) {
+        Book book = new Book();
+        book.setId(id);
+        book.setAuthors(Set.of(new Author(authorId, "Author", "Info", null)));
+        book.setCategories(Set.of(new Category(categoryId, "Category", null)));
+        return book;
+    }
+
+    @Test
+    void rebuild_LoadsLinksAndRanksSimilarBooks() {
+        List<Long> ids = List.of(1L, 2L, 3L);
+        when(bookRepository.findIdsAfter(0L, Limit.of(SimilarityService.BATCH_SIZE)))
+                .thenReturn(ids);
+        when(bookRepository.findAuthorLinksByIds(ids)).thenReturn(List.of(
+                new BookLinkRow(1L, 10L), new BookLinkRow(2L, 10L), new BookLinkRow(3L, 11L)));
+        when(bookRepository.findCategoryLinksByIds(ids)).thenReturn(List.of(
+                new BookLinkRow(1L, 20L), new BookLinkRow(2L, 20L)));
+
+        int loaded = similarityService.rebuild();
+
+        assertEquals(3, loaded);
+        assertEquals(List.of(2L), similarityService.findSimilar(1L, 10));
+        assertTrue(similarityService.findSimilar(3L, 10).isEmpty());
+    }
+
+    @Test
+    void putBook_OutsideTransaction_IsFoundAtOnce() {
+        similarityService.putBook(book(1L, 10L, 20L));
+        similarityService.putBook(book(2L, 10L, 20L));
+
+        assertEquals(List.of(2L), similarityService.findSimilar(1L, 10));
+
+        similarityService.putBook(book(2L, 11L, 21L));
+
+        assertTrue(similarityService.findSimilar(1L, 10).isEmpty());
+
+        similarityService.removeBook(2L);
+
+        assertTrue(similarityService.findSimilar(2L, 10).isEmpty());
+    }
+
+    @Test
+    void rebuild_WhenBookChangesWhileLoading_KeepsLatestSignature() {
+        List<Long> ids = List.of(1L, 2L);
+        when(bookRepository.findIdsAfter(0L, Limit.of(SimilarityService.BATCH_SIZE)))
+                .thenReturn(ids);
+        when(bookRepository.findAuthorLinksByIds(ids)).thenAnswer(invocation -> {
+            similarityService.putBook(book(2L, 11L, 21L));
+            return List.of(new BookLinkRow(1L, 10L), new BookLinkRow(2L, 10L));
+        });
+        when(bookRepository.findCategoryLinksByIds(ids)).thenReturn(List.of(
+                new BookLinkRow(1L, 20L), new BookLinkRow(2L, 20L)));
+
+        similarityService.rebuild();
+
+        assertTrue(similarityService.findSimilar(1L, 10).isEmpty());
+    }
+
+    @Test
+    void rebuild_WhileAnotherRuns_IsSkipped() {
+        List<Long> ids = List.of(1L, 2L);
+        int[] nested = {-1};
+        when(bookRepository.findIdsAfter(0L, Limit.of(SimilarityService.BATCH_SIZE)))
+                .thenAnswer(invocation -> {
+                    nested[0] = similarityService.rebuild();
+                    return ids;
+                });
+        when(bookRepository.findAuthorLinksByIds(ids)).thenReturn(List.of(
+                new BookLinkRow(1L, 10L), new BookLinkRow(2L, 10L)));
+        when(bookRepository.findCategoryLinksByIds(ids)).thenReturn(List.of());
+
+        int loaded = similarityService.rebuild();
+
+        assertEquals(0, nested[0]);
+        assertEquals(2, loaded);
+        assertEquals(List.of(2L), similarityService.findSimilar(1L, 10));
+    }
+
+    @Test
+    void findSimilar_WithLimitOutOfRange_ThrowsException() {
+        assertThrows(BadRequestException.class, () -> similarityService.findSimilar(1L, 0));
+        assertThrows(BadRequestException.class, () -> similarityService.findSimilar(1L, 21));
+    }
+}
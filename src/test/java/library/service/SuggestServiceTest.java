@@ -0,0 +1,87 @@
+package library.service;
+
+import java.util.List;
+import java.util.Set;
+import library.dto.get.SuggestionGetDto;
+import library.dto.get.SuggestionsGetDto;
+import library.dto.projection.SuggestRow;
+import library.exception.BadRequestException;
+import library.model.Author;
+import library.model.Book;
+import library.repository.AuthorRepository;
+import library.repository.BookRepository;
+import library.search.SuggestTrie;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SuggestServiceTest {
+    @Mock
+    private BookRepository bookRepository;
+    @Mock
+    private AuthorRepository authorRepository;
+
+    @InjectMocks
+    private SuggestService suggestService;
+
+    private static List<Long> ids(List<SuggestionGetDto> suggestions) {
+        return suggestions.stream().map(SuggestionGetDto::getId).toList();
+    }
+
+    @Test
+    void rebuild_LoadsBooksAndAuthorsByScore() {
+        Limit limit = Limit.of(SuggestService.BATCH_SIZE);
+        when(bookRepository.findSuggestRowsAfter(0L, limit)).thenReturn(List.of(
+                new SuggestRow(1L, "Лев и собачка", 0.5),
+                new SuggestRow(2L, "Левша", 2.0)));
+        when(authorRepository.findSuggestRowsAfter(0L, limit)).thenReturn(List.of(
+                new SuggestRow(1L, "Лев Толстой", 90.0),
+                new SuggestRow(2L, "Николай Лесков", null)));
+
+        int loaded = suggestService.rebuild();
+        SuggestionsGetDto result = suggestService.suggest("лев", 10);
+
+        assertEquals(4, loaded);
+        assertEquals(List.of(2L, 1L), ids(result.getBooks()));
+        assertEquals(List.of(1L), ids(result.getAuthors()));
+        assertEquals("Лев Толстой", result.getAuthors().get(0).getName());
+    }
+
+    @Test
+    void putBook_OutsideTransaction_IsSuggestedAtOnce() {
+        Book book = new Book(5L, "Новая книга", null, null, 10, null, 2024, null, 0L, 0);
+
+        suggestService.putBook(book);
+
+        assertEquals(List.of(5L), ids(suggestService.suggest("нов", 10).getBooks()));
+
+        suggestService.removeBook(5L);
+
+        assertTrue(suggestService.suggest("нов", 10).getBooks().isEmpty());
+    }
+
+    @Test
+    void putAuthor_RanksByBookCount() {
+        suggestService.putAuthor(new Author(1L, "Иван Бунин", "Info", null));
+        suggestService.putAuthor(new Author(2L, "Иван Гончаров", "Info",
+                Set.of(new Book())));
+
+        assertEquals(List.of(2L, 1L), ids(suggestService.suggest("иван", 10).getAuthors()));
+    }
+
+    @Test
+    void suggest_WhenLimitOutOfRange_ThrowsBadRequestException() {
+        assertThrows(BadRequestException.class, () -> suggestService.suggest("лев", 0));
+        assertThrows(BadRequestException.class,
+                () -> suggestService.suggest("лев", SuggestTrie.TOP_K + 1));
+    }
+}
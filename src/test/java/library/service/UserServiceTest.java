@@ -2,9 +2,11 @@ package library.service;
 
 import java.util.List;
 import java.util.Optional;
-import java.util.Set;
+import library.dto.AuthorizationResponse;
 import library.dto.create.UserCreateDto;
+import library.dto.get.PageGetDto;
 import library.dto.get.UserGetDto;
+import library.exception.BadRequestException;
 import library.exception.NotFoundException;
 import library.model.Book;
 import library.model.Review;
@@ -15,9 +17,11 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.doNothing;
@@ -34,11 +38,11 @@ class UserServiceTest {
     private UserService userService;
 
     private final Book bookTest = new Book(1L, "Test Book",
-            null, null, 100, null, 1000, null, null);
+            null, null, 100, null, 1000, null, 0L, 0);
     private final Review reviewTest = new Review(1L, bookTest,
             null, 2, "Comment");
     private final User userTest = new User(1L, "Test User",
-            "Password", "email@gmail.com", List.of(reviewTest), Set.of(bookTest));
+            "Password", "email@gmail.com", List.of(reviewTest));
 
     @Test
     void getUserById_WhenUserExists_ShouldReturnUser() {
@@ -65,13 +69,14 @@ class UserServiceTest {
     void createUser_WithValidData_ShouldCreateUser() {
         UserCreateDto userDto = new UserCreateDto("New User", "da@gmail.com", "1111");
         User savedUser = new User(2L, userDto.getName(), userDto.getPassword(),
-                userDto.getEmail(), null, null);
+                userDto.getEmail(), null);
 
         when(userRepository.save(any(User.class))).thenReturn(savedUser);
 
-        UserGetDto result = userService.createUser(userDto);
+        AuthorizationResponse result = userService.createUser(userDto);
 
         assertNotNull(result);
+        assertEquals(2L, result.getUserId());
         assertEquals(userDto.getEmail(), result.getEmail());
         assertEquals(userDto.getName(), result.getName());
         verify(userRepository).save(any(User.class));
@@ -121,15 +126,37 @@ class UserServiceTest {
     @Test
     void getAllUsers_ReturnsList() {
         User anotherUserTest = new User(2L, "Another Test User", "Password",
-                "email@gmail.com", List.of(reviewTest), Set.of(bookTest));
+                "email@gmail.com", List.of(reviewTest));
 
-        when(userRepository.findAll()).thenReturn(List.of(userTest, anotherUserTest));
+        when(userRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(3)))
+                .thenReturn(List.of(userTest, anotherUserTest));
 
-        List<UserGetDto> result = userService.getAllUsers();
+        PageGetDto<UserGetDto> result = userService.getAllUsers(null, 2);
 
-        assertEquals(2, result.size());
-        assertEquals("Test User", result.get(0).getName());
-        assertEquals("Another Test User", result.get(1).getName());
-        verify(userRepository).findAll();
+        assertEquals(2, result.getItems().size());
+        assertEquals("Test User", result.getItems().get(0).getName());
+        assertEquals("Another Test User", result.getItems().get(1).getName());
+        assertNull(result.getNextCursor());
+    }
+
+    @Test
+    void getAllUsers_WhenMoreRemain_ReturnsNextCursor() {
+        User anotherUserTest = new User(2L, "Another Test User", "Password",
+                "email@gmail.com", List.of(reviewTest));
+
+        when(userRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(2)))
+                .thenReturn(List.of(userTest, anotherUserTest));
+
+        PageGetDto<UserGetDto> result = userService.getAllUsers(null, 1);
+
+        assertEquals(1, result.getItems().size());
+        assertEquals("Test User", result.getItems().get(0).getName());
+        assertEquals(1L, result.getNextCursor().longValue());
+    }
+
+    @Test
+    void getAllUsers_WhenLimitOutOfRange_ThrowsBadRequestException() {
+        assertThrows(BadRequestException.class, () -> userService.getAllUsers(null, 0));
+        assertThrows(BadRequestException.class, () -> userService.getAllUsers(5L, 101));
     }
 }